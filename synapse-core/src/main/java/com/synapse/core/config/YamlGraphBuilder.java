@@ -3,13 +3,17 @@ package com.synapse.core.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.synapse.core.graph.EdgeDefinition;
+import com.synapse.core.graph.FlowSchema;
 import com.synapse.core.graph.Graph;
 import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.graph.NodeLimit;
+import com.synapse.core.graph.ValueTransform;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +33,11 @@ import java.util.Map;
  *       - sourceKey: result
  *         targetScope: flow
  *         targetKey: processedResult
+ *       # 内联变换：分发前对输出值做投影 / 拼接等，sourceKey 为 * 时作用于完整输出
+ *       - sourceKey: "*"
+ *         transform: "template('{user.name}: {result}')"
+ *         targetScope: flow
+ *         targetKey: summary
  *
  * edges:
  *   # 简单边
@@ -42,6 +51,43 @@ import java.util.Map;
  *       continue: node2
  *       stop: __end__
  *       retry: node1
+ *
+ *   # 条件边：EXPR / SpEL / Groovy / 自定义策略（conditionType 为注册到 ConditionEvaluator 的策略名）
+ *   - source: router
+ *     conditionType: llm_router
+ *     condition: "选择合适的处理流程"
+ *     mappings:
+ *       refund: refund_flow
+ *       other: chat_flow
+ *
+ *   # 推测执行：按历史路由频率提前启动最可能的目标节点（目标需声明 pure: true）
+ *   - source: classifier
+ *     condition: flow.intent
+ *     speculative: true
+ *     mappings:
+ *       chat: chat_reply
+ *       refund: refund_flow
+ *
+ *   # 流式边：node2 与 node1 同时运行，逐块接收 node1 的流式输出
+ *   - source: node1
+ *     target: node2
+ *     streaming: true
+ *     bufferSize: 64
+ *
+ * # 按节点类型的限流与舱壁（可选）
+ * limits:
+ *   com.example.MyNode:
+ *     ratePerSecond: 5
+ *     maxConcurrency: 4
+ *
+ * # 按节点类型派发到工作池（可选，需在 EngineOptions 中配置 TaskTransport）；节点也可单独声明 worker: gpu
+ * workers:
+ *   com.example.EmbeddingNode: gpu
+ *
+ * # flow 键的类型声明（可选）：加载时校验映射与条件引用，long / double / boolean 值以非装箱形式存放
+ * schema:
+ *   processedResult: string
+ *   score: double
  * </pre>
  */
 public class YamlGraphBuilder {
@@ -104,6 +150,29 @@ public class YamlGraphBuilder {
             }
         }
 
+        // 解析按节点类型的限流/舱壁配置
+        Map<String, Map<String, Object>> limitsData = (Map<String, Map<String, Object>>) yamlData.get("limits");
+        if (limitsData != null) {
+            for (Map.Entry<String, Map<String, Object>> entry : limitsData.entrySet()) {
+                graph.setLimit(entry.getKey(), parseNodeLimit(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        // 解析按节点类型的工作池
+        Map<String, Object> workersData = (Map<String, Object>) yamlData.get("workers");
+        if (workersData != null) {
+            workersData.forEach((type, pool) -> graph.setWorker(type, String.valueOf(pool)));
+        }
+
+        // 解析 flow 类型声明，并校验图中对 flow 的引用
+        Map<String, Object> schemaData = (Map<String, Object>) yamlData.get("schema");
+        if (schemaData != null) {
+            FlowSchema schema = new FlowSchema();
+            schemaData.forEach((key, type) -> schema.declare(key, FlowSchema.FlowType.parse(String.valueOf(type))));
+            schema.validate(graph);
+            graph.setSchema(schema);
+        }
+
         log.info("已解析图 '{}'，包含 {} 个节点和 {} 条边",
                 graphName, graph.getNodes().size(), graph.getEdges().size());
 
@@ -129,14 +198,176 @@ public class YamlGraphBuilder {
                         outData.get("sourceKey"),
                         outData.get("targetScope"),
                         outData.get("targetKey"));
+                // 内联变换在加载时编译，语法错误在此处暴露
+                if (outData.get("transform") != null) {
+                    om.setTransform(ValueTransform.compile(outData.get("transform")));
+                }
                 outputMappings.add(om);
             }
             def.setOutputMappings(outputMappings);
         }
 
+        // 解析分叉失败策略 (failFast / collect)
+        String onBranchError = (String) nodeData.get("onBranchError");
+        if (onBranchError != null) {
+            try {
+                def.setForkPolicy(NodeDefinition.ForkPolicy.valueOf(
+                        onBranchError.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("节点 '" + def.getId() + "' 的 onBranchError 无效: " + onBranchError
+                        + "。可选值: failFast, collect", e);
+            }
+        }
+
+        // 解析内联执行提示
+        Object inline = nodeData.get("inline");
+        if (inline != null) {
+            def.setInline(Boolean.valueOf(inline.toString()));
+        }
+
+        // 解析人工介入中断：运行到达该节点前挂起
+        Object interrupt = nodeData.get("interrupt");
+        if (interrupt != null) {
+            def.setInterrupt(Boolean.parseBoolean(interrupt.toString()));
+        }
+
+        // 解析无副作用声明：pure 节点可被推测执行
+        Object pure = nodeData.get("pure");
+        if (pure != null) {
+            def.setPure(Boolean.parseBoolean(pure.toString()));
+        }
+
+        // 解析工作池：节点派发到远程工作进程执行
+        Object worker = nodeData.get("worker");
+        if (worker != null) {
+            def.setWorker(worker.toString());
+        }
+
+        // 解析对冲请求策略
+        Map<String, Object> hedgeData = (Map<String, Object>) nodeData.get("hedge");
+        if (hedgeData != null) {
+            def.setHedge(parseHedgeSpec(def.getId(), hedgeData));
+        }
+
+        // 解析内置 Map 节点
+        Map<String, Object> mapData = (Map<String, Object>) nodeData.get("map");
+        if (mapData != null) {
+            def.setMap(parseMapSpec(def.getId(), mapData));
+        }
+
         return def;
     }
 
+    /**
+     * 解析对冲请求策略。
+     * <p>
+     * 格式：
+     * 
+     * <pre>
+     * hedge:
+     *   delayMs: 200       # 固定延迟；省略时按 percentile 分位数
+     *   percentile: 95
+     *   maxHedgeRate: 0.1  # 对冲调用占全部调用的比例上限
+     * </pre>
+     */
+    private NodeDefinition.HedgeSpec parseHedgeSpec(String nodeId, Map<String, Object> hedgeData) {
+        NodeDefinition.HedgeSpec spec = new NodeDefinition.HedgeSpec();
+        if (hedgeData.get("delayMs") != null) {
+            spec.setDelayMs(((Number) hedgeData.get("delayMs")).longValue());
+        }
+        if (hedgeData.get("percentile") != null) {
+            spec.setPercentile(((Number) hedgeData.get("percentile")).doubleValue());
+        }
+        if (hedgeData.get("maxHedgeRate") != null) {
+            spec.setMaxHedgeRate(((Number) hedgeData.get("maxHedgeRate")).doubleValue());
+        }
+        if (spec.getDelayMs() < 0 || spec.getPercentile() <= 0 || spec.getPercentile() >= 100
+                || spec.getMaxHedgeRate() < 0 || spec.getMaxHedgeRate() > 1) {
+            throw new IllegalArgumentException("节点 '" + nodeId + "' 的 hedge 配置无效: " + spec
+                    + "。要求 delayMs >= 0，0 < percentile < 100，0 <= maxHedgeRate <= 1");
+        }
+        return spec;
+    }
+
+    /**
+     * 解析单个节点类型的限流配置（ratePerSecond / burst / maxConcurrency / maxQueued）。
+     */
+    private NodeLimit parseNodeLimit(String nodeType, Map<String, Object> limitData) {
+        NodeLimit limit = new NodeLimit();
+        if (limitData == null) {
+            return limit;
+        }
+        if (limitData.get("ratePerSecond") != null) {
+            limit.setRatePerSecond(((Number) limitData.get("ratePerSecond")).doubleValue());
+        }
+        if (limitData.get("burst") != null) {
+            limit.setBurst(((Number) limitData.get("burst")).intValue());
+        }
+        if (limitData.get("maxConcurrency") != null) {
+            limit.setMaxConcurrency(((Number) limitData.get("maxConcurrency")).intValue());
+        }
+        if (limitData.get("maxQueued") != null) {
+            limit.setMaxQueued(((Number) limitData.get("maxQueued")).intValue());
+        }
+        if (limit.getRatePerSecond() < 0 || limit.getMaxConcurrency() < 0 || limit.getMaxQueued() < 0) {
+            throw new IllegalArgumentException("节点类型 '" + nodeType + "' 的 limits 配置不能为负数: " + limit);
+        }
+        return limit;
+    }
+
+    /**
+     * 解析内置 Map 节点的扇出配置。
+     * <p>
+     * 格式：
+     * 
+     * <pre>
+     * - id: summarize_docs
+     *   map:
+     *     items: docs            # 集合所在的输入参数名（默认 items）
+     *     itemKey: doc           # 元素传给目标节点的参数名（默认 item）
+     *     node: SummarizeNode    # 目标节点类型；或使用 graph 定义内联子图
+     *     outputKey: summary     # 可选：只收集每个结果中的该键
+     *     resultKey: summaries   # 收集结果的输出键（默认 results）
+     *     maxConcurrency: 4
+     *   inputs:
+     *     docs: flow.documents
+     *     question: flow.question  # 其余输入作为共享输入传给每个元素
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private NodeDefinition.MapSpec parseMapSpec(String nodeId, Map<String, Object> mapData) {
+        NodeDefinition.MapSpec spec = new NodeDefinition.MapSpec();
+        if (mapData.get("items") != null) {
+            spec.setItemsInput((String) mapData.get("items"));
+        }
+        if (mapData.get("itemKey") != null) {
+            spec.setItemKey((String) mapData.get("itemKey"));
+        }
+        if (mapData.get("resultKey") != null) {
+            spec.setResultKey((String) mapData.get("resultKey"));
+        }
+        if (mapData.get("maxConcurrency") != null) {
+            spec.setMaxConcurrency(((Number) mapData.get("maxConcurrency")).intValue());
+        }
+        spec.setOutputKey((String) mapData.get("outputKey"));
+        spec.setNodeType((String) mapData.get("node"));
+
+        Map<String, Object> subgraphData = (Map<String, Object>) mapData.get("graph");
+        if (subgraphData != null) {
+            Map<String, Object> named = new HashMap<>(subgraphData);
+            named.putIfAbsent("name", nodeId + "_map");
+            spec.setSubgraph(buildFromMap(named));
+        }
+
+        if ((spec.getNodeType() == null) == (spec.getSubgraph() == null)) {
+            throw new IllegalArgumentException("Map 节点 '" + nodeId + "' 必须且只能指定 node 或 graph 之一");
+        }
+        if (spec.getMaxConcurrency() < 1) {
+            throw new IllegalArgumentException("Map 节点 '" + nodeId + "' 的 maxConcurrency 必须大于 0");
+        }
+        return spec;
+    }
+
     /**
      * 解析边定义，支持简单边和条件边。
      * <p>
@@ -165,23 +396,50 @@ public class YamlGraphBuilder {
         Map<String, String> mappings = (Map<String, String>) edgeData.get("mappings");
 
         if (condition != null && mappings != null && !mappings.isEmpty()) {
+            if (Boolean.TRUE.equals(edgeData.get("streaming"))) {
+                throw new IllegalArgumentException("条件边不支持 streaming: " + source + " -[" + condition + "]->");
+            }
             // 解析条件类型 (type 或 conditionType)
             String typeStr = (String) edgeData.getOrDefault("conditionType", edgeData.get("type"));
             EdgeDefinition.ConditionType conditionType = EdgeDefinition.ConditionType.KV; // 默认为 KV
+            String customStrategy = null;
             if (typeStr != null) {
                 try {
                     conditionType = EdgeDefinition.ConditionType.valueOf(typeStr.toUpperCase());
                 } catch (IllegalArgumentException e) {
-                    log.warn("未知的条件类型 '{}', 将使用默认值 KV", typeStr);
+                    // 非内置类型视为自定义策略，引擎构造时校验其已在 ConditionEvaluator 上注册
+                    conditionType = EdgeDefinition.ConditionType.CUSTOM;
+                    customStrategy = typeStr;
+                }
+                if (conditionType == EdgeDefinition.ConditionType.CUSTOM && customStrategy == null) {
+                    throw new IllegalArgumentException("条件类型 custom 需直接写自定义策略名称: " + source);
                 }
             }
 
             // 条件边
-            log.debug("解析到条件边 [{}]: {} -[{}]-> {}", conditionType, source, condition, mappings);
-            return new EdgeDefinition(source, conditionType, condition, mappings);
+            log.debug("解析到条件边 [{}]: {} -[{}]-> {}", typeStr != null ? typeStr : conditionType, source, condition,
+                    mappings);
+            EdgeDefinition edge = new EdgeDefinition(source, conditionType, condition, mappings);
+            edge.setConditionStrategy(customStrategy);
+            edge.setSpeculative(Boolean.TRUE.equals(edgeData.get("speculative")));
+            return edge;
         } else {
-            // 简单边
-            return new EdgeDefinition(source, target);
+            // 简单边（可选流式：目标节点与源节点同时运行，逐块接收源节点的流式输出）
+            if (Boolean.TRUE.equals(edgeData.get("speculative"))) {
+                throw new IllegalArgumentException("只有条件边支持 speculative: " + source + " -> " + target);
+            }
+            EdgeDefinition edge = new EdgeDefinition(source, target);
+            if (Boolean.TRUE.equals(edgeData.get("streaming"))) {
+                edge.setStreaming(true);
+                if (edgeData.get("bufferSize") != null) {
+                    int bufferSize = ((Number) edgeData.get("bufferSize")).intValue();
+                    if (bufferSize < 1) {
+                        throw new IllegalArgumentException("流式边 " + source + " ~> " + target + " 的 bufferSize 必须 >= 1");
+                    }
+                    edge.setBufferSize(bufferSize);
+                }
+            }
+            return edge;
         }
     }
 }
@@ -0,0 +1,147 @@
+package com.synapse.core.graph;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * DataflowPlan 是根据节点输入/输出映射推导出的数据依赖 DAG。
+ * <p>
+ * 依赖规则：
+ * <ul>
+ * <li>读取 flow.key 的节点依赖所有输出映射写入 flow.key 的节点。</li>
+ * <li>读取 nodes.X.key 的节点依赖节点 X。</li>
+ * <li>没有生产者的引用（初始 flow 变量、global 配置）不产生依赖。</li>
+ * </ul>
+ * 数据流模式下边（Edge）不参与调度，因此不支持条件边与流式边；存在环路时构建失败。
+ */
+public final class DataflowPlan {
+
+    private static final Logger log = LoggerFactory.getLogger(DataflowPlan.class);
+
+    private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+    private final Map<String, List<String>> dependents = new HashMap<>();
+    private final List<String> topologicalOrder;
+
+    private DataflowPlan(Graph graph) {
+        for (EdgeDefinition edge : graph.getEdges()) {
+            if (edge.isConditional()) {
+                throw new IllegalStateException("数据流模式不支持条件边: " + edge);
+            }
+            if (edge.isStreaming()) {
+                throw new IllegalStateException("数据流模式不支持流式边: " + edge);
+            }
+        }
+
+        // flow 键 -> 生产者节点
+        Map<String, Set<String>> flowProducers = new HashMap<>();
+        for (NodeDefinition node : graph.getNodes()) {
+            if (node.getOutputMappings() == null) {
+                continue;
+            }
+            for (NodeDefinition.OutputMapping mapping : node.getOutputMappings()) {
+                if ("flow".equalsIgnoreCase(mapping.getTargetScope())) {
+                    flowProducers.computeIfAbsent(mapping.getTargetKey(), k -> new LinkedHashSet<>()).add(node.getId());
+                }
+            }
+        }
+        flowProducers.forEach((key, producers) -> {
+            if (producers.size() > 1) {
+                log.warn("流程变量 '{}' 有多个生产者 {}，读取者将等待全部生产者完成。", key, producers);
+            }
+        });
+
+        for (NodeDefinition node : graph.getNodes()) {
+            Set<String> deps = new LinkedHashSet<>();
+            if (node.getInputMappings() != null) {
+                for (String expression : node.getInputMappings().values()) {
+                    ValueRef ref = ValueRef.parse(expression);
+                    if (ref == null) {
+                        continue;
+                    }
+                    if (ref.getScope() == ValueRef.Scope.FLOW) {
+                        deps.addAll(flowProducers.getOrDefault(ref.getKey(), Collections.emptySet()));
+                    } else if (ref.getScope() == ValueRef.Scope.NODES && graph.getNode(ref.getNodeId()) != null) {
+                        deps.add(ref.getNodeId());
+                    }
+                }
+            }
+            deps.remove(node.getId());
+            dependencies.put(node.getId(), Collections.unmodifiableSet(deps));
+        }
+
+        this.topologicalOrder = Collections.unmodifiableList(sort());
+    }
+
+    /**
+     * 为给定的图构建数据流执行计划。
+     *
+     * @param graph 已构建完成的图
+     * @return 执行计划
+     * @throws IllegalStateException 如果图包含条件边或数据依赖存在环路
+     */
+    public static DataflowPlan build(Graph graph) {
+        Objects.requireNonNull(graph, "图（Graph）不能为空");
+        return new DataflowPlan(graph);
+    }
+
+    /**
+     * Kahn 拓扑排序，同时检测环路。
+     */
+    private List<String> sort() {
+        Map<String, Integer> pending = new LinkedHashMap<>();
+        dependencies.forEach((nodeId, deps) -> {
+            pending.put(nodeId, deps.size());
+            for (String dep : deps) {
+                dependents.computeIfAbsent(dep, k -> new ArrayList<>()).add(nodeId);
+            }
+        });
+
+        Deque<String> ready = new ArrayDeque<>();
+        pending.forEach((nodeId, count) -> {
+            if (count == 0) {
+                ready.add(nodeId);
+            }
+        });
+
+        List<String> order = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            String nodeId = ready.poll();
+            order.add(nodeId);
+            for (String dependent : dependents.getOrDefault(nodeId, Collections.emptyList())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (order.size() < dependencies.size()) {
+            List<String> cyclic = new ArrayList<>(dependencies.keySet());
+            cyclic.removeAll(order);
+            throw new IllegalStateException("数据依赖存在环路，涉及节点: " + cyclic);
+        }
+        return order;
+    }
+
+    /**
+     * 获取节点直接依赖的节点 ID。
+     */
+    public Set<String> dependenciesOf(String nodeId) {
+        return dependencies.getOrDefault(nodeId, Collections.emptySet());
+    }
+
+    /**
+     * 获取直接依赖该节点的节点 ID（数据流模式下该节点完成后的"后续节点"）。
+     */
+    public List<String> dependentsOf(String nodeId) {
+        return Collections.unmodifiableList(dependents.getOrDefault(nodeId, Collections.emptyList()));
+    }
+
+    /**
+     * 获取拓扑序（依赖总是排在被依赖者之前）。
+     */
+    public List<String> getTopologicalOrder() {
+        return topologicalOrder;
+    }
+}
@@ -9,6 +9,7 @@ import java.util.Map;
  * <ul>
  * <li><b>简单边</b>：从源节点直接跳转到目标节点。</li>
  * <li><b>条件边</b>：根据条件表达式的结果，从映射表中选择目标节点。支持 KV, SPEL, GROOVY 三种表达式。</li>
+ * <li><b>流式边</b>：目标节点与源节点同时启动，通过有界缓冲区逐块接收源节点的流式输出。</li>
  * </ul>
  */
 public class EdgeDefinition {
@@ -19,12 +20,26 @@ public class EdgeDefinition {
     public enum ConditionType {
         KV, // 简单的键值对匹配 (Phase 2 默认)
         SPEL, // Spring Expression Language
-        GROOVY // Groovy Script
+        GROOVY, // Groovy Script
+        EXPR, // 内置轻量表达式，编译为 lambda 树（比较、逻辑、三元、空安全路径）
+        CUSTOM // 在 ConditionEvaluator 上注册的自定义策略，名称见 conditionStrategy
     }
 
+    public static final int DEFAULT_STREAM_BUFFER_SIZE = 64;
+
     private String sourceNodeId;
     private String targetNodeId;
 
+    /**
+     * 是否为流式边（仅限简单边）。目标节点应实现 StreamingInputNode。
+     */
+    private boolean streaming;
+
+    /**
+     * 流式边的缓冲区容量（数据块个数），缓冲区满时上游写入等待。
+     */
+    private int bufferSize = DEFAULT_STREAM_BUFFER_SIZE;
+
     // ========== 条件边字段 (Phase 2 & 2.1) ==========
 
     /**
@@ -32,12 +47,18 @@ public class EdgeDefinition {
      */
     private ConditionType conditionType = ConditionType.KV;
 
+    /**
+     * 自定义策略名称（仅 CUSTOM 类型），如 "jsonpath"、"cel"。
+     */
+    private String conditionStrategy;
+
     /**
      * 条件表达式。
      * <ul>
      * <li>KV: "flow.key"</li>
      * <li>SpEL: "#flow['count'] > 5"</li>
      * <li>Groovy: "flow.count > 5"</li>
+     * <li>EXPR: "flow.score > 60 ? 'pass' : 'reject'"</li>
      * </ul>
      */
     private String conditionExpression;
@@ -48,6 +69,12 @@ public class EdgeDefinition {
      */
     private Map<String, String> conditionMappings;
 
+    /**
+     * 是否推测执行（仅限条件边）：按历史路由频率预测最可能的目标节点，
+     * 若其声明为 pure，则在源节点运行期间提前启动，条件结果与预测一致时直接采用其结果。
+     */
+    private boolean speculative;
+
     public EdgeDefinition() {
     }
 
@@ -84,6 +111,13 @@ public class EdgeDefinition {
         return conditionExpression != null && !conditionExpression.isBlank() && conditionMappings != null;
     }
 
+    /**
+     * 判断是否为流式边。
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
     // ========== Getters and Setters ==========
 
     public String getSourceNodeId() {
@@ -102,6 +136,18 @@ public class EdgeDefinition {
         this.targetNodeId = targetNodeId;
     }
 
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
     public ConditionType getConditionType() {
         return conditionType;
     }
@@ -110,6 +156,14 @@ public class EdgeDefinition {
         this.conditionType = conditionType;
     }
 
+    public String getConditionStrategy() {
+        return conditionStrategy;
+    }
+
+    public void setConditionStrategy(String conditionStrategy) {
+        this.conditionStrategy = conditionStrategy;
+    }
+
     public String getConditionExpression() {
         return conditionExpression;
     }
@@ -126,12 +180,21 @@ public class EdgeDefinition {
         this.conditionMappings = conditionMappings;
     }
 
+    public boolean isSpeculative() {
+        return speculative;
+    }
+
+    public void setSpeculative(boolean speculative) {
+        this.speculative = speculative;
+    }
+
     @Override
     public String toString() {
         if (isConditional()) {
-            return "EdgeDefinition{" + sourceNodeId + " -[" + conditionType + ":" + conditionExpression + "]-> "
+            String type = conditionType == ConditionType.CUSTOM ? conditionStrategy : conditionType.name();
+            return "EdgeDefinition{" + sourceNodeId + " -[" + type + ":" + conditionExpression + "]-> "
                     + conditionMappings + '}';
         }
-        return "EdgeDefinition{" + sourceNodeId + " -> " + targetNodeId + '}';
+        return "EdgeDefinition{" + sourceNodeId + (streaming ? " ~> " : " -> ") + targetNodeId + '}';
     }
 }
@@ -0,0 +1,128 @@
+package com.synapse.core.graph;
+
+/**
+ * ExpressionScanner 是 EXPR 条件表达式与输出变换（{@link ValueTransform}）共用的词法扫描：
+ * 空白、引号字符串、数值、标识符与记号匹配。两者的语法分析器继承该类，字面量的写法因而一致。
+ */
+public abstract class ExpressionScanner {
+
+    protected final String source;
+    protected int pos;
+
+    protected ExpressionScanner(String source) {
+        this.source = source;
+    }
+
+    /**
+     * 语法错误，message 为不含表达式原文的说明。
+     */
+    protected abstract IllegalArgumentException error(String message);
+
+    /**
+     * 标识符中除 Java 标识符字符外是否允许该字符。
+     */
+    protected boolean isExtraIdentifierPart(char c) {
+        return false;
+    }
+
+    /**
+     * 引号字符串，当前位置为起始引号；支持 \n、\t 与反斜杠转义。
+     */
+    protected String parseString(char quote) {
+        pos++;
+        StringBuilder sb = new StringBuilder();
+        while (pos < source.length()) {
+            char c = source.charAt(pos++);
+            if (c == quote) {
+                return sb.toString();
+            }
+            if (c == '\\' && pos < source.length()) {
+                char escaped = source.charAt(pos++);
+                sb.append(escaped == 'n' ? '\n' : escaped == 't' ? '\t' : escaped);
+            } else {
+                sb.append(c);
+            }
+        }
+        throw error("字符串缺少结束引号");
+    }
+
+    /**
+     * 数值：可带负号的整数（Long）或小数（Double）。
+     */
+    protected Object parseNumber() {
+        int start = pos;
+        if (peek() == '-') {
+            pos++;
+        }
+        int digits = pos;
+        while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+            pos++;
+        }
+        if (pos == digits) {
+            throw error("此处需要数值");
+        }
+        boolean decimal = pos + 1 < source.length() && source.charAt(pos) == '.'
+                && Character.isDigit(source.charAt(pos + 1));
+        if (decimal) {
+            pos++;
+            while (pos < source.length() && Character.isDigit(source.charAt(pos))) {
+                pos++;
+            }
+            return Double.parseDouble(source.substring(start, pos));
+        }
+        try {
+            return Long.parseLong(source.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw error("无效的数值 '" + source.substring(start, pos) + "'");
+        }
+    }
+
+    protected String parseIdentifier() {
+        skipWhitespace();
+        if (pos >= source.length() || !Character.isJavaIdentifierStart(source.charAt(pos))) {
+            throw error(pos >= source.length() ? "表达式意外结束" : "此处需要标识符");
+        }
+        int start = pos;
+        while (pos < source.length() && (Character.isJavaIdentifierPart(source.charAt(pos))
+                || isExtraIdentifierPart(source.charAt(pos)))) {
+            pos++;
+        }
+        return source.substring(start, pos);
+    }
+
+    protected boolean match(String token) {
+        skipWhitespace();
+        if (source.startsWith(token, pos)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    protected void expect(String token) {
+        if (!match(token)) {
+            throw error("此处需要 '" + token + "'");
+        }
+    }
+
+    public void expectEnd() {
+        skipWhitespace();
+        if (pos < source.length()) {
+            throw error("多余的内容 '" + source.substring(pos) + "'");
+        }
+    }
+
+    protected void skipWhitespace() {
+        while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    protected char peek() {
+        return peekAt(0);
+    }
+
+    protected char peekAt(int offset) {
+        return pos + offset < source.length() ? source.charAt(pos + offset) : 0;
+    }
+}
@@ -0,0 +1,226 @@
+package com.synapse.core.graph;
+
+import com.synapse.core.runtime.ExpressionCompiler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * FlowSchema 声明流程作用域中各键的类型（YAML {@code schema:}）。
+ * <p>
+ * 声明了 schema 的图在加载时校验：输入映射、写入 flow 的输出映射与 KV / EXPR 条件引用的 flow 键都必须已声明，
+ * EXPR 条件中参与大小比较的 flow 键必须是数值类型；带 transform 的输出映射在结果类型可静态确定时
+ * （见 {@link ValueTransform#getResultType()}）须与目标键的声明类型相容，其余变换结果只在运行时写入时检查。运行时写入已声明的键会检查值的类型，
+ * long / double / boolean 键以非装箱形式存放在上下文的槽位中，数值条件直接比较原始值。
+ * <p>
+ * 未声明的键（例如调用方额外传入的初始输入）照常以 Object 存放，不做检查。
+ */
+public class FlowSchema {
+
+    /**
+     * flow 键的类型。
+     */
+    public enum FlowType {
+        STRING, LONG, DOUBLE, BOOLEAN, LIST, MAP, ANY;
+
+        /**
+         * 是否以非装箱形式存放。
+         */
+        public boolean isPrimitive() {
+            return this == LONG || this == DOUBLE || this == BOOLEAN;
+        }
+
+        public boolean isNumeric() {
+            return this == LONG || this == DOUBLE;
+        }
+
+        /**
+         * 解析 YAML 中的类型名（不区分大小写），int / integer 视为 long，number / float 视为 double，object 视为 any。
+         */
+        public static FlowType parse(String name) {
+            switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "string":
+                    return STRING;
+                case "long":
+                case "int":
+                case "integer":
+                    return LONG;
+                case "double":
+                case "float":
+                case "number":
+                    return DOUBLE;
+                case "boolean":
+                    return BOOLEAN;
+                case "list":
+                    return LIST;
+                case "map":
+                    return MAP;
+                case "any":
+                case "object":
+                    return ANY;
+                default:
+                    throw new IllegalArgumentException("未知的 flow 类型: " + name);
+            }
+        }
+    }
+
+    private final Map<String, FlowType> types = new LinkedHashMap<>();
+    private final Map<String, Integer> slots = new HashMap<>(); // 非装箱键 -> 槽位序号
+
+    public void declare(String key, FlowType type) {
+        Objects.requireNonNull(key, "flow 键不能为空");
+        Objects.requireNonNull(type, "flow 类型不能为空");
+        if (types.containsKey(key)) {
+            throw new IllegalArgumentException("schema 中重复声明了 flow 键: " + key);
+        }
+        types.put(key, type);
+        if (type.isPrimitive()) {
+            slots.put(key, slots.size());
+        }
+    }
+
+    /**
+     * 键的声明类型，未声明时返回 null。
+     */
+    public FlowType typeOf(String key) {
+        return types.get(key);
+    }
+
+    public Map<String, FlowType> getTypes() {
+        return Collections.unmodifiableMap(types);
+    }
+
+    /**
+     * 非装箱键的槽位序号，其他键返回 -1。
+     */
+    public int slotOf(String key) {
+        Integer slot = slots.get(key);
+        return slot != null ? slot : -1;
+    }
+
+    public int getSlotCount() {
+        return slots.size();
+    }
+
+    /**
+     * 检查写入已声明键的值，返回规范化后的值（long 键的整数统一为 Long，double 键的数值统一为 Double）。
+     *
+     * @throws IllegalArgumentException 值与声明类型不符
+     */
+    public Object check(String key, Object value) {
+        FlowType type = types.get(key);
+        if (type == null || type == FlowType.ANY || value == null) {
+            return value;
+        }
+        switch (type) {
+            case STRING:
+                if (value instanceof CharSequence) {
+                    return value.toString();
+                }
+                break;
+            case LONG:
+                if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                    return ((Number) value).longValue();
+                }
+                break;
+            case DOUBLE:
+                if (value instanceof Number) {
+                    return ((Number) value).doubleValue();
+                }
+                break;
+            case BOOLEAN:
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                break;
+            case LIST:
+                if (value instanceof List) {
+                    return value;
+                }
+                break;
+            case MAP:
+                if (value instanceof Map) {
+                    return value;
+                }
+                break;
+            default:
+                return value;
+        }
+        throw new IllegalArgumentException("flow." + key + " 声明为 " + type.name().toLowerCase(Locale.ROOT)
+                + "，实际写入 " + value.getClass().getSimpleName() + ": " + value);
+    }
+
+    /**
+     * 变换结果类型可静态确定时，检查其与目标键的声明类型相容。
+     */
+    private void checkTransform(NodeDefinition nodeDef, NodeDefinition.OutputMapping mapping) {
+        ValueTransform transform = mapping.getTransform();
+        FlowType produced = transform != null ? transform.getResultType() : null;
+        FlowType declared = types.get(mapping.getTargetKey());
+        if (produced == null || declared == FlowType.ANY || declared == produced
+                || (declared == FlowType.DOUBLE && produced == FlowType.LONG)) {
+            return;
+        }
+        throw new IllegalArgumentException("节点 " + nodeDef.getId() + " 的输出 " + mapping.getSourceKey()
+                + " 的 transform '" + transform + "' 产生 " + produced.name().toLowerCase(Locale.ROOT)
+                + "，与 flow." + mapping.getTargetKey() + " 声明的 " + declared.name().toLowerCase(Locale.ROOT) + " 不符");
+    }
+
+    /**
+     * 校验图中对 flow 的引用与 schema 一致。
+     *
+     * @throws IllegalArgumentException 引用了未声明的键，或对非数值键做大小比较
+     */
+    public void validate(Graph graph) {
+        for (NodeDefinition nodeDef : graph.getNodes()) {
+            if (nodeDef.getInputMappings() != null) {
+                nodeDef.getInputMappings().forEach((param, expression) -> {
+                    ValueRef ref = ValueRef.parse(expression);
+                    if (ref != null && ref.getScope() == ValueRef.Scope.FLOW) {
+                        requireDeclared(ref.getKey(), "节点 " + nodeDef.getId() + " 的输入 " + param);
+                    }
+                });
+            }
+            if (nodeDef.getOutputMappings() != null) {
+                for (NodeDefinition.OutputMapping mapping : nodeDef.getOutputMappings()) {
+                    if ("flow".equalsIgnoreCase(mapping.getTargetScope())) {
+                        requireDeclared(mapping.getTargetKey(), "节点 " + nodeDef.getId() + " 的输出 " + mapping.getSourceKey());
+                        checkTransform(nodeDef, mapping);
+                    }
+                }
+            }
+        }
+        for (EdgeDefinition edge : graph.getEdges()) {
+            if (!edge.isConditional()) {
+                continue;
+            }
+            EdgeDefinition.ConditionType type = edge.getConditionType();
+            String expression = edge.getConditionExpression();
+            if (type == EdgeDefinition.ConditionType.KV) {
+                ValueRef ref = ValueRef.parse(expression);
+                if (ref != null && ref.getScope() == ValueRef.Scope.FLOW) {
+                    requireDeclared(ref.getKey(), "条件边 " + edge);
+                }
+            } else if (type == EdgeDefinition.ConditionType.EXPR) {
+                // 按解析结果校验，字符串字面量中的文字、嵌套路径与拼接结果不会被误判
+                ExpressionCompiler.check(expression, this, "条件边 " + edge);
+            }
+        }
+    }
+
+    private void requireDeclared(String key, String where) {
+        if (!types.containsKey(key)) {
+            throw new IllegalArgumentException(where + " 引用了 schema 中未声明的 flow." + key);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FlowSchema" + types;
+    }
+}
@@ -15,6 +15,9 @@ public class Graph {
     private String name;
     private Map<String, NodeDefinition> nodes = new LinkedHashMap<>();
     private List<EdgeDefinition> edges = new ArrayList<>();
+    private Map<String, NodeLimit> limits = new LinkedHashMap<>(); // 节点类型 -> 限流/舱壁配置
+    private Map<String, String> workers = new LinkedHashMap<>(); // 节点类型 -> 执行该类型节点的工作池
+    private FlowSchema schema; // flow 键的类型声明，null 表示不做类型约束
 
     public Graph() {
     }
@@ -58,6 +61,40 @@ public class Graph {
         return Collections.unmodifiableList(edges);
     }
 
+    public void setLimit(String nodeType, NodeLimit limit) {
+        Objects.requireNonNull(nodeType, "节点类型不能为空");
+        Objects.requireNonNull(limit, "NodeLimit 不能为空");
+        limits.put(nodeType, limit);
+    }
+
+    /**
+     * 获取按节点类型声明的限流/舱壁配置。
+     */
+    public Map<String, NodeLimit> getLimits() {
+        return Collections.unmodifiableMap(limits);
+    }
+
+    public void setWorker(String nodeType, String pool) {
+        Objects.requireNonNull(nodeType, "节点类型不能为空");
+        Objects.requireNonNull(pool, "工作池名称不能为空");
+        workers.put(nodeType, pool);
+    }
+
+    /**
+     * 获取按节点类型声明的工作池（节点类型 -> 工作池名称）。
+     */
+    public Map<String, String> getWorkers() {
+        return Collections.unmodifiableMap(workers);
+    }
+
+    public FlowSchema getSchema() {
+        return schema;
+    }
+
+    public void setSchema(FlowSchema schema) {
+        this.schema = schema;
+    }
+
     /**
      * 查找入口节点 ID（从 START 连接的节点）。
      *
@@ -0,0 +1,197 @@
+package com.synapse.core.graph;
+
+import java.util.*;
+
+/**
+ * GraphLiveness 是对图（Graph）数据依赖的静态活跃性分析。
+ * <p>
+ * 它根据输入映射（nodes.X.key）与条件边表达式，计算每个节点输出的读取者集合，
+ * 并结合边的可达关系判断：在给定的执行前沿（frontier，已调度但尚未完成的节点）下，
+ * 某节点的输出是否仍可能被读取。不可能再被读取的输出即可提前释放。
+ * <p>
+ * 分析是保守的：
+ * <ul>
+ * <li>条件边的读取视为发生在源节点上（条件在源节点完成后立即评估）。</li>
+ * <li>SpEL/Groovy 等非 KV 条件可以访问任意节点输出，其源节点被视为所有输出的读取者。</li>
+ * <li>条件边的所有映射目标都视为可达。</li>
+ * </ul>
+ * 分析结果在图构建完成后计算一次，运行期只做位集运算。
+ * <p>
+ * 输出只可能在前沿中某个能到达其读取者的节点完成时失活，因此每个节点完成时需要复查的输出所属节点
+ * （{@link #releaseCandidates(String)}）也预先计算：推进前沿时只检查这些节点，而不是扫描全部输出。
+ */
+public final class GraphLiveness {
+
+    private final Map<String, Integer> index = new HashMap<>();
+    private final BitSet[] reach; // reach[i]：从节点 i 出发（含自身）可达的节点
+    private final Map<String, BitSet> readers = new HashMap<>(); // 输出所属节点 -> 读取者节点
+    private final BitSet universalReaders = new BitSet(); // 可能读取任意节点输出的节点
+    private final List<String> nodeIds;
+    private final List<List<String>> releaseCandidates; // [i]：节点 i 完成后可能失活的输出所属节点
+
+    private GraphLiveness(Graph graph) {
+        List<String> ids = new ArrayList<>();
+        for (NodeDefinition node : graph.getNodes()) {
+            index.put(node.getId(), ids.size());
+            ids.add(node.getId());
+        }
+
+        int n = ids.size();
+        List<Set<Integer>> successors = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            successors.add(new HashSet<>());
+        }
+
+        for (EdgeDefinition edge : graph.getEdges()) {
+            Integer source = index.get(edge.getSourceNodeId());
+            if (source == null) {
+                continue;
+            }
+            if (edge.isConditional()) {
+                for (String target : edge.getConditionMappings().values()) {
+                    addSuccessor(successors, source, target);
+                }
+                recordConditionReads(edge, source);
+            } else {
+                addSuccessor(successors, source, edge.getTargetNodeId());
+            }
+        }
+
+        for (NodeDefinition node : graph.getNodes()) {
+            Map<String, String> inputs = node.getInputMappings();
+            if (inputs == null) {
+                continue;
+            }
+            for (String expression : inputs.values()) {
+                ValueRef ref = ValueRef.parse(expression);
+                if (ref != null && ref.getScope() == ValueRef.Scope.NODES) {
+                    readers.computeIfAbsent(ref.getNodeId(), k -> new BitSet()).set(index.get(node.getId()));
+                }
+            }
+        }
+
+        reach = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            BitSet visited = new BitSet(n);
+            Deque<Integer> stack = new ArrayDeque<>();
+            stack.push(i);
+            while (!stack.isEmpty()) {
+                int current = stack.pop();
+                if (visited.get(current)) {
+                    continue;
+                }
+                visited.set(current);
+                for (Integer next : successors.get(current)) {
+                    if (!visited.get(next)) {
+                        stack.push(next);
+                    }
+                }
+            }
+            reach[i] = visited;
+        }
+
+        nodeIds = List.copyOf(ids);
+        releaseCandidates = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (reach[i].intersects(universalReaders)) {
+                releaseCandidates.add(nodeIds);
+                continue;
+            }
+            List<String> owners = new ArrayList<>();
+            for (int owner = 0; owner < n; owner++) {
+                BitSet ownerReaders = readers.get(ids.get(owner));
+                // 节点自身的输出在其完成时首次出现，没有读取者时即可释放
+                if (owner == i || (ownerReaders != null && reach[i].intersects(ownerReaders))) {
+                    owners.add(ids.get(owner));
+                }
+            }
+            releaseCandidates.add(List.copyOf(owners));
+        }
+    }
+
+    /**
+     * 分析给定的图。
+     *
+     * @param graph 已构建完成的图
+     * @return 活跃性分析结果
+     */
+    public static GraphLiveness analyze(Graph graph) {
+        Objects.requireNonNull(graph, "图（Graph）不能为空");
+        return new GraphLiveness(graph);
+    }
+
+    private void addSuccessor(List<Set<Integer>> successors, int source, String targetNodeId) {
+        Integer target = index.get(targetNodeId);
+        if (target != null) {
+            successors.get(source).add(target);
+        }
+    }
+
+    private void recordConditionReads(EdgeDefinition edge, int source) {
+        if (edge.getConditionType() != EdgeDefinition.ConditionType.KV) {
+            universalReaders.set(source);
+            return;
+        }
+        ValueRef ref = ValueRef.parse(edge.getConditionExpression());
+        if (ref != null && ref.getScope() == ValueRef.Scope.NODES) {
+            readers.computeIfAbsent(ref.getNodeId(), k -> new BitSet()).set(source);
+        }
+    }
+
+    /**
+     * 判断某节点的输出在给定执行前沿下是否仍可能被读取。
+     *
+     * @param ownerNodeId 输出所属节点 ID
+     * @param frontier    已调度但尚未完成的节点 ID
+     * @return 如果仍可能被读取则返回 true
+     */
+    public boolean isLive(String ownerNodeId, Collection<String> frontier) {
+        BitSet ownerReaders = readers.get(ownerNodeId);
+        for (String nodeId : frontier) {
+            Integer i = index.get(nodeId);
+            if (i == null) {
+                // 未知节点（例如动态注入），保守处理
+                return true;
+            }
+            if (reach[i].intersects(universalReaders)) {
+                return true;
+            }
+            if (ownerReaders != null && reach[i].intersects(ownerReaders)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 节点完成后可能不再存活的输出所属节点：该节点能到达其某个读取者的节点，以及该节点自身。
+     * 其他节点的输出在此次完成前后的存活性不变。
+     *
+     * @param completedNodeId 刚完成的节点 ID
+     * @return 需要复查的输出所属节点 ID，未知节点时返回全部节点
+     */
+    public List<String> releaseCandidates(String completedNodeId) {
+        Integer i = index.get(completedNodeId);
+        return i != null ? releaseCandidates.get(i) : nodeIds;
+    }
+
+    /**
+     * 获取读取某节点输出的节点 ID 集合（不含非 KV 条件的保守读取者）。
+     *
+     * @param ownerNodeId 输出所属节点 ID
+     * @return 读取者节点 ID 集合，从不返回 null
+     */
+    public Set<String> readersOf(String ownerNodeId) {
+        BitSet ownerReaders = readers.get(ownerNodeId);
+        if (ownerReaders == null) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (Map.Entry<String, Integer> entry : index.entrySet()) {
+            if (ownerReaders.get(entry.getValue())) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+}
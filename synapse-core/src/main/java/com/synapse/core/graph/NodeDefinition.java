@@ -9,10 +9,25 @@ import java.util.Map;
  */
 public class NodeDefinition {
 
+    /**
+     * 节点触发并行分叉后，某个分支失败时的处理策略。
+     */
+    public enum ForkPolicy {
+        FAIL_FAST, // 首个分支失败即取消其余分支及其在途节点，分叉立即失败
+        COLLECT // 收集失败分支的错误，其余分支继续执行，分叉正常汇合
+    }
+
     private String id;
     private String type; // Node 实现的类名或 Bean 名称
     private Map<String, String> inputMappings; // 键：节点输入参数名，值：表达式（例如 "flow.userId"）
     private List<OutputMapping> outputMappings; // 每个输出键分发到的位置
+    private MapSpec map; // 非空时为内置的 Map 节点（对集合逐元素扇出执行）
+    private ForkPolicy forkPolicy; // 分叉失败策略，null 表示使用引擎默认值
+    private Boolean inline; // 同步节点是否内联执行：true 强制内联，false 禁止，null 由引擎策略决定
+    private HedgeSpec hedge; // 非空时对 AsyncNode 启用对冲请求
+    private boolean interrupt; // true 时运行到达该节点前挂起，通过 SynapseEngine.resume 继续后才执行
+    private boolean pure; // 无副作用：输出只取决于输入，可被推测执行并在未采用时丢弃
+    private String worker; // 非空时派发到该工作池执行，覆盖 Graph 中按节点类型的声明
 
     public NodeDefinition() {
     }
@@ -57,6 +72,69 @@ public class NodeDefinition {
         this.outputMappings = outputMappings;
     }
 
+    public MapSpec getMap() {
+        return map;
+    }
+
+    public void setMap(MapSpec map) {
+        this.map = map;
+    }
+
+    public ForkPolicy getForkPolicy() {
+        return forkPolicy;
+    }
+
+    public void setForkPolicy(ForkPolicy forkPolicy) {
+        this.forkPolicy = forkPolicy;
+    }
+
+    public boolean isInterrupt() {
+        return interrupt;
+    }
+
+    public void setInterrupt(boolean interrupt) {
+        this.interrupt = interrupt;
+    }
+
+    public boolean isPure() {
+        return pure;
+    }
+
+    public void setPure(boolean pure) {
+        this.pure = pure;
+    }
+
+    public String getWorker() {
+        return worker;
+    }
+
+    public void setWorker(String worker) {
+        this.worker = worker;
+    }
+
+    public Boolean getInline() {
+        return inline;
+    }
+
+    public void setInline(Boolean inline) {
+        this.inline = inline;
+    }
+
+    public HedgeSpec getHedge() {
+        return hedge;
+    }
+
+    public void setHedge(HedgeSpec hedge) {
+        this.hedge = hedge;
+    }
+
+    /**
+     * 判断是否为内置的 Map 节点。
+     */
+    public boolean isMapNode() {
+        return map != null;
+    }
+
     @Override
     public String toString() {
         return "NodeDefinition{" +
@@ -64,6 +142,7 @@ public class NodeDefinition {
                 ", type='" + type + '\'' +
                 ", inputMappings=" + inputMappings +
                 ", outputMappings=" + outputMappings +
+                (map != null ? ", map=" + map : "") +
                 '}';
     }
 
@@ -71,9 +150,12 @@ public class NodeDefinition {
      * OutputMapping 定义了单个输出键应分发到的位置。
      */
     public static class OutputMapping {
+        public static final String WHOLE_OUTPUT = "*";
+
         private String sourceKey; // 节点输出 Map 中的键
         private String targetScope; // "global"、"flow" 或 "node"（默认）
         private String targetKey; // 目标作用域中的键名
+        private ValueTransform transform; // 非空时分发前对值执行的内联变换
 
         public OutputMapping() {
         }
@@ -108,12 +190,166 @@ public class NodeDefinition {
             this.targetKey = targetKey;
         }
 
+        public ValueTransform getTransform() {
+            return transform;
+        }
+
+        public void setTransform(ValueTransform transform) {
+            this.transform = transform;
+        }
+
+        /**
+         * sourceKey 为 "*" 时映射节点的完整输出 Map（通常配合 transform 组合多个输出）。
+         */
+        public boolean isWholeOutput() {
+            return WHOLE_OUTPUT.equals(sourceKey);
+        }
+
         @Override
         public String toString() {
             return "OutputMapping{" +
                     "sourceKey='" + sourceKey + '\'' +
                     ", targetScope='" + targetScope + '\'' +
                     ", targetKey='" + targetKey + '\'' +
+                    (transform != null ? ", transform='" + transform + '\'' : "") +
+                    '}';
+        }
+    }
+
+    /**
+     * MapSpec 定义了内置 Map 节点的扇出方式：
+     * 对输入中的集合逐元素运行目标节点（或子图），以有界并发执行，并按原顺序收集结果。
+     * <p>
+     * 每个元素的输出彼此隔离，不会写入共享的 ScopeContext；只有收集后的结果列表
+     * 作为 Map 节点的输出（键为 resultKey）经由输出映射分发。
+     */
+    public static class MapSpec {
+        public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+        private String itemsInput = "items"; // 集合所在的输入参数名
+        private String itemKey = "item"; // 每个元素传给目标节点时使用的参数名
+        private String nodeType; // 目标节点类型（与 subgraph 二选一）
+        private Graph subgraph; // 目标子图（元素与共享输入作为子图的 flow 变量）
+        private String outputKey; // 从每个元素的结果中取出的键，null 表示收集完整结果
+        private String resultKey = "results"; // 收集结果在 Map 节点输出中的键
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+        public MapSpec() {
+        }
+
+        public String getItemsInput() {
+            return itemsInput;
+        }
+
+        public void setItemsInput(String itemsInput) {
+            this.itemsInput = itemsInput;
+        }
+
+        public String getItemKey() {
+            return itemKey;
+        }
+
+        public void setItemKey(String itemKey) {
+            this.itemKey = itemKey;
+        }
+
+        public String getNodeType() {
+            return nodeType;
+        }
+
+        public void setNodeType(String nodeType) {
+            this.nodeType = nodeType;
+        }
+
+        public Graph getSubgraph() {
+            return subgraph;
+        }
+
+        public void setSubgraph(Graph subgraph) {
+            this.subgraph = subgraph;
+        }
+
+        public String getOutputKey() {
+            return outputKey;
+        }
+
+        public void setOutputKey(String outputKey) {
+            this.outputKey = outputKey;
+        }
+
+        public String getResultKey() {
+            return resultKey;
+        }
+
+        public void setResultKey(String resultKey) {
+            this.resultKey = resultKey;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        @Override
+        public String toString() {
+            return "MapSpec{" +
+                    "itemsInput='" + itemsInput + '\'' +
+                    ", itemKey='" + itemKey + '\'' +
+                    (subgraph != null ? ", subgraph=" + subgraph.getName() : ", nodeType='" + nodeType + '\'') +
+                    ", maxConcurrency=" + maxConcurrency +
+                    '}';
+        }
+    }
+
+    /**
+     * HedgeSpec 定义了对冲请求策略：主调用在延迟阈值内未完成时发起第二次调用，取先完成的结果并取消另一个。
+     * <p>
+     * 延迟阈值为固定的 delayMs，或（delayMs 为 0 时）取该节点已观测延迟的 percentile 分位数。
+     * 对冲次数受 maxHedgeRate（对冲调用占全部调用的比例上限）约束。仅适用于幂等的 AsyncNode。
+     */
+    public static class HedgeSpec {
+        public static final double DEFAULT_PERCENTILE = 95;
+        public static final double DEFAULT_MAX_HEDGE_RATE = 0.1;
+
+        private long delayMs; // 固定延迟阈值，0 表示按分位数
+        private double percentile = DEFAULT_PERCENTILE;
+        private double maxHedgeRate = DEFAULT_MAX_HEDGE_RATE;
+
+        public HedgeSpec() {
+        }
+
+        public long getDelayMs() {
+            return delayMs;
+        }
+
+        public void setDelayMs(long delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public double getMaxHedgeRate() {
+            return maxHedgeRate;
+        }
+
+        public void setMaxHedgeRate(double maxHedgeRate) {
+            this.maxHedgeRate = maxHedgeRate;
+        }
+
+        @Override
+        public String toString() {
+            return "HedgeSpec{" +
+                    (delayMs > 0 ? "delayMs=" + delayMs : "percentile=" + percentile) +
+                    ", maxHedgeRate=" + maxHedgeRate +
                     '}';
         }
     }
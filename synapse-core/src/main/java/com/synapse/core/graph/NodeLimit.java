@@ -0,0 +1,73 @@
+package com.synapse.core.graph;
+
+/**
+ * NodeLimit 描述某一节点类型在所有运行之间共享的限流与隔离配置。
+ * <p>
+ * YAML 示例：
+ * 
+ * <pre>
+ * limits:
+ *   OpenAiNode:
+ *     ratePerSecond: 5     # 令牌桶速率（每秒许可数），0 表示不限速
+ *     burst: 10            # 令牌桶容量，默认等于 max(1, ratePerSecond)
+ *     maxConcurrency: 4    # 舱壁：同时执行的最大实例数，0 表示不限
+ *     maxQueued: 200       # 等待许可的最大排队数，超出时拒绝
+ * </pre>
+ */
+public class NodeLimit {
+
+    public static final int DEFAULT_MAX_QUEUED = 1000;
+
+    private double ratePerSecond;
+    private int burst;
+    private int maxConcurrency;
+    private int maxQueued = DEFAULT_MAX_QUEUED;
+
+    public NodeLimit() {
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public void setRatePerSecond(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    /**
+     * 令牌桶容量；未配置时为 max(1, ratePerSecond)。
+     */
+    public int getBurst() {
+        return burst > 0 ? burst : (int) Math.max(1, Math.ceil(ratePerSecond));
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeLimit{" +
+                "ratePerSecond=" + ratePerSecond +
+                ", burst=" + getBurst() +
+                ", maxConcurrency=" + maxConcurrency +
+                ", maxQueued=" + maxQueued +
+                '}';
+    }
+}
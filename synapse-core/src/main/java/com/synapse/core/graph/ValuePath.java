@@ -0,0 +1,55 @@
+package com.synapse.core.graph;
+
+import java.lang.reflect.Array;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ValuePath 是条件表达式（EXPR）与输出变换（{@link ValueTransform}）共用的路径取值规则。
+ * <p>
+ * 在 Map 上按键取值；在 List 与数组上按整数下标取值（任意整数值的 Number，例如 1 或 1.0，非整数下标不匹配）。
+ * 目标或键为 null、类型不支持、越界时结果为 null，不抛出异常。
+ */
+public final class ValuePath {
+
+    private ValuePath() {
+    }
+
+    /**
+     * 取一段路径。
+     */
+    public static Object member(Object target, Object key) {
+        if (target == null || key == null) {
+            return null;
+        }
+        if (target instanceof Map) {
+            return ((Map<?, ?>) target).get(key);
+        }
+        if (key instanceof Number) {
+            double number = ((Number) key).doubleValue();
+            int index = (int) number;
+            if (index != number) {
+                return null;
+            }
+            if (target instanceof List) {
+                List<?> list = (List<?>) target;
+                return index >= 0 && index < list.size() ? list.get(index) : null;
+            }
+            if (target.getClass().isArray()) {
+                return index >= 0 && index < Array.getLength(target) ? Array.get(target, index) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 依次取多段路径，任一段缺失时结果为 null。
+     */
+    public static Object resolve(Object root, List<?> segments) {
+        Object current = root;
+        for (Object segment : segments) {
+            current = member(current, segment);
+        }
+        return current;
+    }
+}
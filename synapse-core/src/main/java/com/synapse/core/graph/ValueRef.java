@@ -0,0 +1,106 @@
+package com.synapse.core.graph;
+
+import java.util.Objects;
+
+/**
+ * ValueRef 是输入映射 / KV 条件中 "scope.key" 形式引用的解析结果。
+ * <p>
+ * 支持的格式：
+ * <ul>
+ * <li><b>global.key</b>：全局作用域中的键。</li>
+ * <li><b>flow.key</b>：流程作用域中的键。</li>
+ * <li><b>nodes.nodeId.key</b>：某个节点命名空间中的键。</li>
+ * </ul>
+ * 解析只在加载/编译期进行一次，运行期直接使用解析后的字段。
+ */
+public final class ValueRef {
+
+    /**
+     * 引用的作用域。
+     */
+    public enum Scope {
+        GLOBAL, FLOW, NODES
+    }
+
+    private final Scope scope;
+    private final String nodeId; // 仅 NODES 作用域有值
+    private final String key;
+
+    private ValueRef(Scope scope, String nodeId, String key) {
+        this.scope = scope;
+        this.nodeId = nodeId;
+        this.key = key;
+    }
+
+    /**
+     * 解析引用表达式。
+     *
+     * @param expression 引用表达式，例如 "flow.userId" 或 "nodes.parser.intent"
+     * @return 解析结果；格式无效或作用域未知时返回 null
+     */
+    public static ValueRef parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            return null;
+        }
+
+        String[] parts = expression.split("\\.", 3);
+        if (parts.length < 2) {
+            return null;
+        }
+
+        switch (parts[0]) {
+            case "global":
+                return new ValueRef(Scope.GLOBAL, null, parts[1]);
+            case "flow":
+                return new ValueRef(Scope.FLOW, null, parts[1]);
+            case "nodes":
+                if (parts.length < 3) {
+                    return null;
+                }
+                return new ValueRef(Scope.NODES, parts[1], parts[2]);
+            default:
+                return null;
+        }
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ValueRef)) {
+            return false;
+        }
+        ValueRef other = (ValueRef) o;
+        return scope == other.scope && Objects.equals(nodeId, other.nodeId) && Objects.equals(key, other.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scope, nodeId, key);
+    }
+
+    @Override
+    public String toString() {
+        switch (scope) {
+            case GLOBAL:
+                return "global." + key;
+            case FLOW:
+                return "flow." + key;
+            default:
+                return "nodes." + nodeId + "." + key;
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.synapse.core.graph;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.UnaryOperator;
+
+/**
+ * ValueTransform 是输出映射上声明的轻量数据变换（YAML 输出映射的 {@code transform:}），
+ * 在分发节点输出时内联执行，替代只负责搬运数据的胶水节点。
+ * <p>
+ * 变换由以 {@code |} 连接的步骤组成，从左到右依次作用于输出值，加载时编译一次：
+ * <ul>
+ * <li>路径投影：{@code .user.name}、{@code .items[0]}、{@code .['key with space']}；单独的 {@code .} 表示原值。</li>
+ * <li>{@code pick(a, b)}：只保留 Map 中的指定键；{@code rename(old: new, ...)}：重命名 Map 中的键。</li>
+ * <li>{@code pluck(name)}：取列表中每个 Map 元素的字段。</li>
+ * <li>{@code template('订单 {order.id}：{status}')}：以当前值为根填充占位符，{@code {.}} 为当前值本身，缺失的字段为空串。</li>
+ * <li>{@code join(', ')}、{@code split(',')}：列表与字符串互转（join 默认分隔符为逗号）。</li>
+ * <li>{@code upper}、{@code lower}、{@code trim}、{@code string}、{@code number}：字符串与数值转换。</li>
+ * <li>{@code size}、{@code first}、{@code last}：集合操作。</li>
+ * <li>{@code default('x')}：当前值为 null 时使用给定值。</li>
+ * </ul>
+ * 源输出缺失时变换同样执行，输入为 null：除 default 外，步骤遇到 null 时结果为 null（该输出被跳过）；
+ * 类型不适用时抛出 IllegalStateException，节点失败。路径取值与 EXPR 条件相同（{@link ValuePath}）。
+ * <p>
+ * 例如 {@code .results | pluck(title) | join('; ')}。
+ * <p>
+ * 最后一步决定结果类型时（例如 join / template 得到字符串、size 得到整数），{@link #getResultType()} 给出该类型，
+ * 供 {@link FlowSchema} 在加载时校验写入 flow 的变换结果；路径投影、first / last、default 与 number 的结果类型无法静态确定。
+ */
+public final class ValueTransform {
+
+    private final String source;
+    private final UnaryOperator<Object> pipeline;
+    private final FlowSchema.FlowType resultType; // 可为 null
+
+    private ValueTransform(String source, UnaryOperator<Object> pipeline, FlowSchema.FlowType resultType) {
+        this.source = source;
+        this.pipeline = pipeline;
+        this.resultType = resultType;
+    }
+
+    /**
+     * 编译变换表达式。
+     *
+     * @throws IllegalArgumentException 语法错误或未知的函数
+     */
+    @SuppressWarnings("unchecked")
+    public static ValueTransform compile(String source) {
+        Objects.requireNonNull(source, "transform 不能为空");
+        Parser parser = new Parser(source);
+        List<UnaryOperator<Object>> steps = new ArrayList<>();
+        do {
+            steps.add(parser.parseStep());
+        } while (parser.match("|"));
+        parser.expectEnd();
+
+        if (steps.size() == 1) {
+            return new ValueTransform(source, steps.get(0), parser.resultType);
+        }
+        UnaryOperator<Object>[] chain = steps.toArray(new UnaryOperator[0]);
+        return new ValueTransform(source, value -> {
+            Object current = value;
+            for (UnaryOperator<Object> step : chain) {
+                current = step.apply(current);
+            }
+            return current;
+        }, parser.resultType);
+    }
+
+    /**
+     * 对值执行变换。
+     */
+    public Object apply(Object value) {
+        return pipeline.apply(value);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 变换结果的类型（非 null 时），无法静态确定时返回 null。
+     */
+    public FlowSchema.FlowType getResultType() {
+        return resultType;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    // ================== 步骤实现 ==================
+
+    private static Map<?, ?> requireMap(String function, Object value) {
+        if (!(value instanceof Map)) {
+            throw mismatch(function, value);
+        }
+        return (Map<?, ?>) value;
+    }
+
+    private static List<Object> requireList(String function, Object value) {
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        if (value != null && value.getClass().isArray()) {
+            List<Object> items = new ArrayList<>();
+            for (int i = 0; i < Array.getLength(value); i++) {
+                items.add(Array.get(value, i));
+            }
+            return items;
+        }
+        throw mismatch(function, value);
+    }
+
+    private static IllegalStateException mismatch(String function, Object value) {
+        return new IllegalStateException("transform 函数 " + function + " 不能应用于 " + value.getClass().getSimpleName());
+    }
+
+    /**
+     * 对非 null 值执行操作，null 原样传递。
+     */
+    private static UnaryOperator<Object> nullSafe(UnaryOperator<Object> operator) {
+        return value -> value == null ? null : operator.apply(value);
+    }
+
+    private static Object number(Object value) {
+        if (value instanceof Number) {
+            return value;
+        }
+        String text = value.toString().trim();
+        try {
+            return text.contains(".") || text.contains("e") || text.contains("E")
+                    ? (Object) Double.parseDouble(text)
+                    : (Object) Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("transform 函数 number 无法解析数值: " + value);
+        }
+    }
+
+    private static Object size(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size();
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).size();
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        if (value.getClass().isArray()) {
+            return Array.getLength(value);
+        }
+        throw mismatch("size", value);
+    }
+
+    /**
+     * 预编译模板：文本片段与占位符路径交替。
+     */
+    private static UnaryOperator<Object> template(String template, Parser owner) {
+        List<Object> parts = new ArrayList<>(); // String 为文本，List 为占位符路径
+        int pos = 0;
+        while (pos < template.length()) {
+            int open = template.indexOf('{', pos);
+            if (open < 0) {
+                parts.add(template.substring(pos));
+                break;
+            }
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw owner.error("模板占位符缺少 '}'");
+            }
+            if (open > pos) {
+                parts.add(template.substring(pos, open));
+            }
+            String placeholder = template.substring(open + 1, close).trim();
+            Parser pathParser = new Parser(placeholder.startsWith(".") ? placeholder : "." + placeholder);
+            List<Object> segments = pathParser.parsePathSegments();
+            pathParser.expectEnd();
+            parts.add(segments);
+            pos = close + 1;
+        }
+        return value -> {
+            StringBuilder sb = new StringBuilder();
+            for (Object part : parts) {
+                if (part instanceof String) {
+                    sb.append((String) part);
+                } else {
+                    @SuppressWarnings("unchecked")
+                    Object resolved = ValuePath.resolve(value, (List<Object>) part);
+                    if (resolved != null) {
+                        sb.append(resolved);
+                    }
+                }
+            }
+            return sb.toString();
+        };
+    }
+
+    // ================== 语法分析 ==================
+
+    private static final class Parser extends ExpressionScanner {
+        FlowSchema.FlowType resultType; // 最近解析的步骤的结果类型
+
+        Parser(String source) {
+            super(source);
+        }
+
+        UnaryOperator<Object> parseStep() {
+            skipWhitespace();
+            resultType = null;
+            if (peek() == '.') {
+                List<Object> segments = parsePathSegments();
+                return segments.isEmpty() ? value -> value : value -> ValuePath.resolve(value, segments);
+            }
+            String name = parseIdentifier();
+            List<Object> args = new ArrayList<>();
+            if (match("(")) {
+                if (!match(")")) {
+                    do {
+                        args.add(parseArgument());
+                    } while (match(","));
+                    expect(")");
+                }
+            }
+            UnaryOperator<Object> step = function(name, args);
+            resultType = resultType(name);
+            return step;
+        }
+
+        private static FlowSchema.FlowType resultType(String function) {
+            switch (function.toLowerCase(Locale.ROOT)) {
+                case "template":
+                case "join":
+                case "upper":
+                case "lower":
+                case "trim":
+                case "string":
+                    return FlowSchema.FlowType.STRING;
+                case "size":
+                    return FlowSchema.FlowType.LONG;
+                case "pluck":
+                case "split":
+                    return FlowSchema.FlowType.LIST;
+                case "pick":
+                case "rename":
+                    return FlowSchema.FlowType.MAP;
+                default:
+                    return null;
+            }
+        }
+
+        private UnaryOperator<Object> function(String name, List<Object> args) {
+            switch (name.toLowerCase(Locale.ROOT)) {
+                case "pick": {
+                    List<String> keys = stringArgs(name, args, false);
+                    return nullSafe(value -> {
+                        Map<?, ?> map = requireMap(name, value);
+                        Map<Object, Object> picked = new LinkedHashMap<>();
+                        for (String key : keys) {
+                            if (map.containsKey(key)) {
+                                picked.put(key, map.get(key));
+                            }
+                        }
+                        return picked;
+                    });
+                }
+                case "rename": {
+                    if (args.isEmpty()) {
+                        throw error("rename 至少需要一个 old: new 参数");
+                    }
+                    Map<String, String> renames = new LinkedHashMap<>();
+                    for (Object arg : args) {
+                        if (!(arg instanceof String[])) {
+                            throw error("rename 的参数格式为 old: new");
+                        }
+                        String[] pair = (String[]) arg;
+                        renames.put(pair[0], pair[1]);
+                    }
+                    return nullSafe(value -> {
+                        Map<Object, Object> renamed = new LinkedHashMap<>();
+                        requireMap(name, value).forEach((key, item) -> renamed.put(
+                                key instanceof String ? renames.getOrDefault(key, (String) key) : key, item));
+                        return renamed;
+                    });
+                }
+                case "pluck": {
+                    String field = stringArgs(name, args, true).get(0);
+                    return nullSafe(value -> {
+                        List<Object> values = new ArrayList<>();
+                        for (Object item : requireList(name, value)) {
+                            values.add(ValuePath.member(item, field));
+                        }
+                        return values;
+                    });
+                }
+                case "template":
+                    return nullSafe(template(stringArgs(name, args, true).get(0), this));
+                case "join": {
+                    String separator = args.isEmpty() ? "," : stringArgs(name, args, true).get(0);
+                    return nullSafe(value -> {
+                        StringJoiner joiner = new StringJoiner(separator);
+                        requireList(name, value).forEach(item -> joiner.add(String.valueOf(item)));
+                        return joiner.toString();
+                    });
+                }
+                case "split": {
+                    String separator = stringArgs(name, args, true).get(0);
+                    return nullSafe(value -> {
+                        List<Object> parts = new ArrayList<>();
+                        String text = value.toString();
+                        int start = 0;
+                        int index;
+                        while (!separator.isEmpty() && (index = text.indexOf(separator, start)) >= 0) {
+                            parts.add(text.substring(start, index));
+                            start = index + separator.length();
+                        }
+                        parts.add(text.substring(start));
+                        return parts;
+                    });
+                }
+                case "upper":
+                    noArgs(name, args);
+                    return nullSafe(value -> value.toString().toUpperCase(Locale.ROOT));
+                case "lower":
+                    noArgs(name, args);
+                    return nullSafe(value -> value.toString().toLowerCase(Locale.ROOT));
+                case "trim":
+                    noArgs(name, args);
+                    return nullSafe(value -> value.toString().trim());
+                case "string":
+                    noArgs(name, args);
+                    return nullSafe(Object::toString);
+                case "number":
+                    noArgs(name, args);
+                    return nullSafe(ValueTransform::number);
+                case "size":
+                    noArgs(name, args);
+                    return nullSafe(ValueTransform::size);
+                case "first":
+                    noArgs(name, args);
+                    return nullSafe(value -> {
+                        List<Object> items = requireList(name, value);
+                        return items.isEmpty() ? null : items.get(0);
+                    });
+                case "last":
+                    noArgs(name, args);
+                    return nullSafe(value -> {
+                        List<Object> items = requireList(name, value);
+                        return items.isEmpty() ? null : items.get(items.size() - 1);
+                    });
+                case "default": {
+                    if (args.size() != 1 || args.get(0) instanceof String[]) {
+                        throw error("default 需要一个参数");
+                    }
+                    Object fallback = args.get(0);
+                    return value -> value != null ? value : fallback;
+                }
+                default:
+                    throw error("未知的 transform 函数 '" + name + "'");
+            }
+        }
+
+        /**
+         * 字符串参数；single 为 true 时要求恰好一个参数，否则至少一个。
+         */
+        private List<String> stringArgs(String function, List<Object> args, boolean single) {
+            if (args.isEmpty() || (single && args.size() != 1)) {
+                throw error(function + " 需要" + (single ? "一个" : "至少一个") + "参数");
+            }
+            List<String> values = new ArrayList<>();
+            for (Object arg : args) {
+                if (arg instanceof String[]) {
+                    throw error(function + " 的参数不能是 old: new 形式");
+                }
+                values.add(String.valueOf(arg));
+            }
+            return values;
+        }
+
+        private void noArgs(String function, List<Object> args) {
+            if (!args.isEmpty()) {
+                throw error(function + " 不接受参数");
+            }
+        }
+
+        /**
+         * 参数：引号字符串、数值、标识符，或 rename 使用的 old: new（解析为 String[2]）。
+         */
+        private Object parseArgument() {
+            skipWhitespace();
+            char c = peek();
+            Object value;
+            if (c == '\'' || c == '"') {
+                value = parseString(c);
+            } else if (Character.isDigit(c) || c == '-') {
+                value = parseNumber();
+            } else {
+                String word = parseIdentifier();
+                value = "true".equals(word) ? Boolean.TRUE
+                        : "false".equals(word) ? Boolean.FALSE
+                        : "null".equals(word) ? null
+                        : word;
+            }
+            if (match(":")) {
+                skipWhitespace();
+                char next = peek();
+                String target = next == '\'' || next == '"' ? parseString(next) : parseIdentifier();
+                return new String[] { String.valueOf(value), target };
+            }
+            return value;
+        }
+
+        /**
+         * 路径段：.name、.['key']、[index]；开头的单独 "." 表示原值。
+         */
+        List<Object> parsePathSegments() {
+            List<Object> segments = new ArrayList<>();
+            skipWhitespace();
+            while (pos < source.length()) {
+                char c = peek();
+                if (c == '.') {
+                    pos++;
+                    char next = peek();
+                    if (next == '[') {
+                        continue;
+                    }
+                    if (next != 0 && Character.isJavaIdentifierStart(next)) {
+                        segments.add(parseIdentifier());
+                    }
+                } else if (c == '[') {
+                    pos++;
+                    skipWhitespace();
+                    char next = peek();
+                    if (next == '\'' || next == '"') {
+                        segments.add(parseString(next));
+                    } else {
+                        Object index = parseNumber();
+                        if (!(index instanceof Long)) {
+                            throw error("下标必须是整数");
+                        }
+                        segments.add(index);
+                    }
+                    expect("]");
+                } else {
+                    break;
+                }
+            }
+            return segments;
+        }
+
+        @Override
+        protected boolean isExtraIdentifierPart(char c) {
+            return c == '-';
+        }
+
+        @Override
+        protected IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("transform 语法错误（位置 " + pos + "）: " + message + ": " + source);
+        }
+    }
+}
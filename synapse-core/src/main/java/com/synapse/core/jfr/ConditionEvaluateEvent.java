@@ -0,0 +1,36 @@
+package com.synapse.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 条件边评估的 JFR 事件；异步策略（模型路由等）的持续时间包括等待结果的时间。
+ */
+@Name("synapse.ConditionEvaluate")
+@Label("Synapse Condition Evaluate")
+@Category("Synapse")
+@Description("评估条件边并解析目标节点")
+public final class ConditionEvaluateEvent extends Event {
+
+    @Label("Graph")
+    public String graphName;
+
+    @Label("Run ID")
+    public String runId;
+
+    @Label("Source Node ID")
+    public String sourceNodeId;
+
+    @Label("Condition Type")
+    public String conditionType;
+
+    @Label("Expression")
+    public String expression;
+
+    @Label("Target Node ID")
+    @Description("未命中映射时为空")
+    public String targetNodeId;
+}
@@ -0,0 +1,32 @@
+package com.synapse.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * NodeRunner 将上下文映射为节点输入的 JFR 事件，嵌套在同一节点的 {@link NodeExecuteEvent} 之内。
+ */
+@Name("synapse.InputMap")
+@Label("Synapse Input Map")
+@Category("Synapse")
+@Description("从上下文解析节点输入")
+public final class InputMapEvent extends Event {
+
+    @Label("Graph")
+    public String graphName;
+
+    @Label("Run ID")
+    public String runId;
+
+    @Label("Node ID")
+    public String nodeId;
+
+    @Label("Node Type")
+    public String nodeType;
+
+    @Label("Input Count")
+    public int inputCount;
+}
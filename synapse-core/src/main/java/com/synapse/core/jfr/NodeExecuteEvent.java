@@ -0,0 +1,42 @@
+package com.synapse.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 节点一次激活（或一次推测执行）的 JFR 事件，持续时间包括限流与调度排队、节点执行与输出分发。
+ * <p>
+ * 异步节点在完成线程上提交，事件的线程为完成节点的线程。
+ */
+@Name("synapse.NodeExecute")
+@Label("Synapse Node Execute")
+@Category("Synapse")
+@Description("节点的一次激活")
+public final class NodeExecuteEvent extends Event {
+
+    @Label("Graph")
+    public String graphName;
+
+    @Label("Run ID")
+    public String runId;
+
+    @Label("Node ID")
+    public String nodeId;
+
+    @Label("Node Type")
+    public String nodeType;
+
+    @Label("Activation")
+    @Description("该节点在本次运行中的第几次激活（从 0 开始），推测执行为 -1")
+    public int activation;
+
+    @Label("Speculative")
+    @Description("是否为条件边目标的推测执行")
+    public boolean speculative;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,32 @@
+package com.synapse.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * NodeRunner 按输出映射（含内联变换与堆外存放）分发节点输出的 JFR 事件。
+ */
+@Name("synapse.OutputDispatch")
+@Label("Synapse Output Dispatch")
+@Category("Synapse")
+@Description("将节点输出分发到上下文")
+public final class OutputDispatchEvent extends Event {
+
+    @Label("Graph")
+    public String graphName;
+
+    @Label("Run ID")
+    public String runId;
+
+    @Label("Node ID")
+    public String nodeId;
+
+    @Label("Node Type")
+    public String nodeType;
+
+    @Label("Output Count")
+    public int outputCount;
+}
@@ -0,0 +1,27 @@
+package com.synapse.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 一次图运行（包括挂起后的恢复与回放，各自为一段）的 JFR 事件，持续时间为运行开始到结束。
+ */
+@Name("synapse.Run")
+@Label("Synapse Run")
+@Category("Synapse")
+@Description("图的一次运行")
+public final class RunEvent extends Event {
+
+    @Label("Graph")
+    public String graphName;
+
+    @Label("Run ID")
+    public String runId;
+
+    @Label("Status")
+    @Description("COMPLETED / FAILED / SUSPENDED")
+    public String status;
+}
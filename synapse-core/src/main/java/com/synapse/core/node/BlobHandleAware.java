@@ -0,0 +1,10 @@
+package com.synapse.core.node;
+
+/**
+ * BlobHandleAware 是一个标记接口，表示节点能够直接处理 {@link com.synapse.core.state.BlobHandle}。
+ * <p>
+ * 实现该接口的节点在输入映射时会直接收到句柄，可零拷贝读取堆外数据；
+ * 未实现该接口的节点收到的是物化后的 byte[] / String / float[]。
+ */
+public interface BlobHandleAware {
+}
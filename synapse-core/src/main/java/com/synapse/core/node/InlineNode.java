@@ -0,0 +1,10 @@
+package com.synapse.core.node;
+
+/**
+ * InlineNode 是一个标记接口，表示同步节点足够轻量，可以直接在完成上一节点的线程上执行。
+ * <p>
+ * 内联执行省去了线程切换与任务排队，适用于重命名字段、拼接参数等胶水逻辑；
+ * 执行耗时较长或会阻塞的节点不应实现该接口。对 AsyncNode / StreamingNode 无效。
+ */
+public interface InlineNode {
+}
@@ -0,0 +1,47 @@
+package com.synapse.core.node;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * StreamInput 是流式边的接收端，按顺序提供上游节点通过 {@link DataStreamer} 发送的数据块。
+ * <p>
+ * 在公共线程池上运行的节点应优先使用 {@link #nextAsync()}，等待数据时不占用线程。
+ */
+@FunctionalInterface
+public interface StreamInput {
+
+    /**
+     * 获取下一个数据块，没有可用数据时阻塞等待。
+     *
+     * @return 下一个数据块；上游正常结束且数据已读完时返回 null
+     * @throws InterruptedException                     如果等待期间线程被中断
+     * @throws java.util.concurrent.CompletionException 如果上游节点失败（原因为上游异常）
+     */
+    Object next() throws InterruptedException;
+
+    /**
+     * 以 Future 获取下一个数据块，没有可用数据时不阻塞线程。
+     * <p>
+     * 默认实现同步调用 {@link #next()}；引擎提供的流式边接收端不阻塞。
+     *
+     * @return 下一个数据块；上游正常结束且数据已读完时以 null 完成；上游失败时以 CompletionException 异常完成
+     */
+    default CompletableFuture<Object> nextAsync() {
+        try {
+            return CompletableFuture.completedFuture(next());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        } catch (CompletionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 不包含任何数据的流。
+     */
+    static StreamInput empty() {
+        return () -> null;
+    }
+}
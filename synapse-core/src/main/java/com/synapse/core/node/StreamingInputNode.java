@@ -0,0 +1,46 @@
+package com.synapse.core.node;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * StreamingInputNode 是能够增量消费上游流式输出的 AsyncNode。
+ * <p>
+ * 当它是流式边（streaming: true）的目标时，引擎会在上游节点启动的同时启动它，
+ * 上游通过 DataStreamer 发送的数据块经有界缓冲区逐块送达 {@link StreamInput}。
+ * 由于启动时上游尚未完成，输入映射中不应引用上游节点的最终输出。
+ * <p>
+ * 通过非流式边或直接调用 executeAsync 执行时，收到的是空流。
+ */
+public interface StreamingInputNode extends AsyncNode {
+
+    /**
+     * 执行节点逻辑，增量消费上游数据块。
+     *
+     * @param inputs 输入参数
+     * @param stream 上游数据块
+     * @return 最终的输出 Map (Future)
+     */
+    CompletableFuture<Map<String, Object>> executeStreaming(Map<String, Object> inputs, StreamInput stream);
+
+    /**
+     * 执行节点逻辑，增量消费上游数据块，同时向下游发送自己的流式输出（用于多级流水线）。
+     * <p>
+     * 默认实现忽略 streamer。
+     */
+    default CompletableFuture<Map<String, Object>> executeStreaming(Map<String, Object> inputs, StreamInput stream,
+            DataStreamer streamer) {
+        return executeStreaming(inputs, stream);
+    }
+
+    @Override
+    default CompletableFuture<Map<String, Object>> executeAsync(Map<String, Object> inputs) {
+        return executeStreaming(inputs, StreamInput.empty());
+    }
+
+    @Override
+    default Map<String, Object> execute(Map<String, Object> inputs) {
+        // 阻塞等待异步结果
+        return executeAsync(inputs).join();
+    }
+}
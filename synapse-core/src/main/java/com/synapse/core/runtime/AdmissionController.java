@@ -0,0 +1,276 @@
+package com.synapse.core.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AdmissionController 对引擎的运行进行准入控制与过载保护。
+ * <p>
+ * <ul>
+ * <li>同时执行的运行数不超过当前并发上限（limit）。</li>
+ * <li>超出上限的运行进入有界等待队列，等待期间不占用任何线程。</li>
+ * <li>队列已满或排队超时时立即以 {@link RejectedExecutionException} 拒绝，而不是让积压的请求一起超时。</li>
+ * <li>自适应模式下按 AIMD 调整上限：运行耗时明显高于基线（或超时）时乘性下调，否则每轮成功后加一。</li>
+ * </ul>
+ * 同一个实例可以在多个引擎之间共享，从而对它们的总并发进行限制。
+ */
+public class AdmissionController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionController.class);
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double BASELINE_DRIFT = 0.01; // 基线向较慢样本漂移的速度，适应负载特征的长期变化
+
+    private final boolean adaptive;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private long queueTimeoutMillis; // 0 表示不限排队时长
+    private double latencyTolerance = 2.0;
+
+    // 以下状态由 this 锁保护
+    private int limit;
+    private int inFlight;
+    private double baselineNanos;
+    private int successesSinceIncrease;
+
+    /**
+     * 创建固定上限的准入控制器。
+     *
+     * @param maxInFlight 最大同时执行的运行数
+     * @param maxQueued   最大排队数（0 表示不排队，超出上限立即拒绝）
+     */
+    public AdmissionController(int maxInFlight, int maxQueued) {
+        this(false, maxInFlight, maxInFlight, maxInFlight, maxQueued);
+    }
+
+    private AdmissionController(boolean adaptive, int initialLimit, int minLimit, int maxLimit, int maxQueued) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException(
+                    "并发上限无效: 需满足 1 <= min <= initial <= max，实际 min=" + minLimit + ", initial=" + initialLimit
+                            + ", max=" + maxLimit);
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("maxQueued 不能为负数: " + maxQueued);
+        }
+        this.adaptive = adaptive;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * 创建按 AIMD 自适应调整并发上限的准入控制器。
+     *
+     * @param initialLimit 初始并发上限
+     * @param minLimit     并发上限的下界
+     * @param maxLimit     并发上限的上界
+     * @param maxQueued    最大排队数
+     */
+    public static AdmissionController adaptive(int initialLimit, int minLimit, int maxLimit, int maxQueued) {
+        return new AdmissionController(true, initialLimit, minLimit, maxLimit, maxQueued);
+    }
+
+    /**
+     * 申请一次运行许可。
+     * <p>
+     * 有空闲名额时返回已完成的 Future；否则排队等待；队列已满时返回以
+     * RejectedExecutionException 失败的 Future。取消排队中的 Future 会将其移出队列。
+     */
+    public CompletableFuture<Permit> acquire() {
+        CompletableFuture<Permit> waiter;
+        synchronized (this) {
+            if (inFlight < limit && waiters.isEmpty()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new Permit());
+            }
+            if (waiters.size() >= maxQueued) {
+                rejected.incrementAndGet();
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "引擎过载，已拒绝运行: 执行中 " + inFlight + "/" + limit + "，排队 " + waiters.size() + "/"
+                                + maxQueued));
+            }
+            waiter = new CompletableFuture<>();
+            waiters.addLast(waiter);
+        }
+
+        waiter.whenComplete((permit, e) -> {
+            if (waiter.isCancelled()) {
+                synchronized (this) {
+                    waiters.remove(waiter);
+                }
+            }
+        });
+        if (queueTimeoutMillis > 0) {
+            CompletableFuture.delayedExecutor(queueTimeoutMillis, TimeUnit.MILLISECONDS).execute(() -> {
+                boolean removed;
+                synchronized (this) {
+                    removed = waiters.remove(waiter);
+                }
+                if (removed) {
+                    rejected.incrementAndGet();
+                    waiter.completeExceptionally(new RejectedExecutionException(
+                            "运行排队超过 " + queueTimeoutMillis + "ms，已拒绝"));
+                }
+            });
+        }
+        return waiter;
+    }
+
+    /**
+     * 归还许可并记录本次运行的耗时，随后唤醒排队中的运行。
+     *
+     * @param elapsedNanos 运行耗时，为负数时表示运行未启动，不参与并发上限的调整
+     */
+    private void release(long elapsedNanos, boolean timedOut) {
+        synchronized (this) {
+            inFlight--;
+            if (adaptive && elapsedNanos >= 0) {
+                adjustLimit(elapsedNanos, timedOut);
+            }
+        }
+        drain();
+    }
+
+    /**
+     * AIMD：耗时超过基线的 latencyTolerance 倍或运行超时视为拥塞信号。
+     */
+    private void adjustLimit(long elapsedNanos, boolean timedOut) {
+        if (baselineNanos == 0 || elapsedNanos < baselineNanos) {
+            baselineNanos = elapsedNanos;
+        } else {
+            baselineNanos += (elapsedNanos - baselineNanos) * BASELINE_DRIFT;
+        }
+
+        if (timedOut || elapsedNanos > baselineNanos * latencyTolerance) {
+            int reduced = Math.max(minLimit, (int) (limit * BACKOFF_RATIO));
+            if (reduced < limit) {
+                log.debug("检测到拥塞，并发上限 {} -> {}", limit, reduced);
+            }
+            limit = reduced;
+            successesSinceIncrease = 0;
+        } else if (++successesSinceIncrease >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+            successesSinceIncrease = 0;
+        }
+    }
+
+    /**
+     * 在名额允许的范围内按先来先服务唤醒排队者；回调在锁外执行。
+     */
+    private void drain() {
+        while (true) {
+            CompletableFuture<Permit> next;
+            synchronized (this) {
+                if (inFlight >= limit || waiters.isEmpty()) {
+                    return;
+                }
+                next = waiters.pollFirst();
+                inFlight++;
+            }
+            if (!next.complete(new Permit())) {
+                // 已被取消或超时：归还名额
+                synchronized (this) {
+                    inFlight--;
+                }
+            }
+        }
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getQueueTimeoutMillis() {
+        return queueTimeoutMillis;
+    }
+
+    public void setQueueTimeoutMillis(long queueTimeoutMillis) {
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double latencyTolerance) {
+        if (latencyTolerance <= 1.0) {
+            throw new IllegalArgumentException("latencyTolerance 必须大于 1: " + latencyTolerance);
+        }
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    /**
+     * 一次运行的准入许可，运行结束时必须且只能归还一次。
+     */
+    public final class Permit {
+        private final long admittedAt = System.nanoTime();
+        private boolean released;
+
+        private Permit() {
+        }
+
+        /**
+         * 归还许可；运行失败原因是超时时视为拥塞信号。
+         *
+         * @param failure 运行失败的原因（成功时为 null）
+         */
+        public void release(Throwable failure) {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            Throwable cause = failure;
+            while (cause != null && cause.getCause() != null && !(cause instanceof TimeoutException)) {
+                cause = cause.getCause();
+            }
+            AdmissionController.this.release(System.nanoTime() - admittedAt, cause instanceof TimeoutException);
+        }
+
+        /**
+         * 归还未被使用的许可（获得许可时运行已被取消），不作为耗时样本。
+         */
+        public void abandon() {
+            release(-1, false);
+        }
+
+        /**
+         * 以指定耗时归还许可（供测试与外部计时使用）。
+         */
+        void release(long elapsedNanos, boolean timedOut) {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            AdmissionController.this.release(elapsedNanos, timedOut);
+        }
+    }
+}
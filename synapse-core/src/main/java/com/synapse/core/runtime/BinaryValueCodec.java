@@ -0,0 +1,251 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.state.BlobHandle;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BinaryValueCodec 以紧凑的带类型标签二进制格式编码上下文中的值，供运行日志与工作进程协议使用。
+ * <p>
+ * 支持 null、String、Integer、Long、Float、Double、Boolean、byte[] / int[] / long[] / float[] / double[]、
+ * List、Set（解码为保持顺序的 LinkedHashSet）与 Map（解码为保持顺序的 LinkedHashMap）的任意嵌套。
+ * 其他类型默认拒绝编码（IllegalArgumentException），派发到工作进程的节点因此明确失败而不是收到错误的值；
+ * 运行日志以 opaqueFallback 写入，不支持的类型（包括堆外句柄）记录类名与 toString()，
+ * 解码为 {@link OpaqueValue} 而不是字符串，回放据此拒绝未被如实记录的值。
+ */
+public final class BinaryValueCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte TRUE = 6;
+    private static final byte FALSE = 7;
+    private static final byte BYTES = 8;
+    private static final byte LIST = 9;
+    private static final byte MAP = 10;
+    private static final byte OPAQUE = 11;
+    private static final byte INTS = 12;
+    private static final byte LONGS = 13;
+    private static final byte FLOATS = 14;
+    private static final byte DOUBLES = 15;
+    private static final byte SET = 16;
+
+    /**
+     * 单个字符串、数组或集合解码时允许的最大字节数（集合按每个元素至少 1 字节计）。
+     * 长度在分配内存之前校验，损坏或恶意的输入不会触发超大分配。
+     */
+    static final int MAX_LENGTH = 64 * 1024 * 1024;
+
+    private BinaryValueCodec() {
+    }
+
+    /**
+     * 写入一个值，不支持的类型抛出 IllegalArgumentException。
+     */
+    public static void write(DataOutput out, Object value) throws IOException {
+        write(out, value, false);
+    }
+
+    /**
+     * 写入一个值。
+     *
+     * @param opaqueFallback 为 true 时不支持的类型记录类名与 toString()，解码为 {@link OpaqueValue}（仅用于运行日志等诊断记录）
+     */
+    public static void write(DataOutput out, Object value, boolean opaqueFallback) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof float[]) {
+            float[] floats = (float[]) value;
+            out.writeByte(FLOATS);
+            out.writeInt(floats.length);
+            for (float f : floats) {
+                out.writeFloat(f);
+            }
+        } else if (value instanceof double[]) {
+            double[] doubles = (double[]) value;
+            out.writeByte(DOUBLES);
+            out.writeInt(doubles.length);
+            for (double d : doubles) {
+                out.writeDouble(d);
+            }
+        } else if (value instanceof int[]) {
+            int[] ints = (int[]) value;
+            out.writeByte(INTS);
+            out.writeInt(ints.length);
+            for (int i : ints) {
+                out.writeInt(i);
+            }
+        } else if (value instanceof long[]) {
+            long[] longs = (long[]) value;
+            out.writeByte(LONGS);
+            out.writeInt(longs.length);
+            for (long l : longs) {
+                out.writeLong(l);
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> items = (Collection<?>) value;
+            out.writeByte(value instanceof Set ? SET : LIST);
+            out.writeInt(items.size());
+            for (Object item : items) {
+                write(out, item, opaqueFallback);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(out, entry.getKey(), opaqueFallback);
+                write(out, entry.getValue(), opaqueFallback);
+            }
+        } else if (!opaqueFallback) {
+            throw new IllegalArgumentException("不支持编码的值类型: " + value.getClass().getName());
+        } else {
+            // 堆外句柄可能在日志写入前已被释放，不读取其内容
+            out.writeByte(OPAQUE);
+            writeString(out, value.getClass().getName());
+            writeString(out, value instanceof BlobHandle ? "<blob>" : value.toString());
+        }
+    }
+
+    /**
+     * 读取一个值。
+     */
+    public static Object read(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case OPAQUE:
+                return new OpaqueValue(readString(in), readString(in));
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BYTES: {
+                byte[] bytes = new byte[readLength(in, Byte.BYTES)];
+                in.readFully(bytes);
+                return bytes;
+            }
+            case FLOATS: {
+                float[] floats = new float[readLength(in, Float.BYTES)];
+                for (int i = 0; i < floats.length; i++) {
+                    floats[i] = in.readFloat();
+                }
+                return floats;
+            }
+            case DOUBLES: {
+                double[] doubles = new double[readLength(in, Double.BYTES)];
+                for (int i = 0; i < doubles.length; i++) {
+                    doubles[i] = in.readDouble();
+                }
+                return doubles;
+            }
+            case INTS: {
+                int[] ints = new int[readLength(in, Integer.BYTES)];
+                for (int i = 0; i < ints.length; i++) {
+                    ints[i] = in.readInt();
+                }
+                return ints;
+            }
+            case LONGS: {
+                long[] longs = new long[readLength(in, Long.BYTES)];
+                for (int i = 0; i < longs.length; i++) {
+                    longs[i] = in.readLong();
+                }
+                return longs;
+            }
+            case LIST: {
+                int size = readLength(in, 1);
+                // 元素逐个读入，容量随之增长，不按声明的长度预先分配
+                List<Object> items = new ArrayList<>(Math.min(size, 1024));
+                for (int i = 0; i < size; i++) {
+                    items.add(read(in));
+                }
+                return items;
+            }
+            case SET: {
+                int size = readLength(in, 1);
+                Set<Object> items = new LinkedHashSet<>(Math.min(size, 1024));
+                for (int i = 0; i < size; i++) {
+                    items.add(read(in));
+                }
+                return items;
+            }
+            case MAP: {
+                int size = readLength(in, 1);
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(read(in), read(in));
+                }
+                return map;
+            }
+            default:
+                throw new IOException("未知的值类型标签: " + tag);
+        }
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readLength(in, Byte.BYTES)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readLength(DataInput in, int elementBytes) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || (long) length * elementBytes > MAX_LENGTH) {
+            throw new IOException("非法的长度: " + length);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,85 @@
+package com.synapse.core.runtime;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * BranchScope 是并行分叉的结构化并发作用域。
+ * <p>
+ * 每次分叉都会创建一个子作用域，分支中运行的节点 Future 登记在其所在的作用域中。
+ * 取消一个作用域会取消其中所有在途节点以及全部子作用域，
+ * 之后这些分支中不会再启动新的节点。
+ */
+class BranchScope {
+
+    private final BranchScope parent;
+    private final List<BranchScope> children = new CopyOnWriteArrayList<>();
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    BranchScope(BranchScope parent) {
+        this.parent = parent;
+        if (parent != null) {
+            parent.children.add(this);
+        }
+    }
+
+    /**
+     * 创建根作用域（每次运行一个）。
+     */
+    static BranchScope root() {
+        return new BranchScope(null);
+    }
+
+    /**
+     * 为一次分叉创建子作用域。
+     */
+    BranchScope fork() {
+        BranchScope child = new BranchScope(this);
+        if (isCancelled()) {
+            child.cancel();
+        }
+        return child;
+    }
+
+    boolean isCancelled() {
+        return cancelled || (parent != null && parent.isCancelled());
+    }
+
+    /**
+     * 登记在途节点，节点完成后自动注销。
+     */
+    <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        inFlight.add(future);
+        future.whenComplete((r, e) -> inFlight.remove(future));
+        if (isCancelled()) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    /**
+     * 取消作用域内的所有在途节点与子作用域。
+     */
+    void cancel() {
+        cancelled = true;
+        for (CompletableFuture<?> future : inFlight) {
+            future.cancel(true);
+        }
+        for (BranchScope child : children) {
+            child.cancel();
+        }
+    }
+
+    /**
+     * 分叉汇合后脱离父作用域，避免长时间运行的循环累积子作用域。
+     */
+    void detach() {
+        if (parent != null) {
+            parent.children.remove(this);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.graph.EdgeDefinition;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.graph.ValueRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BranchSpeculator 为推测执行的条件边（speculative: true）预测最可能的目标节点。
+ * <p>
+ * <ul>
+ * <li>按源节点统计各目标节点被路由到的次数；样本数达到 {@value #MIN_SAMPLES} 且最常见目标的频率
+ * 不低于置信度阈值时才给出预测。</li>
+ * <li>只预测可安全提前启动的目标：声明为 pure、不是中断 / Map 节点、不在流式边两端，
+ * 且输入映射不读取源节点写入的任何值（否则提前读取到的输入必然过期）。</li>
+ * <li>浪费预算：被丢弃的推测执行次数不超过引擎已启动节点数的 wasteBudget 倍，超出后暂停推测。</li>
+ * </ul>
+ * 每个引擎一个实例，在该引擎的所有运行间共享。
+ */
+public class BranchSpeculator {
+
+    private static final Logger log = LoggerFactory.getLogger(BranchSpeculator.class);
+
+    static final int MIN_SAMPLES = 10; // 开始预测所需的最少路由样本
+
+    private final double confidence;
+    private final double wasteBudget;
+    private final Map<String, Set<String>> candidates = new HashMap<>(); // 源节点 -> 可推测的目标节点
+    private final Map<String, Set<String>> routes = new HashMap<>(); // 源节点 -> 推测边的全部目标节点
+
+    // 路由统计，按源节点加锁
+    private final Map<String, Map<String, Long>> counts = new HashMap<>();
+
+    private final AtomicLong launched = new AtomicLong();
+    private final AtomicLong speculated = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong wasted = new AtomicLong();
+
+    BranchSpeculator(Graph graph, double confidence, double wasteBudget) {
+        if (!(confidence > 0 && confidence <= 1)) {
+            throw new IllegalArgumentException("推测执行置信度必须在 (0, 1] 之间: " + confidence);
+        }
+        if (!(wasteBudget >= 0)) {
+            throw new IllegalArgumentException("推测执行浪费预算不能为负数: " + wasteBudget);
+        }
+        this.confidence = confidence;
+        this.wasteBudget = wasteBudget;
+
+        Set<String> streamEnds = new HashSet<>();
+        for (EdgeDefinition edge : graph.getEdges()) {
+            if (edge.isStreaming()) {
+                streamEnds.add(edge.getSourceNodeId());
+                streamEnds.add(edge.getTargetNodeId());
+            }
+        }
+        for (EdgeDefinition edge : graph.getEdges()) {
+            if (!edge.isConditional() || !edge.isSpeculative()) {
+                continue;
+            }
+            String sourceId = edge.getSourceNodeId();
+            Set<String> writes = writtenRefs(graph.getNode(sourceId));
+            for (String targetId : edge.getConditionMappings().values()) {
+                routes.computeIfAbsent(sourceId, id -> new LinkedHashSet<>()).add(targetId);
+                NodeDefinition target = graph.getNode(targetId);
+                if (target == null) {
+                    continue;
+                }
+                String reason = !target.isPure() ? "未声明 pure"
+                        : target.isInterrupt() || target.isMapNode() ? "中断 / Map 节点"
+                        : streamEnds.contains(targetId) ? "位于流式边两端"
+                        : readsAny(target, sourceId, writes) ? "读取源节点 " + sourceId + " 的输出"
+                        : null;
+                if (reason != null) {
+                    log.debug("节点 {} 不可推测执行: {}", targetId, reason);
+                    continue;
+                }
+                candidates.computeIfAbsent(sourceId, id -> new LinkedHashSet<>()).add(targetId);
+                counts.putIfAbsent(sourceId, new HashMap<>());
+            }
+        }
+    }
+
+    boolean isEnabled() {
+        return !candidates.isEmpty();
+    }
+
+    /**
+     * 预测源节点之后最可能执行、且可提前启动的目标节点；不满足置信度或超出浪费预算时返回 null。
+     */
+    String predict(String sourceId) {
+        Set<String> eligible = candidates.get(sourceId);
+        if (eligible == null) {
+            return null;
+        }
+        if (wasted.get() > wasteBudget * launched.get()) {
+            log.trace("推测执行浪费超出预算，跳过节点 {} 的推测", sourceId);
+            return null;
+        }
+        Map<String, Long> sourceCounts = counts.get(sourceId);
+        synchronized (sourceCounts) {
+            long total = sourceCounts.values().stream().mapToLong(Long::longValue).sum();
+            if (total < MIN_SAMPLES) {
+                return null;
+            }
+            String best = null;
+            long bestCount = 0;
+            for (Map.Entry<String, Long> entry : sourceCounts.entrySet()) {
+                if (entry.getValue() > bestCount) {
+                    best = entry.getKey();
+                    bestCount = entry.getValue();
+                }
+            }
+            return best != null && eligible.contains(best) && bestCount >= confidence * total ? best : null;
+        }
+    }
+
+    /**
+     * 记录源节点的实际路由结果（仅统计推测边的目标，未命中任何目标计为其他）。
+     */
+    void observe(String sourceId, List<String> nextNodeIds) {
+        Map<String, Long> sourceCounts = counts.get(sourceId);
+        if (sourceCounts == null) {
+            return;
+        }
+        Set<String> targets = routes.get(sourceId);
+        String taken = null;
+        for (String next : nextNodeIds) {
+            if (targets.contains(next)) {
+                taken = next;
+                break;
+            }
+        }
+        synchronized (sourceCounts) {
+            sourceCounts.merge(taken != null ? taken : Graph.END, 1L, Long::sum);
+        }
+    }
+
+    void launched() {
+        launched.incrementAndGet();
+    }
+
+    void speculated() {
+        speculated.incrementAndGet();
+    }
+
+    void committed() {
+        committed.incrementAndGet();
+    }
+
+    void wasted() {
+        wasted.incrementAndGet();
+    }
+
+    /**
+     * 已启动的推测执行次数。
+     */
+    public long getSpeculated() {
+        return speculated.get();
+    }
+
+    /**
+     * 结果被采用的推测执行次数。
+     */
+    public long getCommitted() {
+        return committed.get();
+    }
+
+    /**
+     * 被取消或丢弃的推测执行次数（预测错误、输入已变化或推测执行失败）。
+     */
+    public long getWasted() {
+        return wasted.get();
+    }
+
+    private static Set<String> writtenRefs(NodeDefinition source) {
+        Set<String> writes = new HashSet<>();
+        if (source == null || source.getOutputMappings() == null) {
+            return writes;
+        }
+        for (NodeDefinition.OutputMapping mapping : source.getOutputMappings()) {
+            if ("flow".equalsIgnoreCase(mapping.getTargetScope())) {
+                writes.add("flow." + mapping.getTargetKey());
+            }
+        }
+        return writes;
+    }
+
+    private static boolean readsAny(NodeDefinition target, String sourceId, Set<String> writes) {
+        if (target.getInputMappings() == null) {
+            return false;
+        }
+        for (String expression : target.getInputMappings().values()) {
+            ValueRef ref = ValueRef.parse(expression);
+            if (ref == null) {
+                continue;
+            }
+            if (writes.contains(ref.toString())
+                    || (ref.getScope() == ValueRef.Scope.NODES && sourceId.equals(ref.getNodeId()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一次在途的推测执行：启动时解析的输入与节点结果。
+     */
+    static final class Speculation {
+        final Map<String, Object> inputs;
+        final CompletableFuture<Map<String, Object>> future;
+
+        Speculation(Map<String, Object> inputs, CompletableFuture<Map<String, Object>> future) {
+            this.inputs = inputs;
+            this.future = future;
+        }
+    }
+}
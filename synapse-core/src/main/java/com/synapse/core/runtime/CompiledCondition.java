@@ -0,0 +1,58 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.state.ScopeContext;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * CompiledCondition 是 {@link ConditionStrategy#prepare(String)} 编译后的条件，可在多次运行间复用。
+ * <p>
+ * 同步条件只需实现 {@link #evaluate(ScopeContext)}；需要调用模型或远程分类器的路由条件
+ * 通过 {@link #async(Function)} 创建，引擎在等待期间不占用线程。
+ * 实现必须是线程安全的：同一实例会被并发运行同时使用。
+ */
+@FunctionalInterface
+public interface CompiledCondition {
+
+    /**
+     * 同步评估条件。
+     *
+     * @return 评估结果（toString 后用于匹配映射），null 表示未命中
+     */
+    Object evaluate(ScopeContext context);
+
+    /**
+     * 异步评估条件，默认在调用线程上同步评估并返回已完成的 Future。
+     */
+    default CompletableFuture<Object> evaluateAsync(ScopeContext context) {
+        try {
+            return CompletableFuture.completedFuture(evaluate(context));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 创建异步条件；同步评估时阻塞等待结果。
+     */
+    static CompiledCondition async(Function<ScopeContext, CompletableFuture<Object>> evaluator) {
+        Objects.requireNonNull(evaluator, "异步条件不能为空");
+        return new CompiledCondition() {
+            @Override
+            public Object evaluate(ScopeContext context) {
+                return evaluator.apply(context).join();
+            }
+
+            @Override
+            public CompletableFuture<Object> evaluateAsync(ScopeContext context) {
+                try {
+                    return evaluator.apply(context);
+                } catch (RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        };
+    }
+}
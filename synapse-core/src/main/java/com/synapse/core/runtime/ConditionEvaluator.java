@@ -1,35 +1,180 @@
 package com.synapse.core.runtime;
 
 import com.synapse.core.graph.EdgeDefinition;
+import com.synapse.core.jfr.ConditionEvaluateEvent;
 import com.synapse.core.state.ScopeContext;
-import groovy.lang.Binding;
-import groovy.lang.GroovyShell;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ConditionEvaluator 负责评估条件表达式并确定下一个目标节点。
  * <p>
- * 支持 KV (默认), SpEL, Groovy 三种策略。
+ * 内置 KV (默认) 与 EXPR 两种策略；SpEL、Groovy 等策略由可选模块通过 {@link ConditionStrategyProvider}
+ * 提供，仅在首次用到该条件类型时经 ServiceLoader 加载。也可通过 {@link #registerStrategy(String, ConditionStrategy)}
+ * 直接注册自定义策略。表达式按（策略, 表达式）编译后放入有界的 LRU 缓存；SynapseEngine 在构造时
+ * 按条件边保存编译结果，运行时只评估编译结果，不经过该缓存。
+ * <p>
+ * 转存到 {@link com.synapse.core.state.BlobStore} 的值在条件中按原始值可见：策略读取到的
+ * {@link com.synapse.core.state.BlobHandle} 会先物化为 byte[] / String / float[]。
  */
 public class ConditionEvaluator {
 
     private static final Logger log = LoggerFactory.getLogger(ConditionEvaluator.class);
 
-    private final Map<EdgeDefinition.ConditionType, ConditionStrategy> strategies = new HashMap<>();
+    private static final Set<String> BUILTIN_STRATEGIES = Set.of("kv", "expr");
+
+    /**
+     * 可选模块对应的内置条件类型，用于给出缺少依赖时的提示。
+     */
+    private static final Map<String, String> OPTIONAL_MODULES = Map.of("spel", "synapse-spel", "groovy", "synapse-groovy");
+
+    /**
+     * 查找不到提供者的名称在 strategies 中记为该占位，之后不再重复扫描 ServiceLoader。
+     */
+    private static final ConditionStrategy MISSING = (expression, context) -> {
+        throw new IllegalStateException("条件策略不存在");
+    };
+
+    /**
+     * 默认最多缓存的编译结果数。
+     */
+    public static final int DEFAULT_MAX_COMPILED = 1024;
+
+    private final Map<String, ConditionStrategy> strategies = new ConcurrentHashMap<>();
+
+    /**
+     * 编译结果，键为 策略名 + '\0' + 表达式，按访问顺序淘汰。
+     */
+    private final Map<String, CompiledCondition> compiled;
 
     public ConditionEvaluator() {
-        strategies.put(EdgeDefinition.ConditionType.KV, new KvStrategy());
-        strategies.put(EdgeDefinition.ConditionType.SPEL, new SpelStrategy());
-        strategies.put(EdgeDefinition.ConditionType.GROOVY, new GroovyStrategy());
+        this(DEFAULT_MAX_COMPILED);
+    }
+
+    /**
+     * @param maxCompiled 最多缓存的编译结果数，超出时淘汰最久未使用的
+     */
+    public ConditionEvaluator(int maxCompiled) {
+        if (maxCompiled < 1) {
+            throw new IllegalArgumentException("maxCompiled 必须 >= 1: " + maxCompiled);
+        }
+        this.compiled = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledCondition> eldest) {
+                return size() > maxCompiled;
+            }
+        };
+        strategies.put("kv", new KvStrategy());
+        strategies.put("expr", new ExprStrategy());
+    }
+
+    /**
+     * 注册自定义条件策略，条件边通过 conditionType: &lt;name&gt; 引用（名称不区分大小写）。
+     * 重复注册同名策略会替换原策略并丢弃其已编译的条件。
+     */
+    public void registerStrategy(String name, ConditionStrategy strategy) {
+        Objects.requireNonNull(name, "条件策略名称不能为空");
+        Objects.requireNonNull(strategy, "条件策略不能为空");
+        String key = name.toLowerCase(Locale.ROOT);
+        if (BUILTIN_STRATEGIES.contains(key)) {
+            throw new IllegalArgumentException("不能覆盖内置条件策略: " + name);
+        }
+        strategies.put(key, strategy);
+        String prefix = key + '\0';
+        synchronized (compiled) {
+            compiled.keySet().removeIf(cacheKey -> cacheKey.startsWith(prefix));
+        }
+    }
+
+    /**
+     * 是否存在指定名称的策略（内置、已注册或可经 ServiceLoader 加载）。
+     */
+    public boolean hasStrategy(String name) {
+        return name != null && strategy(name.toLowerCase(Locale.ROOT)) != null;
+    }
+
+    /**
+     * 编译条件边的表达式（结果被缓存），策略不存在或表达式无效时抛出异常。
+     */
+    public CompiledCondition prepare(EdgeDefinition edge) {
+        return prepare(strategyName(edge), edge.getConditionExpression());
+    }
+
+    /**
+     * 使用指定策略编译表达式（结果被缓存）。
+     */
+    public CompiledCondition prepare(String strategyName, String expression) {
+        Objects.requireNonNull(expression, "条件表达式不能为空");
+        String key = strategyName == null ? null : strategyName.toLowerCase(Locale.ROOT);
+        ConditionStrategy strategy = key == null ? null : strategy(key);
+        if (strategy == null) {
+            String module = key == null ? null : OPTIONAL_MODULES.get(key);
+            throw new IllegalArgumentException(module != null
+                    ? "条件类型 " + strategyName + " 需要在 classpath 中引入 " + module + " 模块"
+                    : "不支持的条件类型: " + strategyName);
+        }
+        String cacheKey = key + '\0' + expression;
+        CompiledCondition condition;
+        synchronized (compiled) {
+            condition = compiled.get(cacheKey);
+        }
+        if (condition != null) {
+            return condition;
+        }
+        // 在锁外编译，脚本策略的编译可能较慢
+        condition = strategy.prepare(expression);
+        synchronized (compiled) {
+            // 编译期间同名策略被替换时不缓存旧策略的结果
+            if (strategies.get(key) == strategy) {
+                CompiledCondition existing = compiled.putIfAbsent(cacheKey, condition);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+        }
+        return condition;
+    }
+
+    /**
+     * 查找策略：已创建的直接返回，否则经 ServiceLoader 查找提供者并创建。
+     * 每个名称只查找一次，找不到的结果同样被缓存，直到以该名称注册策略。
+     */
+    private ConditionStrategy strategy(String key) {
+        ConditionStrategy strategy = strategies.get(key);
+        if (strategy == null) {
+            synchronized (strategies) {
+                strategy = strategies.get(key);
+                if (strategy == null) {
+                    ConditionStrategy loaded = loadStrategy(key);
+                    strategy = loaded != null ? loaded : MISSING;
+                    strategies.put(key, strategy);
+                }
+            }
+        }
+        return strategy == MISSING ? null : strategy;
+    }
+
+    private static ConditionStrategy loadStrategy(String key) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = ConditionEvaluator.class.getClassLoader();
+        }
+        for (ConditionStrategyProvider provider : ServiceLoader.load(ConditionStrategyProvider.class, classLoader)) {
+            if (key.equalsIgnoreCase(provider.name())) {
+                log.debug("加载条件策略 '{}': {}", key, provider.getClass().getName());
+                return provider.create();
+            }
+        }
+        return null;
     }
 
     /**
@@ -47,15 +192,83 @@ public class ConditionEvaluator {
         Objects.requireNonNull(mappings, "条件映射不能为空");
         Objects.requireNonNull(context, "ScopeContext 不能为空");
 
-        ConditionStrategy strategy = strategies.get(edgeConditionType);
-        if (strategy == null) {
+        if (edgeConditionType == null || edgeConditionType == EdgeDefinition.ConditionType.CUSTOM) {
             throw new IllegalArgumentException("不支持的条件类型: " + edgeConditionType);
         }
+        String strategyName = edgeConditionType.name();
+        Object value = prepare(strategyName, expression).evaluate(MaterializedScopeContext.of(context));
+        return route(strategyName, expression, value, mappings);
+    }
+
+    /**
+     * 评估条件边并返回目标节点 ID。
+     */
+    public String evaluate(EdgeDefinition edge, ScopeContext context) {
+        Objects.requireNonNull(context, "ScopeContext 不能为空");
+        Object value = prepare(edge).evaluate(MaterializedScopeContext.of(context));
+        return route(strategyName(edge), edge.getConditionExpression(), value, edge.getConditionMappings());
+    }
+
+    /**
+     * 异步评估条件边：同步策略返回已完成的 Future，异步策略（模型路由等）在等待期间不占用线程。
+     */
+    public CompletableFuture<String> evaluateAsync(EdgeDefinition edge, ScopeContext context) {
+        return evaluateAsync(edge, context, null, null);
+    }
+
+    /**
+     * 在一次运行中异步评估条件边，图名与 runId 记入 JFR 事件（可为 null）。
+     */
+    CompletableFuture<String> evaluateAsync(EdgeDefinition edge, ScopeContext context, String graphName, String runId) {
+        CompiledCondition condition;
+        try {
+            condition = prepare(edge);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return evaluateAsync(edge, condition, context, graphName, runId);
+    }
+
+    /**
+     * 使用已编译的条件评估条件边，SynapseEngine 按边保存编译结果后经此评估，不再查找缓存。
+     */
+    CompletableFuture<String> evaluateAsync(EdgeDefinition edge, CompiledCondition condition, ScopeContext context,
+            String graphName, String runId) {
+        Objects.requireNonNull(context, "ScopeContext 不能为空");
+        ConditionEvaluateEvent event = new ConditionEvaluateEvent();
+        event.begin();
+        CompletableFuture<String> target = condition.evaluateAsync(MaterializedScopeContext.of(context))
+                .thenApply(value -> route(strategyName(edge), edge.getConditionExpression(), value,
+                        edge.getConditionMappings()));
+        if (!event.isEnabled()) {
+            return target;
+        }
+        return target.whenComplete((targetNodeId, e) -> {
+            if (event.shouldCommit()) {
+                event.graphName = graphName;
+                event.runId = runId;
+                event.sourceNodeId = edge.getSourceNodeId();
+                event.conditionType = strategyName(edge);
+                event.expression = edge.getConditionExpression();
+                event.targetNodeId = targetNodeId;
+                event.commit();
+            }
+        });
+    }
 
-        Object value = strategy.evaluate(expression, context);
+    private static String strategyName(EdgeDefinition edge) {
+        return edge.getConditionType() == EdgeDefinition.ConditionType.CUSTOM
+                ? edge.getConditionStrategy()
+                : edge.getConditionType().name();
+    }
 
+    /**
+     * 将条件值映射为目标节点 ID，未命中时返回 null。
+     */
+    private static String route(String strategyName, String expression, Object value, Map<String, String> mappings) {
+        Objects.requireNonNull(mappings, "条件映射不能为空");
         if (value == null) {
-            log.warn("条件表达式 '{}' [{}] 的值为 null。", expression, edgeConditionType);
+            log.warn("条件表达式 '{}' [{}] 的值为 null。", expression, strategyName);
             return null;
         }
 
@@ -67,7 +280,7 @@ public class ConditionEvaluator {
             return null;
         }
 
-        log.debug("条件评估结果 [{}]: {} = '{}' -> 目标节点 '{}'", edgeConditionType, expression, conditionKey, targetNodeId);
+        log.debug("条件评估结果 [{}]: {} = '{}' -> 目标节点 '{}'", strategyName, expression, conditionKey, targetNodeId);
         return targetNodeId;
     }
 
@@ -79,88 +292,61 @@ public class ConditionEvaluator {
     private static class KvStrategy implements ConditionStrategy {
         @Override
         public Object evaluate(String expression, ScopeContext context) {
+            return prepare(expression).evaluate(context);
+        }
+
+        @Override
+        public CompiledCondition prepare(String expression) {
             if (expression == null || expression.isBlank()) {
-                return null;
+                return context -> null;
             }
 
             String[] parts = expression.split("\\.", 3);
             if (parts.length < 2) {
                 log.warn("KV 表达式格式无效: {}。预期格式为 'scope.key'", expression);
-                return null;
+                return context -> null;
             }
 
             String scope = parts[0];
-            try {
-                switch (scope) {
-                    case "global":
-                        return context.getGlobal(parts[1]).orElse(null);
-                    case "flow":
-                        return context.getFlow(parts[1]).orElse(null);
-                    case "nodes":
-                        if (parts.length < 3)
+            return context -> {
+                try {
+                    switch (scope) {
+                        case "global":
+                            return context.getGlobal(parts[1]).orElse(null);
+                        case "flow":
+                            return context.getFlow(parts[1]).orElse(null);
+                        case "nodes":
+                            if (parts.length < 3)
+                                return null;
+                            return context.getNodeOutput(parts[1], parts[2]).orElse(null);
+                        default:
                             return null;
-                        return context.getNodeOutput(parts[1], parts[2]).orElse(null);
-                    default:
-                        return null;
+                    }
+                } catch (Exception e) {
+                    log.warn("KV 解析失败: {}", expression, e);
+                    return null;
                 }
-            } catch (Exception e) {
-                log.warn("KV 解析失败: {}", expression, e);
-                return null;
-            }
+            };
         }
     }
 
     /**
-     * Spring Expression Language (SpEL) 策略
+     * 内置轻量表达式策略：解析一次并编译为 lambda 树，见 {@link ExpressionCompiler}
      */
-    private static class SpelStrategy implements ConditionStrategy {
-        private final ExpressionParser parser = new SpelExpressionParser();
-
+    private static class ExprStrategy implements ConditionStrategy {
         @Override
         public Object evaluate(String expression, ScopeContext context) {
-            // EvaluationRoot 提供类似 {flow: {...}, global: {...}} 的结构
-            EvaluationRoot root = new EvaluationRoot(context);
-
-            StandardEvaluationContext evalContext = new StandardEvaluationContext(root);
-            // 也可以把 context 暴露为 #context
-            evalContext.setVariable("context", context);
-
-            try {
-                Expression exp = parser.parseExpression(expression);
-                return exp.getValue(evalContext);
-            } catch (Exception e) {
-                log.error("SpEL 解析错误: {}", expression, e);
-                throw e;
-            }
+            return prepare(expression).evaluate(context);
         }
-    }
 
-    /**
-     * Groovy Script 策略
-     */
-    private static class GroovyStrategy implements ConditionStrategy {
         @Override
-        public Object evaluate(String expression, ScopeContext context) {
-            EvaluationRoot root = new EvaluationRoot(context);
-
-            Binding binding = new Binding();
-            // 直接将 global, flow, nodes 作为顶层变量注入
-            binding.setVariable("global", root.getGlobal());
-            binding.setVariable("flow", root.getFlow());
-            binding.setVariable("nodes", root.getNodes());
-
-            GroovyShell shell = new GroovyShell(binding);
-            try {
-                return shell.evaluate(expression);
-            } catch (Exception e) {
-                log.error("Groovy 执行错误: {}", expression, e);
-                throw e;
-            }
+        public CompiledCondition prepare(String expression) {
+            return ExpressionCompiler.compile(expression);
         }
     }
 
     /**
-     * 辅助类，用于为 SpEL/Groovy 提供方便的数据访问根对象。
+     * 辅助类，用于为 SpEL/Groovy 等脚本策略提供方便的数据访问根对象。
      */
     public static class EvaluationRoot {
         private final ScopeContext context;
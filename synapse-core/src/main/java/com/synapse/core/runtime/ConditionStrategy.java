@@ -4,6 +4,9 @@ import com.synapse.core.state.ScopeContext;
 
 /**
  * ConditionStrategy 定义了评估条件的策略接口。
+ * <p>
+ * 引擎在构造时对每条条件边调用一次 {@link #prepare(String)}，运行时只评估编译结果；
+ * 自定义策略（JSONPath、CEL、模型路由等）通过 {@link ConditionEvaluator#registerStrategy(String, ConditionStrategy)} 注册。
  */
 public interface ConditionStrategy {
 
@@ -15,4 +18,14 @@ public interface ConditionStrategy {
      * @return 评估结果（通常是 String, Boolean 等，toString 后用于匹配映射）
      */
     Object evaluate(String expression, ScopeContext context);
+
+    /**
+     * 编译表达式（解析、校验、缓存脚本类等），返回可复用的条件。
+     * <p>
+     * 默认实现不做编译，每次评估时调用 {@link #evaluate(String, ScopeContext)}。
+     * 表达式无效时应在此处抛出异常，以便在引擎构造阶段发现。
+     */
+    default CompiledCondition prepare(String expression) {
+        return context -> evaluate(expression, context);
+    }
 }
@@ -0,0 +1,21 @@
+package com.synapse.core.runtime;
+
+/**
+ * ConditionStrategyProvider 是条件策略的 ServiceLoader 扩展点。
+ * <p>
+ * 可选模块（如 synapse-spel、synapse-groovy）在 META-INF/services 中声明实现；
+ * ConditionEvaluator 只在图中首次出现对应条件类型时才查找并创建策略，
+ * 未使用的策略及其依赖不会被加载。
+ */
+public interface ConditionStrategyProvider {
+
+    /**
+     * 策略名称（不区分大小写），与条件边的 conditionType 对应，如 "spel"、"groovy"。
+     */
+    String name();
+
+    /**
+     * 创建策略实例，每个 ConditionEvaluator 最多调用一次。
+     */
+    ConditionStrategy create();
+}
@@ -0,0 +1,214 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.state.BlobStore;
+
+/**
+ * EngineOptions 描述 SynapseEngine 的可选配置，对该引擎上的所有运行生效。
+ * <p>
+ * 所有字段均为可选；默认值与 SynapseEngine(graph, nodeFactory) 的行为完全一致。
+ */
+public class EngineOptions {
+
+    /**
+     * 大体积节点输出（byte[] / String / float[]）的堆外存储，null 表示全部保存在堆内。
+     */
+    private BlobStore blobStore;
+
+    /**
+     * 执行模式，默认按边调度（控制流）。
+     */
+    private ExecutionMode executionMode = ExecutionMode.CONTROL_FLOW;
+
+    /**
+     * 节点未声明 onBranchError 时使用的分叉失败策略，默认快速失败。
+     */
+    private NodeDefinition.ForkPolicy defaultForkPolicy = NodeDefinition.ForkPolicy.FAIL_FAST;
+
+    /**
+     * 是否根据实测耗时自动内联廉价的同步节点，默认关闭（仅按 inline 提示与 InlineNode 标记内联）。
+     */
+    private boolean autoInline;
+
+    /**
+     * 自动内联的耗时阈值（微秒）：节点平均耗时低于该值时内联执行。
+     */
+    private long autoInlineThresholdMicros = 50;
+
+    /**
+     * 同一线程上连续内联执行的最大嵌套深度，超过后切换到线程池以避免栈溢出。
+     */
+    private int maxInlineDepth = 64;
+
+    /**
+     * 运行级准入控制（最大并发运行数、有界等待队列、自适应上限），null 表示不限制。
+     */
+    private AdmissionController admissionController;
+
+    /**
+     * 条件边的评估器（可在其上注册自定义条件策略），null 表示使用仅含内置策略的默认评估器。
+     */
+    private ConditionEvaluator conditionEvaluator;
+
+    /**
+     * 节点激活的优先级与多租户公平调度，null 表示就绪节点立即启动。
+     */
+    private FairScheduler scheduler;
+
+    /**
+     * 保存挂起运行（中断节点）的存储，可在多个引擎间共享；null 表示每个引擎使用一个默认的内存存储。
+     */
+    private SuspendedRunStore suspendedRunStore;
+
+    /**
+     * 推测执行（speculative 条件边）的置信度：最常见目标的历史路由频率不低于该值时才提前启动。
+     */
+    private double speculationConfidence = 0.8;
+
+    /**
+     * 推测执行的浪费预算：被丢弃的推测执行次数与引擎已启动节点数之比的上限。
+     */
+    private double speculationWasteBudget = 0.1;
+
+    /**
+     * 运行日志：记录每次运行的节点输入/输出、路由与耗时，null 表示不记录。
+     */
+    private RunJournal journal;
+
+    /**
+     * 派发工作池节点（YAML workers / worker）的传输层；图中声明了工作池时必须配置。
+     */
+    private TaskTransport taskTransport;
+
+    /**
+     * 跨运行的剖析汇总：配置后为每次运行开启剖析并在运行结束时汇入，null 表示仅剖析指定了
+     * {@link RunOptions#setProfile(RunProfile)} 的运行。
+     */
+    private ProfileAggregator profileAggregator;
+
+    public EngineOptions() {
+    }
+
+    public BlobStore getBlobStore() {
+        return blobStore;
+    }
+
+    public void setBlobStore(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public NodeDefinition.ForkPolicy getDefaultForkPolicy() {
+        return defaultForkPolicy;
+    }
+
+    public void setDefaultForkPolicy(NodeDefinition.ForkPolicy defaultForkPolicy) {
+        this.defaultForkPolicy = defaultForkPolicy;
+    }
+
+    public boolean isAutoInline() {
+        return autoInline;
+    }
+
+    public void setAutoInline(boolean autoInline) {
+        this.autoInline = autoInline;
+    }
+
+    public long getAutoInlineThresholdMicros() {
+        return autoInlineThresholdMicros;
+    }
+
+    public void setAutoInlineThresholdMicros(long autoInlineThresholdMicros) {
+        this.autoInlineThresholdMicros = autoInlineThresholdMicros;
+    }
+
+    public int getMaxInlineDepth() {
+        return maxInlineDepth;
+    }
+
+    public void setMaxInlineDepth(int maxInlineDepth) {
+        if (maxInlineDepth < 1) {
+            throw new IllegalArgumentException("maxInlineDepth 必须 >= 1: " + maxInlineDepth);
+        }
+        this.maxInlineDepth = maxInlineDepth;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    public void setAdmissionController(AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    public ConditionEvaluator getConditionEvaluator() {
+        return conditionEvaluator;
+    }
+
+    public void setConditionEvaluator(ConditionEvaluator conditionEvaluator) {
+        this.conditionEvaluator = conditionEvaluator;
+    }
+
+    public FairScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public void setScheduler(FairScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public SuspendedRunStore getSuspendedRunStore() {
+        return suspendedRunStore;
+    }
+
+    public void setSuspendedRunStore(SuspendedRunStore suspendedRunStore) {
+        this.suspendedRunStore = suspendedRunStore;
+    }
+
+    public double getSpeculationConfidence() {
+        return speculationConfidence;
+    }
+
+    public void setSpeculationConfidence(double speculationConfidence) {
+        this.speculationConfidence = speculationConfidence;
+    }
+
+    public double getSpeculationWasteBudget() {
+        return speculationWasteBudget;
+    }
+
+    public void setSpeculationWasteBudget(double speculationWasteBudget) {
+        this.speculationWasteBudget = speculationWasteBudget;
+    }
+
+    public RunJournal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(RunJournal journal) {
+        this.journal = journal;
+    }
+
+    public TaskTransport getTaskTransport() {
+        return taskTransport;
+    }
+
+    public void setTaskTransport(TaskTransport taskTransport) {
+        this.taskTransport = taskTransport;
+    }
+
+    public ProfileAggregator getProfileAggregator() {
+        return profileAggregator;
+    }
+
+    public void setProfileAggregator(ProfileAggregator profileAggregator) {
+        this.profileAggregator = profileAggregator;
+    }
+}
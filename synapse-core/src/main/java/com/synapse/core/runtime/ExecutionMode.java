@@ -0,0 +1,18 @@
+package com.synapse.core.runtime;
+
+/**
+ * 图的执行模式。
+ */
+public enum ExecutionMode {
+
+    /**
+     * 控制流模式（默认）：按边的定义调度节点，多条出边触发并行分叉。
+     */
+    CONTROL_FLOW,
+
+    /**
+     * 数据流模式：忽略边，根据输入/输出映射推导数据依赖，
+     * 每个节点在其全部输入被生产后立即启动，获得最大的安全并行度。
+     */
+    DATAFLOW
+}
@@ -0,0 +1,417 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.graph.Graph;
+import com.synapse.core.graph.GraphLiveness;
+import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.graph.ValueRef;
+import com.synapse.core.jfr.RunEvent;
+import com.synapse.core.state.BlobHandle;
+import com.synapse.core.state.ScopeContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ExecutionRun 保存单次图运行的运行期状态。
+ * <p>
+ * 它跟踪执行前沿（已调度但尚未完成的节点），并在声明了保留键时，
+ * 依据 GraphLiveness 释放已超过最后一次使用的节点输出。
+ * 被释放或投影移除的堆外句柄会立即归还缓冲区。
+ */
+class ExecutionRun {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionRun.class);
+
+    private final String runId;
+    private final ScopeContext context;
+    private final RunOptions options;
+    private final GraphLiveness liveness;
+    private final ResultProjection projection; // 未声明保留键时为 null
+
+    // 执行前沿：节点 ID -> 活跃的激活次数
+    private final Map<String, Integer> frontier = new HashMap<>();
+
+    // 流式边：目标节点 -> 接收端，源节点 -> 发送端（节点启动时取走）
+    private final Map<String, StreamChannel> incomingStreams = new ConcurrentHashMap<>();
+    private final Map<String, List<StreamChannel>> outgoingStreams = new ConcurrentHashMap<>();
+
+    // 中断节点：本次运行中挂起的激活，以及恢复时允许越过中断的激活次数
+    private final List<SuspendedRun.Activation> suspended = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> resumeTokens = new HashMap<>();
+
+    // 增量重跑：上一次运行的记录与已变化的引用（"flow.key" / "nodes.nodeId.key"），非增量运行时 baseline 为 null
+    private RunRecord baseline;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> activations = new ConcurrentHashMap<>();
+
+    // 回放：非回放运行时为 null
+    private JournalReplay replay;
+
+    // 推测执行：目标节点 ID -> 在途的推测执行
+    private final Map<String, BranchSpeculator.Speculation> speculations = new ConcurrentHashMap<>();
+
+    // JFR 运行事件：未启用时为 null
+    private final RunEvent runEvent;
+
+    // 运行剖析：未开启时为 null
+    private RunProfile profile;
+
+    ExecutionRun(ScopeContext context, RunOptions options, GraphLiveness liveness) {
+        this.runId = options.getRunId() != null ? options.getRunId() : UUID.randomUUID().toString();
+        this.context = context;
+        this.options = options;
+        this.liveness = liveness;
+        this.projection = options.getRetainedKeys() != null ? new ResultProjection(options.getRetainedKeys()) : null;
+        RunEvent event = new RunEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            this.runEvent = event;
+        } else {
+            this.runEvent = null;
+        }
+    }
+
+    String getRunId() {
+        return runId;
+    }
+
+    /**
+     * 提交 JFR 运行事件（未启用时无操作）。
+     */
+    void commitRunEvent(String graphName, String status) {
+        if (runEvent != null && runEvent.shouldCommit()) {
+            runEvent.graphName = graphName;
+            runEvent.runId = runId;
+            runEvent.status = status;
+            runEvent.commit();
+        }
+    }
+
+    /**
+     * 开启运行剖析。
+     */
+    void profileWith(RunProfile profile) {
+        this.profile = profile;
+        profile.start();
+    }
+
+    RunProfile getProfile() {
+        return profile;
+    }
+
+    ScopeContext getContext() {
+        return context;
+    }
+
+    RunOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * 登记入口节点。
+     */
+    synchronized void enter(String nodeId) {
+        frontier.merge(nodeId, 1, Integer::sum);
+    }
+
+    /**
+     * 记录在中断节点处挂起的激活。
+     */
+    void suspend(String nodeId, int iteration) {
+        suspended.add(new SuspendedRun.Activation(nodeId, iteration));
+    }
+
+    List<SuspendedRun.Activation> getSuspended() {
+        return suspended;
+    }
+
+    /**
+     * 恢复运行时登记一次越过中断节点的许可。
+     */
+    synchronized void grantResume(String nodeId) {
+        resumeTokens.merge(nodeId, 1, Integer::sum);
+    }
+
+    /**
+     * 消耗一次越过中断节点的许可；没有许可时返回 false（节点应挂起）。
+     */
+    synchronized boolean consumeResume(String nodeId) {
+        Integer count = resumeTokens.get(nodeId);
+        if (count == null) {
+            return false;
+        }
+        if (count > 1) {
+            resumeTokens.put(nodeId, count - 1);
+        } else {
+            resumeTokens.remove(nodeId);
+        }
+        return true;
+    }
+
+    /**
+     * 以上一次运行的记录作为增量重跑的基线。
+     *
+     * @param dirtyRefs 相对基线已变化的引用
+     */
+    void incrementalFrom(RunRecord baseline, Set<String> dirtyRefs) {
+        this.baseline = baseline;
+        this.dirty.addAll(dirtyRefs);
+    }
+
+    /**
+     * 是否需要记录节点输出（记录本次运行，或与基线比较变化）。
+     */
+    boolean isTracking() {
+        return baseline != null || options.getRecord() != null;
+    }
+
+    /**
+     * 分配节点的激活序号（同一节点在循环中的第几次执行）。
+     */
+    int nextActivation(String nodeId) {
+        return activations.computeIfAbsent(nodeId, id -> new AtomicInteger()).getAndIncrement();
+    }
+
+    /**
+     * 增量重跑时，若节点的所有输入引用都未变化且基线中有该次激活的输出，返回可复用的输出；否则返回 null。
+     */
+    Map<String, Object> reusableOutputs(NodeDefinition definition, int activation) {
+        if (baseline == null) {
+            return null;
+        }
+        Map<String, Object> recorded = baseline.outputsOf(definition.getId(), activation);
+        if (recorded == null) {
+            return null;
+        }
+        if (definition.getInputMappings() != null) {
+            for (String expression : definition.getInputMappings().values()) {
+                ValueRef ref = ValueRef.parse(expression);
+                if (ref != null && dirty.contains(ref.toString())) {
+                    return null;
+                }
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * 节点完成后记录其输出；增量重跑时将与基线不同的输出所写入的引用标记为已变化，使下游节点重新计算。
+     */
+    void recordOutputs(NodeDefinition definition, int activation, Map<String, Object> outputs, boolean reused) {
+        RunRecord record = options.getRecord();
+        if (record != null) {
+            record.recordOutputs(definition.getId(), activation, outputs, reused);
+        }
+        if (baseline == null || reused) {
+            return;
+        }
+        Map<String, Object> previous = baseline.outputsOf(definition.getId(), activation);
+        Map<String, Object> current = outputs != null ? outputs : Map.of();
+        Set<String> keys = new HashSet<>(current.keySet());
+        if (previous != null) {
+            keys.addAll(previous.keySet());
+        }
+        for (String key : keys) {
+            if (previous != null && Objects.equals(previous.get(key), current.get(key))) {
+                continue;
+            }
+            List<NodeDefinition.OutputMapping> mappings = definition.getOutputMappings();
+            if (mappings == null || mappings.isEmpty()) {
+                dirty.add("nodes." + definition.getId() + "." + key);
+                continue;
+            }
+            for (NodeDefinition.OutputMapping mapping : mappings) {
+                if (!mapping.isWholeOutput() && !key.equals(mapping.getSourceKey())) {
+                    continue;
+                }
+                String scope = mapping.getTargetScope();
+                if ("flow".equalsIgnoreCase(scope)) {
+                    dirty.add("flow." + mapping.getTargetKey());
+                } else if (scope == null || scope.isBlank() || "node".equalsIgnoreCase(scope)) {
+                    dirty.add("nodes." + definition.getId() + "." + mapping.getTargetKey());
+                }
+            }
+        }
+    }
+
+    void replayFrom(JournalReplay replay) {
+        this.replay = replay;
+    }
+
+    JournalReplay getReplay() {
+        return replay;
+    }
+
+    /**
+     * 登记一次推测执行；同一目标已有在途推测时返回 false。
+     */
+    boolean speculate(String nodeId, BranchSpeculator.Speculation speculation) {
+        return speculations.putIfAbsent(nodeId, speculation) == null;
+    }
+
+    boolean isSpeculating(String nodeId) {
+        return speculations.containsKey(nodeId);
+    }
+
+    BranchSpeculator.Speculation takeSpeculation(String nodeId) {
+        return speculations.remove(nodeId);
+    }
+
+    /**
+     * 取消所有未被采用的推测执行，返回取消的个数。
+     */
+    int cancelSpeculations() {
+        int cancelled = 0;
+        for (String nodeId : List.copyOf(speculations.keySet())) {
+            BranchSpeculator.Speculation speculation = speculations.remove(nodeId);
+            if (speculation != null) {
+                speculation.future.cancel(true);
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * 为一条流式边登记缓冲区，源节点与目标节点启动时分别取走发送端与接收端。
+     */
+    void openStream(String sourceNodeId, String targetNodeId, StreamChannel channel) {
+        incomingStreams.put(targetNodeId, channel);
+        outgoingStreams.computeIfAbsent(sourceNodeId, id -> new CopyOnWriteArrayList<>()).add(channel);
+    }
+
+    StreamChannel takeIncomingStream(String nodeId) {
+        return incomingStreams.remove(nodeId);
+    }
+
+    List<StreamChannel> takeOutgoingStreams(String nodeId) {
+        return outgoingStreams.remove(nodeId);
+    }
+
+    /**
+     * 节点完成并解析出后续节点后推进执行前沿，并释放不再存活的节点输出。
+     * <p>
+     * 先登记后续节点再移除当前节点，保证任意时刻前沿都覆盖所有仍可能执行的节点。
+     */
+    void advance(String completedNodeId, List<String> nextNodeIds) {
+        if (projection == null) {
+            return;
+        }
+        synchronized (this) {
+            for (String next : nextNodeIds) {
+                if (!Graph.END.equals(next)) {
+                    frontier.merge(next, 1, Integer::sum);
+                }
+            }
+            frontier.computeIfPresent(completedNodeId, (id, count) -> count > 1 ? count - 1 : null);
+            releaseDeadOutputs(completedNodeId, new ArrayList<>(frontier.keySet()));
+        }
+    }
+
+    /**
+     * 只复查本次完成可能影响的输出所属节点（见 {@link GraphLiveness#releaseCandidates(String)}）。
+     */
+    private void releaseDeadOutputs(String completedNodeId, List<String> currentFrontier) {
+        for (String owner : liveness.releaseCandidates(completedNodeId)) {
+            Map<String, Object> outputs = context.getNodeOutputs(owner);
+            if (outputs.isEmpty() || projection.keepsAllOf(owner) || liveness.isLive(owner, currentFrontier)) {
+                continue;
+            }
+            for (String key : new ArrayList<>(outputs.keySet())) {
+                if (!projection.keepsNodeOutput(owner, key)) {
+                    removeNodeOutput(owner, key);
+                }
+            }
+            log.trace("节点 {} 的输出已超过最后一次使用，已释放。", owner);
+        }
+    }
+
+    /**
+     * 运行成功结束时按保留键投影结果，并将剩余的堆外句柄物化回堆内，
+     * 使调用方拿到的 ScopeContext 只包含普通值。
+     */
+    void complete() {
+        if (projection != null) {
+            for (String key : new ArrayList<>(context.getFlowData().keySet())) {
+                if (!projection.keepsFlow(key)) {
+                    removeFlow(key);
+                }
+            }
+            for (String owner : new ArrayList<>(context.getAllNodeModels().keySet())) {
+                if (projection.keepsAllOf(owner)) {
+                    continue;
+                }
+                for (String key : new ArrayList<>(context.getNodeOutputs(owner).keySet())) {
+                    if (!projection.keepsNodeOutput(owner, key)) {
+                        removeNodeOutput(owner, key);
+                    }
+                }
+            }
+        }
+        materializeHandles();
+    }
+
+    /**
+     * 将上下文中的堆外句柄物化回堆内（运行结束或挂起时），使 ScopeContext 只包含普通值。
+     * 覆盖写入会释放句柄在该处的引用，同一句柄存放在多处时在最后一处物化后归还缓冲区。
+     */
+    void materializeHandles() {
+        for (Map.Entry<String, Object> entry : context.getFlowData().entrySet()) {
+            if (entry.getValue() instanceof BlobHandle) {
+                context.putFlow(entry.getKey(), ((BlobHandle) entry.getValue()).materialize());
+            }
+        }
+        for (Map.Entry<String, Map<String, Object>> node : context.getAllNodeModels().entrySet()) {
+            for (Map.Entry<String, Object> entry : node.getValue().entrySet()) {
+                if (entry.getValue() instanceof BlobHandle) {
+                    context.putNodeOutput(node.getKey(), entry.getKey(), ((BlobHandle) entry.getValue()).materialize());
+                }
+            }
+        }
+    }
+
+    /**
+     * 运行失败时释放上下文中的所有堆外句柄。
+     */
+    void releaseHandles() {
+        for (Object value : context.getFlowData().values()) {
+            if (value instanceof BlobHandle) {
+                ((BlobHandle) value).release();
+            }
+        }
+        for (Map<String, Object> nodeData : context.getAllNodeModels().values()) {
+            for (Object value : nodeData.values()) {
+                if (value instanceof BlobHandle) {
+                    ((BlobHandle) value).release();
+                }
+            }
+        }
+    }
+
+    private void removeFlow(String key) {
+        Object value = context.getFlow(key).orElse(null);
+        context.removeFlow(key);
+        if (value instanceof BlobHandle) {
+            ((BlobHandle) value).release();
+        }
+    }
+
+    private void removeNodeOutput(String nodeId, String key) {
+        Object value = context.getNodeOutput(nodeId, key).orElse(null);
+        context.removeNodeOutput(nodeId, key);
+        if (value instanceof BlobHandle) {
+            ((BlobHandle) value).release();
+        }
+    }
+}
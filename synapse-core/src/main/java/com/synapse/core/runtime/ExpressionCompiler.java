@@ -0,0 +1,525 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.graph.ExpressionScanner;
+import com.synapse.core.graph.FlowSchema;
+import com.synapse.core.graph.ValuePath;
+import com.synapse.core.state.ScopeContext;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * ExpressionCompiler 将 EXPR 条件表达式解析一次并编译为 lambda 树，评估时不做解析、反射或类加载。
+ * <p>
+ * 语法（优先级由低到高）：
+ * <ul>
+ * <li>三元：{@code cond ? a : b}</li>
+ * <li>逻辑：{@code ||}、{@code &&}、{@code !}（短路求值，按 Groovy 真值规则：null、false、0、空串/空集合为假）</li>
+ * <li>比较：{@code == != < <= > >=}（数值按数值比较，任一侧为 null 时大小比较为 false）</li>
+ * <li>算术：{@code + - * / %}（任一侧为字符串时 + 为拼接）</li>
+ * <li>字面量：整数、小数、'单引号' 或 "双引号" 字符串、true、false、null</li>
+ * <li>路径：{@code global.x}、{@code flow.a.b}、{@code nodes.nodeId.key}、{@code flow.list[0]}、{@code flow.map['k']}，
+ * 任一段缺失时结果为 null（{@code ?.} 与 {@code .} 等价）</li>
+ * </ul>
+ * 例如 {@code flow.score > 60 ? 'pass' : 'reject'}。常量子表达式在编译时折叠。
+ * <p>
+ * {@code flow.key} 与数值常量的大小比较编译为 {@link ScopeContext#getFlowDouble(String, double)} 上的原始值比较，
+ * 对 schema 中声明为数值的键不产生装箱对象。
+ * <p>
+ * {@link #check(String, FlowSchema, String)} 供 {@link FlowSchema} 在加载时按解析结果校验表达式对 flow 的引用。
+ */
+public final class ExpressionCompiler {
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * 编译表达式，语法错误时抛出 IllegalArgumentException。
+     */
+    static CompiledCondition compile(String expression) {
+        return parse(expression, null, null)::eval;
+    }
+
+    /**
+     * 解析表达式并按 schema 校验：路径 flow.key 的 key 必须已声明，直接参与大小比较的 flow.key 必须是数值（或 any）类型。
+     * flow.a.b、flow.a[0] 等嵌套值以及拼接、算术等表达式的结果类型未知，不做大小比较检查。
+     *
+     * @param where 出错时消息中的位置描述，例如条件边
+     * @throws IllegalArgumentException 语法错误或违反 schema
+     */
+    public static void check(String expression, FlowSchema schema, String where) {
+        parse(expression, Objects.requireNonNull(schema, "FlowSchema 不能为空"), where);
+    }
+
+    private static Node parse(String expression, FlowSchema schema, String where) {
+        Objects.requireNonNull(expression, "条件表达式不能为空");
+        Parser parser = new Parser(expression, schema, where);
+        Node root = parser.parseTernary();
+        parser.expectEnd();
+        return root;
+    }
+
+    // ================== 编译结果 ==================
+
+    @FunctionalInterface
+    private interface Node {
+        Object eval(ScopeContext context);
+    }
+
+    /**
+     * 常量节点，参与编译期折叠。
+     */
+    private static final class Constant implements Node {
+        private final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object eval(ScopeContext context) {
+            return value;
+        }
+    }
+
+    /**
+     * 简单的 flow.key 引用，数值比较可直接读取原始值。
+     */
+    private static final class FlowKey implements Node {
+        private final String key;
+
+        FlowKey(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object eval(ScopeContext context) {
+            return context.getFlow(key).orElse(null);
+        }
+    }
+
+    /**
+     * 绝对值小于 2^53 的整数都能被 double 精确表示；long 到 double 的舍入是单调的，
+     * 因而与这类常量的大小比较在 double 上进行与按 long 比较结果一致。
+     */
+    private static final double EXACT_DOUBLE_LIMIT = 0x1p53;
+
+    @FunctionalInterface
+    private interface DoubleComparison {
+        boolean test(double left, double right);
+    }
+
+    /**
+     * flow.key 与数值常量的大小比较：键不存在或不是数值时读到 NaN，任何比较均为 false，与 {@link #compare} 的语义一致。
+     */
+    private static Node relational(Node left, Node right, DoubleComparison comparison, IntPredicate predicate) {
+        if (left instanceof FlowKey && isExactNumber(right)) {
+            String key = ((FlowKey) left).key;
+            double constant = ((Number) ((Constant) right).value).doubleValue();
+            return context -> comparison.test(context.getFlowDouble(key, Double.NaN), constant);
+        }
+        if (right instanceof FlowKey && isExactNumber(left)) {
+            String key = ((FlowKey) right).key;
+            double constant = ((Number) ((Constant) left).value).doubleValue();
+            return context -> comparison.test(constant, context.getFlowDouble(key, Double.NaN));
+        }
+        return binary(left, right, (a, b) -> test(compare(a, b), predicate));
+    }
+
+    private static boolean isExactNumber(Node node) {
+        if (!(node instanceof Constant) || !(((Constant) node).value instanceof Number)) {
+            return false;
+        }
+        Number value = (Number) ((Constant) node).value;
+        return value instanceof Double || Math.abs(value.doubleValue()) < EXACT_DOUBLE_LIMIT;
+    }
+
+    private static boolean test(Integer comparison, IntPredicate predicate) {
+        return comparison != null && predicate.test(comparison);
+    }
+
+    @FunctionalInterface
+    private interface BinaryOp {
+        Object apply(Object left, Object right);
+    }
+
+    private static Node binary(Node left, Node right, BinaryOp op) {
+        if (left instanceof Constant && right instanceof Constant) {
+            return new Constant(op.apply(((Constant) left).value, ((Constant) right).value));
+        }
+        return context -> op.apply(left.eval(context), right.eval(context));
+    }
+
+    // ================== 运行时语义 ==================
+
+    private static boolean truthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() > 0;
+        }
+        if (value instanceof Collection) {
+            return !((Collection<?>) value).isEmpty();
+        }
+        if (value instanceof Map) {
+            return !((Map<?, ?>) value).isEmpty();
+        }
+        return true;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean equal(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            return compareNumbers((Number) left, (Number) right) == 0;
+        }
+        if (left instanceof CharSequence && right instanceof CharSequence) {
+            return left.toString().equals(right.toString());
+        }
+        return Objects.equals(left, right);
+    }
+
+    private static int compareNumbers(Number left, Number right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            return Long.compare(left.longValue(), right.longValue());
+        }
+        return Double.compare(left.doubleValue(), right.doubleValue());
+    }
+
+    /**
+     * 大小比较；任一侧为 null 或类型不可比较时返回 null（比较结果为 false）。
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Integer compare(Object left, Object right) {
+        if (left == null || right == null) {
+            return null;
+        }
+        if (left instanceof Number && right instanceof Number) {
+            return compareNumbers((Number) left, (Number) right);
+        }
+        if (left instanceof CharSequence && right instanceof CharSequence) {
+            return left.toString().compareTo(right.toString());
+        }
+        if (left instanceof Comparable && left.getClass() == right.getClass()) {
+            return ((Comparable) left).compareTo(right);
+        }
+        return null;
+    }
+
+    private static Object arithmetic(char op, Object left, Object right) {
+        if (op == '+' && (left instanceof CharSequence || right instanceof CharSequence)) {
+            return String.valueOf(left) + right;
+        }
+        if (left == null || right == null) {
+            return null;
+        }
+        if (!(left instanceof Number) || !(right instanceof Number)) {
+            throw new IllegalStateException("EXPR 无法对 " + left.getClass().getSimpleName() + " 与 "
+                    + right.getClass().getSimpleName() + " 执行 " + op);
+        }
+        Number a = (Number) left;
+        Number b = (Number) right;
+        if (isIntegral(a) && isIntegral(b) && !(op == '/' && a.longValue() % b.longValue() != 0)) {
+            long x = a.longValue();
+            long y = b.longValue();
+            switch (op) {
+                case '+':
+                    return x + y;
+                case '-':
+                    return x - y;
+                case '*':
+                    return x * y;
+                case '/':
+                    return x / y;
+                default:
+                    return x % y;
+            }
+        }
+        double x = a.doubleValue();
+        double y = b.doubleValue();
+        switch (op) {
+            case '+':
+                return x + y;
+            case '-':
+                return x - y;
+            case '*':
+                return x * y;
+            case '/':
+                return x / y;
+            default:
+                return x % y;
+        }
+    }
+
+    // ================== 语法分析 ==================
+
+    /**
+     * 递归下降解析器，边解析边生成 lambda 节点。
+     */
+    private static final class Parser extends ExpressionScanner {
+
+        private final FlowSchema schema; // 仅校验时有值
+        private final String where;
+
+        Parser(String source, FlowSchema schema, String where) {
+            super(source);
+            this.schema = schema;
+            this.where = where;
+        }
+
+        Node parseTernary() {
+            Node condition = parseOr();
+            if (!match("?")) {
+                return condition;
+            }
+            Node whenTrue = parseTernary();
+            expect(":");
+            Node whenFalse = parseTernary();
+            if (condition instanceof Constant) {
+                return truthy(((Constant) condition).value) ? whenTrue : whenFalse;
+            }
+            return context -> truthy(condition.eval(context)) ? whenTrue.eval(context) : whenFalse.eval(context);
+        }
+
+        private Node parseOr() {
+            Node left = parseAnd();
+            while (match("||")) {
+                Node l = left;
+                Node r = parseAnd();
+                left = context -> truthy(l.eval(context)) || truthy(r.eval(context));
+            }
+            return left;
+        }
+
+        private Node parseAnd() {
+            Node left = parseEquality();
+            while (match("&&")) {
+                Node l = left;
+                Node r = parseEquality();
+                left = context -> truthy(l.eval(context)) && truthy(r.eval(context));
+            }
+            return left;
+        }
+
+        private Node parseEquality() {
+            Node left = parseRelational();
+            while (true) {
+                if (match("==")) {
+                    left = binary(left, parseRelational(), ExpressionCompiler::equal);
+                } else if (match("!=")) {
+                    left = binary(left, parseRelational(), (a, b) -> !equal(a, b));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Node parseRelational() {
+            Node left = parseAdditive();
+            while (true) {
+                if (match("<=")) {
+                    left = relational(left, parseComparedOperand(left), (a, b) -> a <= b, c -> c <= 0);
+                } else if (match(">=")) {
+                    left = relational(left, parseComparedOperand(left), (a, b) -> a >= b, c -> c >= 0);
+                } else if (match("<")) {
+                    left = relational(left, parseComparedOperand(left), (a, b) -> a < b, c -> c < 0);
+                } else if (match(">")) {
+                    left = relational(left, parseComparedOperand(left), (a, b) -> a > b, c -> c > 0);
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        /**
+         * 解析大小比较的右操作数，校验时检查两侧的 flow.key 是否可比较。
+         */
+        private Node parseComparedOperand(Node left) {
+            Node right = parseAdditive();
+            requireComparable(left);
+            requireComparable(right);
+            return right;
+        }
+
+        private void requireComparable(Node operand) {
+            if (schema == null || !(operand instanceof FlowKey)) {
+                return;
+            }
+            String key = ((FlowKey) operand).key;
+            FlowSchema.FlowType type = schema.typeOf(key);
+            if (type != null && !type.isNumeric() && type != FlowSchema.FlowType.ANY) {
+                throw new IllegalArgumentException(where + " 对非数值的 flow." + key + "（"
+                        + type.name().toLowerCase(Locale.ROOT) + "）做大小比较");
+            }
+        }
+
+        private Node parseAdditive() {
+            Node left = parseMultiplicative();
+            while (true) {
+                char op = peekOperator("+-");
+                if (op == 0) {
+                    return left;
+                }
+                pos++;
+                left = binary(left, parseMultiplicative(), (a, b) -> arithmetic(op, a, b));
+            }
+        }
+
+        private Node parseMultiplicative() {
+            Node left = parseUnary();
+            while (true) {
+                char op = peekOperator("*/%");
+                if (op == 0) {
+                    return left;
+                }
+                pos++;
+                left = binary(left, parseUnary(), (a, b) -> arithmetic(op, a, b));
+            }
+        }
+
+        private Node parseUnary() {
+            skipWhitespace();
+            if (peek() == '!' && peekAt(1) != '=') {
+                pos++;
+                Node operand = parseUnary();
+                if (operand instanceof Constant) {
+                    return new Constant(!truthy(((Constant) operand).value));
+                }
+                return context -> !truthy(operand.eval(context));
+            }
+            if (peek() == '-') {
+                pos++;
+                Node operand = parseUnary();
+                return binary(new Constant(0L), operand, (a, b) -> arithmetic('-', a, b));
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() {
+            skipWhitespace();
+            char c = peek();
+            if (c == '(') {
+                pos++;
+                Node inner = parseTernary();
+                expect(")");
+                return inner;
+            }
+            if (c == '\'' || c == '"') {
+                return new Constant(parseString(c));
+            }
+            if (Character.isDigit(c)) {
+                return new Constant(parseNumber());
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                String name = parseIdentifier();
+                switch (name) {
+                    case "true":
+                        return new Constant(Boolean.TRUE);
+                    case "false":
+                        return new Constant(Boolean.FALSE);
+                    case "null":
+                        return new Constant(null);
+                    default:
+                        return parsePath(name);
+                }
+            }
+            throw error(c == 0 ? "表达式意外结束" : "无法识别的字符 '" + c + "'");
+        }
+
+        /**
+         * 路径：根（global / flow / nodes）后接任意个 .name 或 [expr]。
+         */
+        private Node parsePath(String root) {
+            List<Object> segments = new ArrayList<>(); // String 为属性名，Node 为下标表达式
+            while (true) {
+                skipWhitespace();
+                if (match("?.") || (peek() == '.' && !Character.isDigit(peekAt(1)) && match("."))) {
+                    skipWhitespace();
+                    segments.add(parseIdentifier());
+                } else if (match("[")) {
+                    segments.add(parseTernary());
+                    expect("]");
+                } else {
+                    break;
+                }
+            }
+
+            Node base;
+            int next;
+            switch (root) {
+                case "flow":
+                case "global": {
+                    if (segments.isEmpty() || !(segments.get(0) instanceof String)) {
+                        base = "flow".equals(root) ? ScopeContext::getFlowData : ScopeContext::getGlobalData;
+                        next = 0;
+                    } else {
+                        String key = (String) segments.get(0);
+                        if (schema != null && "flow".equals(root) && schema.typeOf(key) == null) {
+                            throw new IllegalArgumentException(where + " 引用了 schema 中未声明的 flow." + key);
+                        }
+                        base = "flow".equals(root)
+                                ? new FlowKey(key)
+                                : context -> context.getGlobal(key).orElse(null);
+                        next = 1;
+                    }
+                    break;
+                }
+                case "nodes": {
+                    if (segments.size() >= 2 && segments.get(0) instanceof String && segments.get(1) instanceof String) {
+                        String nodeId = (String) segments.get(0);
+                        String key = (String) segments.get(1);
+                        base = context -> context.getNodeOutput(nodeId, key).orElse(null);
+                        next = 2;
+                    } else {
+                        base = ScopeContext::getAllNodeModels;
+                        next = 0;
+                    }
+                    break;
+                }
+                default:
+                    throw error("未知的变量 '" + root + "'，路径须以 global、flow 或 nodes 开头");
+            }
+
+            Node node = base;
+            for (Object segment : segments.subList(next, segments.size())) {
+                Node target = node;
+                if (segment instanceof String) {
+                    String name = (String) segment;
+                    node = context -> ValuePath.member(target.eval(context), name);
+                } else {
+                    Node index = (Node) segment;
+                    node = context -> ValuePath.member(target.eval(context), index.eval(context));
+                }
+            }
+            return node;
+        }
+
+        /**
+         * 单字符算术运算符（不与 ||、&& 等双字符运算符冲突）。
+         */
+        private char peekOperator(String operators) {
+            skipWhitespace();
+            char c = peek();
+            return c != 0 && operators.indexOf(c) >= 0 ? c : 0;
+        }
+
+        @Override
+        protected IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("EXPR 表达式语法错误（位置 " + pos + "）: " + message + ": " + source);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.synapse.core.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * FairScheduler 决定各运行中就绪节点的启动顺序，使批处理流量与交互流量可以共用一个引擎。
+ * <p>
+ * <ul>
+ * <li>同时执行的节点数不超过 maxConcurrentNodes，超出的节点激活以 Future 排队，不阻塞线程。</li>
+ * <li>优先级通道之间严格优先：只要 INTERACTIVE 通道有等待的节点，NORMAL / BATCH 通道的节点就不会启动。</li>
+ * <li>同一通道内按租户权重做加权公平排队（自计时公平排队 SCFQ）：每次激活的完成标签为
+ * max(通道虚拟时间, 该租户上一次的完成标签) + 1 / 权重，按完成标签从小到大启动，
+ * 因此一个租户提交的大量节点不会让其他租户排在其后。</li>
+ * </ul>
+ * 通过 {@link EngineOptions#setScheduler(FairScheduler)} 启用；同一实例可在多个引擎间共享。
+ * Map 节点与流式边的目标节点不经过调度（它们在执行期间等待其他节点，占用名额可能导致死锁）。
+ */
+public class FairScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(FairScheduler.class);
+
+    private final int maxConcurrentNodes;
+    private final Map<String, Double> tenantWeights = new ConcurrentHashMap<>();
+    // 当前线程正在唤醒的激活；同步完成的节点在唤醒过程中归还名额时，后续激活加入该队列而不是递归唤醒
+    private final ThreadLocal<ArrayDeque<Activation>> dispatching = new ThreadLocal<>();
+
+    // 以下状态由 this 锁保护
+    private final Map<RunOptions.Priority, Lane> lanes = new EnumMap<>(RunOptions.Priority.class);
+    private int active;
+    private long nextSequence;
+
+    /**
+     * @param maxConcurrentNodes 同时执行的最大节点数
+     */
+    public FairScheduler(int maxConcurrentNodes) {
+        if (maxConcurrentNodes < 1) {
+            throw new IllegalArgumentException("maxConcurrentNodes 必须 >= 1: " + maxConcurrentNodes);
+        }
+        this.maxConcurrentNodes = maxConcurrentNodes;
+        for (RunOptions.Priority priority : RunOptions.Priority.values()) {
+            lanes.put(priority, new Lane());
+        }
+    }
+
+    /**
+     * 设置租户在通道内的权重（默认 1.0）：权重为 2 的租户获得的执行机会约为权重 1 的两倍。
+     */
+    public void setTenantWeight(String tenantId, double weight) {
+        Objects.requireNonNull(tenantId, "tenantId 不能为空");
+        if (!(weight > 0)) {
+            throw new IllegalArgumentException("租户权重必须 > 0: " + tenantId + "=" + weight);
+        }
+        tenantWeights.put(tenantId, weight);
+    }
+
+    /**
+     * 在获得执行名额后启动节点。
+     * <p>
+     * 节点结束时自动归还名额；取消返回的 Future 会将排队中的激活移出队列，或取消已在执行的节点。
+     */
+    <T> CompletableFuture<T> submit(RunOptions.Priority priority, String tenantId,
+            Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<Void> slot = acquire(priority, tenantId);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> running = new AtomicReference<>();
+
+        slot.whenComplete((v, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+                return;
+            }
+            if (result.isDone()) {
+                // 排队期间已被取消
+                release();
+                return;
+            }
+            CompletableFuture<T> inner;
+            try {
+                inner = task.get();
+            } catch (RuntimeException ex) {
+                release();
+                result.completeExceptionally(ex);
+                return;
+            }
+            running.set(inner);
+            inner.whenComplete((r, err) -> {
+                release();
+                if (err != null) {
+                    result.completeExceptionally(err);
+                } else {
+                    result.complete(r);
+                }
+            });
+        });
+
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                slot.cancel(false);
+                CompletableFuture<T> inner = running.get();
+                if (inner != null) {
+                    inner.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<Void> acquire(RunOptions.Priority priority, String tenantId) {
+        Activation activation;
+        synchronized (this) {
+            if (active < maxConcurrentNodes && isIdle()) {
+                active++;
+                lanes.get(priority).dispatched(0);
+                return CompletableFuture.completedFuture(null);
+            }
+            Lane lane = lanes.get(priority);
+            double weight = tenantWeights.getOrDefault(tenantId, 1.0);
+            double start = Math.max(lane.virtualTime, lane.lastFinish.getOrDefault(tenantId, 0.0));
+            activation = new Activation(start + 1 / weight, nextSequence++, System.nanoTime());
+            lane.lastFinish.put(tenantId, activation.finishTag);
+            lane.queue.add(activation);
+            log.trace("节点激活排队: 通道 {}，租户 {}，完成标签 {}", priority, tenantId, activation.finishTag);
+        }
+        activation.future.whenComplete((v, e) -> {
+            if (activation.future.isCancelled()) {
+                synchronized (this) {
+                    lanes.get(priority).queue.remove(activation);
+                }
+            }
+        });
+        return activation.future;
+    }
+
+    private void release() {
+        synchronized (this) {
+            active--;
+        }
+        drain();
+    }
+
+    /**
+     * 按通道优先级与完成标签唤醒排队的激活；回调在锁外执行。
+     * <p>
+     * 唤醒的激活可能同步执行完毕并再次归还名额，这里以蹦床循环处理，栈深度不随排队的激活数增长。
+     */
+    private void drain() {
+        List<Activation> ready = new ArrayList<>();
+        synchronized (this) {
+            while (active < maxConcurrentNodes) {
+                Activation next = null;
+                for (Lane lane : lanes.values()) {
+                    next = lane.queue.poll();
+                    if (next != null) {
+                        lane.virtualTime = next.finishTag;
+                        lane.dispatched(System.nanoTime() - next.enqueuedNanos);
+                        if (lane.queue.isEmpty()) {
+                            // 通道清空后重置标签，避免长期运行后浮点数精度下降
+                            lane.virtualTime = 0;
+                            lane.lastFinish.clear();
+                        }
+                        break;
+                    }
+                }
+                if (next == null) {
+                    break;
+                }
+                active++;
+                ready.add(next);
+            }
+        }
+        ArrayDeque<Activation> pending = dispatching.get();
+        if (pending != null) {
+            // 已在本线程外层的唤醒循环中，由外层依次处理
+            pending.addAll(ready);
+            return;
+        }
+        pending = new ArrayDeque<>(ready);
+        dispatching.set(pending);
+        try {
+            Activation activation;
+            while ((activation = pending.poll()) != null) {
+                if (!activation.future.complete(null)) {
+                    // 已被取消：归还名额
+                    release();
+                }
+            }
+        } finally {
+            dispatching.remove();
+        }
+    }
+
+    private boolean isIdle() {
+        for (Lane lane : lanes.values()) {
+            if (!lane.queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 当前正在执行的节点数。
+     */
+    public synchronized int getActive() {
+        return active;
+    }
+
+    /**
+     * 某一通道当前的排队深度。
+     */
+    public synchronized int getQueueDepth(RunOptions.Priority priority) {
+        return lanes.get(priority).queue.size();
+    }
+
+    /**
+     * 各通道的调度指标快照。
+     */
+    public synchronized Map<RunOptions.Priority, LaneMetrics> getLaneMetrics() {
+        Map<RunOptions.Priority, LaneMetrics> metrics = new EnumMap<>(RunOptions.Priority.class);
+        lanes.forEach((priority, lane) -> metrics.put(priority, new LaneMetrics(lane.queue.size(), lane.dispatched,
+                lane.dispatched == 0 ? 0 : lane.totalWaitNanos / lane.dispatched / 1_000_000d,
+                lane.maxWaitNanos / 1_000_000d)));
+        return metrics;
+    }
+
+    /**
+     * 一个优先级通道：按完成标签排序的激活队列。
+     */
+    private static class Lane {
+        private final PriorityQueue<Activation> queue = new PriorityQueue<>();
+        private final Map<String, Double> lastFinish = new HashMap<>();
+        private double virtualTime;
+        private long dispatched;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+
+        void dispatched(long waitNanos) {
+            dispatched++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        }
+    }
+
+    /**
+     * 一次排队中的节点激活。
+     */
+    private static class Activation implements Comparable<Activation> {
+        private final double finishTag;
+        private final long sequence; // 标签相同时按提交顺序
+        private final long enqueuedNanos;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Activation(double finishTag, long sequence, long enqueuedNanos) {
+            this.finishTag = finishTag;
+            this.sequence = sequence;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        @Override
+        public int compareTo(Activation other) {
+            int byTag = Double.compare(finishTag, other.finishTag);
+            return byTag != 0 ? byTag : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * 单个通道的调度指标。
+     */
+    public static final class LaneMetrics {
+        private final int queueDepth;
+        private final long dispatched;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+
+        LaneMetrics(int queueDepth, long dispatched, double averageWaitMillis, double maxWaitMillis) {
+            this.queueDepth = queueDepth;
+            this.dispatched = dispatched;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        /**
+         * 当前排队的节点激活数。
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * 累计启动的节点数。
+         */
+        public long getDispatched() {
+            return dispatched;
+        }
+
+        /**
+         * 平均排队时间（毫秒），未排队直接启动的节点计为 0。
+         */
+        public double getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "LaneMetrics{queueDepth=" + queueDepth + ", dispatched=" + dispatched + ", averageWaitMillis="
+                    + averageWaitMillis + ", maxWaitMillis=" + maxWaitMillis + '}';
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.node.AsyncNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hedger 为单个节点执行对冲请求（hedged request）。
+ * <p>
+ * 主调用超过延迟阈值仍未完成时，在对冲预算允许的情况下发起第二次调用：
+ * 先成功的结果胜出并取消另一个；只有两次调用都失败时才失败。
+ * <p>
+ * 对冲预算按调用次数累积：每次调用存入 maxHedgeRate 个额度，每次对冲消耗 1 个，
+ * 因此长期对冲比例不超过 maxHedgeRate。每个节点一个实例，在引擎的所有运行间共享。
+ * <p>
+ * 节点类型配置了限流时，对冲调用同样占用一个许可：没有立即可用的许可时放弃对冲，而不是排队或越过舱壁。
+ * 落败而被取消的调用以其已耗时作为（截尾的）延迟样本记录，避免只记录胜出者使分位数阈值偏低。
+ */
+class Hedger {
+
+    private static final Logger log = LoggerFactory.getLogger(Hedger.class);
+
+    private static final int WINDOW = 256; // 延迟样本窗口
+    private static final int MIN_SAMPLES = 20; // 分位数模式下开始对冲所需的最少样本
+    private static final double BUDGET_CAP = 10; // 预算上限，限制空闲后的突发对冲
+
+    private final String nodeId;
+    private final NodeDefinition.HedgeSpec spec;
+    private final NodeLimiter limiter; // 可为 null
+
+    // 以下状态由 this 锁保护
+    private final long[] samples = new long[WINDOW];
+    private int sampleCount;
+    private int nextSample;
+    private long cachedDelayNanos = -1;
+    private int samplesSinceCache;
+    private double budget;
+
+    Hedger(String nodeId, NodeDefinition.HedgeSpec spec) {
+        this(nodeId, spec, null);
+    }
+
+    /**
+     * @param limiter 节点类型的限流器（可为 null），对冲调用须从中获得许可
+     */
+    Hedger(String nodeId, NodeDefinition.HedgeSpec spec, NodeLimiter limiter) {
+        this.nodeId = nodeId;
+        this.spec = spec;
+        this.limiter = limiter;
+    }
+
+    CompletableFuture<Map<String, Object>> invoke(AsyncNode node, Map<String, Object> inputs) {
+        long delayNanos;
+        synchronized (this) {
+            budget = Math.min(BUDGET_CAP, budget + spec.getMaxHedgeRate());
+            delayNanos = hedgeDelayNanos();
+        }
+
+        CompletableFuture<Map<String, Object>> primary = attempt(node, inputs);
+        if (delayNanos < 0 || primary.isDone()) {
+            return primary;
+        }
+
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicReference<CompletableFuture<Map<String, Object>>> hedge = new AtomicReference<>();
+
+        primary.whenComplete((outputs, e) -> settle(result, outputs, e, pending, hedge.get()));
+
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (limiter != null && !limiter.tryAcquire()) {
+                log.trace("节点 {} 没有空闲的限流许可，跳过对冲", nodeId);
+                return;
+            }
+            if (!tryHedge()) {
+                if (limiter != null) {
+                    limiter.release();
+                }
+                return;
+            }
+            log.debug("节点 {} 超过 {}ms 未完成，发起对冲请求", nodeId, TimeUnit.NANOSECONDS.toMillis(delayNanos));
+            pending.incrementAndGet();
+            CompletableFuture<Map<String, Object>> second = attempt(node, new HashMap<>(inputs));
+            hedge.set(second);
+            // 先归还许可再参与胜负，调用方观察到结果时对冲调用的许可已归还
+            CompletableFuture<Map<String, Object>> released = limiter == null
+                    ? second
+                    : second.whenComplete((outputs, e) -> limiter.release());
+            released.whenComplete((outputs, e) -> settle(result, outputs, e, pending, primary));
+            if (result.isDone() && !second.isDone()) {
+                // 主调用在对冲发起期间已完成
+                second.cancel(true);
+            }
+        });
+
+        result.whenComplete((outputs, e) -> {
+            if (result.isCancelled()) {
+                primary.cancel(true);
+                cancel(hedge.get());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 发起一次调用：成功时记录其延迟；被取消（对冲落败或运行取消）时记录已耗时，作为真实延迟的下界。
+     */
+    private CompletableFuture<Map<String, Object>> attempt(AsyncNode node, Map<String, Object> inputs) {
+        long start = System.nanoTime();
+        CompletableFuture<Map<String, Object>> future;
+        try {
+            future = node.executeAsync(inputs);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Map<String, Object>> attempt = future;
+        attempt.whenComplete((outputs, e) -> {
+            if (e == null || attempt.isCancelled()) {
+                record(System.nanoTime() - start);
+            }
+        });
+        return attempt;
+    }
+
+    /**
+     * 以一次调用的结果尝试完成最终结果：成功即胜出；失败时仅当没有其他在途调用才失败。
+     * <p>
+     * 胜出时先取消另一调用再完成结果，保证调用方观察到结果时落败的调用已被取消。
+     */
+    private void settle(CompletableFuture<Map<String, Object>> result, Map<String, Object> outputs, Throwable error,
+            AtomicInteger pending, CompletableFuture<?> other) {
+        if (error == null) {
+            if (!result.isDone()) {
+                cancel(other);
+                result.complete(outputs);
+            }
+            return;
+        }
+        if (pending.decrementAndGet() == 0) {
+            result.completeExceptionally(error);
+        }
+    }
+
+    private static void cancel(CompletableFuture<?> future) {
+        if (future != null) {
+            future.cancel(true);
+        }
+    }
+
+    private synchronized boolean tryHedge() {
+        if (budget < 1) {
+            log.trace("节点 {} 对冲预算不足，跳过对冲", nodeId);
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    private synchronized void record(long latencyNanos) {
+        samples[nextSample] = latencyNanos;
+        nextSample = (nextSample + 1) % WINDOW;
+        sampleCount = Math.min(WINDOW, sampleCount + 1);
+        samplesSinceCache++;
+    }
+
+    /**
+     * 当前的对冲延迟阈值，调用方须持有锁；样本不足时返回 -1（不对冲）。
+     * <p>
+     * 分位数每累积一定样本才重新计算一次，避免每次调用都排序。
+     */
+    private long hedgeDelayNanos() {
+        if (spec.getDelayMs() > 0) {
+            return TimeUnit.MILLISECONDS.toNanos(spec.getDelayMs());
+        }
+        if (sampleCount < MIN_SAMPLES) {
+            return -1;
+        }
+        if (cachedDelayNanos < 0 || samplesSinceCache >= WINDOW / 8) {
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(spec.getPercentile() / 100 * sampleCount) - 1;
+            cachedDelayNanos = sorted[Math.max(0, Math.min(sampleCount - 1, index))];
+            samplesSinceCache = 0;
+        }
+        return cachedDelayNanos;
+    }
+}
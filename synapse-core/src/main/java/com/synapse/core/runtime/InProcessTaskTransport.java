@@ -0,0 +1,49 @@
+package com.synapse.core.runtime;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InProcessTaskTransport 在本进程内的 {@link WorkerPool} 上执行派发的节点激活。
+ * <p>
+ * 输入与输出按线路格式复制，节点看到的值与远程执行时一致；
+ * 可在单进程中验证工作池配置，之后再替换为 {@link SocketTaskTransport}。
+ */
+public class InProcessTaskTransport implements TaskTransport {
+
+    private final Map<String, WorkerPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 注册工作池，池名称即 YAML 中 workers / worker 引用的名称。
+     */
+    public InProcessTaskTransport addPool(WorkerPool pool) {
+        Objects.requireNonNull(pool, "WorkerPool 不能为空");
+        pools.put(pool.getName(), pool);
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> dispatch(String pool, String nodeType, Map<String, Object> inputs) {
+        WorkerPool workerPool = pools.get(pool);
+        if (workerPool == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("未注册的工作池: " + pool));
+        }
+        Map<String, Object> copied;
+        try {
+            copied = TaskFrames.copy(inputs);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return workerPool.execute(nodeType, copied).thenApply(TaskFrames::copy);
+    }
+
+    /**
+     * 关闭全部已注册的工作池。
+     */
+    @Override
+    public void close() {
+        pools.values().forEach(WorkerPool::close);
+    }
+}
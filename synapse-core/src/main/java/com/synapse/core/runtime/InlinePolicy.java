@@ -0,0 +1,117 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.node.InlineNode;
+import com.synapse.core.node.Node;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InlinePolicy 决定同步节点是否直接在当前线程上执行，而不是提交到线程池。
+ * <p>
+ * 判定顺序：
+ * <ol>
+ * <li>AsyncNode / StreamingNode 自行管理线程，从不内联。</li>
+ * <li>节点定义中的 inline 提示（true / false）优先。</li>
+ * <li>实现了 {@link InlineNode} 的节点内联。</li>
+ * <li>开启自动内联时，按节点实测耗时的指数移动平均判定，低于阈值则内联。</li>
+ * </ol>
+ * 连续内联会在同一线程上形成嵌套调用，嵌套深度超过上限时本次改为提交到线程池执行，
+ * 后续节点在新线程上从零开始计数。
+ */
+class InlinePolicy {
+
+    private static final int WARMUP_SAMPLES = 8;
+    private static final double ALPHA = 0.2;
+
+    /**
+     * 线程级的内联嵌套深度，子图引擎与父引擎共享同一调用栈，因此为静态字段。
+     */
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final boolean auto;
+    private final long thresholdNanos;
+    private final int maxDepth;
+    private final Map<String, CostEstimate> costs = new ConcurrentHashMap<>();
+
+    InlinePolicy(boolean auto, long thresholdMicros, int maxDepth) {
+        this.auto = auto;
+        this.thresholdNanos = thresholdMicros * 1_000L;
+        this.maxDepth = maxDepth;
+    }
+
+    static InlinePolicy from(EngineOptions options) {
+        return new InlinePolicy(options.isAutoInline(), options.getAutoInlineThresholdMicros(),
+                options.getMaxInlineDepth());
+    }
+
+    /**
+     * 仅按显式提示内联的策略（不做耗时统计）。
+     */
+    static InlinePolicy hintsOnly() {
+        return new InlinePolicy(false, 0, new EngineOptions().getMaxInlineDepth());
+    }
+
+    boolean shouldInline(NodeDefinition definition, Node node) {
+        if (!isSynchronous(node)) {
+            return false;
+        }
+        boolean inline;
+        if (definition.getInline() != null) {
+            inline = definition.getInline();
+        } else if (node instanceof InlineNode) {
+            inline = true;
+        } else if (auto) {
+            CostEstimate cost = costs.get(definition.getId());
+            inline = cost != null && cost.isCheap(thresholdNanos);
+        } else {
+            inline = false;
+        }
+        return inline && DEPTH.get()[0] < maxDepth;
+    }
+
+    /**
+     * 是否需要统计同步节点的执行耗时。
+     */
+    boolean isMeasuring() {
+        return auto;
+    }
+
+    void record(String nodeId, long elapsedNanos) {
+        costs.computeIfAbsent(nodeId, k -> new CostEstimate()).add(elapsedNanos);
+    }
+
+    static boolean isSynchronous(Node node) {
+        return !(node instanceof AsyncNode); // StreamingNode 亦是 AsyncNode
+    }
+
+    /**
+     * 进入一层可能嵌套内联执行的调用，必须与 {@link #exit()} 成对使用。
+     */
+    static void enter() {
+        DEPTH.get()[0]++;
+    }
+
+    static void exit() {
+        DEPTH.get()[0]--;
+    }
+
+    /**
+     * 单个节点的耗时估计（指数移动平均），预热样本不足时不参与判定。
+     */
+    private static class CostEstimate {
+        private int samples;
+        private double averageNanos;
+
+        synchronized void add(long elapsedNanos) {
+            averageNanos = samples == 0 ? elapsedNanos : ALPHA * elapsedNanos + (1 - ALPHA) * averageNanos;
+            samples++;
+        }
+
+        synchronized boolean isCheap(long thresholdNanos) {
+            return samples >= WARMUP_SAMPLES && averageNanos < thresholdNanos;
+        }
+    }
+}
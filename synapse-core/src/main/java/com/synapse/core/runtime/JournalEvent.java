@@ -0,0 +1,103 @@
+package com.synapse.core.runtime;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JournalEvent 是运行日志中的一条事件。
+ * <p>
+ * 各类型事件携带的数据：
+ * <ul>
+ * <li>RUN_STARTED：data 中的 graph（图名称）、global 与 flow（初始输入）。</li>
+ * <li>NODE_COMPLETED：nodeId、activation（该节点在本次运行中的第几次激活）、durationNanos，
+ * data 中的 inputs 与 outputs（节点原始输出）。</li>
+ * <li>NODE_FAILED：nodeId、activation、durationNanos、error，data 中的 inputs。</li>
+ * <li>ROUTED：nodeId（源节点）与 targets（解析出的后续节点）。</li>
+ * <li>RUN_FINISHED：data 中的 status（COMPLETED / FAILED / SUSPENDED），失败时带 error。</li>
+ * </ul>
+ */
+public final class JournalEvent {
+
+    /**
+     * 事件类型。
+     */
+    public enum Type {
+        RUN_STARTED, NODE_COMPLETED, NODE_FAILED, ROUTED, RUN_FINISHED
+    }
+
+    private final Type type;
+    private final String runId;
+    private final String nodeId;
+    private final int activation;
+    private final long timestampMillis;
+    private final long durationNanos;
+    private final String error;
+    private final List<String> targets;
+    private final Map<String, Object> data;
+
+    JournalEvent(Type type, String runId, String nodeId, int activation, long timestampMillis, long durationNanos,
+            String error, List<String> targets, Map<String, Object> data) {
+        this.type = type;
+        this.runId = runId;
+        this.nodeId = nodeId;
+        this.activation = activation;
+        this.timestampMillis = timestampMillis;
+        this.durationNanos = durationNanos;
+        this.error = error;
+        this.targets = targets != null ? targets : List.of();
+        this.data = data != null ? data : Map.of();
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getActivation() {
+        return activation;
+    }
+
+    /**
+     * 事件发生时的墙钟时间（毫秒）。
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * 节点执行耗时（纳秒），仅节点事件有值。
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public List<String> getTargets() {
+        return targets;
+    }
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(String key) {
+        return (T) data.get(key);
+    }
+
+    @Override
+    public String toString() {
+        return "JournalEvent{" + type + ", runId=" + runId + (nodeId != null ? ", nodeId=" + nodeId : "")
+                + (error != null ? ", error=" + error : "") + '}';
+    }
+}
@@ -0,0 +1,96 @@
+package com.synapse.core.runtime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JournalReplay 是从运行日志中提取的单次运行：初始输入、每次节点激活的结果与各节点的路由序列。
+ * <p>
+ * 回放时节点不被调用，按 (节点 ID, 激活序号) 取出记录的输出；路由按当前图重新求值，
+ * 并与记录逐次比较，任何偏离（缺少激活记录或路由不同）都会使回放失败。
+ */
+final class JournalReplay {
+
+    final String runId;
+    final String graphName;
+    final Map<String, Object> global;
+    final Map<String, Object> flow;
+    final boolean preserveTimings;
+    private final Map<String, Map<Integer, JournalEvent>> activations = new HashMap<>();
+    private final Map<String, List<List<String>>> routes = new HashMap<>();
+    private final Map<String, AtomicInteger> routeCursors = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    JournalReplay(List<JournalEvent> events, String runId, boolean preserveTimings) {
+        this.runId = runId;
+        this.preserveTimings = preserveTimings;
+        JournalEvent started = null;
+        for (JournalEvent event : events) {
+            if (!runId.equals(event.getRunId())) {
+                continue;
+            }
+            switch (event.getType()) {
+                case RUN_STARTED:
+                    started = event;
+                    break;
+                case NODE_COMPLETED:
+                case NODE_FAILED:
+                    activations.computeIfAbsent(event.getNodeId(), id -> new HashMap<>())
+                            .put(event.getActivation(), event);
+                    break;
+                case ROUTED:
+                    routes.computeIfAbsent(event.getNodeId(), id -> new ArrayList<>()).add(event.getTargets());
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (started == null) {
+            throw new IllegalArgumentException("日志中没有运行 " + runId + " 的开始事件");
+        }
+        this.graphName = started.get("graph");
+        this.global = (Map<String, Object>) (Map<?, ?>) started.get("global");
+        this.flow = (Map<String, Object>) (Map<?, ?>) started.get("flow");
+        requireFaithful("global", global);
+        requireFaithful("flow", flow);
+    }
+
+    private void requireFaithful(String scope, Map<String, Object> values) {
+        if (values == null) {
+            return;
+        }
+        values.forEach((key, value) -> {
+            OpaqueValue opaque = OpaqueValue.find(value);
+            if (opaque != null) {
+                throw new IllegalArgumentException("不可回放: 运行 " + runId + " 的初始输入 " + scope + "." + key
+                        + " 未被如实记录（" + opaque.getTypeName() + "）");
+            }
+        });
+    }
+
+    /**
+     * 节点第 activation 次激活的记录，日志中没有时返回 null。
+     */
+    JournalEvent activation(String nodeId, int activation) {
+        Map<Integer, JournalEvent> nodeActivations = activations.get(nodeId);
+        return nodeActivations != null ? nodeActivations.get(activation) : null;
+    }
+
+    /**
+     * 校验节点本次解析出的后续节点与日志中记录的一致。
+     *
+     * @throws IllegalStateException 路由偏离记录
+     */
+    void checkRoute(String nodeId, List<String> nextNodeIds) {
+        List<List<String>> recorded = routes.getOrDefault(nodeId, List.of());
+        int index = routeCursors.computeIfAbsent(nodeId, id -> new AtomicInteger()).getAndIncrement();
+        if (index >= recorded.size() || !recorded.get(index).equals(nextNodeIds)) {
+            throw new IllegalStateException("回放偏离日志: 节点 " + nodeId + " 第 " + (index + 1) + " 次路由到 "
+                    + nextNodeIds + "，记录为 " + (index < recorded.size() ? recorded.get(index) : "无"));
+        }
+    }
+}
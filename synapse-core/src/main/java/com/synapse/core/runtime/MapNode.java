@@ -0,0 +1,248 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.node.Node;
+import com.synapse.core.state.ScopeContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * MapNode 是内置的扇出节点：对输入集合中的每个元素运行目标节点或子图。
+ * <p>
+ * <ul>
+ * <li>最多同时运行 maxConcurrency 个元素，一个元素完成后立即启动下一个。</li>
+ * <li>结果按元素的原始顺序收集为 List，作为 resultKey 输出。</li>
+ * <li>每个元素的输出只存在于其自身的调用（或子图的独立上下文）中，不会写入共享的 ScopeContext。</li>
+ * <li>任一元素失败时不再启动新元素，整个 Map 节点以该异常失败，并取消仍在运行的元素；
+ * Map 节点的 Future 被取消时同样取消全部在途元素。</li>
+ * <li>子图运行继承父运行的 global 数据、优先级与租户。</li>
+ * </ul>
+ */
+class MapNode implements AsyncNode {
+
+    private static final Logger log = LoggerFactory.getLogger(MapNode.class);
+
+    private final String nodeId;
+    private final NodeDefinition.MapSpec spec;
+    private final Function<String, Node> nodeFactory;
+    private final SynapseEngine subgraphEngine; // 仅子图模式下有值
+    private final NodeLimiter itemLimiter; // 目标节点类型的限流器，可为 null
+    private final RunOptions parentOptions; // 子图运行继承其优先级与租户，可为 null
+    private final Map<String, Object> parentGlobalData; // 子图运行继承的 global 数据
+
+    MapNode(String nodeId, NodeDefinition.MapSpec spec, Function<String, Node> nodeFactory,
+            SynapseEngine subgraphEngine, NodeLimiter itemLimiter) {
+        this(nodeId, spec, nodeFactory, subgraphEngine, itemLimiter, null, Collections.emptyMap());
+    }
+
+    private MapNode(String nodeId, NodeDefinition.MapSpec spec, Function<String, Node> nodeFactory,
+            SynapseEngine subgraphEngine, NodeLimiter itemLimiter, RunOptions parentOptions,
+            Map<String, Object> parentGlobalData) {
+        this.nodeId = nodeId;
+        this.spec = spec;
+        this.nodeFactory = nodeFactory;
+        this.subgraphEngine = subgraphEngine;
+        this.itemLimiter = itemLimiter;
+        this.parentOptions = parentOptions;
+        this.parentGlobalData = parentGlobalData;
+    }
+
+    /**
+     * 绑定到一次运行的视图：子图运行继承该运行的 global 数据、优先级与租户。
+     */
+    MapNode forRun(RunOptions runOptions, Map<String, Object> globalData) {
+        if (subgraphEngine == null) {
+            return this;
+        }
+        return new MapNode(nodeId, spec, nodeFactory, subgraphEngine, itemLimiter, runOptions, globalData);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> executeAsync(Map<String, Object> inputs) {
+        List<Object> items;
+        try {
+            items = toList(inputs.get(spec.getItemsInput()));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // 共享输入：除集合本身外的所有输入
+        Map<String, Object> sharedInputs = new HashMap<>(inputs);
+        sharedInputs.remove(spec.getItemsInput());
+
+        int total = items.size();
+        log.debug("Map 节点 {} 开始扇出: {} 个元素，最大并发 {}", nodeId, total, spec.getMaxConcurrency());
+        if (total == 0) {
+            return CompletableFuture.completedFuture(Map.of(spec.getResultKey(), Collections.emptyList()));
+        }
+
+        Object[] results = new Object[total];
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(total); // 失败或取消后为 -1
+        CompletableFuture<Map<String, Object>> done = new CompletableFuture<>();
+        Set<CompletableFuture<Object>> running = ConcurrentHashMap.newKeySet();
+        // Map 节点的 Future 被取消时不再等待其余元素
+        done.whenComplete((result, error) -> {
+            if (done.isCancelled()) {
+                remaining.set(-1);
+                running.forEach(item -> item.cancel(true));
+            }
+        });
+
+        int workers = Math.min(spec.getMaxConcurrency(), total);
+        for (int i = 0; i < workers; i++) {
+            launchNext(items, sharedInputs, results, nextIndex, remaining, running, done);
+        }
+        return done;
+    }
+
+    /**
+     * 领取下一个元素并运行；完成后继续领取，直到元素耗尽或整体失败。
+     * <p>
+     * 同步完成的元素在循环中继续处理，避免大量元素时递归调用导致栈溢出。
+     */
+    private void launchNext(List<Object> items, Map<String, Object> sharedInputs, Object[] results,
+            AtomicInteger nextIndex, AtomicInteger remaining, Set<CompletableFuture<Object>> running,
+            CompletableFuture<Map<String, Object>> done) {
+        while (!done.isDone()) {
+            int index = nextIndex.getAndIncrement();
+            if (index >= items.size()) {
+                return;
+            }
+
+            Map<String, Object> itemInputs = new HashMap<>(sharedInputs);
+            itemInputs.put(spec.getItemKey(), items.get(index));
+
+            CompletableFuture<Object> itemFuture;
+            try {
+                itemFuture = runItem(itemInputs);
+            } catch (Exception e) {
+                itemFuture = CompletableFuture.failedFuture(e);
+            }
+
+            if (!itemFuture.isDone()) {
+                CompletableFuture<Object> pending = itemFuture;
+                running.add(pending);
+                if (done.isDone()) {
+                    pending.cancel(true);
+                }
+                pending.whenComplete((result, error) -> {
+                    running.remove(pending);
+                    if (record(index, result, error, results, remaining, running, done)) {
+                        launchNext(items, sharedInputs, results, nextIndex, remaining, running, done);
+                    }
+                });
+                return;
+            }
+
+            Object result = null;
+            Throwable error = null;
+            try {
+                result = itemFuture.join();
+            } catch (Exception e) {
+                error = e;
+            }
+            if (!record(index, result, error, results, remaining, running, done)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 记录单个元素的结果。
+     *
+     * @return 如果还应继续领取下一个元素则返回 true
+     */
+    private boolean record(int index, Object result, Throwable error, Object[] results, AtomicInteger remaining,
+            Set<CompletableFuture<Object>> running, CompletableFuture<Map<String, Object>> done) {
+        if (error != null) {
+            if (remaining.getAndSet(-1) < 0) {
+                return false; // 整体已失败或被取消，其余元素因此被取消的结果不再记录
+            }
+            log.warn("Map 节点 {} 的第 {} 个元素执行失败", nodeId, index);
+            // 先取消其余元素，Map 节点失败时它们已不再运行
+            running.forEach(item -> item.cancel(true));
+            done.completeExceptionally(error);
+            return false;
+        }
+        results[index] = result;
+        int left = remaining.decrementAndGet();
+        if (left == 0) {
+            done.complete(Map.of(spec.getResultKey(), Collections.unmodifiableList(Arrays.asList(results))));
+        }
+        return left > 0;
+    }
+
+    private CompletableFuture<Object> runItem(Map<String, Object> itemInputs) {
+        String outputKey = spec.getOutputKey();
+
+        if (subgraphEngine != null) {
+            // 子图：元素与共享输入作为子图的 flow 变量，在独立的上下文中运行
+            RunOptions childOptions = parentOptions != null ? parentOptions.child() : new RunOptions();
+            CompletableFuture<ScopeContext> run = subgraphEngine.startRun(parentGlobalData, itemInputs, childOptions);
+            return cancelling(run, run.thenApply(child -> outputKey != null
+                    ? child.getFlow(outputKey).orElse(null)
+                    : new HashMap<>(child.getFlowData())));
+        }
+
+        Node target = nodeFactory.apply(spec.getNodeType());
+        if (target == null) {
+            throw new IllegalStateException("节点工厂对类型返回了 null: " + spec.getNodeType());
+        }
+        CompletableFuture<Map<String, Object>> invocation = itemLimiter != null
+                ? itemLimiter.submit(() -> NodeRunner.invoke(target, itemInputs, null, null))
+                : NodeRunner.invoke(target, itemInputs, null, null);
+        return cancelling(invocation, invocation.thenApply(outputs -> outputKey != null
+                ? (outputs != null ? outputs.get(outputKey) : null)
+                : outputs));
+    }
+
+    /**
+     * 派生 Future 被取消时一并取消源 Future（元素的节点调用或子图运行）。
+     */
+    private static <T> CompletableFuture<T> cancelling(CompletableFuture<?> source, CompletableFuture<T> derived) {
+        derived.whenComplete((result, error) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return derived;
+    }
+
+    private List<Object> toList(Object items) {
+        if (items == null) {
+            return Collections.emptyList();
+        }
+        if (items instanceof List) {
+            return new ArrayList<>((List<?>) items);
+        }
+        if (items instanceof Collection) {
+            return new ArrayList<>((Collection<?>) items);
+        }
+        if (items.getClass().isArray()) {
+            int length = Array.getLength(items);
+            List<Object> list = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                list.add(Array.get(items, i));
+            }
+            return list;
+        }
+        throw new IllegalArgumentException("Map 节点 '" + nodeId + "' 的输入 '" + spec.getItemsInput()
+                + "' 不是集合或数组: " + items.getClass().getName());
+    }
+}
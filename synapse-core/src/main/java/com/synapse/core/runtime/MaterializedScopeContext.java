@@ -0,0 +1,126 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.state.BlobHandle;
+import com.synapse.core.state.ScopeContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MaterializedScopeContext 是条件评估使用的上下文视图：读取到的 {@link BlobHandle} 物化为原始的
+ * byte[] / String / float[]，KV、EXPR 与脚本策略因此看到的是与节点输入相同的值，而不是句柄。
+ * <p>
+ * 只在读取时按键物化，条件未引用的堆外数据不会被复制；写入直接委托给底层上下文。
+ */
+final class MaterializedScopeContext implements ScopeContext {
+
+    private final ScopeContext delegate;
+
+    MaterializedScopeContext(ScopeContext delegate) {
+        this.delegate = delegate;
+    }
+
+    static ScopeContext of(ScopeContext context) {
+        return context instanceof MaterializedScopeContext ? context : new MaterializedScopeContext(context);
+    }
+
+    @Override
+    public <T> Optional<T> getGlobal(String key) {
+        return materialize(delegate.getGlobal(key));
+    }
+
+    @Override
+    public Map<String, Object> getGlobalData() {
+        return materialize(delegate.getGlobalData());
+    }
+
+    @Override
+    public <T> Optional<T> getFlow(String key) {
+        return materialize(delegate.getFlow(key));
+    }
+
+    @Override
+    public double getFlowDouble(String key, double defaultValue) {
+        return delegate.getFlowDouble(key, defaultValue);
+    }
+
+    @Override
+    public long getFlowLong(String key, long defaultValue) {
+        return delegate.getFlowLong(key, defaultValue);
+    }
+
+    @Override
+    public void putFlow(String key, Object value) {
+        delegate.putFlow(key, value);
+    }
+
+    @Override
+    public Map<String, Object> getFlowData() {
+        return materialize(delegate.getFlowData());
+    }
+
+    @Override
+    public void removeFlow(String key) {
+        delegate.removeFlow(key);
+    }
+
+    @Override
+    public <T> Optional<T> getNodeOutput(String nodeId, String key) {
+        return materialize(delegate.getNodeOutput(nodeId, key));
+    }
+
+    @Override
+    public void putNodeOutput(String nodeId, String key, Object value) {
+        delegate.putNodeOutput(nodeId, key, value);
+    }
+
+    @Override
+    public Map<String, Object> getNodeOutputs(String nodeId) {
+        return materialize(delegate.getNodeOutputs(nodeId));
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> getAllNodeModels() {
+        Map<String, Map<String, Object>> models = delegate.getAllNodeModels();
+        Map<String, Map<String, Object>> copy = null;
+        for (Map.Entry<String, Map<String, Object>> entry : models.entrySet()) {
+            Map<String, Object> outputs = materialize(entry.getValue());
+            if (outputs != entry.getValue()) {
+                if (copy == null) {
+                    copy = new HashMap<>(models);
+                }
+                copy.put(entry.getKey(), outputs);
+            }
+        }
+        return copy != null ? Map.copyOf(copy) : models;
+    }
+
+    @Override
+    public void removeNodeOutput(String nodeId, String key) {
+        delegate.removeNodeOutput(nodeId, key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Optional<T> materialize(Optional<T> value) {
+        return value.isPresent() && value.get() instanceof BlobHandle
+                ? Optional.of((T) ((BlobHandle) value.get()).materialize())
+                : value;
+    }
+
+    /**
+     * 不含句柄时原样返回，否则返回物化后的不可变副本。
+     */
+    private static Map<String, Object> materialize(Map<String, Object> values) {
+        Map<String, Object> copy = null;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getValue() instanceof BlobHandle) {
+                if (copy == null) {
+                    copy = new HashMap<>(values);
+                }
+                copy.put(entry.getKey(), ((BlobHandle) entry.getValue()).materialize());
+            }
+        }
+        return copy != null ? Map.copyOf(copy) : values;
+    }
+}
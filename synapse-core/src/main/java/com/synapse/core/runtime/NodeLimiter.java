@@ -0,0 +1,225 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.graph.NodeLimit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * NodeLimiter 对同一节点类型的所有调用施加令牌桶限流与并发舱壁。
+ * <p>
+ * 许可不足时调用进入 FIFO 队列，以 Future 的形式等待，不阻塞任何线程：
+ * 舱壁名额由完成的调用归还后唤醒队首；令牌不足时安排一次定时器在下一枚令牌生成时唤醒。
+ * 排队数超过 maxQueued 时以 {@link RejectedExecutionException} 拒绝。
+ */
+public class NodeLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(NodeLimiter.class);
+
+    private final String nodeType;
+    private final double ratePerNano; // 0 表示不限速
+    private final double burst;
+    private final int maxConcurrency; // 0 表示不限
+    private final int maxQueued;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // 以下状态由 this 锁保护
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+    private int active;
+    private boolean refillScheduled;
+
+    public NodeLimiter(String nodeType, NodeLimit limit) {
+        this.nodeType = nodeType;
+        this.ratePerNano = limit.getRatePerSecond() / 1_000_000_000d;
+        this.burst = limit.getBurst();
+        this.maxConcurrency = limit.getMaxConcurrency();
+        this.maxQueued = limit.getMaxQueued();
+        this.tokens = burst;
+    }
+
+    /**
+     * 在获得许可后执行任务。
+     * <p>
+     * 任务结束时自动归还舱壁名额；取消返回的 Future 会将排队中的调用移出队列，或取消已在执行的任务。
+     */
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<Void> permit = acquire();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> running = new AtomicReference<>();
+
+        permit.whenComplete((v, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+                return;
+            }
+            if (result.isDone()) {
+                // 排队期间已被取消
+                release();
+                return;
+            }
+            CompletableFuture<T> inner;
+            try {
+                inner = task.get();
+            } catch (RuntimeException ex) {
+                release();
+                result.completeExceptionally(ex);
+                return;
+            }
+            running.set(inner);
+            inner.whenComplete((r, err) -> {
+                release();
+                if (err != null) {
+                    result.completeExceptionally(err);
+                } else {
+                    result.complete(r);
+                }
+            });
+        });
+
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                permit.cancel(false);
+                CompletableFuture<T> inner = running.get();
+                if (inner != null) {
+                    inner.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<Void> acquire() {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            if (waiters.isEmpty() && tryTake()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (waiters.size() >= maxQueued) {
+                rejected.incrementAndGet();
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "节点类型 '" + nodeType + "' 的等待队列已满 (" + maxQueued + ")，已拒绝调用"));
+            }
+            waiter = new CompletableFuture<>();
+            waiters.addLast(waiter);
+        }
+        waiter.whenComplete((v, e) -> {
+            if (waiter.isCancelled()) {
+                synchronized (this) {
+                    waiters.remove(waiter);
+                }
+            }
+        });
+        drain();
+        return waiter;
+    }
+
+    /**
+     * 不排队地尝试获取许可（例如对冲的第二次调用）：没有排队者且舱壁名额与令牌都充足时成功，
+     * 成功后须调用 {@link #release()} 归还。
+     */
+    boolean tryAcquire() {
+        synchronized (this) {
+            return waiters.isEmpty() && tryTake();
+        }
+    }
+
+    void release() {
+        synchronized (this) {
+            active--;
+        }
+        drain();
+    }
+
+    /**
+     * 尝试同时获取舱壁名额与令牌，调用方须持有锁。
+     */
+    private boolean tryTake() {
+        if (maxConcurrency > 0 && active >= maxConcurrency) {
+            return false;
+        }
+        if (ratePerNano > 0) {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+        }
+        active++;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * ratePerNano);
+        lastRefillNanos = now;
+    }
+
+    /**
+     * 按 FIFO 顺序唤醒可以获得许可的排队者；回调在锁外执行。
+     */
+    private void drain() {
+        List<CompletableFuture<Void>> ready = new ArrayList<>();
+        long waitNanos = 0;
+        synchronized (this) {
+            while (!waiters.isEmpty() && tryTake()) {
+                ready.add(waiters.pollFirst());
+            }
+            boolean blockedOnTokens = !waiters.isEmpty() && ratePerNano > 0
+                    && (maxConcurrency == 0 || active < maxConcurrency);
+            if (blockedOnTokens && !refillScheduled) {
+                refillScheduled = true;
+                waitNanos = Math.max(1, (long) Math.ceil((1 - tokens) / ratePerNano));
+            }
+        }
+
+        if (waitNanos > 0) {
+            log.trace("节点类型 {} 令牌不足，{}ns 后重试", nodeType, waitNanos);
+            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                synchronized (this) {
+                    refillScheduled = false;
+                }
+                drain();
+            });
+        }
+        for (CompletableFuture<Void> waiter : ready) {
+            if (!waiter.complete(null)) {
+                // 已被取消：归还名额（令牌不退还）
+                release();
+            }
+        }
+    }
+
+    public String getNodeType() {
+        return nodeType;
+    }
+
+    /**
+     * 当前等待许可的调用数。
+     */
+    public synchronized int getQueueDepth() {
+        return waiters.size();
+    }
+
+    /**
+     * 当前正在执行的调用数。
+     */
+    public synchronized int getActive() {
+        return active;
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+}
@@ -1,7 +1,14 @@
 package com.synapse.core.runtime;
 
 import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.jfr.InputMapEvent;
+import com.synapse.core.jfr.OutputDispatchEvent;
+import com.synapse.core.node.BlobHandleAware;
 import com.synapse.core.node.Node;
+import com.synapse.core.node.StreamInput;
+import com.synapse.core.node.StreamingInputNode;
+import com.synapse.core.state.BlobHandle;
+import com.synapse.core.state.BlobStore;
 import com.synapse.core.state.ScopeContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * NodeRunner 负责使用正确的输入/输出映射执行节点（Node）。
@@ -26,6 +34,38 @@ public class NodeRunner {
 
     private static final Logger log = LoggerFactory.getLogger(NodeRunner.class);
 
+    private final BlobStore blobStore; // 可为 null，表示不使用堆外存储
+    private final InlinePolicy inlinePolicy;
+    private final String graphName; // JFR 事件中的图名，可为 null
+    private final Map<String, Hedger> hedgers = new ConcurrentHashMap<>(); // 按节点 ID，跨运行累积延迟样本
+    private volatile Map<String, NodeLimiter> limiters = Map.of(); // 按节点类型，对冲调用从中获取许可
+
+    public NodeRunner() {
+        this(null);
+    }
+
+    /**
+     * 创建使用堆外存储的 NodeRunner。
+     *
+     * @param blobStore 大体积输出的堆外存储（可为 null）
+     */
+    public NodeRunner(BlobStore blobStore) {
+        this(null, blobStore, InlinePolicy.hintsOnly());
+    }
+
+    NodeRunner(String graphName, BlobStore blobStore, InlinePolicy inlinePolicy) {
+        this.graphName = graphName;
+        this.blobStore = blobStore;
+        this.inlinePolicy = inlinePolicy;
+    }
+
+    /**
+     * 设置按节点类型的限流器，对冲请求的第二次调用须从中获得许可。
+     */
+    void useLimiters(Map<String, NodeLimiter> limiters) {
+        this.limiters = limiters;
+    }
+
     /**
      * 异步运行节点。
      *
@@ -50,6 +90,29 @@ public class NodeRunner {
      */
     public CompletableFuture<Map<String, Object>> runAsync(NodeDefinition definition, Node nodeInstance,
             ScopeContext context, com.synapse.core.node.DataStreamer streamer) {
+        return runAsync(definition, nodeInstance, context, streamer, null);
+    }
+
+    /**
+     * 异步运行节点，支持流式输出与流式输入。
+     *
+     * @param definition   节点的元数据
+     * @param nodeInstance 节点实例
+     * @param context      执行上下文
+     * @param streamer     流式回调（可为 null）
+     * @param streamInput  流式边的接收端（可为 null，仅对 StreamingInputNode 有效）
+     * @return 包含节点输出的 CompletableFuture
+     */
+    public CompletableFuture<Map<String, Object>> runAsync(NodeDefinition definition, Node nodeInstance,
+            ScopeContext context, com.synapse.core.node.DataStreamer streamer, StreamInput streamInput) {
+        return runAsync(definition, nodeInstance, context, streamer, streamInput, null);
+    }
+
+    /**
+     * 在一次运行中异步运行节点，runId 记入 JFR 事件（可为 null）。
+     */
+    CompletableFuture<Map<String, Object>> runAsync(NodeDefinition definition, Node nodeInstance,
+            ScopeContext context, com.synapse.core.node.DataStreamer streamer, StreamInput streamInput, String runId) {
         Objects.requireNonNull(definition, "NodeDefinition 不能为空");
         Objects.requireNonNull(nodeInstance, "节点实例不能为空");
         Objects.requireNonNull(context, "ScopeContext 不能为空");
@@ -58,38 +121,158 @@ public class NodeRunner {
         log.debug("正在运行节点 (Async): {}", nodeId);
 
         // 1. 映射输入
-        Map<String, Object> inputs = mapInputs(definition.getInputMappings(), context);
+        InputMapEvent inputEvent = new InputMapEvent();
+        inputEvent.begin();
+        Map<String, Object> inputs = mapInputs(definition.getInputMappings(), context,
+                nodeInstance instanceof BlobHandleAware);
+        if (inputEvent.shouldCommit()) {
+            inputEvent.graphName = graphName;
+            inputEvent.runId = runId;
+            inputEvent.nodeId = nodeId;
+            inputEvent.nodeType = definition.getType();
+            inputEvent.inputCount = inputs.size();
+            inputEvent.commit();
+        }
         log.trace("节点 {} 输入: {}", nodeId, inputs);
 
+        // 2. 执行节点
+        CompletableFuture<Map<String, Object>> futureResult = execute(definition, nodeInstance, inputs, streamer,
+                streamInput);
+
+        // 3. 执行完成后分发输出，并透传结果
+        CompletableFuture<Map<String, Object>> result = futureResult.thenApply(outputs -> {
+            log.trace("节点 {} 输出: {}", nodeId, outputs);
+            dispatchOutputs(definition, outputs, context, runId);
+            return outputs;
+        });
+
+        // 取消向节点自身的 Future 传播，使 AsyncNode 能够中止在途调用
+        result.whenComplete((outputs, e) -> {
+            if (result.isCancelled()) {
+                futureResult.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 以已映射的输入执行节点，不分发输出：廉价同步节点内联在当前线程，声明了对冲的异步节点经对冲调用，
+     * 其余按异步 / 流式 / 线程池调用。推测执行以此启动节点，与正常激活采用相同的执行方式。
+     */
+    CompletableFuture<Map<String, Object>> execute(NodeDefinition definition, Node nodeInstance,
+            Map<String, Object> inputs, com.synapse.core.node.DataStreamer streamer, StreamInput streamInput) {
+        String nodeId = definition.getId();
+        if (inlinePolicy.shouldInline(definition, nodeInstance)) {
+            log.trace("节点 {} 内联执行", nodeId);
+            return executeInline(nodeId, nodeInstance, inputs);
+        } else if (definition.getHedge() != null && nodeInstance instanceof com.synapse.core.node.AsyncNode
+                && !(nodeInstance instanceof com.synapse.core.node.StreamingNode)
+                && !(nodeInstance instanceof StreamingInputNode)) {
+            // 流式节点不对冲：两次调用会产生重复的流式片段，且流式输入只能被消费一次
+            return hedgerFor(definition).invoke((com.synapse.core.node.AsyncNode) nodeInstance, inputs);
+        } else if (inlinePolicy.isMeasuring() && InlinePolicy.isSynchronous(nodeInstance)) {
+            return CompletableFuture.supplyAsync(() -> executeTimed(nodeId, nodeInstance, inputs));
+        }
+        return invoke(nodeInstance, inputs, streamer, streamInput);
+    }
+
+    /**
+     * 按节点类型（流式 / 异步 / 同步）调用节点，不涉及任何上下文映射。
+     *
+     * @param nodeInstance 节点实例
+     * @param inputs       已映射的输入
+     * @param streamer     流式回调（可为 null）
+     * @param streamInput  流式输入（可为 null）
+     * @return 包含节点原始输出的 CompletableFuture
+     */
+    static CompletableFuture<Map<String, Object>> invoke(Node nodeInstance, Map<String, Object> inputs,
+            com.synapse.core.node.DataStreamer streamer, StreamInput streamInput) {
         // 使用安全的空 Streamer 防止 NPE
         com.synapse.core.node.DataStreamer safeStreamer = streamer != null ? streamer : content -> {
         };
 
-        // 2. 执行节点 (异步/流式)
-        CompletableFuture<Map<String, Object>> futureResult;
-        if (nodeInstance instanceof com.synapse.core.node.StreamingNode) {
-            futureResult = ((com.synapse.core.node.StreamingNode) nodeInstance).executeStream(inputs, safeStreamer);
+        if (nodeInstance instanceof StreamingInputNode) {
+            return ((StreamingInputNode) nodeInstance).executeStreaming(inputs,
+                    streamInput != null ? streamInput : StreamInput.empty(), safeStreamer);
+        } else if (nodeInstance instanceof com.synapse.core.node.StreamingNode) {
+            return ((com.synapse.core.node.StreamingNode) nodeInstance).executeStream(inputs, safeStreamer);
         } else if (nodeInstance instanceof com.synapse.core.node.AsyncNode) {
-            futureResult = ((com.synapse.core.node.AsyncNode) nodeInstance).executeAsync(inputs);
-        } else {
-            // 同步节点包装
-            futureResult = CompletableFuture.supplyAsync(() -> {
-                try {
-                    return nodeInstance.execute(inputs);
-                } catch (Exception e) {
-                    throw new java.util.concurrent.CompletionException(e);
-                }
-            });
+            return ((com.synapse.core.node.AsyncNode) nodeInstance).executeAsync(inputs);
         }
-
-        // 3. 执行完成后分发输出，并透传结果
-        return futureResult.thenApply(outputs -> {
-            log.trace("节点 {} 输出: {}", nodeId, outputs);
-            dispatchOutputs(nodeId, definition.getOutputMappings(), outputs, context);
-            return outputs;
+        // 同步节点包装
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return nodeInstance.execute(inputs);
+            } catch (Exception e) {
+                throw new java.util.concurrent.CompletionException(e);
+            }
         });
     }
 
+    private static Object transform(String nodeId, NodeDefinition.OutputMapping mapping, Object value) {
+        try {
+            return mapping.getTransform().apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("节点 " + nodeId + " 的输出 '" + mapping.getSourceKey() + "' 执行 transform '"
+                    + mapping.getTransform() + "' 失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 不调用节点，直接将已有的输出（例如增量重跑中复用的结果）按输出映射分发到上下文。
+     */
+    void dispatchRecorded(NodeDefinition definition, Map<String, Object> outputs, ScopeContext context, String runId) {
+        log.trace("节点 {} 复用输出: {}", definition.getId(), outputs);
+        dispatchOutputs(definition, outputs, context, runId);
+    }
+
+    /**
+     * 按输入映射从上下文解析节点的输入（推测执行在启动与采用时分别解析并比较）。
+     */
+    Map<String, Object> resolveInputs(NodeDefinition definition, Node nodeInstance, ScopeContext context) {
+        return resolveInputs(definition, context, nodeInstance instanceof BlobHandleAware);
+    }
+
+    /**
+     * @param handleAware 为 true 时堆外句柄原样返回，不物化
+     */
+    Map<String, Object> resolveInputs(NodeDefinition definition, ScopeContext context, boolean handleAware) {
+        return mapInputs(definition.getInputMappings(), context, handleAware);
+    }
+
+    Hedger hedgerFor(NodeDefinition definition) {
+        return hedgers.computeIfAbsent(definition.getId(),
+                id -> new Hedger(id, definition.getHedge(), limiters.get(definition.getType())));
+    }
+
+    /**
+     * 在当前线程上直接执行同步节点，返回已完成的 Future。
+     */
+    private CompletableFuture<Map<String, Object>> executeInline(String nodeId, Node nodeInstance,
+            Map<String, Object> inputs) {
+        try {
+            return CompletableFuture.completedFuture(executeTimed(nodeId, nodeInstance, inputs));
+        } catch (java.util.concurrent.CompletionException e) {
+            return CompletableFuture.failedFuture(e.getCause());
+        }
+    }
+
+    /**
+     * 执行同步节点；开启自动内联时记录耗时供策略判定。
+     */
+    private Map<String, Object> executeTimed(String nodeId, Node nodeInstance, Map<String, Object> inputs) {
+        long start = System.nanoTime();
+        try {
+            return nodeInstance.execute(inputs);
+        } catch (Exception e) {
+            throw new java.util.concurrent.CompletionException(e);
+        } finally {
+            if (inlinePolicy.isMeasuring()) {
+                inlinePolicy.record(nodeId, System.nanoTime() - start);
+            }
+        }
+    }
+
     /**
      * 同步运行节点 (保留以向后兼容).
      */
@@ -109,7 +292,8 @@ public class NodeRunner {
     /**
      * 根据输入映射表达式从上下文中映射输入。
      */
-    private Map<String, Object> mapInputs(Map<String, String> inputMappings, ScopeContext context) {
+    private Map<String, Object> mapInputs(Map<String, String> inputMappings, ScopeContext context,
+            boolean handleAware) {
         if (inputMappings == null || inputMappings.isEmpty()) {
             return new HashMap<>();
         }
@@ -120,6 +304,10 @@ public class NodeRunner {
             String expression = entry.getValue();
 
             Object value = evaluateExpression(expression, context);
+            if (value instanceof BlobHandle && !handleAware) {
+                // 不理解句柄的节点：透明物化为原始值
+                value = ((BlobHandle) value).materialize();
+            }
             inputs.put(paramName, value);
         }
         return inputs;
@@ -160,16 +348,31 @@ public class NodeRunner {
     /**
      * 将节点输出分发到相应的作用域上下文。
      */
-    private void dispatchOutputs(String nodeId, List<NodeDefinition.OutputMapping> outputMappings,
-            Map<String, Object> outputs, ScopeContext context) {
-        if (outputs == null || outputs.isEmpty()) {
-            return;
+    private void dispatchOutputs(NodeDefinition definition, Map<String, Object> outputs, ScopeContext context,
+            String runId) {
+        if (outputs == null) {
+            outputs = Map.of();
+        }
+        OutputDispatchEvent event = new OutputDispatchEvent();
+        event.begin();
+        dispatchMapped(definition.getId(), definition.getOutputMappings(), outputs, context);
+        if (event.shouldCommit()) {
+            event.graphName = graphName;
+            event.runId = runId;
+            event.nodeId = definition.getId();
+            event.nodeType = definition.getType();
+            event.outputCount = outputs.size();
+            event.commit();
         }
+    }
+
+    private void dispatchMapped(String nodeId, List<NodeDefinition.OutputMapping> outputMappings,
+            Map<String, Object> outputs, ScopeContext context) {
 
         // 如果没有显式的输出映射，默认将所有输出放入节点作用域
         if (outputMappings == null || outputMappings.isEmpty()) {
             for (Map.Entry<String, Object> entry : outputs.entrySet()) {
-                context.putNodeOutput(nodeId, entry.getKey(), entry.getValue());
+                context.putNodeOutput(nodeId, entry.getKey(), offload(entry.getValue()));
             }
             return;
         }
@@ -177,7 +380,11 @@ public class NodeRunner {
         // 处理显式输出映射
         for (NodeDefinition.OutputMapping mapping : outputMappings) {
             String sourceKey = mapping.getSourceKey();
-            Object value = outputs.get(sourceKey);
+            Object value = mapping.isWholeOutput() ? outputs : outputs.get(sourceKey);
+            // 源值缺失时同样执行变换，使 default(...) 等能处理 null
+            if (mapping.getTransform() != null) {
+                value = transform(nodeId, mapping, value);
+            }
 
             if (value == null) {
                 log.trace("在节点 {} 结果中未找到输出键 '{}'，跳过。", nodeId, sourceKey);
@@ -189,9 +396,9 @@ public class NodeRunner {
 
             if (targetScope == null || targetScope.isBlank() || "node".equalsIgnoreCase(targetScope)) {
                 // 默认：输出到当前节点的命名空间
-                context.putNodeOutput(nodeId, targetKey, value);
+                context.putNodeOutput(nodeId, targetKey, offload(value));
             } else if ("flow".equalsIgnoreCase(targetScope)) {
-                context.putFlow(targetKey, value);
+                context.putFlow(targetKey, offload(value));
             } else if ("global".equalsIgnoreCase(targetScope)) {
                 log.warn("限制从节点 {} 写入全局作用域。键: {}", nodeId, targetKey);
             } else {
@@ -199,4 +406,19 @@ public class NodeRunner {
             }
         }
     }
+
+    /**
+     * 大体积输出存放到堆外，上下文中只保留句柄。
+     * 理解句柄的节点原样输出的输入句柄会存放到第二处，为其增加一个引用，
+     * 使原来那处被释放后句柄仍然有效。
+     */
+    private Object offload(Object value) {
+        if (value instanceof BlobHandle) {
+            return ((BlobHandle) value).retain();
+        }
+        if (blobStore != null && value != null && blobStore.shouldOffload(value)) {
+            return blobStore.put(value);
+        }
+        return value;
+    }
 }
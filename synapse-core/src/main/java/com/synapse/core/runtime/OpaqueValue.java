@@ -0,0 +1,86 @@
+package com.synapse.core.runtime;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * OpaqueValue 是运行日志中无法如实编码的值（{@link BinaryValueCodec} 不支持的类型，例如自定义对象、
+ * BigDecimal、堆外句柄）解码后的占位，只保留原始类型名与 toString() 文本，供诊断查看。
+ * <p>
+ * 回放遇到含占位的节点输出或初始输入时失败，而不是把文本当作原值继续执行。
+ */
+public final class OpaqueValue {
+
+    private final String typeName;
+    private final String text;
+
+    public OpaqueValue(String typeName, String text) {
+        this.typeName = Objects.requireNonNull(typeName, "typeName 不能为空");
+        this.text = Objects.requireNonNull(text, "text 不能为空");
+    }
+
+    /**
+     * 原始值的类名。
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * 原始值的 toString()（堆外句柄为 "&lt;blob&gt;"）。
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 查找值（含嵌套的 Map 与集合）中的第一个占位，没有时返回 null。
+     */
+    static OpaqueValue find(Object value) {
+        if (value instanceof OpaqueValue) {
+            return (OpaqueValue) value;
+        }
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                OpaqueValue found = find(entry.getKey());
+                if (found == null) {
+                    found = find(entry.getValue());
+                }
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                OpaqueValue found = find(item);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OpaqueValue)) {
+            return false;
+        }
+        OpaqueValue that = (OpaqueValue) o;
+        return typeName.equals(that.typeName) && text.equals(that.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(typeName, text);
+    }
+
+    @Override
+    public String toString() {
+        return "OpaqueValue{" + typeName + ": " + text + '}';
+    }
+}
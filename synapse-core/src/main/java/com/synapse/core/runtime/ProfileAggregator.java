@@ -0,0 +1,150 @@
+package com.synapse.core.runtime;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ProfileAggregator 跨运行汇总 {@link RunProfile}：按节点统计激活次数、平均排队/执行/条件耗时、
+ * 平均松弛时间，以及节点位于关键路径上的频率。
+ * <p>
+ * 配置到 {@link EngineOptions#setProfileAggregator(ProfileAggregator)} 后，引擎为每次运行开启剖析，
+ * 并在运行结束时汇入；也可以手动调用 {@link #add(RunProfile)}。可在多个引擎间共享。
+ */
+public class ProfileAggregator {
+
+    private final Map<String, NodeStats> nodes = new ConcurrentHashMap<>();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public ProfileAggregator() {
+    }
+
+    /**
+     * 单个节点的跨运行统计。
+     */
+    public static class NodeStats {
+
+        private final LongAdder activations = new LongAdder();
+        private final LongAdder critical = new LongAdder();
+        private final LongAdder queuedNanos = new LongAdder();
+        private final LongAdder executingNanos = new LongAdder();
+        private final LongAdder conditionNanos = new LongAdder();
+        private final LongAdder slackNanos = new LongAdder();
+
+        public long getActivations() {
+            return activations.sum();
+        }
+
+        /**
+         * 位于关键路径上的激活次数。
+         */
+        public long getCriticalActivations() {
+            return critical.sum();
+        }
+
+        /**
+         * 激活位于关键路径上的比例。
+         */
+        public double getCriticalRatio() {
+            long count = activations.sum();
+            return count == 0 ? 0 : (double) critical.sum() / count;
+        }
+
+        public double getMeanQueuedNanos() {
+            return mean(queuedNanos);
+        }
+
+        public double getMeanExecutingNanos() {
+            return mean(executingNanos);
+        }
+
+        public double getMeanConditionNanos() {
+            return mean(conditionNanos);
+        }
+
+        public double getMeanSlackNanos() {
+            return mean(slackNanos);
+        }
+
+        private double mean(LongAdder total) {
+            long count = activations.sum();
+            return count == 0 ? 0 : (double) total.sum() / count;
+        }
+    }
+
+    /**
+     * 汇入一次已结束运行的剖析。
+     */
+    public void add(RunProfile profile) {
+        if (!profile.isFinished()) {
+            throw new IllegalArgumentException("只能汇总已结束运行的剖析");
+        }
+        runs.increment();
+        totalNanos.add(profile.getTotalNanos());
+        for (RunProfile.Span span : profile.getSpans()) {
+            NodeStats stats = nodes.computeIfAbsent(span.getNodeId(), k -> new NodeStats());
+            stats.activations.increment();
+            if (span.isCritical()) {
+                stats.critical.increment();
+            }
+            stats.queuedNanos.add(span.getQueuedNanos());
+            stats.executingNanos.add(span.getExecutingNanos());
+            stats.conditionNanos.add(span.getConditionNanos());
+            stats.slackNanos.add(span.getSlackNanos());
+        }
+    }
+
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    public double getMeanRunNanos() {
+        long count = runs.sum();
+        return count == 0 ? 0 : (double) totalNanos.sum() / count;
+    }
+
+    /**
+     * 节点 ID -> 统计，按节点 ID 排序。
+     */
+    public Map<String, NodeStats> getNodeStats() {
+        return new TreeMap<>(nodes);
+    }
+
+    public NodeStats getNodeStats(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    /**
+     * 清空已汇总的统计。
+     */
+    public void reset() {
+        nodes.clear();
+        runs.reset();
+        totalNanos.reset();
+    }
+
+    /**
+     * 可读的汇总报告（毫秒），按关键路径频率从高到低排列。
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d 次运行，平均耗时 %.3f ms%n", getRuns(), RunProfile.millis(getMeanRunNanos())));
+        sb.append(String.format("%-20s %8s %8s %10s %10s %10s %10s%n",
+                "节点", "激活", "关键占比", "平均排队", "平均执行", "平均条件", "平均松弛"));
+        nodes.entrySet().stream()
+                .sorted((a, b) -> Double.compare(b.getValue().getCriticalRatio(), a.getValue().getCriticalRatio()))
+                .forEach(entry -> {
+                    NodeStats stats = entry.getValue();
+                    sb.append(String.format("%-20s %8d %7.1f%% %10.3f %10.3f %10.3f %10.3f%n", entry.getKey(),
+                            stats.getActivations(), stats.getCriticalRatio() * 100,
+                            RunProfile.millis(stats.getMeanQueuedNanos()),
+                            RunProfile.millis(stats.getMeanExecutingNanos()),
+                            RunProfile.millis(stats.getMeanConditionNanos()),
+                            RunProfile.millis(stats.getMeanSlackNanos())));
+                });
+        return sb.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.node.AsyncNode;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * RemoteNode 是派发到工作池的节点在编排进程中的代理：输入映射、限流、对冲与输出分发照常在本地完成，
+ * 只有节点本身经 {@link TaskTransport} 在工作进程中执行。
+ */
+final class RemoteNode implements AsyncNode {
+
+    private final TaskTransport transport;
+    private final String pool;
+    private final String nodeType;
+
+    RemoteNode(TaskTransport transport, String pool, String nodeType) {
+        this.transport = transport;
+        this.pool = pool;
+        this.nodeType = nodeType;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> executeAsync(Map<String, Object> inputs) {
+        return transport.dispatch(pool, nodeType, inputs);
+    }
+}
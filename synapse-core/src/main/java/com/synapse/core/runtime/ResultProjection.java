@@ -0,0 +1,64 @@
+package com.synapse.core.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ResultProjection 是 RunOptions.retainedKeys 的解析结果，用于判断某个结果键是否需要保留。
+ */
+class ResultProjection {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultProjection.class);
+    private static final String WILDCARD = "*";
+
+    private boolean allFlow;
+    private final Set<String> flowKeys = new HashSet<>();
+    private final Set<String> wholeNodes = new HashSet<>();
+    private final Map<String, Set<String>> nodeKeys = new HashMap<>();
+
+    ResultProjection(Collection<String> retainedKeys) {
+        for (String entry : retainedKeys) {
+            if (entry == null || entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("\\.", 3);
+            if ("flow".equals(parts[0])) {
+                if (parts.length < 2 || WILDCARD.equals(parts[1])) {
+                    allFlow = true;
+                } else {
+                    flowKeys.add(parts[1]);
+                }
+            } else if ("nodes".equals(parts[0]) && parts.length >= 2) {
+                if (parts.length < 3 || WILDCARD.equals(parts[2])) {
+                    wholeNodes.add(parts[1]);
+                } else {
+                    nodeKeys.computeIfAbsent(parts[1], k -> new HashSet<>()).add(parts[2]);
+                }
+            } else {
+                log.warn("无效的保留键: {}。预期为 'flow.key' 或 'nodes.nodeId.key'", entry);
+            }
+        }
+    }
+
+    boolean keepsFlow(String key) {
+        return allFlow || flowKeys.contains(key);
+    }
+
+    boolean keepsNodeOutput(String nodeId, String key) {
+        if (wholeNodes.contains(nodeId)) {
+            return true;
+        }
+        Set<String> keys = nodeKeys.get(nodeId);
+        return keys != null && keys.contains(key);
+    }
+
+    boolean keepsAllOf(String nodeId) {
+        return wholeNodes.contains(nodeId);
+    }
+}
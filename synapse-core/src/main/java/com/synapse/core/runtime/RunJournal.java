@@ -0,0 +1,297 @@
+package com.synapse.core.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RunJournal 是只追加的二进制运行日志：记录节点输入/输出、路由结果与耗时，
+ * 用于排查线上运行与回放（{@link SynapseEngine#replay(List, String, boolean)}）。
+ * <p>
+ * <ul>
+ * <li>执行线程只把事件放入有界环形缓冲区，编码与写盘在独立的写线程上完成；
+ * 缓冲区满时丢弃事件并计数（{@link #getDroppedEvents()}），不阻塞节点执行。</li>
+ * <li>值使用 {@link BinaryValueCodec} 编码；日志被截断（进程崩溃）时读取到最后一个完整事件为止。</li>
+ * </ul>
+ * 通过 {@link EngineOptions#setJournal(RunJournal)} 启用；同一实例可在多个引擎间共享，事件以 runId 区分。
+ */
+public class RunJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(RunJournal.class);
+
+    private static final int MAGIC = 0x53594E4A; // "SYNJ"
+    private static final int VERSION = 2; // 2：Set 单独编码，不支持的值记录类名
+    private static final int BATCH = 256;
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final BlockingQueue<JournalEvent> ring;
+    private final DataOutputStream out;
+    private final Thread writer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * 创建写入文件的日志（覆盖已有文件）。
+     */
+    public RunJournal(Path file) throws IOException {
+        this(Files.newOutputStream(file), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param output   日志输出流，关闭日志时一并关闭
+     * @param capacity 环形缓冲区容量（事件个数）
+     */
+    public RunJournal(OutputStream output, int capacity) throws IOException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("日志缓冲区容量必须 >= 1: " + capacity);
+        }
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        this.out = new DataOutputStream(new BufferedOutputStream(output, 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        this.writer = new Thread(this::drain, "synapse-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void runStarted(String runId, String graphName, Map<String, Object> global, Map<String, Object> flow) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("graph", graphName);
+        data.put("global", snapshot(global));
+        data.put("flow", snapshot(flow));
+        append(new JournalEvent(JournalEvent.Type.RUN_STARTED, runId, null, 0, System.currentTimeMillis(), 0, null,
+                null, data));
+    }
+
+    void nodeCompleted(String runId, String nodeId, int activation, long durationNanos, Map<String, Object> inputs,
+            Map<String, Object> outputs) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("inputs", snapshot(inputs));
+        data.put("outputs", snapshot(outputs));
+        append(new JournalEvent(JournalEvent.Type.NODE_COMPLETED, runId, nodeId, activation,
+                System.currentTimeMillis(), durationNanos, null, null, data));
+    }
+
+    void nodeFailed(String runId, String nodeId, int activation, long durationNanos, Map<String, Object> inputs,
+            Throwable error) {
+        append(new JournalEvent(JournalEvent.Type.NODE_FAILED, runId, nodeId, activation, System.currentTimeMillis(),
+                durationNanos, error.getClass().getSimpleName() + ": " + error.getMessage(), null,
+                Map.of("inputs", snapshot(inputs))));
+    }
+
+    void routed(String runId, String nodeId, List<String> targets) {
+        append(new JournalEvent(JournalEvent.Type.ROUTED, runId, nodeId, 0, System.currentTimeMillis(), 0, null,
+                List.copyOf(targets), null));
+    }
+
+    void runFinished(String runId, String status, Throwable error) {
+        append(new JournalEvent(JournalEvent.Type.RUN_FINISHED, runId, null, 0, System.currentTimeMillis(), 0,
+                error != null ? error.getClass().getSimpleName() + ": " + error.getMessage() : null, null,
+                Map.of("status", status)));
+    }
+
+    /**
+     * 在追加时复制事件引用的 Map、集合与基本类型数组（逐层），写线程稍后编码时不会看到节点或调用方之后的修改，
+     * 也不会与其并发访问同一个非线程安全的容器。其余值按引用保存，应为不可变值。
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T snapshot(T value) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new HashMap<>();
+            ((Map<?, ?>) value).forEach((key, item) -> copy.put(key, snapshot(item)));
+            return (T) copy;
+        }
+        if (value instanceof Set) {
+            Set<Object> copy = new LinkedHashSet<>();
+            for (Object item : (Set<?>) value) {
+                copy.add(snapshot(item));
+            }
+            return (T) copy;
+        }
+        if (value instanceof Collection) {
+            List<Object> copy = new ArrayList<>(((Collection<?>) value).size());
+            for (Object item : (Collection<?>) value) {
+                copy.add(snapshot(item));
+            }
+            return (T) copy;
+        }
+        if (value instanceof byte[]) {
+            return (T) ((byte[]) value).clone();
+        }
+        if (value instanceof float[]) {
+            return (T) ((float[]) value).clone();
+        }
+        if (value instanceof double[]) {
+            return (T) ((double[]) value).clone();
+        }
+        if (value instanceof int[]) {
+            return (T) ((int[]) value).clone();
+        }
+        if (value instanceof long[]) {
+            return (T) ((long[]) value).clone();
+        }
+        return value;
+    }
+
+    private void append(JournalEvent event) {
+        if (closed || !ring.offer(event)) {
+            if (dropped.getAndIncrement() == 0) {
+                log.warn("运行日志缓冲区已满或已关闭，开始丢弃事件");
+            }
+        }
+    }
+
+    /**
+     * 写线程：批量取出事件并编码，缓冲区暂时为空时刷新输出流。
+     * <p>
+     * 每个事件先完整编码到缓冲区再写入输出流：单个事件编码失败时只丢弃该事件，日志中不会留下半个事件。
+     */
+    private void drain() {
+        List<JournalEvent> batch = new ArrayList<>(BATCH);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        DataOutputStream encoder = new DataOutputStream(buffer);
+        try {
+            while (!closed || !ring.isEmpty()) {
+                JournalEvent first = ring.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    out.flush();
+                    continue;
+                }
+                batch.add(first);
+                ring.drainTo(batch, BATCH - 1);
+                for (JournalEvent event : batch) {
+                    buffer.reset();
+                    try {
+                        writeEvent(encoder, event);
+                    } catch (RuntimeException e) {
+                        dropped.incrementAndGet();
+                        log.warn("编码运行日志事件失败，已丢弃: {} {} {}", event.getType(), event.getRunId(),
+                                event.getNodeId(), e);
+                        continue;
+                    }
+                    buffer.writeTo(out);
+                    written.incrementAndGet();
+                }
+                batch.clear();
+            }
+            out.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            log.error("写入运行日志失败，停止记录", e);
+            closed = true;
+        }
+    }
+
+    private static void writeEvent(DataOutputStream out, JournalEvent event) throws IOException {
+        out.writeByte(event.getType().ordinal());
+        BinaryValueCodec.write(out, event.getRunId(), true);
+        BinaryValueCodec.write(out, event.getNodeId(), true);
+        out.writeInt(event.getActivation());
+        out.writeLong(event.getTimestampMillis());
+        out.writeLong(event.getDurationNanos());
+        BinaryValueCodec.write(out, event.getError(), true);
+        BinaryValueCodec.write(out, event.getTargets(), true);
+        BinaryValueCodec.write(out, event.getData(), true);
+    }
+
+    /**
+     * 已写出的事件数。
+     */
+    public long getWrittenEvents() {
+        return written.get();
+    }
+
+    /**
+     * 丢弃的事件数：缓冲区满、日志已关闭或事件编码失败。
+     */
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    /**
+     * 写出缓冲区中的剩余事件并关闭输出流。
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+    }
+
+    /**
+     * 读取日志文件中的全部事件。
+     */
+    public static List<JournalEvent> read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * 读取日志流中的全部事件；末尾不完整的事件被忽略。
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JournalEvent> read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("不是 Synapse 运行日志");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("不支持的运行日志版本: " + version);
+        }
+
+        List<JournalEvent> events = new ArrayList<>();
+        JournalEvent.Type[] types = JournalEvent.Type.values();
+        while (true) {
+            int type;
+            try {
+                type = in.readUnsignedByte();
+            } catch (EOFException e) {
+                break;
+            }
+            if (type >= types.length) {
+                throw new IOException("运行日志已损坏: 未知事件类型 " + type);
+            }
+            try {
+                events.add(new JournalEvent(types[type], (String) BinaryValueCodec.read(in),
+                        (String) BinaryValueCodec.read(in), in.readInt(), in.readLong(), in.readLong(),
+                        (String) BinaryValueCodec.read(in), (List<String>) BinaryValueCodec.read(in),
+                        (Map<String, Object>) BinaryValueCodec.read(in)));
+            } catch (EOFException e) {
+                log.warn("运行日志末尾的事件不完整，已忽略");
+                break;
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,156 @@
+package com.synapse.core.runtime;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * RunOptions 描述单次图运行（executeAsync 调用）的可选参数。
+ * <p>
+ * 所有字段均为可选；默认值与 executeAsync(global, flow) 的行为完全一致。
+ */
+public class RunOptions {
+
+    /**
+     * 运行的优先级通道。配置了 {@link FairScheduler} 时，高优先级通道中等待的节点总是先于低优先级通道启动。
+     */
+    public enum Priority {
+        INTERACTIVE, // 交互式请求（对话等），延迟敏感
+        NORMAL,
+        BATCH // 批处理，仅使用空闲的执行名额
+    }
+
+    public static final String DEFAULT_TENANT = "default";
+
+    /**
+     * 运行结束后需要保留在 ScopeContext 中的结果键，null 表示全部保留。
+     * <p>
+     * 支持的格式：
+     * <ul>
+     * <li>"flow.key" / "flow.*"</li>
+     * <li>"nodes.nodeId.key" / "nodes.nodeId.*"</li>
+     * </ul>
+     * 一旦声明，未保留的节点输出会在其最后一次被读取之后立即释放，
+     * 运行结束时未保留的流程变量与节点输出也会被移除，以降低单次运行的峰值堆占用。
+     */
+    private Set<String> retainedKeys;
+
+    /**
+     * 接收本次运行所有节点流式输出的 StreamHub，运行结束时由引擎关闭；null 表示不广播。
+     */
+    private StreamHub streamHub;
+
+    /**
+     * 运行的优先级通道，默认 NORMAL。
+     */
+    private Priority priority = Priority.NORMAL;
+
+    /**
+     * 租户 ID：同一优先级通道内按租户权重加权公平调度，默认 {@link #DEFAULT_TENANT}。
+     */
+    private String tenantId = DEFAULT_TENANT;
+
+    /**
+     * 运行 ID：运行在中断节点挂起后，以此 ID 调用 {@link SynapseEngine#resume(String, java.util.Map)} 恢复；
+     * null 表示由引擎生成随机 ID。
+     */
+    private String runId;
+
+    /**
+     * 运行期间由引擎填充的运行记录（初始输入与各节点的原始输出），
+     * 可作为 {@link SynapseEngine#executeIncremental(RunRecord, java.util.Map)} 的基线；null 表示不记录。
+     */
+    private RunRecord record;
+
+    /**
+     * 运行期间由引擎填充的剖析（各激活的排队/执行/条件耗时、关键路径与松弛时间）；null 表示不剖析。
+     */
+    private RunProfile profile;
+
+    // 是否为派生的子运行（Map 子图的元素运行），子运行不汇入引擎的剖析汇总
+    private boolean child;
+
+    public RunOptions() {
+    }
+
+    /**
+     * 创建仅保留指定结果键的运行选项。
+     */
+    public static RunOptions retaining(String... keys) {
+        RunOptions options = new RunOptions();
+        options.setRetainedKeys(new LinkedHashSet<>(Arrays.asList(keys)));
+        return options;
+    }
+
+    public Set<String> getRetainedKeys() {
+        return retainedKeys;
+    }
+
+    public void setRetainedKeys(Set<String> retainedKeys) {
+        this.retainedKeys = retainedKeys;
+    }
+
+    public StreamHub getStreamHub() {
+        return streamHub;
+    }
+
+    public void setStreamHub(StreamHub streamHub) {
+        this.streamHub = streamHub;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = Objects.requireNonNull(priority, "priority 不能为空");
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(String tenantId) {
+        this.tenantId = Objects.requireNonNull(tenantId, "tenantId 不能为空");
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public RunRecord getRecord() {
+        return record;
+    }
+
+    public void setRecord(RunRecord record) {
+        this.record = record;
+    }
+
+    public RunProfile getProfile() {
+        return profile;
+    }
+
+    public void setProfile(RunProfile profile) {
+        this.profile = profile;
+    }
+
+    boolean isChild() {
+        return child;
+    }
+
+    /**
+     * 派生子运行（如 Map 子图）的选项：继承优先级与租户，其余保持默认。
+     */
+    RunOptions child() {
+        RunOptions child = new RunOptions();
+        child.priority = priority;
+        child.tenantId = tenantId;
+        child.child = true;
+        return child;
+    }
+}
@@ -0,0 +1,285 @@
+package com.synapse.core.runtime;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RunProfile 记录单次运行中每次节点激活的时间线与依赖，并在运行结束时计算关键路径。
+ * <p>
+ * 每次激活对应一个 {@link Span}：
+ * <ul>
+ * <li>就绪：前驱节点完成路由（或运行开始）的时刻；</li>
+ * <li>开始：节点通过限流与调度、实际开始运行的时刻；</li>
+ * <li>结束：节点运行与输出分发完成的时刻；</li>
+ * <li>路由：出边条件评估完成、后续节点被调度的时刻。</li>
+ * </ul>
+ * 前驱是调度该激活的节点激活（控制流模式下为完成路由的源节点，数据流模式下为最后完成的依赖），
+ * 由此构成的依赖树中，从最晚完成的激活回溯到根即为关键路径。
+ * 每个激活的松弛时间是其所在子树（本激活及其全部后续激活）最晚完成时刻距运行结束的时长，
+ * 即该分支可以推迟多久而不延长整个运行。
+ * <p>
+ * 通过 {@link RunOptions#setProfile(RunProfile)} 为单次运行开启，或配置
+ * {@link EngineOptions#setProfileAggregator(ProfileAggregator)} 为引擎上的每次运行开启并跨运行汇总。
+ * 一个 RunProfile 只能用于一次运行。
+ */
+public class RunProfile {
+
+    private final List<Span> spans = new ArrayList<>();
+
+    // 已完成路由、等待目标节点就绪的前驱：目标节点 ID -> 按调度顺序排列的前驱
+    private final Map<String, Deque<Span>> pending = new HashMap<>();
+
+    private long startNanos;
+    private long endNanos;
+    private List<Span> criticalPath = List.of();
+    private boolean started;
+    private boolean finished;
+
+    public RunProfile() {
+    }
+
+    /**
+     * 节点激活的时间线。未经过某一阶段时（如复用基线输出、采用推测结果或回放的节点没有排队），
+     * 该阶段的时长为 0。
+     */
+    public static class Span {
+
+        private final String nodeId;
+        private final Span predecessor;
+        private final long readyNanos;
+        private volatile int activation;
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private volatile long routedNanos;
+        private volatile boolean failed;
+        private long slackNanos;
+        private boolean critical;
+
+        Span(String nodeId, Span predecessor, long readyNanos) {
+            this.nodeId = nodeId;
+            this.predecessor = predecessor;
+            this.readyNanos = readyNanos;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        /**
+         * 本次激活是该节点在运行中的第几次激活（从 0 开始）。
+         */
+        public int getActivation() {
+            return activation;
+        }
+
+        /**
+         * 调度本次激活的前驱激活，入口节点（及恢复运行的中断节点）为 null。
+         */
+        public Span getPredecessor() {
+            return predecessor;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        /**
+         * 就绪到开始运行的时长：实例化、限流许可与公平调度的排队时间。
+         */
+        public long getQueuedNanos() {
+            return started() - readyNanos;
+        }
+
+        /**
+         * 开始运行到结束的时长：输入映射、节点执行与输出分发。
+         */
+        public long getExecutingNanos() {
+            return Math.max(0, endNanos - started());
+        }
+
+        /**
+         * 结束到完成路由的时长：出边条件评估。节点失败或位于数据流模式时为 0。
+         */
+        public long getConditionNanos() {
+            return routedNanos == 0 ? 0 : Math.max(0, routedNanos - endNanos);
+        }
+
+        /**
+         * 本激活及其全部后续激活可以整体推迟而不延长运行的时长，关键路径上的激活为 0。
+         */
+        public long getSlackNanos() {
+            return slackNanos;
+        }
+
+        public boolean isCritical() {
+            return critical;
+        }
+
+        private long started() {
+            return startNanos == 0 ? readyNanos : startNanos;
+        }
+
+        /**
+         * 激活完成的时刻（含路由）。
+         */
+        private long doneNanos() {
+            return Math.max(endNanos, routedNanos);
+        }
+
+        @Override
+        public String toString() {
+            return nodeId + "#" + activation;
+        }
+    }
+
+    /**
+     * 运行开始。
+     */
+    synchronized void start() {
+        if (started) {
+            throw new IllegalStateException("RunProfile 只能用于一次运行");
+        }
+        started = true;
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * 节点激活就绪：取出调度它的前驱（若有）并开始计时。
+     */
+    synchronized Span ready(String nodeId) {
+        Deque<Span> predecessors = pending.get(nodeId);
+        Span predecessor = predecessors != null ? predecessors.poll() : null;
+        Span span = new Span(nodeId, predecessor, System.nanoTime());
+        spans.add(span);
+        return span;
+    }
+
+    /**
+     * 数据流模式：节点的全部依赖均已完成，以最后完成的依赖作为前驱。
+     */
+    synchronized void awaited(String nodeId, Set<String> dependencies) {
+        Span latest = null;
+        for (int i = spans.size() - 1; i >= 0; i--) {
+            Span span = spans.get(i);
+            if (dependencies.contains(span.nodeId) && (latest == null || span.doneNanos() > latest.doneNanos())) {
+                latest = span;
+            }
+        }
+        if (latest != null) {
+            pending.computeIfAbsent(nodeId, k -> new ArrayDeque<>()).add(latest);
+        }
+    }
+
+    void activated(Span span, int activation) {
+        span.activation = activation;
+    }
+
+    void started(Span span) {
+        span.startNanos = System.nanoTime();
+    }
+
+    void ended(Span span, boolean failed) {
+        span.failed = failed;
+        span.endNanos = System.nanoTime();
+    }
+
+    /**
+     * 出边评估完成：记录路由时刻，并登记为各后续节点的前驱。
+     */
+    synchronized void routed(Span span, List<String> nextNodeIds) {
+        span.routedNanos = System.nanoTime();
+        for (String next : nextNodeIds) {
+            pending.computeIfAbsent(next, k -> new ArrayDeque<>()).add(span);
+        }
+    }
+
+    /**
+     * 运行结束：计算关键路径与各激活的松弛时间。
+     */
+    synchronized void finish() {
+        finished = true;
+        endNanos = System.nanoTime();
+        pending.clear();
+        if (spans.isEmpty()) {
+            return;
+        }
+
+        // 子树最晚完成时刻：后续激活总是在其前驱之后就绪，逆序遍历即可自底向上传播
+        Map<Span, Long> subtreeDone = new HashMap<>();
+        Span last = null;
+        for (int i = spans.size() - 1; i >= 0; i--) {
+            Span span = spans.get(i);
+            long done = Math.max(span.doneNanos(), subtreeDone.getOrDefault(span, 0L));
+            subtreeDone.put(span, done);
+            if (span.predecessor != null) {
+                subtreeDone.merge(span.predecessor, done, Math::max);
+            }
+            if (last == null || span.doneNanos() > last.doneNanos()) {
+                last = span;
+            }
+        }
+        long runDone = last.doneNanos();
+        for (Span span : spans) {
+            span.slackNanos = runDone - subtreeDone.get(span);
+        }
+
+        List<Span> path = new ArrayList<>();
+        for (Span span = last; span != null; span = span.predecessor) {
+            span.critical = true;
+            path.add(span);
+        }
+        Collections.reverse(path);
+        criticalPath = Collections.unmodifiableList(path);
+    }
+
+    /**
+     * 按就绪顺序排列的全部激活。
+     */
+    public synchronized List<Span> getSpans() {
+        return List.copyOf(spans);
+    }
+
+    /**
+     * 关键路径：从入口激活到最晚完成的激活，运行结束前为空。
+     */
+    public synchronized List<Span> getCriticalPath() {
+        return criticalPath;
+    }
+
+    /**
+     * 运行的总时长，运行结束前为 0。
+     */
+    public synchronized long getTotalNanos() {
+        return finished ? endNanos - startNanos : 0;
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * 可读的剖析报告：关键路径，以及每个激活的排队/执行/条件耗时与松弛时间（毫秒）。
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("运行耗时 %.3f ms，关键路径: %s%n", millis(getTotalNanos()), criticalPath));
+        sb.append(String.format("%-24s %10s %10s %10s %10s%n", "激活", "排队", "执行", "条件", "松弛"));
+        for (Span span : spans) {
+            sb.append(String.format("%-24s %10.3f %10.3f %10.3f %10.3f%s%n", span,
+                    millis(span.getQueuedNanos()), millis(span.getExecutingNanos()),
+                    millis(span.getConditionNanos()), millis(span.slackNanos), span.critical ? " *" : ""));
+        }
+        return sb.toString();
+    }
+
+    static double millis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,113 @@
+package com.synapse.core.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RunRecord 记录一次运行的输入与各节点的原始输出，供增量重跑
+ * （{@link SynapseEngine#executeIncremental(RunRecord, Map)}）复用未受影响的节点结果。
+ * <p>
+ * 通过 {@link RunOptions#setRecord(RunRecord)} 传入一个空的记录，运行期间由引擎填充；
+ * 同一节点被多次激活（循环）时按激活顺序保存每一次的输出。
+ */
+public final class RunRecord {
+
+    private final Map<String, Object> global = new ConcurrentHashMap<>();
+    private final Map<String, Object> flow = new ConcurrentHashMap<>();
+    private final Map<String, List<Map<String, Object>>> outputs = new ConcurrentHashMap<>();
+    private final Set<String> reused = Collections.synchronizedSet(new LinkedHashSet<>());
+    private final Set<String> executed = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    public RunRecord() {
+    }
+
+    /**
+     * 运行开始时记录初始的 global 与 flow 输入。
+     */
+    void start(Map<String, Object> globalData, Map<String, Object> flowData) {
+        global.clear();
+        flow.clear();
+        outputs.clear();
+        reused.clear();
+        executed.clear();
+        if (globalData != null) {
+            globalData.forEach((key, value) -> {
+                if (value != null) {
+                    global.put(key, value);
+                }
+            });
+        }
+        if (flowData != null) {
+            flowData.forEach((key, value) -> {
+                if (value != null) {
+                    flow.put(key, value);
+                }
+            });
+        }
+    }
+
+    /**
+     * 记录节点第 ordinal 次激活的原始输出。
+     */
+    void recordOutputs(String nodeId, int ordinal, Map<String, Object> nodeOutputs, boolean wasReused) {
+        List<Map<String, Object>> activations = outputs.computeIfAbsent(nodeId, id -> new ArrayList<>());
+        synchronized (activations) {
+            while (activations.size() <= ordinal) {
+                activations.add(null);
+            }
+            activations.set(ordinal, nodeOutputs != null ? new HashMap<>(nodeOutputs) : Map.of());
+        }
+        (wasReused ? reused : executed).add(nodeId);
+    }
+
+    /**
+     * 节点第 ordinal 次激活的原始输出，未记录时返回 null。
+     */
+    Map<String, Object> outputsOf(String nodeId, int ordinal) {
+        List<Map<String, Object>> activations = outputs.get(nodeId);
+        if (activations == null) {
+            return null;
+        }
+        synchronized (activations) {
+            return ordinal < activations.size() ? activations.get(ordinal) : null;
+        }
+    }
+
+    /**
+     * 运行的初始 global 输入。
+     */
+    public Map<String, Object> getGlobal() {
+        return Collections.unmodifiableMap(global);
+    }
+
+    /**
+     * 运行的初始 flow 输入。
+     */
+    public Map<String, Object> getFlow() {
+        return Collections.unmodifiableMap(flow);
+    }
+
+    /**
+     * 本次运行中直接复用上一次结果的节点 ID。
+     */
+    public Set<String> getReusedNodes() {
+        synchronized (reused) {
+            return Set.copyOf(reused);
+        }
+    }
+
+    /**
+     * 本次运行中实际执行的节点 ID。
+     */
+    public Set<String> getExecutedNodes() {
+        synchronized (executed) {
+            return Set.copyOf(executed);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.synapse.core.runtime;
+
+import java.util.List;
+
+/**
+ * 运行到达中断节点（interrupt: true）后挂起时，executeAsync 返回的 Future 以该异常结束。
+ * <p>
+ * 运行的执行前沿与 ScopeContext 已保存在 {@link SuspendedRunStore} 中，不占用任何线程或在途 Future；
+ * 调用 {@link SynapseEngine#resume(String, java.util.Map)} 提供外部输入后继续执行。
+ */
+public class RunSuspendedException extends RuntimeException {
+
+    private final String runId;
+    private final List<String> waitingNodes;
+
+    public RunSuspendedException(String runId, List<String> waitingNodes) {
+        super("运行 " + runId + " 已挂起，等待外部输入: " + waitingNodes);
+        this.runId = runId;
+        this.waitingNodes = List.copyOf(waitingNodes);
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * 等待外部输入的中断节点 ID。
+     */
+    public List<String> getWaitingNodes() {
+        return waitingNodes;
+    }
+}
@@ -0,0 +1,239 @@
+package com.synapse.core.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SocketTaskTransport 通过 TCP 把节点激活派发到 {@link TaskWorker}。
+ * <p>
+ * 每个工作池可注册多个工作进程地址，按轮询选择；到每个地址维持一条长连接，
+ * 请求以 ID 多路复用，结果由连接的读线程异步完成。连接断开时该连接上的在途请求全部失败，
+ * 下一次派发会重新建立连接。
+ * <p>
+ * 派发线程（引擎线程）不做任何阻塞 I/O：建立连接（带超时）与写帧都在每个连接自己的写线程上进行。
+ * 连接失败或断开的地址在退避时间内不参与轮询。
+ */
+public class SocketTaskTransport implements TaskTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(SocketTaskTransport.class);
+
+    private final Map<String, List<InetSocketAddress>> pools = new ConcurrentHashMap<>();
+    private final Map<InetSocketAddress, Connection> connections = new ConcurrentHashMap<>();
+    // 失败地址 -> 退避截止时刻（System.nanoTime）
+    private final Map<InetSocketAddress, Long> backoff = new ConcurrentHashMap<>();
+    private final AtomicLong requestIds = new AtomicLong();
+    private final AtomicInteger cursor = new AtomicInteger();
+    private volatile int connectTimeoutMillis = 3000;
+    private volatile long retryBackoffMillis = 1000;
+    private volatile boolean closed;
+
+    /**
+     * 为工作池注册一个工作进程地址。
+     */
+    public SocketTaskTransport addWorker(String pool, InetSocketAddress address) {
+        Objects.requireNonNull(pool, "工作池名称不能为空");
+        Objects.requireNonNull(address, "工作进程地址不能为空");
+        pools.computeIfAbsent(pool, name -> new CopyOnWriteArrayList<>()).add(address);
+        return this;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * 建立连接的超时时间（毫秒），默认 3000。
+     */
+    public SocketTaskTransport setConnectTimeoutMillis(int connectTimeoutMillis) {
+        if (connectTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("connectTimeoutMillis 必须 > 0: " + connectTimeoutMillis);
+        }
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        return this;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    /**
+     * 连接失败或断开的地址暂停参与轮询的时间（毫秒），默认 1000。
+     */
+    public SocketTaskTransport setRetryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = retryBackoffMillis;
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> dispatch(String pool, String nodeType, Map<String, Object> inputs) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("TaskTransport 已关闭"));
+        }
+        List<InetSocketAddress> addresses = pools.get(pool);
+        if (addresses == null || addresses.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("未注册的工作池: " + pool));
+        }
+        InetSocketAddress address = select(addresses);
+        if (address == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "工作池 '" + pool + "' 的工作进程均不可用（连接失败，退避中）: " + addresses));
+        }
+        long id = requestIds.incrementAndGet();
+        try {
+            byte[] payload = TaskFrames.encodeRequest(id, nodeType, inputs);
+            return connection(address).send(id, payload);
+        } catch (IOException | IllegalArgumentException e) {
+            // 含不支持线路编码的输入值：派发失败，不以降级后的值执行
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("派发到工作池 '" + pool + "'（" + address + "）失败: " + e.getMessage(), e));
+        }
+    }
+
+    /**
+     * 轮询选择一个不在退避期内的地址，全部在退避期内时返回 null。
+     */
+    private InetSocketAddress select(List<InetSocketAddress> addresses) {
+        long now = System.nanoTime();
+        for (int i = 0; i < addresses.size(); i++) {
+            InetSocketAddress address = addresses.get(Math.floorMod(cursor.getAndIncrement(), addresses.size()));
+            Long until = backoff.get(address);
+            if (until == null || until - now <= 0) {
+                return address;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 取得到地址的连接；新连接在其写线程上异步建立，本方法不阻塞。
+     */
+    private Connection connection(InetSocketAddress address) {
+        return connections.compute(address,
+                (key, existing) -> existing != null && existing.open ? existing : new Connection(key));
+    }
+
+    /**
+     * 断开全部连接，在途请求以异常完成。
+     */
+    @Override
+    public void close() {
+        closed = true;
+        connections.values().forEach(connection -> connection.fail(new IllegalStateException("TaskTransport 已关闭")));
+        connections.clear();
+    }
+
+    /**
+     * 到单个工作进程的长连接：写线程负责建立连接并按顺序写出请求帧，读线程完成结果。
+     */
+    private final class Connection {
+
+        private final InetSocketAddress address;
+        private final Map<Long, CompletableFuture<Map<String, Object>>> pending = new ConcurrentHashMap<>();
+        private final BlockingQueue<byte[]> outbox = new LinkedBlockingQueue<>();
+        private final Thread writer;
+        private volatile SocketChannel channel;
+        private volatile boolean open = true;
+
+        Connection(InetSocketAddress address) {
+            this.address = address;
+            this.writer = new Thread(this::writeLoop, "synapse-task-transport-writer-" + address.getPort());
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        CompletableFuture<Map<String, Object>> send(long id, byte[] payload) {
+            CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+            pending.put(id, future);
+            // 调用方取消（超时、分支取消）时不再等待结果
+            future.whenComplete((outputs, e) -> pending.remove(id));
+            outbox.add(payload);
+            if (!open) {
+                // 连接在登记之后断开：确保本请求不会悬挂
+                future.completeExceptionally(new IllegalStateException("与工作进程 " + address + " 的连接已断开"));
+            }
+            return future;
+        }
+
+        private void writeLoop() {
+            try {
+                SocketChannel connected = SocketChannel.open();
+                channel = connected;
+                connected.socket().connect(address, connectTimeoutMillis);
+                connected.socket().setTcpNoDelay(true);
+                backoff.remove(address);
+                Thread reader = new Thread(this::readLoop, "synapse-task-transport-" + address.getPort());
+                reader.setDaemon(true);
+                reader.start();
+                while (open) {
+                    TaskFrames.writeFrame(connected, outbox.take());
+                }
+            } catch (InterruptedException e) {
+                // 连接已关闭
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void readLoop() {
+            try {
+                byte[] frame;
+                while ((frame = TaskFrames.readFrame(channel)) != null) {
+                    TaskFrames.Result result = TaskFrames.decodeResult(frame);
+                    CompletableFuture<Map<String, Object>> future = pending.remove(result.id);
+                    if (future == null) {
+                        continue;
+                    }
+                    if (result.error != null) {
+                        future.completeExceptionally(new IllegalStateException("工作进程执行失败: " + result.error));
+                    } else {
+                        future.complete(result.outputs);
+                    }
+                }
+                fail(null);
+            } catch (Throwable e) {
+                // 含解码出的结果结构不合法：读线程退出前使全部在途请求失败，不让其悬挂
+                fail(e);
+            }
+        }
+
+        void fail(Throwable cause) {
+            if (open) {
+                open = false;
+                if (!closed) {
+                    backoff.put(address, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryBackoffMillis));
+                }
+                if (cause != null) {
+                    log.warn("与工作进程 {} 的连接已断开: {}", address, cause.getMessage());
+                }
+            }
+            writer.interrupt();
+            SocketChannel current = channel;
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (IOException ignored) {
+                    // 连接已失效
+                }
+            }
+            IllegalStateException error = new IllegalStateException("与工作进程 " + address + " 的连接已断开", cause);
+            pending.values().forEach(future -> future.completeExceptionally(error));
+            pending.clear();
+            outbox.clear();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.node.DataStreamer;
+import com.synapse.core.node.StreamInput;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * StreamChannel 是一条流式边上的有界缓冲区：上游作为 DataStreamer 写入，下游作为 StreamInput 读取。
+ * <p>
+ * 缓冲区满时上游写入等待（背压）；上游结束后 {@link #close(Throwable)} 唤醒读取方。
+ * 下游结束（无论是否读完）后 {@link #abandon()} 丢弃剩余数据，之后的写入直接忽略，避免上游永久等待。
+ * <p>
+ * 下游可以用 {@link #nextAsync()} 不占用线程地等待数据。阻塞的写入与 {@link #next()} 经
+ * {@link ForkJoinPool#managedBlock} 等待，在公共池线程上阻塞时由线程池补偿线程，不会饿死其他节点。
+ * 上游在等待期间被中断时，恢复中断标记并以 InterruptedException 使通道失败，下游不会静默丢失数据块。
+ */
+class StreamChannel implements DataStreamer, StreamInput {
+
+    private final int capacity;
+    private final ArrayDeque<Object> buffer = new ArrayDeque<>();
+    private final ArrayDeque<CompletableFuture<Object>> readers = new ArrayDeque<>(); // nextAsync 的等待方
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // 以下状态由 lock 保护
+    private boolean closed;
+    private boolean abandoned;
+    private Throwable failure;
+
+    StreamChannel(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void stream(Object content) {
+        Objects.requireNonNull(content, "流式数据块不能为 null");
+        CompletableFuture<Object> reader = null;
+        InterruptedException interrupted = null;
+        lock.lock();
+        try {
+            await(notFull, () -> buffer.size() < capacity || abandoned || closed);
+            if (abandoned || closed) {
+                return;
+            }
+            reader = readers.pollFirst();
+            if (reader == null) {
+                buffer.addLast(content);
+                notEmpty.signal();
+            }
+        } catch (InterruptedException e) {
+            interrupted = e;
+        } finally {
+            lock.unlock();
+        }
+        if (interrupted != null) {
+            // 该数据块无法送达：使通道失败，下游读到异常而不是缺失的数据
+            Thread.currentThread().interrupt();
+            close(interrupted);
+        } else if (reader != null) {
+            reader.complete(content);
+        }
+    }
+
+    @Override
+    public Object next() throws InterruptedException {
+        lock.lock();
+        try {
+            await(notEmpty, () -> !buffer.isEmpty() || closed);
+            return poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Object> nextAsync() {
+        lock.lock();
+        try {
+            if (!buffer.isEmpty() || closed) {
+                return CompletableFuture.completedFuture(poll());
+            }
+            CompletableFuture<Object> reader = new CompletableFuture<>();
+            readers.addLast(reader);
+            return reader;
+        } catch (CompletionException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取出下一个数据块（调用方持有 lock，且缓冲区非空或通道已关闭）。
+     */
+    private Object poll() {
+        if (!buffer.isEmpty()) {
+            Object content = buffer.pollFirst();
+            notFull.signal();
+            return content;
+        }
+        if (failure != null) {
+            throw new CompletionException("上游节点失败，流已中止", failure);
+        }
+        return null;
+    }
+
+    /**
+     * 在 condition 上等待 ready 成立（调用方持有 lock）。
+     */
+    private static void await(Condition condition, BooleanSupplier ready) throws InterruptedException {
+        if (ready.getAsBoolean()) {
+            return;
+        }
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block() throws InterruptedException {
+                while (!ready.getAsBoolean()) {
+                    condition.await();
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return ready.getAsBoolean();
+            }
+        });
+    }
+
+    /**
+     * 上游结束：正常结束时 failure 为 null。
+     */
+    void close(Throwable failure) {
+        List<CompletableFuture<Object>> waiting;
+        Throwable cause;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            this.failure = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause()
+                    : failure;
+            cause = this.failure;
+            notEmpty.signalAll();
+            notFull.signalAll();
+            waiting = drainReaders();
+        } finally {
+            lock.unlock();
+        }
+        // 等待中的 nextAsync 说明缓冲区已空
+        for (CompletableFuture<Object> reader : waiting) {
+            if (cause != null) {
+                reader.completeExceptionally(new CompletionException("上游节点失败，流已中止", cause));
+            } else {
+                reader.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 下游结束：丢弃剩余数据并释放等待中的上游。
+     */
+    void abandon() {
+        List<CompletableFuture<Object>> waiting;
+        lock.lock();
+        try {
+            abandoned = true;
+            buffer.clear();
+            notFull.signalAll();
+            waiting = drainReaders();
+        } finally {
+            lock.unlock();
+        }
+        waiting.forEach(reader -> reader.complete(null));
+    }
+
+    private List<CompletableFuture<Object>> drainReaders() {
+        List<CompletableFuture<Object>> waiting = new ArrayList<>(readers);
+        readers.clear();
+        return waiting;
+    }
+}
@@ -0,0 +1,53 @@
+package com.synapse.core.runtime;
+
+import java.util.List;
+
+/**
+ * StreamFrame 是 StreamHub 向订阅者投递的一帧：同一节点在一个合并窗口内发出的若干数据块。
+ * <p>
+ * 序号在一次运行内单调递增，断线重连的订阅者可以据此从上次收到的位置继续接收。
+ */
+public final class StreamFrame {
+
+    private final long sequence;
+    private final String nodeId;
+    private final List<Object> chunks;
+
+    StreamFrame(long sequence, String nodeId, List<Object> chunks) {
+        this.sequence = sequence;
+        this.nodeId = nodeId;
+        this.chunks = List.copyOf(chunks);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public List<Object> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * 将所有数据块按顺序拼接为字符串（适用于 Token 流）。
+     */
+    public String getText() {
+        StringBuilder text = new StringBuilder();
+        for (Object chunk : chunks) {
+            text.append(chunk);
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "StreamFrame{" +
+                "sequence=" + sequence +
+                ", nodeId='" + nodeId + '\'' +
+                ", chunks=" + chunks.size() +
+                '}';
+    }
+}
@@ -0,0 +1,329 @@
+package com.synapse.core.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StreamHub 汇集一次运行中所有节点的流式输出，合并后广播给多个订阅者。
+ * <p>
+ * <ul>
+ * <li><b>合并</b>：同一节点的数据块累积到 maxBatchChars（字符串按长度计，其他对象按 1 计）
+ * 或距首个数据块超过 maxDelayMillis 时合并为一帧；节点结束时立即发出剩余数据。</li>
+ * <li><b>广播</b>：每个订阅者拥有独立的有界队列，由 executor 串行投递；发布方只入队，不会被慢订阅者阻塞。
+ * 订阅者积压超过 subscriberBuffer 帧时订阅被关闭（lagged），可按最后收到的序号重新订阅。</li>
+ * <li><b>重放</b>：最近 replayCapacity 帧保存在环形缓冲区中，迟到或重连的订阅者先收到重放帧再接收实时帧；
+ * 运行结束后仍可订阅以获取重放。</li>
+ * </ul>
+ * 通过 {@link RunOptions#setStreamHub(StreamHub)} 为一次运行指定，运行结束时引擎自动关闭。
+ */
+public class StreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamHub.class);
+
+    public static final int DEFAULT_MAX_BATCH_CHARS = 256;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 20;
+    public static final int DEFAULT_REPLAY_CAPACITY = 1024;
+    public static final int DEFAULT_SUBSCRIBER_BUFFER = 4096;
+
+    private final int maxBatchChars;
+    private final long maxDelayMillis;
+    private final int subscriberBuffer;
+    private final Executor executor;
+
+    // 以下状态由 this 锁保护
+    private final Map<String, Batch> pending = new LinkedHashMap<>();
+    private final StreamFrame[] replay;
+    private int replayStart;
+    private int replaySize;
+    private long nextSequence = 1;
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private boolean closed;
+
+    public StreamHub() {
+        this(DEFAULT_MAX_BATCH_CHARS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_REPLAY_CAPACITY, DEFAULT_SUBSCRIBER_BUFFER,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param maxBatchChars    单帧累积的最大字符数（1 表示不合并）
+     * @param maxDelayMillis   首个数据块进入合并窗口后的最长等待时间（0 表示不按时间等待）
+     * @param replayCapacity   重放缓冲区保留的帧数
+     * @param subscriberBuffer 单个订阅者允许积压的最大帧数
+     * @param executor         投递回调使用的线程池
+     */
+    public StreamHub(int maxBatchChars, long maxDelayMillis, int replayCapacity, int subscriberBuffer,
+            Executor executor) {
+        if (maxBatchChars < 1 || maxDelayMillis < 0 || replayCapacity < 0 || subscriberBuffer < 1) {
+            throw new IllegalArgumentException("StreamHub 参数无效: maxBatchChars=" + maxBatchChars
+                    + ", maxDelayMillis=" + maxDelayMillis + ", replayCapacity=" + replayCapacity
+                    + ", subscriberBuffer=" + subscriberBuffer);
+        }
+        this.maxBatchChars = maxBatchChars;
+        this.maxDelayMillis = maxDelayMillis;
+        this.replay = new StreamFrame[replayCapacity];
+        this.subscriberBuffer = subscriberBuffer;
+        this.executor = executor;
+    }
+
+    /**
+     * 发布一个节点的数据块（由引擎在节点的 DataStreamer 中调用）。
+     */
+    public void publish(String nodeId, Object chunk) {
+        boolean emitted = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            Batch batch = pending.get(nodeId);
+            if (batch == null) {
+                batch = new Batch();
+                pending.put(nodeId, batch);
+                if (maxDelayMillis > 0) {
+                    scheduleFlush(nodeId, batch);
+                }
+            }
+            batch.add(chunk);
+            if (batch.weight >= maxBatchChars || maxDelayMillis == 0) {
+                emit(nodeId);
+                emitted = true;
+            }
+        }
+        if (emitted) {
+            drainAll();
+        }
+    }
+
+    /**
+     * 立即发出某个节点尚在合并窗口中的数据（节点结束时调用）。
+     */
+    public void flush(String nodeId) {
+        boolean emitted;
+        synchronized (this) {
+            emitted = emit(nodeId);
+        }
+        if (emitted) {
+            drainAll();
+        }
+    }
+
+    /**
+     * 发出所有剩余数据并结束广播：当前订阅者收到剩余帧后被关闭，之后的发布被忽略。
+     */
+    public void close() {
+        List<Subscription> toClose;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            for (String nodeId : new ArrayList<>(pending.keySet())) {
+                emit(nodeId);
+            }
+            closed = true;
+            toClose = new ArrayList<>(subscriptions);
+            subscriptions.clear();
+        }
+        for (Subscription subscription : toClose) {
+            subscription.finish(false);
+        }
+    }
+
+    /**
+     * 订阅并先重放缓冲区中保留的全部帧。
+     */
+    public Subscription subscribe(StreamSubscriber subscriber) {
+        return subscribe(subscriber, 0);
+    }
+
+    /**
+     * 订阅并重放序号大于 afterSequence 的保留帧（用于断线重连）。
+     */
+    public Subscription subscribe(StreamSubscriber subscriber, long afterSequence) {
+        Subscription subscription = new Subscription(subscriber);
+        boolean alreadyClosed;
+        synchronized (this) {
+            for (int i = 0; i < replaySize; i++) {
+                StreamFrame frame = replay[(replayStart + i) % replay.length];
+                if (frame.getSequence() > afterSequence) {
+                    subscription.queue.add(frame);
+                    subscription.size.incrementAndGet();
+                }
+            }
+            alreadyClosed = closed;
+            if (!alreadyClosed) {
+                subscriptions.add(subscription);
+            }
+        }
+        if (alreadyClosed) {
+            subscription.finish(false);
+        } else {
+            subscription.scheduleDrain();
+        }
+        return subscription;
+    }
+
+    /**
+     * 最近一帧的序号，尚未发出任何帧时为 0。
+     */
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    private void scheduleFlush(String nodeId, Batch batch) {
+        CompletableFuture.delayedExecutor(maxDelayMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            boolean emitted = false;
+            synchronized (this) {
+                if (pending.get(nodeId) == batch) {
+                    emitted = emit(nodeId);
+                }
+            }
+            if (emitted) {
+                drainAll();
+            }
+        });
+    }
+
+    /**
+     * 将节点的合并批次作为一帧发出，调用方须持有锁。
+     */
+    private boolean emit(String nodeId) {
+        Batch batch = pending.remove(nodeId);
+        if (batch == null || batch.chunks.isEmpty()) {
+            return false;
+        }
+        StreamFrame frame = new StreamFrame(nextSequence++, nodeId, batch.chunks);
+        if (replay.length > 0) {
+            if (replaySize < replay.length) {
+                replay[(replayStart + replaySize++) % replay.length] = frame;
+            } else {
+                replay[replayStart] = frame;
+                replayStart = (replayStart + 1) % replay.length;
+            }
+        }
+        subscriptions.removeIf(subscription -> !subscription.offer(frame));
+        return true;
+    }
+
+    private void drainAll() {
+        List<Subscription> current;
+        synchronized (this) {
+            current = new ArrayList<>(subscriptions);
+        }
+        for (Subscription subscription : current) {
+            subscription.scheduleDrain();
+        }
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * 合并窗口中尚未发出的数据块。
+     */
+    private static class Batch {
+        private final List<Object> chunks = new ArrayList<>();
+        private int weight;
+
+        void add(Object chunk) {
+            chunks.add(chunk);
+            weight += chunk instanceof CharSequence ? ((CharSequence) chunk).length() : 1;
+        }
+    }
+
+    /**
+     * 一个订阅：独立的帧队列与串行投递。
+     */
+    public final class Subscription {
+        private final StreamSubscriber subscriber;
+        private final Queue<StreamFrame> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean finished;
+        private volatile boolean lagged;
+        private final AtomicBoolean closeNotified = new AtomicBoolean();
+
+        private Subscription(StreamSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * 入队一帧；积压超过上限时标记为 lagged 并返回 false（调用方移除该订阅）。
+         */
+        private boolean offer(StreamFrame frame) {
+            if (finished) {
+                return false;
+            }
+            if (size.get() >= subscriberBuffer) {
+                log.warn("流订阅者积压超过 {} 帧，关闭订阅（最后投递序号之后可重新订阅）", subscriberBuffer);
+                lagged = true;
+                finished = true;
+                scheduleDrain();
+                return false;
+            }
+            queue.add(frame);
+            size.incrementAndGet();
+            return true;
+        }
+
+        private void finish(boolean lag) {
+            lagged |= lag;
+            finished = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                StreamFrame frame;
+                while ((frame = queue.poll()) != null) {
+                    size.decrementAndGet();
+                    try {
+                        subscriber.onFrame(frame);
+                    } catch (RuntimeException e) {
+                        log.warn("流订阅者处理帧 {} 时出错", frame.getSequence(), e);
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            if (!queue.isEmpty()) {
+                // 投递期间有新帧入队
+                scheduleDrain();
+            } else if (finished && closeNotified.compareAndSet(false, true)) {
+                subscriber.onClose(lagged);
+            }
+        }
+
+        /**
+         * 主动取消订阅；已入队的帧不再投递。
+         */
+        public void cancel() {
+            unsubscribe(this);
+            queue.clear();
+            size.set(0);
+            finish(false);
+        }
+
+        public boolean isLagged() {
+            return lagged;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.synapse.core.runtime;
+
+/**
+ * StreamSubscriber 接收 StreamHub 广播的帧。
+ * <p>
+ * 回调在投递线程上按序号顺序串行调用，不会与同一订阅者的其他回调并发。
+ */
+@FunctionalInterface
+public interface StreamSubscriber {
+
+    /**
+     * 收到一帧。
+     */
+    void onFrame(StreamFrame frame);
+
+    /**
+     * 订阅结束：运行结束、主动取消，或订阅者消费过慢导致积压溢出（此时 lagged 为 true，可按最后收到的序号重新订阅）。
+     */
+    default void onClose(boolean lagged) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.graph.FlowSchema;
+import com.synapse.core.state.DefaultScopeContext;
+import com.synapse.core.state.ScopeContext;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SuspendedRun 是挂起运行的快照：等待中的中断节点与 ScopeContext 的数据副本，不引用任何 Future 或线程。
+ * <p>
+ * 数据均为普通值时可序列化，从而可以溢出到磁盘。
+ */
+final class SuspendedRun implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 一个挂起的节点激活。
+     */
+    static final class Activation implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final String nodeId;
+        final int iteration;
+
+        Activation(String nodeId, int iteration) {
+            this.nodeId = nodeId;
+            this.iteration = iteration;
+        }
+    }
+
+    final String runId;
+    final String graphName;
+    final List<Activation> activations;
+    final HashMap<String, Object> global;
+    final HashMap<String, Object> flow;
+    final HashMap<String, HashMap<String, Object>> nodes;
+    final RunOptions.Priority priority;
+    final String tenantId;
+    final LinkedHashSet<String> retainedKeys; // 可为 null
+    long expiresAtMillis;
+
+    SuspendedRun(String runId, String graphName, List<Activation> activations, ScopeContext context,
+            RunOptions options) {
+        this.runId = runId;
+        this.graphName = graphName;
+        this.activations = new ArrayList<>(activations);
+        this.global = new HashMap<>(context.getGlobalData());
+        this.flow = new HashMap<>(context.getFlowData());
+        this.nodes = new HashMap<>();
+        context.getAllNodeModels().forEach((nodeId, outputs) -> nodes.put(nodeId, new HashMap<>(outputs)));
+        this.priority = options.getPriority();
+        this.tenantId = options.getTenantId();
+        Set<String> retained = options.getRetainedKeys();
+        this.retainedKeys = retained != null ? new LinkedHashSet<>(retained) : null;
+    }
+
+    /**
+     * 以快照重建上下文，并将恢复输入写入 flow。
+     *
+     * @param schema 图的 flow 类型声明（可为 null）
+     */
+    ScopeContext restoreContext(Map<String, Object> resumeInput, FlowSchema schema) {
+        DefaultScopeContext context = new DefaultScopeContext(global, flow, schema);
+        nodes.forEach((nodeId, outputs) -> outputs.forEach((key, value) -> context.putNodeOutput(nodeId, key, value)));
+        if (resumeInput != null) {
+            resumeInput.forEach(context::putFlow);
+        }
+        return context;
+    }
+
+    List<String> waitingNodes() {
+        List<String> waiting = new ArrayList<>();
+        for (Activation activation : activations) {
+            waiting.add(activation.nodeId);
+        }
+        return waiting;
+    }
+}
@@ -0,0 +1,334 @@
+package com.synapse.core.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SuspendedRunStore 保存挂起的运行（等待人工输入的执行前沿与上下文快照）。
+ * <p>
+ * <ul>
+ * <li>快照只包含数据，不持有线程或在途 Future，大量等待中的会话只占用其数据本身的内存。</li>
+ * <li>每个挂起的运行在 ttl 后过期，过期项在下一次写入、恢复或 {@link #evictExpired()} 时清除。</li>
+ * <li>内存中的运行数超过 maxInMemory 时，最早挂起的运行溢出到 spillDirectory（Java 序列化）；
+ * 未配置溢出目录时直接淘汰最早的运行。包含不可序列化值的快照始终保留在内存中。</li>
+ * <li>磁盘读写在存储的锁之外进行，溢出或读取大快照不阻塞其他运行的挂起与恢复。</li>
+ * <li>读取溢出文件时使用 {@link ObjectInputFilter}，默认只允许 JDK 常用值类型与 com.synapse 的类；
+ * 上下文中含其他可序列化类型时，需通过 {@link #setDeserializationFilter(ObjectInputFilter)} 放行。</li>
+ * </ul>
+ * 同一实例可通过 {@link EngineOptions#setSuspendedRunStore(SuspendedRunStore)} 在多个引擎间共享。
+ */
+public class SuspendedRunStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SuspendedRunStore.class);
+
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+
+    /**
+     * 默认的反序列化过滤器：限制对象图深度与规模，只允许快照自身、JDK 集合与值类型。
+     */
+    public static final ObjectInputFilter DEFAULT_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=64;maxrefs=1000000;maxbytes=268435456;maxarray=67108864;"
+                    + "com.synapse.**;java.lang.*;java.util.*;java.time.*;java.math.*;!*");
+
+    /**
+     * 溢出到磁盘的运行：文件与过期时间。
+     */
+    private static final class Spilled {
+        final Path file;
+        final long expiresAtMillis;
+
+        Spilled(Path file, long expiresAtMillis) {
+            this.file = file;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final long ttlMillis;
+    private final int maxInMemory;
+    private final Path spillDirectory; // 可为 null，表示不溢出
+    private final AtomicLong spillSequence = new AtomicLong();
+    private volatile ObjectInputFilter deserializationFilter = DEFAULT_FILTER;
+
+    // 以下状态由 this 锁保护
+    private final LinkedHashMap<String, SuspendedRun> memory = new LinkedHashMap<>(); // 按挂起时间排序
+    private final Map<String, SuspendedRun> spilling = new HashMap<>(); // 正在写盘，仍可直接取出
+    private final Map<String, Spilled> spilled = new HashMap<>();
+
+    /**
+     * 创建仅使用内存、默认 ttl 的存储。
+     */
+    public SuspendedRunStore() {
+        this(DEFAULT_TTL, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * @param ttl            挂起运行的存活时间
+     * @param maxInMemory    内存中保留的最大运行数
+     * @param spillDirectory 溢出目录（可为 null）
+     */
+    public SuspendedRunStore(Duration ttl, int maxInMemory, Path spillDirectory) {
+        Objects.requireNonNull(ttl, "ttl 不能为空");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl 必须为正: " + ttl);
+        }
+        if (maxInMemory < 0) {
+            throw new IllegalArgumentException("maxInMemory 不能为负数: " + maxInMemory);
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.maxInMemory = maxInMemory;
+        this.spillDirectory = spillDirectory;
+        if (spillDirectory != null) {
+            try {
+                Files.createDirectories(spillDirectory);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("无法创建溢出目录: " + spillDirectory, e);
+            }
+        }
+    }
+
+    public ObjectInputFilter getDeserializationFilter() {
+        return deserializationFilter;
+    }
+
+    /**
+     * 设置读取溢出文件时的反序列化过滤器，默认 {@link #DEFAULT_FILTER}。
+     */
+    public void setDeserializationFilter(ObjectInputFilter deserializationFilter) {
+        this.deserializationFilter = Objects.requireNonNull(deserializationFilter, "过滤器不能为空");
+    }
+
+    /**
+     * 保存挂起的运行，同名运行会被覆盖。
+     */
+    void put(SuspendedRun run) {
+        run.expiresAtMillis = System.currentTimeMillis() + ttlMillis;
+        store(run);
+    }
+
+    /**
+     * 放回一个取出后未能恢复的运行（例如恢复被拒绝），保留其原过期时间。
+     */
+    void restore(SuspendedRun run) {
+        store(run);
+    }
+
+    private void store(SuspendedRun run) {
+        List<Path> obsolete = new ArrayList<>();
+        List<SuspendedRun> overflow = new ArrayList<>();
+        synchronized (this) {
+            collectExpired(obsolete);
+            discard(run.runId, obsolete);
+            memory.put(run.runId, run);
+
+            Iterator<SuspendedRun> eldest = memory.values().iterator();
+            while (memory.size() > maxInMemory && eldest.hasNext()) {
+                SuspendedRun candidate = eldest.next();
+                eldest.remove();
+                if (spillDirectory == null) {
+                    log.warn("挂起的运行数超过 {}，淘汰最早的运行 {}", maxInMemory, candidate.runId);
+                } else {
+                    spilling.put(candidate.runId, candidate);
+                    overflow.add(candidate);
+                }
+            }
+        }
+        obsolete.forEach(SuspendedRunStore::deleteQuietly);
+        overflow.forEach(this::spill);
+    }
+
+    /**
+     * 取出（并移除）挂起的运行，不存在或已过期时返回 null。
+     */
+    SuspendedRun take(String runId) {
+        List<Path> obsolete = new ArrayList<>();
+        Spilled entry;
+        synchronized (this) {
+            collectExpired(obsolete);
+            SuspendedRun run = memory.remove(runId);
+            if (run == null) {
+                run = spilling.remove(runId);
+            }
+            entry = run == null ? spilled.remove(runId) : null;
+            if (run != null || entry == null) {
+                obsolete.forEach(SuspendedRunStore::deleteQuietly);
+                return run;
+            }
+        }
+        obsolete.forEach(SuspendedRunStore::deleteQuietly);
+        try (InputStream in = Files.newInputStream(entry.file); ObjectInputStream objects = new ObjectInputStream(in)) {
+            objects.setObjectInputFilter(deserializationFilter);
+            SuspendedRun run = (SuspendedRun) objects.readObject();
+            run.expiresAtMillis = entry.expiresAtMillis;
+            return run;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalStateException("读取溢出的挂起运行失败: " + runId, e);
+        } finally {
+            deleteQuietly(entry.file);
+        }
+    }
+
+    /**
+     * 是否存在未过期的挂起运行。
+     */
+    public boolean contains(String runId) {
+        List<Path> obsolete = new ArrayList<>();
+        boolean present;
+        synchronized (this) {
+            collectExpired(obsolete);
+            present = memory.containsKey(runId) || spilling.containsKey(runId) || spilled.containsKey(runId);
+        }
+        obsolete.forEach(SuspendedRunStore::deleteQuietly);
+        return present;
+    }
+
+    /**
+     * 放弃一个挂起的运行。
+     *
+     * @return 该运行是否存在
+     */
+    public boolean remove(String runId) {
+        List<Path> obsolete = new ArrayList<>();
+        boolean removed;
+        synchronized (this) {
+            removed = discard(runId, obsolete);
+        }
+        obsolete.forEach(SuspendedRunStore::deleteQuietly);
+        return removed;
+    }
+
+    /**
+     * 清除所有已过期的挂起运行。
+     */
+    public void evictExpired() {
+        List<Path> obsolete = new ArrayList<>();
+        synchronized (this) {
+            collectExpired(obsolete);
+        }
+        obsolete.forEach(SuspendedRunStore::deleteQuietly);
+    }
+
+    /**
+     * 挂起运行的总数（内存与磁盘）。
+     */
+    public synchronized int size() {
+        return memory.size() + spilling.size() + spilled.size();
+    }
+
+    /**
+     * 已溢出到磁盘的挂起运行数。
+     */
+    public synchronized int getSpilledCount() {
+        return spilled.size();
+    }
+
+    /**
+     * 移除运行，其溢出文件加入 obsolete 由调用方在锁外删除。调用方持有 this 锁。
+     */
+    private boolean discard(String runId, List<Path> obsolete) {
+        if (memory.remove(runId) != null || spilling.remove(runId) != null) {
+            return true;
+        }
+        Spilled entry = spilled.remove(runId);
+        if (entry != null) {
+            obsolete.add(entry.file);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 移除已过期的运行，其溢出文件加入 obsolete。调用方持有 this 锁。
+     */
+    private void collectExpired(List<Path> obsolete) {
+        long now = System.currentTimeMillis();
+        memory.values().removeIf(run -> expired(run.runId, run.expiresAtMillis, now));
+        spilling.values().removeIf(run -> expired(run.runId, run.expiresAtMillis, now));
+        spilled.entrySet().removeIf(entry -> {
+            if (expired(entry.getKey(), entry.getValue().expiresAtMillis, now)) {
+                obsolete.add(entry.getValue().file);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static boolean expired(String runId, long expiresAtMillis, long now) {
+        if (expiresAtMillis <= now) {
+            log.info("挂起的运行 {} 已过期", runId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 在锁外写盘；写盘期间运行仍在 spilling 中，可被取出或移除。
+     */
+    private void spill(SuspendedRun run) {
+        Path file = fileOf(run.runId);
+        boolean written = false;
+        try (OutputStream out = Files.newOutputStream(file); ObjectOutputStream objects = new ObjectOutputStream(out)) {
+            objects.writeObject(run);
+            written = true;
+        } catch (NotSerializableException e) {
+            log.warn("挂起的运行 {} 包含不可序列化的值 ({})，保留在内存中", run.runId, e.getMessage());
+        } catch (IOException e) {
+            log.warn("挂起的运行 {} 溢出失败，保留在内存中", run.runId, e);
+        }
+        synchronized (this) {
+            if (spilling.get(run.runId) == run) {
+                spilling.remove(run.runId);
+                if (written) {
+                    spilled.put(run.runId, new Spilled(file, run.expiresAtMillis));
+                    log.debug("挂起的运行 {} 已溢出到磁盘", run.runId);
+                    return;
+                }
+                memory.put(run.runId, run);
+            }
+        }
+        // 写盘失败，或写盘期间运行已被取出、移除或覆盖
+        deleteQuietly(file);
+    }
+
+    /**
+     * 溢出文件名：runId 的 SHA-256 加序号，长度固定，与 runId 的长度和字符无关。
+     */
+    private Path fileOf(String runId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(runId.getBytes(StandardCharsets.UTF_8));
+            return spillDirectory.resolve(HexFormat.of().formatHex(digest) + "-" + spillSequence.incrementAndGet() + ".run");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JDK 不支持 SHA-256", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除溢出文件失败: {}", file, e);
+        }
+    }
+}
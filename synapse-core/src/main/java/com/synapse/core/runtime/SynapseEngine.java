@@ -1,8 +1,12 @@
 package com.synapse.core.runtime;
 
+import com.synapse.core.graph.DataflowPlan;
 import com.synapse.core.graph.EdgeDefinition;
 import com.synapse.core.graph.Graph;
+import com.synapse.core.graph.GraphLiveness;
 import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.jfr.NodeExecuteEvent;
+import com.synapse.core.node.DataStreamer;
 import com.synapse.core.node.Node;
 import com.synapse.core.state.DefaultScopeContext;
 import com.synapse.core.state.ScopeContext;
@@ -11,11 +15,22 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -24,51 +39,485 @@ import java.util.stream.Collectors;
  * 它根据边（Edge）的定义协调节点的顺序执行，并在整个运行过程中管理作用域上下文（ScopeContext）。
  * <p>
  * Phase 4 更新：支持并行执行 (Parallel Execution)
+ * <p>
+ * 可选的数据流模式（{@link ExecutionMode#DATAFLOW}）下，调度顺序由输入/输出映射推导的数据依赖决定。
+ * <p>
+ * 并行分叉遵循结构化并发：默认（FAIL_FAST）首个分支失败即取消其余分支及其在途节点；
+ * 声明为 COLLECT 的分叉会收集失败分支的错误并继续执行其余分支。
+ * <p>
+ * 流式边（streaming: true）的目标节点与源节点同时运行，逐块消费源节点的流式输出。
+ * <p>
+ * 推测边（speculative: true）按历史路由频率在源节点运行期间提前启动最可能的 pure 目标节点，预测正确时直接采用其结果。
+ * <p>
+ * 增量重跑（{@link #executeIncremental(RunRecord, Map)}）只重新执行输入受修改影响的节点，其余节点复用上一次运行的输出。
+ * <p>
+ * 配置了 {@link RunJournal} 时记录每次运行的节点输入/输出、路由与耗时，可通过 {@link #replay(List, String, boolean)} 回放。
+ * <p>
+ * 声明了工作池（workers / worker）的节点经 {@link TaskTransport} 派发到工作进程执行，编排仍在本进程完成。
  */
 public class SynapseEngine {
 
     private static final Logger log = LoggerFactory.getLogger(SynapseEngine.class);
     private static final int MAX_ITERATIONS = 100;
 
+    /**
+     * COLLECT 策略下，失败分支的错误写入分叉节点命名空间中的此键（分支入口节点 ID -> 错误描述）。
+     */
+    public static final String BRANCH_ERRORS_KEY = "__errors__";
+
     private final Graph graph;
     private final Function<String, Node> nodeFactory;
     private final NodeRunner nodeRunner;
     private final ConditionEvaluator conditionEvaluator;
+    private final GraphLiveness liveness;
+    private final EngineOptions options;
+    private final DataflowPlan dataflowPlan; // 仅数据流模式下有值
+    private final Map<String, Node> mapNodes = new HashMap<>(); // 内置 Map 节点，按节点 ID
+    private final Map<String, NodeLimiter> limiters; // 按节点类型的限流/舱壁，在该引擎的所有运行间共享
+    private final Map<String, List<EdgeDefinition>> streamingEdges = new HashMap<>(); // 按源节点 ID
+    private final Map<EdgeDefinition, CompiledCondition> conditions = new IdentityHashMap<>(); // 条件边的编译结果
+    private final SuspendedRunStore suspendedRuns;
+    private final BranchSpeculator speculator;
+    private final Map<String, String> workers; // 节点类型 -> 工作池，含父图的声明
 
     /**
      * 为给定的图创建一个 SynapseEngine。
      */
     public SynapseEngine(Graph graph, Function<String, Node> nodeFactory) {
+        this(graph, nodeFactory, new EngineOptions());
+    }
+
+    /**
+     * 使用引擎配置为给定的图创建一个 SynapseEngine。
+     */
+    public SynapseEngine(Graph graph, Function<String, Node> nodeFactory, EngineOptions options) {
+        this(graph, nodeFactory, options, Map.of(), Map.of());
+    }
+
+    /**
+     * @param inheritedLimiters 父图的限流器（Map 子图与父图共享同一节点类型的配额）
+     * @param inheritedWorkers  父图按节点类型声明的工作池（子图中同类型的节点同样派发）
+     */
+    private SynapseEngine(Graph graph, Function<String, Node> nodeFactory, EngineOptions options,
+            Map<String, NodeLimiter> inheritedLimiters, Map<String, String> inheritedWorkers) {
         this.graph = Objects.requireNonNull(graph, "图（Graph）不能为空");
         this.nodeFactory = Objects.requireNonNull(nodeFactory, "节点工厂（NodeFactory）不能为空");
-        this.nodeRunner = new NodeRunner();
-        this.conditionEvaluator = new ConditionEvaluator();
+        this.options = Objects.requireNonNull(options, "EngineOptions 不能为空");
+        this.nodeRunner = new NodeRunner(graph.getName(), options.getBlobStore(), InlinePolicy.from(options));
+        this.conditionEvaluator = options.getConditionEvaluator() != null
+                ? options.getConditionEvaluator()
+                : new ConditionEvaluator();
+        this.liveness = GraphLiveness.analyze(graph);
+        this.dataflowPlan = options.getExecutionMode() == ExecutionMode.DATAFLOW ? DataflowPlan.build(graph) : null;
+        this.speculator = new BranchSpeculator(graph, options.getSpeculationConfidence(),
+                options.getSpeculationWasteBudget());
+        this.suspendedRuns = options.getSuspendedRunStore() != null
+                ? options.getSuspendedRunStore()
+                : new SuspendedRunStore();
+        if (dataflowPlan != null) {
+            for (NodeDefinition nodeDef : graph.getNodes()) {
+                if (nodeDef.isInterrupt()) {
+                    throw new IllegalStateException("数据流模式不支持中断节点: " + nodeDef.getId());
+                }
+            }
+        }
+
+        Map<String, String> graphWorkers = new HashMap<>(inheritedWorkers);
+        graphWorkers.putAll(graph.getWorkers());
+        this.workers = Map.copyOf(graphWorkers);
+        for (NodeDefinition nodeDef : graph.getNodes()) {
+            if (nodeDef.isMapNode() && nodeDef.getWorker() != null) {
+                throw new IllegalStateException("Map 节点不能派发到工作池: " + nodeDef.getId());
+            }
+            String pool = nodeDef.isMapNode()
+                    ? (nodeDef.getMap().getNodeType() != null ? workers.get(nodeDef.getMap().getNodeType()) : null)
+                    : workerPool(nodeDef);
+            if (pool != null && options.getTaskTransport() == null) {
+                throw new IllegalStateException("节点 " + nodeDef.getId() + " 声明了工作池 '" + pool
+                        + "'，但 EngineOptions 未配置 TaskTransport");
+            }
+        }
+
+        Map<String, NodeLimiter> graphLimiters = new HashMap<>(inheritedLimiters);
+        graph.getLimits().forEach((type, limit) -> graphLimiters.put(type, new NodeLimiter(type, limit)));
+        this.limiters = Map.copyOf(graphLimiters);
+        nodeRunner.useLimiters(limiters);
+
+        for (EdgeDefinition edge : graph.getEdges()) {
+            if (edge.isConditional()) {
+                // 编译阶段：表达式只解析一次，无效表达式或未注册的策略在此处暴露
+                try {
+                    conditions.put(edge, conditionEvaluator.prepare(edge));
+                } catch (RuntimeException e) {
+                    throw new IllegalStateException("条件边编译失败: " + edge + ": " + e.getMessage(), e);
+                }
+            }
+            if (edge.isStreaming()) {
+                for (String nodeId : List.of(edge.getSourceNodeId(), edge.getTargetNodeId())) {
+                    NodeDefinition endpoint = graph.getNode(nodeId);
+                    if (endpoint != null && !endpoint.isMapNode() && workerPool(endpoint) != null) {
+                        throw new IllegalStateException("流式边两端的节点不能派发到工作池: " + nodeId);
+                    }
+                }
+                streamingEdges.computeIfAbsent(edge.getSourceNodeId(), id -> new ArrayList<>()).add(edge);
+            }
+        }
+
+        for (NodeDefinition nodeDef : graph.getNodes()) {
+            if (nodeDef.isMapNode()) {
+                NodeDefinition.MapSpec spec = nodeDef.getMap();
+                SynapseEngine subgraphEngine = spec.getSubgraph() != null
+                        ? new SynapseEngine(spec.getSubgraph(), nodeFactory, options, limiters, workers)
+                        : null;
+                NodeLimiter itemLimiter = spec.getNodeType() != null ? limiters.get(spec.getNodeType()) : null;
+                mapNodes.put(nodeDef.getId(),
+                        new MapNode(nodeDef.getId(), spec, this::instantiate, subgraphEngine, itemLimiter));
+            }
+        }
     }
 
     /**
      * 异步执行图。
      */
     public CompletableFuture<ScopeContext> executeAsync(Map<String, Object> globalData, Map<String, Object> flowData) {
+        return executeAsync(globalData, flowData, new RunOptions());
+    }
+
+    /**
+     * 使用运行选项异步执行图。
+     *
+     * @param globalData 全局配置
+     * @param flowData   初始流程变量
+     * @param options    运行选项（例如需要保留的结果键）
+     */
+    public CompletableFuture<ScopeContext> executeAsync(Map<String, Object> globalData, Map<String, Object> flowData,
+            RunOptions options) {
+        Objects.requireNonNull(options, "RunOptions 不能为空");
+        return admit(() -> startRun(globalData, flowData, options));
+    }
+
+    /**
+     * 增量重跑：以上一次运行的记录为基线，只修改部分 flow 输入后重新执行图。
+     * <p>
+     * 与基线相比值发生变化的 flow 键被标记为已变化；节点的输入映射不引用任何已变化的值、
+     * 且基线中有该次激活的输出时，直接复用基线输出（不调用节点），否则重新执行节点，
+     * 并将其与基线不同的输出所写入的 flow 键 / 节点输出标记为已变化，逐级向下游传播。
+     * 条件边始终按当前上下文求值，路由变化后基线中不存在的节点照常执行。
+     * <p>
+     * global 沿用基线记录的值。流式边两端的节点与中断节点不复用，总是重新执行。
+     *
+     * @param previous    上一次运行的记录（通过 {@link RunOptions#setRecord(RunRecord)} 获得）
+     * @param flowChanges 需要修改的 flow 输入，其余 flow 输入沿用基线
+     */
+    public CompletableFuture<ScopeContext> executeIncremental(RunRecord previous, Map<String, Object> flowChanges) {
+        return executeIncremental(previous, flowChanges, new RunOptions());
+    }
+
+    /**
+     * 使用运行选项执行增量重跑；在 options 中设置新的 RunRecord 可继续作为下一次编辑的基线。
+     */
+    public CompletableFuture<ScopeContext> executeIncremental(RunRecord previous, Map<String, Object> flowChanges,
+            RunOptions options) {
+        Objects.requireNonNull(previous, "RunRecord 不能为空");
+        Objects.requireNonNull(options, "RunOptions 不能为空");
+        if (options.getRecord() == previous) {
+            throw new IllegalArgumentException("增量重跑不能将基线记录同时作为本次运行的记录");
+        }
+        Map<String, Object> flowData = new HashMap<>(previous.getFlow());
+        Set<String> dirty = new HashSet<>();
+        if (flowChanges != null) {
+            flowChanges.forEach((key, value) -> {
+                if (!Objects.equals(previous.getFlow().get(key), value)) {
+                    dirty.add("flow." + key);
+                }
+                if (value != null) {
+                    flowData.put(key, value);
+                } else {
+                    flowData.remove(key);
+                }
+            });
+        }
+        log.info("增量重跑图 {}，已变化的输入: {}", graph.getName(), dirty);
+        return admit(() -> startRun(previous.getGlobal(), flowData, options, previous, dirty, null));
+    }
+
+    /**
+     * 按运行日志确定性地回放一次运行：使用记录的初始输入，节点不被调用而是直接采用记录的输出，
+     * 路由按当前图重新求值并与记录比较。
+     * <p>
+     * 回放与原运行一致时返回的上下文与原运行结果相同；节点激活缺少记录或路由不同（例如图已修改）时以
+     * IllegalStateException 失败，原运行中失败的节点在回放中以同样的错误信息失败。
+     * 节点输出含日志无法如实编码的值（见 {@link OpaqueValue}）时同样以 IllegalStateException 失败，
+     * 初始输入含这类值时抛出 IllegalArgumentException。
+     *
+     * @param events          {@link RunJournal#read(java.nio.file.Path)} 读取的日志事件
+     * @param runId           要回放的运行 ID
+     * @param preserveTimings 为 true 时每个节点按记录的耗时完成，用于以真实流量形态做离线性能回归
+     */
+    public CompletableFuture<ScopeContext> replay(List<JournalEvent> events, String runId, boolean preserveTimings) {
+        Objects.requireNonNull(events, "日志事件不能为空");
+        Objects.requireNonNull(runId, "runId 不能为空");
+        JournalReplay replay = new JournalReplay(events, runId, preserveTimings);
+        if (!Objects.equals(replay.graphName, graph.getName())) {
+            throw new IllegalArgumentException("运行 " + runId + " 属于图 " + replay.graphName + "，不能在图 "
+                    + graph.getName() + " 上回放");
+        }
+        log.info("回放运行 {}", runId);
+        return admit(() -> startRun(replay.global, replay.flow, new RunOptions(), null, Set.of(), replay));
+    }
+
+    /**
+     * 恢复一个在中断节点处挂起的运行。
+     * <p>
+     * 中断节点以 resumeInput 写入 flow 后的上下文执行，随后按原路由继续；
+     * 运行再次到达中断节点时，返回的 Future 再次以 {@link RunSuspendedException} 结束。
+     *
+     * @param runId       挂起时 {@link RunSuspendedException#getRunId()} 给出的运行 ID
+     * @param resumeInput 外部输入（例如人工审批结果），写入 flow
+     */
+    public CompletableFuture<ScopeContext> resume(String runId, Map<String, Object> resumeInput) {
+        return resume(runId, resumeInput, new RunOptions());
+    }
+
+    /**
+     * 使用运行选项恢复挂起的运行；优先级、租户与保留键沿用挂起前的运行，options 提供新的 StreamHub 等。
+     */
+    public CompletableFuture<ScopeContext> resume(String runId, Map<String, Object> resumeInput, RunOptions options) {
+        Objects.requireNonNull(runId, "runId 不能为空");
+        Objects.requireNonNull(options, "RunOptions 不能为空");
+        // 快照在通过准入之后才取出：被拒绝或排队时运行仍处于挂起状态，可以稍后重试
+        return admit(() -> {
+            SuspendedRun suspended;
+            try {
+                suspended = suspendedRuns.take(runId);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            if (suspended == null) {
+                return CompletableFuture.failedFuture(new IllegalStateException("挂起的运行不存在或已过期: " + runId));
+            }
+            if (!Objects.equals(suspended.graphName, graph.getName())) {
+                suspendedRuns.restore(suspended);
+                return CompletableFuture.failedFuture(new IllegalStateException(
+                        "运行 " + runId + " 属于图 " + suspended.graphName + "，不能在图 " + graph.getName() + " 上恢复"));
+            }
+            options.setRunId(runId);
+            options.setPriority(suspended.priority);
+            options.setTenantId(suspended.tenantId);
+            options.setRetainedKeys(suspended.retainedKeys);
+            try {
+                return resumeRun(suspended, resumeInput, options);
+            } catch (RuntimeException e) {
+                // 未能开始执行：放回快照
+                suspendedRuns.restore(suspended);
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    /**
+     * 经过准入控制（若已配置）启动运行。
+     * <p>
+     * 取消返回的 Future 时：仍在排队则移出队列，已经启动则取消运行本身。
+     */
+    private CompletableFuture<ScopeContext> admit(Supplier<CompletableFuture<ScopeContext>> start) {
+        AdmissionController admission = this.options.getAdmissionController();
+        if (admission == null) {
+            return start.get();
+        }
+
+        // 过载时在此处快速失败（RejectedExecutionException），排队期间不占用线程
+        CompletableFuture<AdmissionController.Permit> waiter = admission.acquire();
+        CompletableFuture<ScopeContext> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<ScopeContext>> running = new AtomicReference<>();
+
+        waiter.whenComplete((permit, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+                return;
+            }
+            if (result.isDone()) {
+                // 获得许可之前已被取消
+                permit.abandon();
+                return;
+            }
+            CompletableFuture<ScopeContext> run;
+            try {
+                run = start.get();
+            } catch (RuntimeException ex) {
+                run = CompletableFuture.failedFuture(ex);
+            }
+            running.set(run);
+            run.whenComplete((context, err) -> {
+                permit.release(err);
+                if (err != null) {
+                    result.completeExceptionally(err);
+                } else {
+                    result.complete(context);
+                }
+            });
+            if (result.isCancelled()) {
+                // 启动期间被取消
+                run.cancel(false);
+            }
+        });
+
+        result.whenComplete((context, e) -> {
+            if (result.isCancelled()) {
+                waiter.cancel(false);
+                CompletableFuture<ScopeContext> run = running.get();
+                if (run != null) {
+                    run.cancel(false);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 启动一次运行，不经过准入控制（Map 节点的子图运行已在父运行的许可之内）。
+     */
+    CompletableFuture<ScopeContext> startRun(Map<String, Object> globalData, Map<String, Object> flowData,
+            RunOptions runOptions) {
+        return startRun(globalData, flowData, runOptions, null, Set.of(), null);
+    }
+
+    /**
+     * @param baseline  增量重跑的基线记录（可为 null）
+     * @param dirtyRefs 相对基线已变化的引用
+     * @param replay    回放的日志记录（可为 null）
+     */
+    private CompletableFuture<ScopeContext> startRun(Map<String, Object> globalData, Map<String, Object> flowData,
+            RunOptions runOptions, RunRecord baseline, Set<String> dirtyRefs, JournalReplay replay) {
         log.info("开始异步执行图: {}", graph.getName());
 
-        ScopeContext context = new DefaultScopeContext(globalData, flowData);
-        String currentNodeId = graph.findEntryNodeId();
+        ScopeContext context = new DefaultScopeContext(globalData, flowData, graph.getSchema());
+        ExecutionRun run = new ExecutionRun(context, runOptions, liveness);
+        profile(run);
+        if (runOptions.getRecord() != null) {
+            runOptions.getRecord().start(globalData, flowData);
+        }
+        if (baseline != null) {
+            run.incrementalFrom(baseline, dirtyRefs);
+        }
+        if (replay != null) {
+            run.replayFrom(replay);
+        }
+        if (options.getJournal() != null) {
+            options.getJournal().runStarted(run.getRunId(), graph.getName(), context.getGlobalData(),
+                    context.getFlowData());
+        }
+        BranchScope rootScope = BranchScope.root();
 
-        if (currentNodeId == null) {
-            return CompletableFuture.failedFuture(new IllegalStateException("图中未找到入口点。请确保存在从 __start__ 出发的边。"));
+        CompletableFuture<Void> execution;
+        if (dataflowPlan != null) {
+            execution = executeDataflow(run, rootScope);
+        } else {
+            String currentNodeId = graph.findEntryNodeId();
+            if (currentNodeId == null) {
+                if (runOptions.getStreamHub() != null) {
+                    runOptions.getStreamHub().close();
+                }
+                return CompletableFuture.failedFuture(new IllegalStateException("图中未找到入口点。请确保存在从 __start__ 出发的边。"));
+            }
+            run.enter(currentNodeId);
+            execution = executeNodeRecursive(currentNodeId, 0, run, rootScope);
         }
 
-        return executeNodeRecursive(currentNodeId, 0, context)
-                .thenApply(v -> {
-                    log.info("图执行已完成。");
-                    return context;
-                });
+        CompletableFuture<ScopeContext> result = finish(run, execution);
+        // 调用方取消运行（例如 Map 节点取消子图元素）时取消全部在途节点
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                rootScope.cancel();
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<ScopeContext> resumeRun(SuspendedRun suspended, Map<String, Object> resumeInput,
+            RunOptions runOptions) {
+        log.info("恢复挂起的运行 {}，中断节点: {}", suspended.runId, suspended.waitingNodes());
+
+        ExecutionRun run = new ExecutionRun(suspended.restoreContext(resumeInput, graph.getSchema()), runOptions, liveness);
+        profile(run);
+        BranchScope rootScope = BranchScope.root();
+        List<CompletableFuture<Void>> parts = new ArrayList<>();
+        for (SuspendedRun.Activation activation : suspended.activations) {
+            run.enter(activation.nodeId);
+            run.grantResume(activation.nodeId);
+        }
+        for (SuspendedRun.Activation activation : suspended.activations) {
+            parts.add(executeNodeRecursive(activation.nodeId, activation.iteration, run, rootScope));
+        }
+        return finish(run, CompletableFuture.allOf(parts.toArray(new CompletableFuture[0])));
+    }
+
+    /**
+     * 为运行开启剖析：运行选项指定了 RunProfile，或引擎配置了剖析汇总（Map 子图的元素运行除外）。
+     */
+    private void profile(ExecutionRun run) {
+        RunOptions runOptions = run.getOptions();
+        if (runOptions.getProfile() != null) {
+            run.profileWith(runOptions.getProfile());
+        } else if (options.getProfileAggregator() != null && !runOptions.isChild()) {
+            run.profileWith(new RunProfile());
+        }
+    }
+
+    /**
+     * 运行的执行部分结束后：成功则投影结果；有中断节点挂起则保存快照并以 RunSuspendedException 结束。
+     */
+    private CompletableFuture<ScopeContext> finish(ExecutionRun run, CompletableFuture<Void> execution) {
+        ScopeContext context = run.getContext();
+        StreamHub hub = run.getOptions().getStreamHub();
+        return execution.handle((v, e) -> {
+            for (int i = run.cancelSpeculations(); i > 0; i--) {
+                speculator.wasted();
+            }
+            // 运行的结局只判定一次，日志、JFR 事件与挂起处理共用
+            List<SuspendedRun.Activation> suspended = e == null ? run.getSuspended() : List.of();
+            String status = e != null ? "FAILED" : suspended.isEmpty() ? "COMPLETED" : "SUSPENDED";
+            RunJournal journal = options.getJournal();
+            if (journal != null) {
+                journal.runFinished(run.getRunId(), status, e != null ? unwrap(e) : null);
+            }
+            run.commitRunEvent(graph.getName(), status);
+            RunProfile profile = run.getProfile();
+            if (profile != null) {
+                profile.finish();
+                if (options.getProfileAggregator() != null && !run.getOptions().isChild()) {
+                    options.getProfileAggregator().add(profile);
+                }
+            }
+            if (e != null) {
+                run.releaseHandles();
+            }
+            if (hub != null) {
+                hub.close();
+            }
+
+            if (e != null) {
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+            if (!suspended.isEmpty()) {
+                run.materializeHandles();
+                SuspendedRun snapshot = new SuspendedRun(run.getRunId(), graph.getName(), suspended, context,
+                        run.getOptions());
+                suspendedRuns.put(snapshot);
+                log.info("运行 {} 已挂起，等待外部输入: {}", run.getRunId(), snapshot.waitingNodes());
+                throw new RunSuspendedException(run.getRunId(), snapshot.waitingNodes());
+            }
+            run.complete();
+            log.info("图执行已完成。");
+            return context;
+        });
     }
 
     /**
      * 递归执行节点。
      */
-    private CompletableFuture<Void> executeNodeRecursive(String currentNodeId, int iteration, ScopeContext context) {
+    private CompletableFuture<Void> executeNodeRecursive(String currentNodeId, int iteration, ExecutionRun run,
+            BranchScope scope) {
         // 如果是特殊结束节点，直接返回完成
         if (currentNodeId == null || Graph.END.equals(currentNodeId)) {
             return CompletableFuture.completedFuture(null);
@@ -79,46 +528,623 @@ public class SynapseEngine {
                     .failedFuture(new IllegalStateException("超过最大迭代次数 (" + MAX_ITERATIONS + ")。图中可能存在死循环。"));
         }
 
-        log.debug("正在执行节点: {}", currentNodeId);
+        if (scope.isCancelled()) {
+            return CompletableFuture.failedFuture(new CancellationException("分支已取消，跳过节点: " + currentNodeId));
+        }
 
-        NodeDefinition nodeDef = graph.getNode(currentNodeId);
-        if (nodeDef == null) {
-            return CompletableFuture.failedFuture(new IllegalStateException("未找到节点: " + currentNodeId));
+        NodeDefinition interruptDef = graph.getNode(currentNodeId);
+        if (interruptDef != null && interruptDef.isInterrupt() && !run.consumeResume(currentNodeId)) {
+            // 挂起：只记录激活，分支就此结束，不占用线程或在途 Future
+            log.debug("节点 {} 为中断节点，运行挂起等待外部输入", currentNodeId);
+            run.suspend(currentNodeId, iteration);
+            return CompletableFuture.completedFuture(null);
         }
 
-        Node nodeInstance = nodeFactory.apply(nodeDef.getType());
-        if (nodeInstance == null) {
-            return CompletableFuture.failedFuture(new IllegalStateException("节点工厂对类型返回了 null: " + nodeDef.getType()));
+        log.debug("正在执行节点: {}", currentNodeId);
+
+        ScopeContext context = run.getContext();
+
+        // 异步运行当前节点。内联节点同步完成时，后续节点会在本调用栈中嵌套执行，
+        // 嵌套层数由 InlinePolicy 计数，超过上限后改为提交到线程池
+        InlinePolicy.enter();
+        try {
+            List<EdgeDefinition> streams = streamingEdges.get(currentNodeId);
+            if (streams != null) {
+                return executeWithStreams(currentNodeId, streams, iteration, run, scope, context);
+            }
+            return runFrom(currentNodeId, iteration, run, scope, context);
+        } finally {
+            InlinePolicy.exit();
         }
+    }
 
-        // 异步运行当前节点
-        return nodeRunner.runAsync(nodeDef, nodeInstance, context)
-                .thenCompose(outputs -> {
+    private CompletableFuture<Void> runFrom(String currentNodeId, int iteration, ExecutionRun run, BranchScope scope,
+            ScopeContext context) {
+        JournalReplay replay = run.getReplay();
+        String speculated = speculator.isEnabled() && replay == null ? speculate(currentNodeId, run, scope) : null;
+        RunProfile profile = run.getProfile();
+        RunProfile.Span span = profile != null ? profile.ready(currentNodeId) : null;
+        return scope.track(runNode(currentNodeId, run, span))
+                // 节点运行完成后，计算所有可能的下一个节点（同步条件返回已完成的 Future，不额外切换线程）
+                .thenCompose(outputs -> resolveNextNodes(currentNodeId, run))
+                .thenCompose(nextNodeIds -> {
                     try {
-                        // 节点运行完成后，计算所有可能的下一个节点
-                        List<String> nextNodeIds = resolveNextNodes(currentNodeId, context);
+                        if (span != null) {
+                            profile.routed(span, nextNodeIds);
+                        }
+                        if (replay != null) {
+                            replay.checkRoute(currentNodeId, nextNodeIds);
+                        }
+                        RunJournal journal = options.getJournal();
+                        if (journal != null) {
+                            journal.routed(run.getRunId(), currentNodeId, nextNodeIds);
+                        }
+                        if (speculator.isEnabled()) {
+                            speculator.observe(currentNodeId, nextNodeIds);
+                            if (speculated != null && !nextNodeIds.contains(speculated)) {
+                                discardSpeculation(speculated, run);
+                            }
+                        }
+                        run.advance(currentNodeId, nextNodeIds);
 
                         if (nextNodeIds.isEmpty()) {
                             log.debug("节点 {} 执行完毕且无后续节点。", currentNodeId);
                             return CompletableFuture.completedFuture(null);
                         }
 
-                        // 并行执行所有后续节点
-                        if (nextNodeIds.size() > 1) {
-                            log.info("节点 {} 触发并行分支: {}", currentNodeId, nextNodeIds);
+                        if (nextNodeIds.size() == 1) {
+                            return executeNodeRecursive(nextNodeIds.get(0), iteration + 1, run, scope);
                         }
 
-                        List<CompletableFuture<Void>> futures = nextNodeIds.stream()
-                                .map(nextId -> executeNodeRecursive(nextId, iteration + 1, context))
-                                .collect(Collectors.toList());
-
-                        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+                        // 并行执行所有后续节点
+                        log.info("节点 {} 触发并行分支: {}", currentNodeId, nextNodeIds);
+                        return executeFork(currentNodeId, nextNodeIds, iteration + 1, run, scope);
                     } catch (Exception e) {
                         return CompletableFuture.failedFuture(e);
                     }
                 });
     }
 
+    /**
+     * 运行带流式出边的节点：流式边的目标节点与其同时启动，经有界缓冲区逐块接收其流式输出。
+     * <p>
+     * 源节点及其后续、各目标节点及其后续在同一个子作用域中运行，任一失败即取消其余部分。
+     */
+    private CompletableFuture<Void> executeWithStreams(String currentNodeId, List<EdgeDefinition> streams,
+            int iteration, ExecutionRun run, BranchScope scope, ScopeContext context) {
+        BranchScope streamScope = scope.fork();
+        for (EdgeDefinition edge : streams) {
+            run.openStream(currentNodeId, edge.getTargetNodeId(), new StreamChannel(edge.getBufferSize()));
+        }
+
+        List<CompletableFuture<Void>> parts = new ArrayList<>();
+        for (EdgeDefinition edge : streams) {
+            String target = edge.getTargetNodeId();
+            run.enter(target);
+            log.debug("流式边 {} ~> {}：目标节点与源节点同时启动", currentNodeId, target);
+            // 在线程池上启动目标节点，避免阻塞式读取占用源节点所在的线程
+            parts.add(CompletableFuture.completedFuture(null)
+                    .thenComposeAsync(v -> executeNodeRecursive(target, iteration + 1, run, streamScope)));
+        }
+        parts.add(runFrom(currentNodeId, iteration, run, streamScope, context));
+
+        return failFast(parts, streamScope, currentNodeId).whenComplete((v, e) -> streamScope.detach());
+    }
+
+    /**
+     * 在子作用域中并行执行分叉的各个分支，并按分叉失败策略汇合。
+     */
+    private CompletableFuture<Void> executeFork(String forkNodeId, List<String> branchIds, int iteration,
+            ExecutionRun run, BranchScope scope) {
+        NodeDefinition forkDef = graph.getNode(forkNodeId);
+        NodeDefinition.ForkPolicy policy = forkDef.getForkPolicy() != null
+                ? forkDef.getForkPolicy()
+                : options.getDefaultForkPolicy();
+
+        BranchScope forkScope = scope.fork();
+        List<CompletableFuture<Void>> branches = branchIds.stream()
+                .map(branchId -> executeNodeRecursive(branchId, iteration, run, forkScope))
+                .collect(Collectors.toList());
+
+        CompletableFuture<Void> joined;
+        if (policy == NodeDefinition.ForkPolicy.COLLECT) {
+            joined = collectBranches(forkNodeId, branchIds, branches, run, scope);
+        } else {
+            joined = failFast(branches, forkScope, forkNodeId);
+        }
+        return joined.whenComplete((v, e) -> forkScope.detach());
+    }
+
+    /**
+     * FAIL_FAST：首个失败立即使汇合失败，并取消作用域内其余分支及其在途节点。
+     */
+    private CompletableFuture<Void> failFast(List<CompletableFuture<Void>> branches, BranchScope forkScope,
+            String forkNodeId) {
+        CompletableFuture<Void> joined = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(branches.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        for (CompletableFuture<Void> branch : branches) {
+            branch.whenComplete((v, e) -> {
+                if (e != null) {
+                    // 先取消兄弟分支再使汇合失败，保证调用方观察到失败时在途节点已被取消；
+                    // 被取消分支随后产生的 CancellationException 不会覆盖原始错误
+                    if (failed.compareAndSet(false, true)) {
+                        log.warn("节点 {} 的并行分支失败，取消其余分支: {}", forkNodeId, unwrap(e).toString());
+                        forkScope.cancel();
+                        joined.completeExceptionally(e);
+                    }
+                } else if (remaining.decrementAndGet() == 0) {
+                    joined.complete(null);
+                }
+            });
+        }
+        return joined;
+    }
+
+    /**
+     * COLLECT：等待全部分支结束，失败分支的错误写入分叉节点的 __errors__ 输出，运行继续。
+     */
+    private CompletableFuture<Void> collectBranches(String forkNodeId, List<String> branchIds,
+            List<CompletableFuture<Void>> branches, ExecutionRun run, BranchScope scope) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        CompletableFuture<?>[] handled = new CompletableFuture[branches.size()];
+        for (int i = 0; i < branches.size(); i++) {
+            String branchId = branchIds.get(i);
+            handled[i] = branches.get(i).handle((v, e) -> {
+                if (e != null) {
+                    Throwable cause = unwrap(e);
+                    synchronized (errors) {
+                        errors.put(branchId, cause.getClass().getSimpleName() + ": " + cause.getMessage());
+                    }
+                }
+                return null;
+            });
+        }
+
+        return CompletableFuture.allOf(handled).thenRun(() -> {
+            if (scope.isCancelled()) {
+                // 外层作用域已取消：取消优先于收集
+                throw new CancellationException("分支已取消: " + forkNodeId);
+            }
+            if (!errors.isEmpty()) {
+                log.warn("节点 {} 的并行分支部分失败，已收集错误并继续: {}", forkNodeId, errors);
+                run.getContext().putNodeOutput(forkNodeId, BRANCH_ERRORS_KEY, new LinkedHashMap<>(errors));
+            }
+        });
+    }
+
+    static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /**
+     * 数据流模式：按拓扑序为每个节点挂接其依赖的 Future，节点在全部依赖完成后立即启动。
+     * <p>
+     * 默认策略（FAIL_FAST）下任一节点失败会取消其余在途节点并立即结束运行。
+     */
+    private CompletableFuture<Void> executeDataflow(ExecutionRun run, BranchScope scope) {
+        // 数据流模式下全部节点都会运行：一开始即全部登记到执行前沿，各自完成时移出
+        dataflowPlan.getTopologicalOrder().forEach(run::enter);
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        for (String nodeId : dataflowPlan.getTopologicalOrder()) {
+            CompletableFuture<?>[] deps = dataflowPlan.dependenciesOf(nodeId).stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture<Void> ready = deps.length == 0
+                    ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.allOf(deps);
+            futures.put(nodeId, ready
+                    .thenCompose(v -> {
+                        if (scope.isCancelled()) {
+                            return CompletableFuture.failedFuture(new CancellationException("运行已取消，跳过节点: " + nodeId));
+                        }
+                        RunProfile profile = run.getProfile();
+                        RunProfile.Span span = null;
+                        if (profile != null) {
+                            profile.awaited(nodeId, dataflowPlan.dependenciesOf(nodeId));
+                            span = profile.ready(nodeId);
+                        }
+                        return scope.track(runNode(nodeId, run, span));
+                    })
+                    .thenApply(outputs -> {
+                        // 与控制流路径相同：记录路由（依赖本节点的节点）并推进前沿，释放不再存活的输出
+                        List<String> dependents = dataflowPlan.dependentsOf(nodeId);
+                        JournalReplay replay = run.getReplay();
+                        if (replay != null) {
+                            replay.checkRoute(nodeId, dependents);
+                        }
+                        RunJournal journal = options.getJournal();
+                        if (journal != null) {
+                            journal.routed(run.getRunId(), nodeId, dependents);
+                        }
+                        run.advance(nodeId, List.of());
+                        return null;
+                    }));
+        }
+
+        List<CompletableFuture<Void>> all = new ArrayList<>(futures.values());
+        if (options.getDefaultForkPolicy() == NodeDefinition.ForkPolicy.FAIL_FAST) {
+            return failFast(all, scope, graph.getName());
+        }
+        return CompletableFuture.allOf(all.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * 实例化并异步运行单个节点（输入映射、执行、输出分发）。
+     *
+     * @param span 本次激活的剖析时间线，未开启剖析时为 null
+     */
+    private CompletableFuture<Map<String, Object>> runNode(String nodeId, ExecutionRun run, RunProfile.Span span) {
+        // 流式边的两端：本节点作为源节点的发送端、作为目标节点的接收端
+        List<StreamChannel> outgoing = run.takeOutgoingStreams(nodeId);
+        StreamChannel incoming = run.takeIncomingStream(nodeId);
+
+        CompletableFuture<Map<String, Object>> future = startNode(nodeId, run, outgoing, incoming, span);
+        if (outgoing != null) {
+            future.whenComplete((outputs, e) -> outgoing.forEach(channel -> channel.close(e)));
+        }
+        if (incoming != null) {
+            future.whenComplete((outputs, e) -> incoming.abandon());
+        }
+        StreamHub hub = run.getOptions().getStreamHub();
+        if (hub != null) {
+            // 节点结束时立即发出合并窗口中剩余的数据
+            future.whenComplete((outputs, e) -> hub.flush(nodeId));
+        }
+        return future;
+    }
+
+    private CompletableFuture<Map<String, Object>> startNode(String nodeId, ExecutionRun run,
+            List<StreamChannel> outgoing, StreamChannel incoming, RunProfile.Span span) {
+        NodeDefinition nodeDef = graph.getNode(nodeId);
+        if (nodeDef == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("未找到节点: " + nodeId));
+        }
+        int activation = run.nextActivation(nodeId);
+        JournalReplay replay = run.getReplay();
+        if (replay != null) {
+            return profiled(replayNode(nodeDef, activation, replay, run), run, span, activation);
+        }
+
+        RunJournal journal = options.getJournal();
+        // 日志记录原始输入（不物化堆外句柄），在节点启动前解析，避免读到节点运行期间被其他分支修改的值
+        Map<String, Object> inputs = journal != null
+                ? nodeRunner.resolveInputs(nodeDef, run.getContext(), true)
+                : null;
+        long startNanos = System.nanoTime();
+        CompletableFuture<Map<String, Object>> future = traced(nodeDef, run, activation,
+                () -> profiled(run.isTracking()
+                        ? startTracked(nodeDef, activation, run, outgoing, incoming, span)
+                        : launch(nodeDef, run, outgoing, incoming, span), run, span, activation));
+        if (journal != null) {
+            future.whenComplete((outputs, e) -> {
+                long duration = System.nanoTime() - startNanos;
+                if (e == null) {
+                    journal.nodeCompleted(run.getRunId(), nodeId, activation, duration, inputs, outputs);
+                } else {
+                    journal.nodeFailed(run.getRunId(), nodeId, activation, duration, inputs, unwrap(e));
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * 启动节点并在结束时提交 NodeExecuteEvent。
+     *
+     * @param activation 激活序号，推测执行为 -1
+     */
+    private CompletableFuture<Map<String, Object>> traced(NodeDefinition nodeDef, ExecutionRun run, int activation,
+            Supplier<CompletableFuture<Map<String, Object>>> start) {
+        NodeExecuteEvent event = new NodeExecuteEvent();
+        if (!event.isEnabled()) {
+            return start.get();
+        }
+        event.begin();
+        CompletableFuture<Map<String, Object>> future = start.get();
+        future.whenComplete((outputs, e) -> {
+            if (event.shouldCommit()) {
+                event.graphName = graph.getName();
+                event.runId = run.getRunId();
+                event.nodeId = nodeDef.getId();
+                event.nodeType = nodeDef.getType();
+                event.activation = activation;
+                event.speculative = activation < 0;
+                event.succeeded = e == null;
+                event.commit();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 节点结束时记录剖析时间线的结束时刻，先于路由等后续阶段。
+     */
+    private static CompletableFuture<Map<String, Object>> profiled(CompletableFuture<Map<String, Object>> future,
+            ExecutionRun run, RunProfile.Span span, int activation) {
+        if (span == null) {
+            return future;
+        }
+        RunProfile profile = run.getProfile();
+        profile.activated(span, activation);
+        CompletableFuture<Map<String, Object>> timed = future.whenComplete((outputs, e) -> profile.ended(span, e != null));
+        timed.whenComplete((outputs, e) -> {
+            if (timed.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return timed;
+    }
+
+    /**
+     * 回放节点：不调用节点，分发日志中记录的输出（或重现记录的失败）。
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Map<String, Object>> replayNode(NodeDefinition nodeDef, int activation,
+            JournalReplay replay, ExecutionRun run) {
+        JournalEvent event = replay.activation(nodeDef.getId(), activation);
+        if (event == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "回放偏离日志: 节点 " + nodeDef.getId() + " 的第 " + (activation + 1) + " 次激活不在日志中"));
+        }
+        Supplier<Map<String, Object>> result = () -> {
+            if (event.getType() == JournalEvent.Type.NODE_FAILED) {
+                throw new CompletionException(new IllegalStateException(
+                        "回放: 节点 " + nodeDef.getId() + " 在原运行中失败: " + event.getError()));
+            }
+            Map<String, Object> outputs = (Map<String, Object>) (Map<?, ?>) event.get("outputs");
+            if (outputs != null) {
+                // 未被如实记录的输出只剩类名与文本，按原值分发会使条件与下游节点看到不同的类型
+                for (Map.Entry<String, Object> entry : outputs.entrySet()) {
+                    OpaqueValue opaque = OpaqueValue.find(entry.getValue());
+                    if (opaque != null) {
+                        throw new CompletionException(new IllegalStateException("不可回放: 节点 " + nodeDef.getId()
+                                + " 的输出 " + entry.getKey() + " 未被如实记录（" + opaque.getTypeName() + "）"));
+                    }
+                }
+            }
+            nodeRunner.dispatchRecorded(nodeDef, outputs, run.getContext(), run.getRunId());
+            return outputs;
+        };
+        if (replay.preserveTimings) {
+            // 按记录的耗时完成，重现原运行的时间形态
+            return CompletableFuture.supplyAsync(result,
+                    CompletableFuture.delayedExecutor(event.getDurationNanos(), TimeUnit.NANOSECONDS));
+        }
+        try {
+            return CompletableFuture.completedFuture(result.get());
+        } catch (CompletionException e) {
+            return CompletableFuture.failedFuture(e.getCause());
+        }
+    }
+
+    /**
+     * 记录节点输出的运行：增量重跑时可复用基线输出，执行后记录输出并传播变化。
+     */
+    private CompletableFuture<Map<String, Object>> startTracked(NodeDefinition nodeDef, int activation,
+            ExecutionRun run, List<StreamChannel> outgoing, StreamChannel incoming, RunProfile.Span span) {
+        Map<String, Object> reusable = outgoing == null && incoming == null
+                ? run.reusableOutputs(nodeDef, activation)
+                : null;
+        if (reusable != null) {
+            log.debug("节点 {} 的输入未变化，复用上一次运行的输出", nodeDef.getId());
+            nodeRunner.dispatchRecorded(nodeDef, reusable, run.getContext(), run.getRunId());
+            run.recordOutputs(nodeDef, activation, reusable, true);
+            return CompletableFuture.completedFuture(reusable);
+        }
+
+        CompletableFuture<Map<String, Object>> future = launch(nodeDef, run, outgoing, incoming, span);
+        CompletableFuture<Map<String, Object>> recorded = future.thenApply(outputs -> {
+            run.recordOutputs(nodeDef, activation, outputs, false);
+            return outputs;
+        });
+        recorded.whenComplete((outputs, e) -> {
+            if (recorded.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return recorded;
+    }
+
+    /**
+     * 实例化节点，并经过限流与调度后启动。
+     */
+    private CompletableFuture<Map<String, Object>> launch(NodeDefinition nodeDef, ExecutionRun run,
+            List<StreamChannel> outgoing, StreamChannel incoming, RunProfile.Span span) {
+        String nodeId = nodeDef.getId();
+        Node nodeInstance = nodeDef.isMapNode()
+                ? ((MapNode) mapNodes.get(nodeId)).forRun(run.getOptions(), run.getContext().getGlobalData())
+                : instantiate(nodeDef);
+        if (nodeInstance == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("节点工厂对类型返回了 null: " + nodeDef.getType()));
+        }
+
+        BranchSpeculator.Speculation speculation = run.takeSpeculation(nodeId);
+        if (speculation != null) {
+            return adopt(nodeDef, nodeInstance, run, speculation, outgoing, incoming, span);
+        }
+        return schedule(nodeDef, nodeInstance, run, outgoing, incoming, span);
+    }
+
+    /**
+     * 实例化节点：声明了工作池的节点由 {@link TaskTransport} 派发到工作进程执行，不调用本地节点工厂。
+     */
+    private Node instantiate(NodeDefinition nodeDef) {
+        String pool = workerPool(nodeDef);
+        return pool != null
+                ? new RemoteNode(options.getTaskTransport(), pool, nodeDef.getType())
+                : nodeFactory.apply(nodeDef.getType());
+    }
+
+    /**
+     * Map 节点的元素按节点类型实例化。
+     */
+    private Node instantiate(String nodeType) {
+        String pool = workers.get(nodeType);
+        return pool != null ? new RemoteNode(options.getTaskTransport(), pool, nodeType) : nodeFactory.apply(nodeType);
+    }
+
+    private String workerPool(NodeDefinition nodeDef) {
+        if (nodeDef.isMapNode()) {
+            return null;
+        }
+        return nodeDef.getWorker() != null ? nodeDef.getWorker() : workers.get(nodeDef.getType());
+    }
+
+    /**
+     * 经过限流与调度后运行节点。
+     */
+    private CompletableFuture<Map<String, Object>> schedule(NodeDefinition nodeDef, Node nodeInstance,
+            ExecutionRun run, List<StreamChannel> outgoing, StreamChannel incoming, RunProfile.Span span) {
+        String nodeId = nodeDef.getId();
+        speculator.launched();
+        DataStreamer streamer = streamerFor(nodeId, run.getOptions().getStreamHub(), outgoing);
+        Supplier<CompletableFuture<Map<String, Object>>> start =
+                () -> nodeRunner.runAsync(nodeDef, nodeInstance, run.getContext(), streamer, incoming, run.getRunId());
+        if (span != null) {
+            // 在限流与调度之内记录开始时刻，二者的等待计入排队时间
+            RunProfile profile = run.getProfile();
+            Supplier<CompletableFuture<Map<String, Object>>> unprofiled = start;
+            start = () -> {
+                profile.started(span);
+                return unprofiled.get();
+            };
+        }
+        return throttle(nodeDef, run.getOptions(), incoming != null, start);
+    }
+
+    /**
+     * 经公平调度与节点类型的限流后启动节点，正常激活与推测执行共用。
+     *
+     * @param streamingTarget 是否为流式边的目标
+     */
+    private CompletableFuture<Map<String, Object>> throttle(NodeDefinition nodeDef, RunOptions runOptions,
+            boolean streamingTarget, Supplier<CompletableFuture<Map<String, Object>>> start) {
+        FairScheduler scheduler = options.getScheduler();
+        if (scheduler != null && !nodeDef.isMapNode() && !streamingTarget) {
+            // 按运行的优先级通道与租户排队；Map 节点与流式边目标会等待其他节点，不占用名额
+            Supplier<CompletableFuture<Map<String, Object>>> unscheduled = start;
+            start = () -> scheduler.submit(runOptions.getPriority(), runOptions.getTenantId(), unscheduled);
+        }
+        NodeLimiter limiter = nodeDef.isMapNode() ? null : limiters.get(nodeDef.getType());
+        if (limiter != null) {
+            // 许可不足时以 Future 排队，不阻塞线程；限流在外层，等待令牌时不占用调度名额
+            return limiter.submit(start);
+        }
+        return start.get();
+    }
+
+    /**
+     * 在源节点运行期间，提前启动其推测边上预测最可能的目标节点（不分发输出）。
+     *
+     * @return 启动了推测执行的目标节点 ID，未推测时返回 null
+     */
+    private String speculate(String sourceId, ExecutionRun run, BranchScope scope) {
+        if (run.getOptions().getStreamHub() != null) {
+            // 推测执行没有流式输出的去处
+            return null;
+        }
+        String targetId = speculator.predict(sourceId);
+        if (targetId == null || run.isSpeculating(targetId)) {
+            return null;
+        }
+        NodeDefinition targetDef = graph.getNode(targetId);
+        Node nodeInstance = instantiate(targetDef);
+        if (nodeInstance == null) {
+            return null;
+        }
+
+        Map<String, Object> inputs = nodeRunner.resolveInputs(targetDef, nodeInstance, run.getContext());
+        // 与正常激活相同的调度、限流、内联与对冲，只是不分发输出
+        CompletableFuture<Map<String, Object>> future = scope.track(traced(targetDef, run, -1,
+                () -> throttle(targetDef, run.getOptions(), false,
+                        () -> nodeRunner.execute(targetDef, nodeInstance, inputs, null, null))));
+        if (!run.speculate(targetId, new BranchSpeculator.Speculation(inputs, future))) {
+            future.cancel(true);
+            return null;
+        }
+        speculator.speculated();
+        log.debug("节点 {} 运行期间推测执行其最可能的后续节点 {}", sourceId, targetId);
+        return targetId;
+    }
+
+    /**
+     * 路由结果与预测不一致时取消推测执行。
+     */
+    private void discardSpeculation(String targetId, ExecutionRun run) {
+        BranchSpeculator.Speculation speculation = run.takeSpeculation(targetId);
+        if (speculation != null) {
+            speculation.future.cancel(true);
+            speculator.wasted();
+            log.debug("路由未选择节点 {}，丢弃其推测执行", targetId);
+        }
+    }
+
+    /**
+     * 采用推测执行的结果：输入与推测启动时一致且推测执行成功时，直接分发其输出；否则正常运行节点。
+     */
+    private CompletableFuture<Map<String, Object>> adopt(NodeDefinition nodeDef, Node nodeInstance, ExecutionRun run,
+            BranchSpeculator.Speculation speculation, List<StreamChannel> outgoing, StreamChannel incoming,
+            RunProfile.Span span) {
+        Map<String, Object> inputs = nodeRunner.resolveInputs(nodeDef, nodeInstance, run.getContext());
+        if (!inputs.equals(speculation.inputs)) {
+            speculation.future.cancel(true);
+            speculator.wasted();
+            log.debug("节点 {} 的输入在推测启动后发生变化，丢弃推测结果", nodeDef.getId());
+            return schedule(nodeDef, nodeInstance, run, outgoing, incoming, span);
+        }
+
+        CompletableFuture<Map<String, Object>> adopted = speculation.future
+                .handle((outputs, e) -> e)
+                .thenCompose(e -> {
+                    if (e != null) {
+                        speculator.wasted();
+                        log.debug("节点 {} 的推测执行失败，重新运行: {}", nodeDef.getId(), unwrap(e).toString());
+                        return schedule(nodeDef, nodeInstance, run, outgoing, incoming, span);
+                    }
+                    Map<String, Object> outputs = speculation.future.join();
+                    speculator.committed();
+                    nodeRunner.dispatchRecorded(nodeDef, outputs, run.getContext(), run.getRunId());
+                    return CompletableFuture.completedFuture(outputs);
+                });
+        adopted.whenComplete((outputs, e) -> {
+            if (adopted.isCancelled()) {
+                speculation.future.cancel(true);
+            }
+        });
+        return adopted;
+    }
+
+    /**
+     * 组合节点的流式输出目标：流式边的下游通道与运行的 StreamHub，均不存在时返回 null。
+     */
+    private static DataStreamer streamerFor(String nodeId, StreamHub hub, List<StreamChannel> outgoing) {
+        if (hub == null) {
+            return outgoing == null ? null : chunk -> outgoing.forEach(channel -> channel.stream(chunk));
+        }
+        if (outgoing == null) {
+            return chunk -> hub.publish(nodeId, chunk);
+        }
+        return chunk -> {
+            hub.publish(nodeId, chunk);
+            outgoing.forEach(channel -> channel.stream(chunk));
+        };
+    }
+
+    /**
+     * 推测执行的统计（启动、采用与浪费的次数）。
+     */
+    public BranchSpeculator getSpeculator() {
+        return speculator;
+    }
+
+    /**
+     * 获取某一节点类型的限流器（用于观察排队深度等指标），未配置 limits 时返回 null。
+     */
+    public NodeLimiter getNodeLimiter(String nodeType) {
+        return limiters.get(nodeType);
+    }
+
     /**
      * 使用给定的初始输入执行图（同步阻塞）。
      */
@@ -143,45 +1169,54 @@ public class SynapseEngine {
 
     /**
      * 解析下一个节点 ID 列表，支持多条出边（并行）和条件边。
+     * <p>
+     * 条件边可能由异步策略（如模型路由）评估，因此以 Future 返回。
      */
-    private List<String> resolveNextNodes(String currentNodeId, ScopeContext context) {
-        List<EdgeDefinition> edges = graph.findAllEdgesFrom(currentNodeId);
-        List<String> validTargets = new ArrayList<>();
+    private CompletableFuture<List<String>> resolveNextNodes(String currentNodeId, ExecutionRun run) {
+        // 流式边的目标节点已与源节点同时启动，不参与完成后的路由
+        List<EdgeDefinition> edges = graph.findAllEdgesFrom(currentNodeId).stream()
+                .filter(edge -> !edge.isStreaming())
+                .collect(Collectors.toList());
 
         if (edges.isEmpty()) {
-            return validTargets;
+            return CompletableFuture.completedFuture(new ArrayList<>());
         }
 
+        List<CompletableFuture<String>> targets = new ArrayList<>(edges.size());
         for (EdgeDefinition edge : edges) {
-            String target = null;
             if (edge.isConditional()) {
                 // 条件边：使用 ConditionEvaluator 评估
-                target = conditionEvaluator.evaluate(
-                        edge.getConditionType(),
-                        edge.getConditionExpression(),
-                        edge.getConditionMappings(),
-                        context);
                 // 注意：条件不满足时可能会返回 null，或者未配置的 mapping 返回 null
+                // 构造后才加入图的条件边没有预编译结果，回退到评估器的缓存
+                CompiledCondition condition = conditions.get(edge);
+                CompletableFuture<String> routed = condition != null
+                        ? conditionEvaluator.evaluateAsync(edge, condition, run.getContext(), graph.getName(),
+                                run.getRunId())
+                        : conditionEvaluator.evaluateAsync(edge, run.getContext(), graph.getName(), run.getRunId());
+                targets.add(routed.thenApply(target -> {
+                    if (target != null) {
+                        log.debug("条件边路由: {} -> {}", currentNodeId, target);
+                    }
+                    return target;
+                }));
             } else {
                 // 简单边
-                target = edge.getTargetNodeId();
-            }
-
-            if (target != null) {
-                // 记录日志：如果是条件分支，记录路由结果
-                if (edge.isConditional()) {
-                    log.debug("条件边路由: {} -> {}", currentNodeId, target);
-                }
-                validTargets.add(target);
+                targets.add(CompletableFuture.completedFuture(edge.getTargetNodeId()));
             }
         }
 
-        // 严格模式：如果有出边但没有任何一个命中，视为异常（防止死胡同）
-        if (!edges.isEmpty() && validTargets.isEmpty()) {
-            throw new IllegalStateException("条件边评估失败：节点 '" + currentNodeId + "' 有出边定义，但没有匹配到任何目标节点（条件均未满足，且无默认边）。");
-        }
+        return CompletableFuture.allOf(targets.toArray(new CompletableFuture[0])).thenApply(v -> {
+            List<String> validTargets = targets.stream()
+                    .map(CompletableFuture::join)
+                    .filter(Objects::nonNull)
+                    .distinct() // 去重 (防止配置多条相同的边导致重复执行)
+                    .collect(Collectors.toList());
 
-        // 去重 (防止配置多条相同的边导致重复执行)
-        return validTargets.stream().distinct().collect(Collectors.toList());
+            // 严格模式：如果有出边但没有任何一个命中，视为异常（防止死胡同）
+            if (validTargets.isEmpty()) {
+                throw new IllegalStateException("条件边评估失败：节点 '" + currentNodeId + "' 有出边定义，但没有匹配到任何目标节点（条件均未满足，且无默认边）。");
+            }
+            return validTargets;
+        });
     }
 }
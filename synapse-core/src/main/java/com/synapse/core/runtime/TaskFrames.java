@@ -0,0 +1,145 @@
+package com.synapse.core.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+
+/**
+ * TaskFrames 定义工作进程协议的帧格式：每帧为 4 字节长度前缀加负载，
+ * 负载中的值使用 {@link BinaryValueCodec} 编码。
+ * <ul>
+ * <li>请求：请求 ID（long）、节点类型、输入 Map。</li>
+ * <li>结果：请求 ID（long）、成功标记，成功时为输出 Map，失败时为错误描述。</li>
+ * </ul>
+ */
+final class TaskFrames {
+
+    static final int MAX_FRAME = 64 * 1024 * 1024;
+
+    private TaskFrames() {
+    }
+
+    static final class Request {
+        final long id;
+        final String nodeType;
+        final Map<String, Object> inputs;
+
+        Request(long id, String nodeType, Map<String, Object> inputs) {
+            this.id = id;
+            this.nodeType = nodeType;
+            this.inputs = inputs;
+        }
+    }
+
+    static final class Result {
+        final long id;
+        final Map<String, Object> outputs;
+        final String error; // 非空表示节点在工作进程中失败
+
+        Result(long id, Map<String, Object> outputs, String error) {
+            this.id = id;
+            this.outputs = outputs;
+            this.error = error;
+        }
+    }
+
+    static byte[] encodeRequest(long id, String nodeType, Map<String, Object> inputs) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(id);
+        BinaryValueCodec.write(out, nodeType);
+        BinaryValueCodec.write(out, inputs);
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    static Request decodeRequest(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        return new Request(in.readLong(), (String) BinaryValueCodec.read(in),
+                (Map<String, Object>) BinaryValueCodec.read(in));
+    }
+
+    static byte[] encodeResult(long id, Map<String, Object> outputs, Throwable error) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(id);
+        out.writeBoolean(error == null);
+        BinaryValueCodec.write(out, error == null ? outputs : error.getClass().getSimpleName() + ": " + error.getMessage());
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    static Result decodeResult(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long id = in.readLong();
+        if (in.readBoolean()) {
+            return new Result(id, (Map<String, Object>) BinaryValueCodec.read(in), null);
+        }
+        return new Result(id, null, (String) BinaryValueCodec.read(in));
+    }
+
+    /**
+     * 按线路格式复制一个 Map：同进程传输据此获得与远程传输相同的值语义（不共享可变对象、不支持的类型被拒绝）。
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> copy(Map<String, Object> values) {
+        if (values == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            BinaryValueCodec.write(new DataOutputStream(bytes), values);
+            return (Map<String, Object>) BinaryValueCodec.read(
+                    new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 写出一帧；调用方负责同一通道上的写互斥。
+     */
+    static void writeFrame(SocketChannel channel, byte[] payload) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + payload.length);
+        buffer.putInt(payload.length).put(payload).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 读取一帧（阻塞模式通道）；对端在帧边界关闭连接时返回 null。
+     */
+    static byte[] readFrame(SocketChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        if (!readFully(channel, header, true)) {
+            return null;
+        }
+        int length = header.flip().getInt();
+        if (length < 0 || length > MAX_FRAME) {
+            throw new IOException("非法的帧长度: " + length);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, false);
+        return payload.array();
+    }
+
+    private static boolean readFully(SocketChannel channel, ByteBuffer buffer, boolean eofAllowed) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (eofAllowed && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("连接在帧中途关闭");
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package com.synapse.core.runtime;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * TaskTransport 是把节点激活派发到远程工作进程的传输层 SPI。
+ * <p>
+ * 图中通过 YAML {@code workers:}（按节点类型）或节点的 {@code worker:} 声明工作池后，
+ * 引擎不再在本进程实例化这些节点，而是把节点类型与已解析的输入交给传输层，
+ * 由工作池中的进程执行并异步返回输出。输入与输出按 {@link BinaryValueCodec} 支持的类型序列化。
+ * <p>
+ * 内置实现：{@link InProcessTaskTransport}（同进程内的工作池，便于测试与逐步迁移）与
+ * {@link SocketTaskTransport}（通过 TCP 连接 {@link TaskWorker}）。
+ */
+public interface TaskTransport extends Closeable {
+
+    /**
+     * 将一次节点激活派发到工作池。
+     *
+     * @param pool     工作池名称
+     * @param nodeType 节点类型，由工作进程的节点工厂实例化
+     * @param inputs   已解析的节点输入
+     * @return 节点输出；工作池不存在、连接断开或节点失败时以异常完成
+     */
+    CompletableFuture<Map<String, Object>> dispatch(String pool, String nodeType, Map<String, Object> inputs);
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,141 @@
+package com.synapse.core.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TaskWorker 是工作进程一侧的 TCP 服务：接收 {@link SocketTaskTransport} 派发的节点激活，
+ * 在 {@link WorkerPool} 上执行并回写结果。
+ * <p>
+ * 每个连接由一个读线程处理，同一连接上的请求并发执行、结果按完成顺序以请求 ID 回写。
+ * 工作池由调用方管理，关闭 TaskWorker 不会关闭工作池。
+ */
+public class TaskWorker implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskWorker.class);
+
+    private final WorkerPool pool;
+    private final Set<SocketChannel> clients = ConcurrentHashMap.newKeySet();
+    private ServerSocketChannel server;
+    private volatile boolean closed;
+
+    public TaskWorker(WorkerPool pool) {
+        this.pool = Objects.requireNonNull(pool, "WorkerPool 不能为空");
+    }
+
+    /**
+     * 在给定地址上开始监听（端口为 0 时由系统分配）。
+     *
+     * @return 实际监听的地址
+     */
+    public synchronized InetSocketAddress start(InetSocketAddress bindAddress) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("TaskWorker 已启动");
+        }
+        server = ServerSocketChannel.open();
+        server.bind(bindAddress);
+        Thread acceptor = new Thread(this::acceptLoop, "synapse-task-worker-" + pool.getName());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("工作池 '{}' 开始监听 {}", pool.getName(), server.getLocalAddress());
+        return getAddress();
+    }
+
+    /**
+     * 实际监听的地址，未启动时返回 null。
+     */
+    public synchronized InetSocketAddress getAddress() throws IOException {
+        return server != null ? (InetSocketAddress) server.getLocalAddress() : null;
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                SocketChannel client = server.accept();
+                client.socket().setTcpNoDelay(true);
+                clients.add(client);
+                Thread reader = new Thread(() -> serve(client), "synapse-task-worker-conn-" + pool.getName());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("工作池 '{}' 接受连接失败", pool.getName(), e);
+                }
+            }
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        try {
+            byte[] frame;
+            while ((frame = TaskFrames.readFrame(client)) != null) {
+                TaskFrames.Request request = TaskFrames.decodeRequest(frame);
+                pool.execute(request.nodeType, request.inputs)
+                        .whenComplete((outputs, e) -> reply(client, request.id, outputs, e));
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                log.debug("工作池 '{}' 的连接已断开: {}", pool.getName(), e.getMessage());
+            }
+        } catch (Throwable e) {
+            // 请求结构不合法等：关闭连接，编排进程侧的在途请求随连接断开而失败
+            log.warn("工作池 '{}' 处理请求失败，关闭连接: {}", pool.getName(), e.toString());
+        } finally {
+            clients.remove(client);
+            closeQuietly(client);
+        }
+    }
+
+    private void reply(SocketChannel client, long id, Map<String, Object> outputs, Throwable error) {
+        Throwable cause = error != null ? SynapseEngine.unwrap(error) : null;
+        try {
+            byte[] payload;
+            try {
+                payload = TaskFrames.encodeResult(id, outputs, cause);
+            } catch (IOException | IllegalArgumentException e) {
+                // 输出含不支持线路编码的值：以失败回写
+                payload = TaskFrames.encodeResult(id, null, e);
+            }
+            synchronized (client) {
+                TaskFrames.writeFrame(client, payload);
+            }
+        } catch (IOException e) {
+            log.debug("工作池 '{}' 回写结果失败: {}", pool.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 停止监听并断开全部连接；在途请求的结果将不再回写。
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (this) {
+            if (server != null) {
+                server.close();
+            }
+        }
+        clients.forEach(TaskWorker::closeQuietly);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 连接已失效
+        }
+    }
+}
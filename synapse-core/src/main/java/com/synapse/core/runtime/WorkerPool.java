@@ -0,0 +1,78 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.node.Node;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * WorkerPool 是工作进程一侧执行节点激活的线程池：用工作进程自己的节点工厂实例化节点，
+ * 同步节点在池内线程上执行，AsyncNode 直接调用 executeAsync。
+ */
+public class WorkerPool implements AutoCloseable {
+
+    private final String name;
+    private final Function<String, Node> nodeFactory;
+    private final ExecutorService executor;
+
+    /**
+     * @param name        工作池名称（用于线程名与错误信息）
+     * @param nodeFactory 工作进程的节点工厂
+     * @param threads     执行同步节点的线程数
+     */
+    public WorkerPool(String name, Function<String, Node> nodeFactory, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("工作池 '" + name + "' 的线程数必须 >= 1: " + threads);
+        }
+        this.name = Objects.requireNonNull(name, "工作池名称不能为空");
+        this.nodeFactory = Objects.requireNonNull(nodeFactory, "节点工厂（NodeFactory）不能为空");
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "synapse-worker-" + name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 执行一次节点激活。
+     */
+    public CompletableFuture<Map<String, Object>> execute(String nodeType, Map<String, Object> inputs) {
+        Node node;
+        try {
+            node = nodeFactory.apply(nodeType);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (node == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("工作池 '" + name + "' 的节点工厂对类型返回了 null: " + nodeType));
+        }
+        if (node instanceof AsyncNode) {
+            return ((AsyncNode) node).executeAsync(inputs);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return node.execute(inputs);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,185 @@
+package com.synapse.core.state;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BlobHandle 是存放在堆外缓冲区中的大对象在 ScopeContext 里的轻量句柄。
+ * <p>
+ * 理解句柄的节点（实现 {@link com.synapse.core.node.BlobHandleAware}）可以通过
+ * {@link #asByteBuffer()} / {@link #asFloatBuffer()} 零拷贝读取数据；
+ * 其他节点在输入映射时会由 NodeRunner 透明地物化为原始的 byte[] / String / float[]。
+ * <p>
+ * 句柄按引用计数管理：创建时持有一个引用，上下文中每多存放一处（例如理解句柄的节点把输入句柄原样输出）
+ * 由引擎调用 {@link #retain()} 增加一个引用，每处被移除或覆盖时调用一次 {@link #release()}，最后一个引用释放时归还缓冲区。
+ * 引擎在输出超过最后一次使用或运行结束时释放句柄；
+ * 未被显式释放的句柄会在被 GC 回收时通过 Cleaner 归还缓冲区。
+ * 曾经交出过零拷贝视图的句柄释放后缓冲区不再复用，而是留给 GC：
+ * 释放后仍存活的视图读到的始终是原来的数据，不会看到复用者写入的内容。
+ */
+public final class BlobHandle {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * 原始值的类型，决定物化时的解码方式。
+     */
+    public enum Kind {
+        BYTES, STRING, FLOATS
+    }
+
+    private final Kind kind;
+    private final int length; // 有效字节数
+    private final ByteBuffer buffer;
+    private final AtomicBoolean released;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final AtomicBoolean exposed; // 是否交出过零拷贝视图
+    private final Cleaner.Cleanable cleanable;
+
+    BlobHandle(Kind kind, ByteBuffer buffer, int length, ReleaseAction releaseAction) {
+        this.kind = kind;
+        this.buffer = buffer;
+        this.length = length;
+        this.released = new AtomicBoolean();
+        this.exposed = new AtomicBoolean();
+        // 清理动作不能引用 this，否则句柄永远不可达
+        AtomicBoolean releasedFlag = this.released;
+        AtomicBoolean exposedFlag = this.exposed;
+        this.cleanable = CLEANER.register(this, () -> {
+            if (releasedFlag.compareAndSet(false, true)) {
+                releaseAction.release(!exposedFlag.get());
+            }
+        });
+    }
+
+    /**
+     * 句柄释放时归还缓冲区的动作。
+     */
+    @FunctionalInterface
+    interface ReleaseAction {
+
+        /**
+         * @param recyclable 缓冲区是否可以复用；交出过视图的缓冲区为 false
+         */
+        void release(boolean recyclable);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * 获取数据的字节长度。
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isReleased() {
+        return released.get();
+    }
+
+    /**
+     * 以只读视图零拷贝访问数据（STRING 为 UTF-8 编码）。
+     * 视图在句柄释放后仍然有效，但底层缓冲区此后不再复用。
+     */
+    public ByteBuffer asByteBuffer() {
+        // 先标记再检查：与 release 并发时，要么这里看到已释放，要么释放方看到已标记
+        exposed.set(true);
+        return view();
+    }
+
+    private ByteBuffer view() {
+        checkNotReleased();
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.clear().limit(length);
+        return view.slice();
+    }
+
+    /**
+     * 以只读视图零拷贝访问 float 数据，释放后的语义同 {@link #asByteBuffer()}。
+     *
+     * @throws IllegalStateException 如果句柄的类型不是 FLOATS
+     */
+    public FloatBuffer asFloatBuffer() {
+        if (kind != Kind.FLOATS) {
+            throw new IllegalStateException("BlobHandle 类型为 " + kind + "，无法作为 float 数据访问");
+        }
+        return asByteBuffer().order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * 将数据复制回堆内，还原为原始的 byte[] / String / float[]。
+     */
+    public Object materialize() {
+        ByteBuffer view = view();
+        switch (kind) {
+            case STRING: {
+                byte[] bytes = new byte[length];
+                view.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            case FLOATS: {
+                float[] floats = new float[length / Float.BYTES];
+                view.order(ByteOrder.nativeOrder()).asFloatBuffer().get(floats);
+                return floats;
+            }
+            default: {
+                byte[] bytes = new byte[length];
+                view.get(bytes);
+                return bytes;
+            }
+        }
+    }
+
+    /**
+     * 增加一个引用，句柄在对应的 {@link #release()} 之前保持有效。
+     *
+     * @throws IllegalStateException 如果句柄已被释放
+     */
+    public BlobHandle retain() {
+        while (true) {
+            int count = references.get();
+            if (count <= 0 || released.get()) {
+                throw new IllegalStateException("BlobHandle 已被释放");
+            }
+            if (references.compareAndSet(count, count + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * 释放一个引用，最后一个引用释放时归还底层缓冲区。引用全部释放后再调用是安全的。
+     */
+    public void release() {
+        while (true) {
+            int count = references.get();
+            if (count <= 0) {
+                return;
+            }
+            if (references.compareAndSet(count, count - 1)) {
+                if (count == 1) {
+                    cleanable.clean();
+                }
+                return;
+            }
+        }
+    }
+
+    private void checkNotReleased() {
+        if (released.get()) {
+            throw new IllegalStateException("BlobHandle 已被释放");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BlobHandle{" + kind + ", " + length + " bytes" + (released.get() ? ", released" : "") + '}';
+    }
+}
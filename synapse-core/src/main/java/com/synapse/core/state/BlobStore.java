@@ -0,0 +1,27 @@
+package com.synapse.core.state;
+
+/**
+ * BlobStore 定义了将大体积节点输出移出 Java 堆的存储协议。
+ * <p>
+ * NodeRunner 在分发输出时询问 {@link #shouldOffload(Object)}，
+ * 命中的值通过 {@link #put(Object)} 写入存储，ScopeContext 中只保留返回的 {@link BlobHandle}。
+ */
+public interface BlobStore {
+
+    /**
+     * 判断该值是否应当存放到堆外。
+     *
+     * @param value 节点输出值
+     * @return 如果应当存放到堆外则返回 true
+     */
+    boolean shouldOffload(Object value);
+
+    /**
+     * 将值写入存储并返回句柄。
+     *
+     * @param value byte[]、String 或 float[]
+     * @return 指向堆外数据的句柄
+     * @throws IllegalArgumentException 如果值的类型不受支持
+     */
+    BlobHandle put(Object value);
+}
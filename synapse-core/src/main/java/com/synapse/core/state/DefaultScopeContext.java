@@ -1,7 +1,11 @@
 package com.synapse.core.state;
 
+import com.synapse.core.graph.FlowSchema;
+
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Optional.ofNullable;
@@ -17,12 +21,20 @@ import static java.util.Optional.ofNullable;
  * </ul>
  * <p>
  * Phase 4 更新：使用 ConcurrentHashMap 以支持线程安全。
+ * <p>
+ * 指定 {@link FlowSchema} 时，写入已声明的 flow 键会检查类型；long / double / boolean 键存放在
+ * 非装箱的槽位数组中（double 按位存放），{@link #getFlowDouble(String, double)} 等读取不产生装箱对象。
+ * <p>
+ * 覆盖写入 flow 或节点输出时，被替换的 {@link BlobHandle} 释放其在该处持有的引用。
  */
 public class DefaultScopeContext implements ScopeContext {
 
     private final Map<String, Object> globalContext;
     private final Map<String, Object> flowContext;
     private final Map<String, Map<String, Object>> nodeContexts;
+    private final FlowSchema schema; // 可为 null
+    private final AtomicLongArray slotValues; // 非装箱 flow 键的值，double 存放其位模式
+    private final AtomicIntegerArray slotPresent; // 1 表示对应槽位有值
 
     /**
      * 使用初始的全局和流程数据创建一个新的 DefaultScopeContext。
@@ -31,9 +43,30 @@ public class DefaultScopeContext implements ScopeContext {
      * @param flowData   初始流程变量
      */
     public DefaultScopeContext(Map<String, Object> globalData, Map<String, Object> flowData) {
+        this(globalData, flowData, null);
+    }
+
+    /**
+     * 创建按 schema 约束 flow 类型的上下文。
+     *
+     * @param schema flow 类型声明，null 表示不约束
+     * @throws IllegalArgumentException 初始流程变量与声明类型不符
+     */
+    public DefaultScopeContext(Map<String, Object> globalData, Map<String, Object> flowData, FlowSchema schema) {
         this.globalContext = globalData != null ? new ConcurrentHashMap<>(globalData) : new ConcurrentHashMap<>();
-        this.flowContext = flowData != null ? new ConcurrentHashMap<>(flowData) : new ConcurrentHashMap<>();
         this.nodeContexts = new ConcurrentHashMap<>();
+        this.schema = schema;
+        int slots = schema != null ? schema.getSlotCount() : 0;
+        this.slotValues = slots > 0 ? new AtomicLongArray(slots) : null;
+        this.slotPresent = slots > 0 ? new AtomicIntegerArray(slots) : null;
+        if (schema == null) {
+            this.flowContext = flowData != null ? new ConcurrentHashMap<>(flowData) : new ConcurrentHashMap<>();
+        } else {
+            this.flowContext = new ConcurrentHashMap<>();
+            if (flowData != null) {
+                flowData.forEach(this::putFlow);
+            }
+        }
     }
 
     /**
@@ -65,18 +98,131 @@ public class DefaultScopeContext implements ScopeContext {
     @Override
     @SuppressWarnings("unchecked")
     public <T> Optional<T> getFlow(String key) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            return ofNullable((T) slotValue(key, slot));
+        }
         return ofNullable((T) flowContext.get(key));
     }
 
+    @Override
+    public double getFlowDouble(String key, double defaultValue) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return ScopeContext.super.getFlowDouble(key, defaultValue);
+        }
+        if (slotPresent.get(slot) == 0) {
+            return defaultValue;
+        }
+        switch (schema.typeOf(key)) {
+            case DOUBLE:
+                return Double.longBitsToDouble(slotValues.get(slot));
+            case LONG:
+                return slotValues.get(slot);
+            default:
+                return defaultValue;
+        }
+    }
+
+    @Override
+    public long getFlowLong(String key, long defaultValue) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return ScopeContext.super.getFlowLong(key, defaultValue);
+        }
+        return slotPresent.get(slot) != 0 && schema.typeOf(key) == FlowSchema.FlowType.LONG
+                ? slotValues.get(slot)
+                : defaultValue;
+    }
+
+    /**
+     * 大体积输出在写入前已被放到堆外：按句柄对应的原始值类型检查，字符串句柄可写入 string 键。
+     */
+    private Object checkHandle(String key, BlobHandle handle) {
+        FlowSchema.FlowType type = schema.typeOf(key);
+        if (type == null || type == FlowSchema.FlowType.ANY
+                || (type == FlowSchema.FlowType.STRING && handle.getKind() == BlobHandle.Kind.STRING)) {
+            return handle;
+        }
+        throw new IllegalArgumentException("flow." + key + " 声明为 " + type.name().toLowerCase(Locale.ROOT)
+                + "，实际写入堆外的 " + handle.getKind().name().toLowerCase(Locale.ROOT) + " 值");
+    }
+
     @Override
     public void putFlow(String key, Object value) {
         Objects.requireNonNull(key, "流程键不能为空");
-        flowContext.put(key, value);
+        if (schema == null) {
+            releaseReplaced(flowContext.put(key, value));
+            return;
+        }
+        Object checked = value instanceof BlobHandle ? checkHandle(key, (BlobHandle) value) : schema.check(key, value);
+        int slot = slotOf(key);
+        if (slot < 0) {
+            releaseReplaced(flowContext.put(key, checked));
+            return;
+        }
+        Objects.requireNonNull(checked, "流程值不能为空: " + key);
+        switch (schema.typeOf(key)) {
+            case DOUBLE:
+                slotValues.set(slot, Double.doubleToRawLongBits((Double) checked));
+                break;
+            case LONG:
+                slotValues.set(slot, (Long) checked);
+                break;
+            default:
+                slotValues.set(slot, (Boolean) checked ? 1 : 0);
+                break;
+        }
+        slotPresent.set(slot, 1);
     }
 
     @Override
     public Map<String, Object> getFlowData() {
-        return unmodifiableMap(flowContext);
+        if (slotValues == null) {
+            return unmodifiableMap(flowContext);
+        }
+        // 含非装箱键时返回快照
+        Map<String, Object> data = new HashMap<>(flowContext);
+        for (String key : schema.getTypes().keySet()) {
+            int slot = slotOf(key);
+            if (slot >= 0 && slotPresent.get(slot) != 0) {
+                data.put(key, slotValue(key, slot));
+            }
+        }
+        return unmodifiableMap(data);
+    }
+
+    @Override
+    public void removeFlow(String key) {
+        Objects.requireNonNull(key, "流程键不能为空");
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            slotPresent.set(slot, 0);
+            return;
+        }
+        flowContext.remove(key);
+    }
+
+    private int slotOf(String key) {
+        return slotValues != null ? schema.slotOf(key) : -1;
+    }
+
+    /**
+     * 读取槽位并装箱（仅在以 Object 访问时发生）。
+     */
+    private Object slotValue(String key, int slot) {
+        if (slotPresent.get(slot) == 0) {
+            return null;
+        }
+        long raw = slotValues.get(slot);
+        switch (schema.typeOf(key)) {
+            case DOUBLE:
+                return Double.longBitsToDouble(raw);
+            case LONG:
+                return raw;
+            default:
+                return raw != 0;
+        }
     }
 
     // ========================
@@ -101,8 +247,23 @@ public class DefaultScopeContext implements ScopeContext {
         Objects.requireNonNull(nodeId, "nodeId 不能为空");
         Objects.requireNonNull(key, "key 不能为空");
 
-        nodeContexts.computeIfAbsent(nodeId, k -> new ConcurrentHashMap<>())
-                .put(key, value);
+        // 在 compute 中写入，与 removeNodeOutput 的命名空间回收保持原子性
+        Object[] replaced = new Object[1];
+        nodeContexts.compute(nodeId, (id, nodeData) -> {
+            Map<String, Object> data = nodeData != null ? nodeData : new ConcurrentHashMap<>();
+            replaced[0] = data.put(key, value);
+            return data;
+        });
+        releaseReplaced(replaced[0]);
+    }
+
+    /**
+     * 覆盖写入时释放被替换的堆外句柄在该处持有的引用，否则缓冲区要等到 GC 才归还。
+     */
+    private static void releaseReplaced(Object replaced) {
+        if (replaced instanceof BlobHandle) {
+            ((BlobHandle) replaced).release();
+        }
     }
 
     @Override
@@ -122,11 +283,23 @@ public class DefaultScopeContext implements ScopeContext {
         return unmodifiableMap(nodeContexts);
     }
 
+    @Override
+    public void removeNodeOutput(String nodeId, String key) {
+        Objects.requireNonNull(nodeId, "nodeId 不能为空");
+        Objects.requireNonNull(key, "key 不能为空");
+
+        // 命名空间清空后一并移除，避免残留空 Map
+        nodeContexts.computeIfPresent(nodeId, (id, nodeData) -> {
+            nodeData.remove(key);
+            return nodeData.isEmpty() ? null : nodeData;
+        });
+    }
+
     @Override
     public String toString() {
         return "DefaultScopeContext{" +
                 "global=" + globalContext +
-                ", flow=" + flowContext +
+                ", flow=" + getFlowData() +
                 ", nodes=" + nodeContexts +
                 '}';
     }
@@ -48,6 +48,26 @@ public interface ScopeContext {
      */
     <T> Optional<T> getFlow(String key);
 
+    /**
+     * 以 double 读取流程作用域中的数值，不存在或不是数值时返回 defaultValue。
+     * <p>
+     * 对 schema 中声明为 long / double 的键，实现可直接读取非装箱存放的值。
+     */
+    default double getFlowDouble(String key, double defaultValue) {
+        Object value = getFlow(key).orElse(null);
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    /**
+     * 以 long 读取流程作用域中的整数，不存在或不是整数时返回 defaultValue。
+     */
+    default long getFlowLong(String key, long defaultValue) {
+        Object value = getFlow(key).orElse(null);
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte
+                ? ((Number) value).longValue()
+                : defaultValue;
+    }
+
     /**
      * 向流程作用域存入值。
      *
@@ -63,6 +83,17 @@ public interface ScopeContext {
      */
     Map<String, Object> getFlowData();
 
+    /**
+     * 从流程作用域移除值。
+     * 应仅由引擎在结果投影时调用。
+     * <p>
+     * 默认不做任何事：不支持移除的实现保留全部值，只是无法提前释放内存。
+     *
+     * @param key 键
+     */
+    default void removeFlow(String key) {
+    }
+
     // ========================
     // 节点作用域操作 (Node Scope)
     // ========================
@@ -101,4 +132,17 @@ public interface ScopeContext {
      * @return 所有节点数据的不可变 Map (Map<NodeId, Map<Key, Value>>)
      */
     Map<String, Map<String, Object>> getAllNodeModels();
+
+    /**
+     * 移除特定节点输出命名空间中的值。
+     * 应仅由引擎在输出超过最后一次使用（或结果投影）时调用。
+     *
+     * <p>
+     * 默认不做任何事，同 {@link #removeFlow(String)}。
+     *
+     * @param nodeId 节点标识符
+     * @param key    输出键
+     */
+    default void removeNodeOutput(String nodeId, String key) {
+    }
 }
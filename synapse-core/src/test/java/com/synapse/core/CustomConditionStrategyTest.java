@@ -0,0 +1,194 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.CompiledCondition;
+import com.synapse.core.runtime.ConditionEvaluator;
+import com.synapse.core.runtime.ConditionStrategy;
+import com.synapse.core.runtime.ConditionStrategyProvider;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 自定义条件策略、编译阶段与异步条件测试。
+ */
+class CustomConditionStrategyTest {
+
+    private static final String YAML = """
+            name: router_flow
+            nodes:
+              - id: intake
+                type: Intake
+                outputs:
+                  - sourceKey: text
+                    targetScope: flow
+                    targetKey: text
+              - id: refund
+                type: Refund
+                outputs:
+                  - sourceKey: handled
+                    targetScope: flow
+                    targetKey: handled
+              - id: chat
+                type: Chat
+                outputs:
+                  - sourceKey: handled
+                    targetScope: flow
+                    targetKey: handled
+            edges:
+              - source: __start__
+                target: intake
+              - source: intake
+                conditionType: llm_router
+                condition: "refund|chat"
+                mappings:
+                  refund: refund
+                  chat: chat
+            """;
+
+    /**
+     * 模拟模型路由：异步返回分类结果，记录编译次数。
+     */
+    static class LlmRouterStrategy implements ConditionStrategy {
+        final AtomicInteger prepared = new AtomicInteger();
+
+        @Override
+        public Object evaluate(String expression, ScopeContext context) {
+            return prepare(expression).evaluate(context);
+        }
+
+        @Override
+        public CompiledCondition prepare(String expression) {
+            prepared.incrementAndGet();
+            return CompiledCondition.async(context -> CompletableFuture.supplyAsync(() -> {
+                String text = context.<String>getFlow("text").orElse("");
+                return text.contains("退款") ? "refund" : "chat";
+            }, CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS)));
+        }
+    }
+
+    private static Map<String, Node> registry() {
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Intake", inputs -> Map.of("text", inputs.getOrDefault("text", "")));
+        nodeRegistry.put("Refund", inputs -> Map.of("handled", "refund"));
+        nodeRegistry.put("Chat", inputs -> Map.of("handled", "chat"));
+        return nodeRegistry;
+    }
+
+    @Test
+    void testAsyncCustomStrategyRoutesAndCompilesOnce() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML.replace("type: Intake", """
+                type: Intake
+                    inputs:
+                      text: flow.request"""));
+        LlmRouterStrategy router = new LlmRouterStrategy();
+        ConditionEvaluator evaluator = new ConditionEvaluator();
+        evaluator.registerStrategy("llm_router", router);
+        EngineOptions options = new EngineOptions();
+        options.setConditionEvaluator(evaluator);
+        Map<String, Node> nodeRegistry = registry();
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get, options);
+
+        ScopeContext refund = engine.execute(Map.of("request", "我要退款"));
+        ScopeContext chat = engine.execute(Map.of("request", "你好"));
+
+        assertEquals("refund", refund.getFlow("handled").orElse(null));
+        assertEquals("chat", chat.getFlow("handled").orElse(null));
+        assertEquals(1, router.prepared.get(), "表达式应只编译一次");
+    }
+
+    @Test
+    void testCompiledCacheIsBoundedAndEnginesKeepTheirEdges() throws Exception {
+        LlmRouterStrategy router = new LlmRouterStrategy();
+        ConditionEvaluator evaluator = new ConditionEvaluator(2);
+        evaluator.registerStrategy("llm_router", router);
+        CompiledCondition first = evaluator.prepare("llm_router", "a");
+        assertSame(first, evaluator.prepare("llm_router", "a"));
+        evaluator.prepare("llm_router", "b");
+        evaluator.prepare("llm_router", "c");
+        assertNotSame(first, evaluator.prepare("llm_router", "a"), "超出上限时应淘汰最久未使用的编译结果");
+        assertEquals(4, router.prepared.get());
+
+        // 引擎按边保存编译结果，缓存淘汰后运行时也不重新编译
+        Graph graph = new YamlGraphBuilder().build(YAML.replace("type: Intake", """
+                type: Intake
+                    inputs:
+                      text: flow.request"""));
+        EngineOptions options = new EngineOptions();
+        options.setConditionEvaluator(evaluator);
+        SynapseEngine engine = new SynapseEngine(graph, registry()::get, options);
+        int compiled = router.prepared.get();
+        evaluator.prepare("llm_router", "d");
+        evaluator.prepare("llm_router", "e");
+        assertEquals("refund", engine.execute(Map.of("request", "我要退款")).getFlow("handled").orElse(null));
+        assertEquals(compiled + 2, router.prepared.get());
+        assertThrows(IllegalArgumentException.class, () -> new ConditionEvaluator(0));
+    }
+
+    @Test
+    void testUnregisteredStrategyFailsAtConstruction() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new SynapseEngine(graph, registry()::get));
+        assertTrue(e.getMessage().contains("llm_router"));
+    }
+
+    @Test
+    void testInvalidExprFailsAtConstruction() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML.replace("llm_router", "expr")
+                .replace("\"refund|chat\"", "\"flow.text ==\""));
+        assertThrows(IllegalStateException.class, () -> new SynapseEngine(graph, registry()::get));
+    }
+
+    @Test
+    void testSpelWithoutOptionalModuleReportsMissingModule() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML.replace("llm_router", "spel"));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new SynapseEngine(graph, registry()::get));
+        assertTrue(e.getMessage().contains("synapse-spel"), e.getMessage());
+    }
+
+    @Test
+    void testMissingStrategyLookupIsCached() {
+        AtomicInteger scans = new AtomicInteger();
+        ClassLoader counting = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                if (name.endsWith(ConditionStrategyProvider.class.getName())) {
+                    scans.incrementAndGet();
+                }
+                return super.getResources(name);
+            }
+        };
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        thread.setContextClassLoader(counting);
+        try {
+            ConditionEvaluator evaluator = new ConditionEvaluator();
+            assertFalse(evaluator.hasStrategy("no_such_router"));
+            assertFalse(evaluator.hasStrategy("NO_SUCH_ROUTER"));
+            assertThrows(IllegalArgumentException.class, () -> evaluator.prepare("no_such_router", "x"));
+            assertEquals(1, scans.get(), "找不到的策略只应扫描一次 ServiceLoader");
+
+            evaluator.registerStrategy("no_such_router", (expression, context) -> "chat");
+            assertTrue(evaluator.hasStrategy("no_such_router"), "注册后应替换缓存的未命中结果");
+            assertEquals(1, scans.get());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+}
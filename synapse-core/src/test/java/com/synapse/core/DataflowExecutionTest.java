@@ -0,0 +1,168 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.DataflowPlan;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.ExecutionMode;
+import com.synapse.core.runtime.JournalEvent;
+import com.synapse.core.runtime.RunJournal;
+import com.synapse.core.runtime.RunOptions;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据流执行模式测试。
+ */
+class DataflowExecutionTest {
+
+    // 边是串行的，但 search_web 与 search_kb 之间没有数据依赖
+    private static final String YAML = """
+            name: retrieval_flow
+            nodes:
+              - id: rewrite
+                type: Rewrite
+                inputs:
+                  question: flow.question
+                outputs:
+                  - sourceKey: query
+                    targetScope: flow
+                    targetKey: query
+              - id: search_web
+                type: Search
+                inputs:
+                  query: flow.query
+              - id: search_kb
+                type: Search
+                inputs:
+                  query: flow.query
+              - id: merge
+                type: Merge
+                inputs:
+                  web: nodes.search_web.hits
+                  kb: nodes.search_kb.hits
+                outputs:
+                  - sourceKey: answer
+                    targetScope: flow
+                    targetKey: answer
+            edges:
+              - source: __start__
+                target: rewrite
+              - source: rewrite
+                target: search_web
+              - source: search_web
+                target: search_kb
+              - source: search_kb
+                target: merge
+              - source: merge
+                target: __end__
+            """;
+
+    static class SlowSearchNode implements AsyncNode {
+        @Override
+        public CompletableFuture<Map<String, Object>> executeAsync(Map<String, Object> inputs) {
+            return CompletableFuture.supplyAsync(() -> Map.of("hits", "hits(" + inputs.get("query") + ")"),
+                    CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    void testPlanDerivedFromMappings() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+        DataflowPlan plan = DataflowPlan.build(graph);
+
+        assertEquals(Set.of(), plan.dependenciesOf("rewrite"));
+        assertEquals(Set.of("rewrite"), plan.dependenciesOf("search_web"));
+        assertEquals(Set.of("rewrite"), plan.dependenciesOf("search_kb"));
+        assertEquals(Set.of("search_web", "search_kb"), plan.dependenciesOf("merge"));
+        assertEquals("rewrite", plan.getTopologicalOrder().get(0));
+        assertEquals("merge", plan.getTopologicalOrder().get(3));
+        assertEquals(Set.of("search_web", "search_kb"), Set.copyOf(plan.dependentsOf("rewrite")));
+        assertEquals(List.of(), plan.dependentsOf("merge"));
+    }
+
+    @Test
+    void testIndependentNodesRunInParallel() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Rewrite", inputs -> Map.of("query", "q:" + inputs.get("question")));
+        nodeRegistry.put("Search", new SlowSearchNode());
+        nodeRegistry.put("Merge", inputs -> Map.of("answer", inputs.get("web") + "+" + inputs.get("kb")));
+
+        EngineOptions options = new EngineOptions();
+        options.setExecutionMode(ExecutionMode.DATAFLOW);
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get, options);
+
+        long start = System.currentTimeMillis();
+        ScopeContext result = engine.execute(Map.of("question", "weather"));
+        long duration = System.currentTimeMillis() - start;
+
+        assertEquals("hits(q:weather)+hits(q:weather)", result.getFlow("answer").orElse(null));
+        assertTrue(duration < 390, "两个检索节点应并行执行，实际耗时 " + duration + "ms");
+    }
+
+    @Test
+    void testDataflowRunsAdvanceFrontierAndJournalRoutes() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Rewrite", inputs -> Map.of("query", "q:" + inputs.get("question")));
+        nodeRegistry.put("Search", inputs -> Map.of("hits", "hits(" + inputs.get("query") + ")"));
+        nodeRegistry.put("Merge", inputs -> Map.of("answer", inputs.get("web") + "+" + inputs.get("kb")));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RunJournal journal = new RunJournal(bytes, RunJournal.DEFAULT_CAPACITY);
+        EngineOptions options = new EngineOptions();
+        options.setExecutionMode(ExecutionMode.DATAFLOW);
+        options.setJournal(journal);
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get, options);
+
+        ScopeContext result = engine.executeAsync(Map.of(), Map.of("question", "weather"),
+                RunOptions.retaining("flow.answer")).get(5, TimeUnit.SECONDS);
+        journal.close();
+
+        assertEquals("hits(q:weather)+hits(q:weather)", result.getFlow("answer").orElse(null));
+        assertTrue(result.getNodeOutput("search_web", "hits").isEmpty());
+        Map<String, List<String>> routes = new HashMap<>();
+        RunJournal.read(new ByteArrayInputStream(bytes.toByteArray())).stream()
+                .filter(event -> event.getType() == JournalEvent.Type.ROUTED)
+                .forEach(event -> routes.put(event.getNodeId(), event.getTargets()));
+        assertEquals(Set.of("search_web", "search_kb"), Set.copyOf(routes.get("rewrite")));
+        assertEquals(List.of("merge"), routes.get("search_web"));
+        assertEquals(List.of(), routes.get("merge"));
+    }
+
+    @Test
+    void testCyclicDependencyRejected() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: cyclic
+                nodes:
+                  - id: a
+                    type: A
+                    inputs:
+                      x: nodes.b.out
+                  - id: b
+                    type: B
+                    inputs:
+                      y: nodes.a.out
+                """);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> DataflowPlan.build(graph));
+        assertTrue(e.getMessage().contains("环路"));
+        assertTrue(List.of("a", "b").stream().allMatch(e.getMessage()::contains));
+    }
+}
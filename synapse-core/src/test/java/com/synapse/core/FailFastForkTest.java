@@ -0,0 +1,143 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并行分叉的结构化并发测试（快速失败 / 收集错误）。
+ */
+class FailFastForkTest {
+
+    private static String forkYaml(String onBranchError) {
+        return """
+                name: fork_test
+                nodes:
+                  - id: fork
+                    type: Fork
+                %s
+                  - id: slow
+                    type: Slow
+                    outputs:
+                      - sourceKey: value
+                        targetScope: flow
+                        targetKey: slow_value
+                  - id: broken
+                    type: Broken
+                  - id: after_slow
+                    type: AfterSlow
+                edges:
+                  - source: __start__
+                    target: fork
+                  - source: fork
+                    target: slow
+                  - source: fork
+                    target: broken
+                  - source: slow
+                    target: after_slow
+                """.formatted(onBranchError == null ? "" : "    onBranchError: " + onBranchError);
+    }
+
+    /**
+     * 模拟长时间 LLM 调用：记录是否被取消。
+     */
+    static class SlowNode implements AsyncNode {
+        private final long delayMs;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        SlowNode(long delayMs) {
+            this.delayMs = delayMs;
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> executeAsync(Map<String, Object> inputs) {
+            started.countDown();
+            CompletableFuture<Map<String, Object>> call = CompletableFuture.supplyAsync(
+                    () -> Map.<String, Object>of("value", "done"),
+                    CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+            call.whenComplete((r, e) -> {
+                if (call.isCancelled()) {
+                    cancelled.set(true);
+                }
+            });
+            return call;
+        }
+    }
+
+    private Map<String, Node> registry(SlowNode slow, AtomicBoolean afterSlowRan) {
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Fork", inputs -> Map.of());
+        nodeRegistry.put("Slow", slow);
+        nodeRegistry.put("Broken", (AsyncNode) inputs -> CompletableFuture.supplyAsync(() -> {
+            try {
+                slow.started.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("LLM 调用失败");
+        }));
+        nodeRegistry.put("AfterSlow", inputs -> {
+            afterSlowRan.set(true);
+            return Map.of();
+        });
+        return nodeRegistry;
+    }
+
+    @Test
+    void testFirstFailureCancelsSiblings() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(forkYaml(null));
+        SlowNode slow = new SlowNode(2000);
+        AtomicBoolean afterSlowRan = new AtomicBoolean();
+        SynapseEngine engine = new SynapseEngine(graph, registry(slow, afterSlowRan)::get);
+
+        long start = System.currentTimeMillis();
+        assertThrows(IllegalStateException.class, () -> engine.execute(Map.of()));
+        long duration = System.currentTimeMillis() - start;
+
+        assertTrue(duration < 1000, "运行应在首个分支失败后立即结束，实际耗时 " + duration + "ms");
+        assertTrue(slow.cancelled.get(), "兄弟分支的在途节点应被取消");
+
+        Thread.sleep(100);
+        assertFalse(afterSlowRan.get(), "已取消的分支不应启动后续节点");
+    }
+
+    @Test
+    void testCollectRecordsErrorsAndContinues() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(forkYaml("collect"));
+        SlowNode slow = new SlowNode(100);
+        AtomicBoolean afterSlowRan = new AtomicBoolean();
+        SynapseEngine engine = new SynapseEngine(graph, registry(slow, afterSlowRan)::get);
+
+        ScopeContext result = engine.execute(Map.of());
+
+        assertEquals("done", result.getFlow("slow_value").orElse(null));
+        assertTrue(afterSlowRan.get());
+        assertFalse(slow.cancelled.get());
+
+        Map<?, ?> errors = (Map<?, ?>) result.getNodeOutput("fork", SynapseEngine.BRANCH_ERRORS_KEY).orElse(null);
+        assertNotNull(errors);
+        assertEquals(1, errors.size());
+        assertTrue(errors.get("broken").toString().contains("LLM 调用失败"));
+    }
+
+    @Test
+    void testInvalidPolicyRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new YamlGraphBuilder().build(forkYaml("ignore")));
+        assertTrue(e.getMessage().contains("onBranchError"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.FlowSchema;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.DefaultScopeContext;
+import com.synapse.core.state.OffHeapBlobStore;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * flow 类型声明（schema）测试。
+ */
+class FlowSchemaTest {
+
+    private static final String YAML = """
+            name: scoring_flow
+            schema:
+              text: string
+              score: double
+              attempts: long
+              approved: boolean
+              verdict: string
+            nodes:
+              - id: score
+                type: Score
+                inputs:
+                  text: flow.text
+                outputs:
+                  - sourceKey: score
+                    targetScope: flow
+                    targetKey: score
+                  - sourceKey: approved
+                    targetScope: flow
+                    targetKey: approved
+              - id: pass
+                type: Verdict
+                outputs:
+                  - sourceKey: verdict
+                    targetScope: flow
+                    targetKey: verdict
+              - id: reject
+                type: Verdict
+                outputs:
+                  - sourceKey: verdict
+                    targetScope: flow
+                    targetKey: verdict
+            edges:
+              - source: __start__
+                target: score
+              - source: score
+                conditionType: expr
+                condition: "flow.score > 60 && flow.attempts < 3 ? 'pass' : 'reject'"
+                mappings:
+                  pass: pass
+                  reject: reject
+            """;
+
+    private static SynapseEngine engine(String yaml, Object score) throws Exception {
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Score", inputs -> Map.of("score", score, "approved", true));
+        nodeRegistry.put("Verdict", inputs -> Map.of("verdict", "done"));
+        Graph graph = new YamlGraphBuilder().build(yaml);
+        return new SynapseEngine(graph, nodeRegistry::get);
+    }
+
+    @Test
+    void testNumericValuesAreStoredUnboxedAndRouteConditions() throws Exception {
+        ScopeContext passed = engine(YAML, 72).executeAsync(Map.of(), Map.of("text", "a", "attempts", 1))
+                .get(5, TimeUnit.SECONDS);
+        // 整数写入 double 键时规范化为 double
+        assertEquals(72.0, passed.getFlow("score").orElse(null));
+        assertEquals(72.0, passed.getFlowDouble("score", -1), 0.0);
+        assertEquals(1L, passed.getFlowLong("attempts", -1));
+        assertEquals(Boolean.TRUE, passed.getFlow("approved").orElse(null));
+        assertEquals("done", passed.getFlow("verdict").orElse(null));
+        assertEquals(72.0, passed.getFlowData().get("score"));
+
+        ScopeContext rejected = engine(YAML, 72.5).executeAsync(Map.of(), Map.of("text", "a", "attempts", 5))
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(-1, rejected.getFlowDouble("missing", -1), 0.0);
+        assertEquals(0, rejected.getFlowLong("score", 0), "double 键不能以 long 读取");
+    }
+
+    @Test
+    void testSlotsSupportRemoveAndUndeclaredKeys() {
+        FlowSchema schema = new FlowSchema();
+        schema.declare("score", FlowSchema.FlowType.DOUBLE);
+        schema.declare("flag", FlowSchema.FlowType.BOOLEAN);
+        DefaultScopeContext context = new DefaultScopeContext(Map.of(), Map.of("extra", "x"), schema);
+
+        assertTrue(context.getFlow("score").isEmpty());
+        context.putFlow("score", 1.5f);
+        context.putFlow("flag", false);
+        assertEquals(1.5, context.getFlowDouble("score", 0), 0.0);
+        assertEquals(Map.of("extra", "x", "score", 1.5, "flag", false), context.getFlowData());
+
+        context.removeFlow("score");
+        assertTrue(context.getFlow("score").isEmpty());
+        assertEquals(Map.of("extra", "x", "flag", false), context.getFlowData());
+
+        IllegalArgumentException mismatch = assertThrows(IllegalArgumentException.class,
+                () -> context.putFlow("flag", "yes"));
+        assertTrue(mismatch.getMessage().contains("flow.flag"), mismatch.getMessage());
+    }
+
+    @Test
+    void testSchemaViolationsFailAtLoadAndAtWrite() throws Exception {
+        YamlGraphBuilder builder = new YamlGraphBuilder();
+
+        IllegalArgumentException undeclared = assertThrows(IllegalArgumentException.class,
+                () -> builder.build(YAML.replace("  verdict: string\n", "")));
+        assertTrue(undeclared.getMessage().contains("flow.verdict"), undeclared.getMessage());
+
+        IllegalArgumentException nonNumeric = assertThrows(IllegalArgumentException.class,
+                () -> builder.build(YAML.replace("flow.score > 60", "flow.text > 60")));
+        assertTrue(nonNumeric.getMessage().contains("flow.text"), nonNumeric.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> builder.build(YAML.replace("long", "decimal")));
+
+        // EXPR 条件按解析结果校验：嵌套路径、字符串字面量与拼接结果不按 flow 键处理
+        assertDoesNotThrow(() -> builder.build(YAML.replace("flow.score > 60", "60 < flow.score.x")));
+        assertDoesNotThrow(() -> builder.build(YAML.replace("flow.score > 60", "flow.text != 'flow.foo'")));
+        assertDoesNotThrow(() -> builder.build(YAML.replace("flow.score > 60", "'x' + flow.text > 'a'")));
+        IllegalArgumentException nested = assertThrows(IllegalArgumentException.class,
+                () -> builder.build(YAML.replace("flow.score > 60", "60 < flow.scores.x")));
+        assertTrue(nested.getMessage().contains("flow.scores"), nested.getMessage());
+        IllegalArgumentException comparedRight = assertThrows(IllegalArgumentException.class,
+                () -> builder.build(YAML.replace("flow.score > 60", "60 < (flow.approved)")));
+        assertTrue(comparedRight.getMessage().contains("flow.approved"), comparedRight.getMessage());
+
+        // 结果类型可静态确定的 transform 在加载时按目标键的声明类型校验
+        String scoreMapping = "        targetKey: score\n";
+        IllegalArgumentException transformed = assertThrows(IllegalArgumentException.class,
+                () -> builder.build(YAML.replace(scoreMapping, scoreMapping + "        transform: upper\n")));
+        assertTrue(transformed.getMessage().contains("flow.score"), transformed.getMessage());
+        builder.build(YAML.replace(scoreMapping, scoreMapping + "        transform: size\n"));
+
+        // 节点输出与声明类型不符：运行失败
+        ExecutionException wrongType = assertThrows(ExecutionException.class,
+                () -> engine(YAML, "seventy").executeAsync(Map.of(), Map.of("text", "a", "attempts", 1))
+                        .get(5, TimeUnit.SECONDS));
+        assertTrue(String.valueOf(wrongType.getCause().getMessage()).contains("flow.score"),
+                String.valueOf(wrongType.getCause()));
+
+        // 初始输入与声明类型不符：启动时拒绝
+        assertThrows(IllegalArgumentException.class,
+                () -> engine(YAML, 72).executeAsync(Map.of(), Map.of("text", "a", "attempts", 1.5)));
+    }
+
+    @Test
+    void testOffloadedStringsSatisfyStringKeys() throws Exception {
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Score", inputs -> Map.of("score", 72, "approved", true));
+        nodeRegistry.put("Verdict", inputs -> Map.of("verdict", "通过".repeat(64)));
+        EngineOptions options = new EngineOptions();
+        OffHeapBlobStore blobs = new OffHeapBlobStore(32, 1 << 16, 1 << 20, null);
+        options.setBlobStore(blobs);
+        SynapseEngine engine = new SynapseEngine(new YamlGraphBuilder().build(YAML), nodeRegistry::get, options);
+
+        // 超过阈值的字符串以句柄写入 string 键，不被 schema 拒绝
+        ScopeContext result = engine.executeAsync(Map.of(), Map.of("text", "a", "attempts", 1))
+                .get(5, TimeUnit.SECONDS);
+        assertNotNull(result.getFlow("verdict").orElse(null));
+
+        FlowSchema schema = new FlowSchema();
+        schema.declare("count", FlowSchema.FlowType.LONG);
+        DefaultScopeContext context = new DefaultScopeContext(Map.of(), Map.of(), schema);
+        assertThrows(IllegalArgumentException.class, () -> context.putFlow("count", blobs.put("x".repeat(64))));
+    }
+}
@@ -0,0 +1,139 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AsyncNode 对冲请求测试。
+ */
+class HedgedRequestTest {
+
+    private static String yaml(String hedge) {
+        return """
+                name: hedge_test
+                nodes:
+                  - id: classify
+                    type: Classify
+                    hedge:
+                %s
+                    outputs:
+                      - sourceKey: label
+                        targetScope: flow
+                        targetKey: label
+                edges:
+                  - source: __start__
+                    target: classify
+                """.formatted(hedge);
+    }
+
+    /**
+     * 第一次调用落在长尾（slowMs），之后的调用很快。
+     */
+    static class TailLatencyNode implements AsyncNode {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicBoolean slowCancelled = new AtomicBoolean();
+        private final long slowMs;
+
+        TailLatencyNode(long slowMs) {
+            this.slowMs = slowMs;
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> executeAsync(Map<String, Object> inputs) {
+            int call = calls.incrementAndGet();
+            long delay = call == 1 ? slowMs : 20;
+            CompletableFuture<Map<String, Object>> future = CompletableFuture.supplyAsync(
+                    () -> Map.<String, Object>of("label", "call" + call),
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+            if (call == 1) {
+                future.whenComplete((r, e) -> slowCancelled.set(future.isCancelled()));
+            }
+            return future;
+        }
+    }
+
+    @Test
+    void testHedgeWinsAndCancelsSlowAttempt() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(yaml("""
+                      delayMs: 50
+                      maxHedgeRate: 1.0
+                """));
+        TailLatencyNode node = new TailLatencyNode(2000);
+        SynapseEngine engine = new SynapseEngine(graph, type -> node);
+
+        long start = System.currentTimeMillis();
+        ScopeContext result = engine.execute(Map.of());
+        long duration = System.currentTimeMillis() - start;
+
+        assertEquals("call2", result.getFlow("label").orElse(null));
+        assertTrue(duration < 1000, "对冲请求应先于长尾调用完成，实际耗时 " + duration + "ms");
+        assertEquals(2, node.calls.get());
+        assertTrue(node.slowCancelled.get(), "落败的调用应被取消");
+    }
+
+    @Test
+    void testHedgeBudgetCapsHedges() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(yaml("""
+                      delayMs: 20
+                      maxHedgeRate: 0
+                """));
+        TailLatencyNode node = new TailLatencyNode(150);
+        SynapseEngine engine = new SynapseEngine(graph, type -> node);
+
+        ScopeContext result = engine.execute(Map.of());
+
+        assertEquals("call1", result.getFlow("label").orElse(null));
+        assertEquals(1, node.calls.get(), "预算为 0 时不应发起对冲");
+    }
+
+    @Test
+    void testHedgeRespectsNodeLimiter() throws Exception {
+        // 舱壁只有 1 个名额且被主调用占用：不发起越过舱壁的对冲
+        Graph graph = new YamlGraphBuilder().build("""
+                limits:
+                  Classify:
+                    maxConcurrency: 1
+                """ + yaml("""
+                      delayMs: 20
+                      maxHedgeRate: 1.0
+                """));
+        TailLatencyNode node = new TailLatencyNode(150);
+        SynapseEngine engine = new SynapseEngine(graph, type -> node);
+
+        ScopeContext result = engine.execute(Map.of());
+
+        assertEquals("call1", result.getFlow("label").orElse(null));
+        assertEquals(1, node.calls.get(), "没有空闲许可时不应发起对冲");
+        assertEquals(0, engine.getNodeLimiter("Classify").getActive());
+
+        // 有空闲名额时对冲占用一个许可，结束后全部归还
+        SynapseEngine roomy = new SynapseEngine(new YamlGraphBuilder().build(
+                "limits:\n  Classify:\n    maxConcurrency: 2\n" + yaml("""
+                      delayMs: 20
+                      maxHedgeRate: 1.0
+                """)), type -> new TailLatencyNode(2000));
+        assertEquals("call2", roomy.execute(Map.of()).getFlow("label").orElse(null));
+        assertEquals(0, roomy.getNodeLimiter("Classify").getActive());
+    }
+
+    @Test
+    void testInvalidHedgeRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new YamlGraphBuilder().build(yaml("""
+                              percentile: 100
+                        """)));
+        assertTrue(e.getMessage().contains("hedge"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.RunOptions;
+import com.synapse.core.runtime.RunRecord;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 增量重跑测试：只重新执行输入受修改影响的节点。
+ */
+class IncrementalExecutionTest {
+
+    private static final String YAML = """
+            name: playground_flow
+            nodes:
+              - id: measure
+                type: Measure
+                inputs:
+                  text: flow.text
+                outputs:
+                  - sourceKey: length
+                    targetScope: flow
+                    targetKey: length
+              - id: summarize
+                type: Summarize
+                inputs:
+                  length: flow.length
+                outputs:
+                  - sourceKey: summary
+                    targetScope: flow
+                    targetKey: summary
+              - id: translate
+                type: Translate
+                inputs:
+                  summary: flow.summary
+                  lang: flow.lang
+                outputs:
+                  - sourceKey: result
+                    targetScope: flow
+                    targetKey: result
+            edges:
+              - source: __start__
+                target: measure
+              - source: measure
+                target: summarize
+              - source: summarize
+                target: translate
+            """;
+
+    private final Map<String, Integer> calls = new ConcurrentHashMap<>();
+    private SynapseEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Measure", inputs -> {
+            calls.merge("measure", 1, Integer::sum);
+            return Map.of("length", ((String) inputs.get("text")).length());
+        });
+        nodeRegistry.put("Summarize", inputs -> {
+            calls.merge("summarize", 1, Integer::sum);
+            return Map.of("summary", "共 " + inputs.get("length") + " 字");
+        });
+        nodeRegistry.put("Translate", inputs -> {
+            calls.merge("translate", 1, Integer::sum);
+            return Map.of("result", inputs.get("lang") + ":" + inputs.get("summary"));
+        });
+        Graph graph = new YamlGraphBuilder().build(YAML);
+        engine = new SynapseEngine(graph, nodeRegistry::get);
+    }
+
+    private RunRecord recordedRun(Map<String, Object> flow) throws Exception {
+        RunOptions options = new RunOptions();
+        options.setRecord(new RunRecord());
+        engine.executeAsync(Map.of(), flow, options).get(5, TimeUnit.SECONDS);
+        calls.clear();
+        return options.getRecord();
+    }
+
+    @Test
+    void testOnlyNodesReadingChangedInputRerun() throws Exception {
+        RunRecord baseline = recordedRun(Map.of("text", "你好世界", "lang", "zh"));
+
+        RunOptions options = new RunOptions();
+        options.setRecord(new RunRecord());
+        ScopeContext result = engine.executeIncremental(baseline, Map.of("lang", "en"), options)
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("en:共 4 字", result.getFlow("result").orElse(null));
+        assertEquals(Map.of("translate", 1), calls);
+        assertEquals(Set.of("measure", "summarize"), options.getRecord().getReusedNodes());
+        assertEquals(Set.of("translate"), options.getRecord().getExecutedNodes());
+    }
+
+    @Test
+    void testChangePropagatesTransitivelyAndStopsWhenOutputUnchanged() throws Exception {
+        RunRecord baseline = recordedRun(Map.of("text", "你好世界", "lang", "zh"));
+
+        ScopeContext longer = engine.executeIncremental(baseline, Map.of("text", "你好，世界"))
+                .get(5, TimeUnit.SECONDS);
+        assertEquals("zh:共 5 字", longer.getFlow("result").orElse(null));
+        assertEquals(Map.of("measure", 1, "summarize", 1, "translate", 1), calls);
+
+        calls.clear();
+        // 文本变化但长度不变：measure 重新执行，输出与基线相同，下游全部复用
+        ScopeContext sameLength = engine.executeIncremental(baseline, Map.of("text", "再见世界"))
+                .get(5, TimeUnit.SECONDS);
+        assertEquals("zh:共 4 字", sameLength.getFlow("result").orElse(null));
+        assertEquals(Map.of("measure", 1), calls);
+    }
+
+    @Test
+    void testUnchangedValueReusesEverything() throws Exception {
+        RunRecord baseline = recordedRun(Map.of("text", "你好世界", "lang", "zh"));
+
+        ScopeContext result = engine.executeIncremental(baseline, Map.of("lang", "zh")).get(5, TimeUnit.SECONDS);
+
+        assertEquals("zh:共 4 字", result.getFlow("result").orElse(null));
+        assertTrue(calls.isEmpty(), "输入未变化时不应执行任何节点: " + calls);
+    }
+}
@@ -0,0 +1,140 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.node.InlineNode;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 廉价同步节点内联执行测试。
+ */
+class InlineExecutionTest {
+
+    /**
+     * 记录执行线程的胶水节点。
+     */
+    static class RenameNode implements Node {
+        final Map<String, Thread> threads = new ConcurrentHashMap<>();
+        private final String name;
+
+        RenameNode(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Map<String, Object> execute(Map<String, Object> inputs) {
+            threads.put(name, Thread.currentThread());
+            return Map.of("value", inputs.getOrDefault("value", 0));
+        }
+    }
+
+    static class MarkedRenameNode extends RenameNode implements InlineNode {
+        MarkedRenameNode(String name) {
+            super(name);
+        }
+    }
+
+    @Test
+    void testHintedNodesRunOnCompletingThread() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: inline_test
+                nodes:
+                  - id: a
+                    type: A
+                    inline: true
+                  - id: b
+                    type: B
+                  - id: c
+                    type: C
+                edges:
+                  - source: __start__
+                    target: a
+                  - source: a
+                    target: b
+                  - source: b
+                    target: c
+                """);
+
+        RenameNode a = new RenameNode("a");
+        RenameNode b = new MarkedRenameNode("b");
+        RenameNode c = new RenameNode("c");
+        Map<String, Node> nodeRegistry = Map.of("A", a, "B", b, "C", c);
+
+        new SynapseEngine(graph, nodeRegistry::get).execute(Map.of());
+
+        Thread caller = Thread.currentThread();
+        assertSame(caller, a.threads.get("a"), "inline: true 的节点应在调用线程上执行");
+        assertSame(caller, b.threads.get("b"), "InlineNode 应在完成上一节点的线程上执行");
+        assertNotSame(caller, c.threads.get("c"), "未标记的同步节点仍提交到线程池");
+    }
+
+    @Test
+    void testLongInlineChainHopsAfterMaxDepth() throws Exception {
+        int length = 60;
+        Graph graph = new Graph("inline_chain");
+        RenameNode node = new MarkedRenameNode("chain");
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Glue", inputs -> {
+            threads.add(Thread.currentThread());
+            return node.execute(inputs);
+        });
+
+        String previous = Graph.START;
+        for (int i = 0; i < length; i++) {
+            NodeDefinition def = new NodeDefinition();
+            def.setId("n" + i);
+            def.setType("Glue");
+            def.setInline(true);
+            graph.addNode(def);
+            graph.addEdge(previous, def.getId());
+            previous = def.getId();
+        }
+
+        EngineOptions options = new EngineOptions();
+        options.setMaxInlineDepth(8);
+        ScopeContext result = new SynapseEngine(graph, nodeRegistry::get, options).execute(Map.of());
+
+        assertEquals(length, result.getAllNodeModels().size());
+        assertTrue(threads.size() > 1, "超过最大内联深度后应切换到线程池");
+    }
+
+    @Test
+    void testAutoInlineAfterWarmup() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: auto_inline_test
+                nodes:
+                  - id: rename
+                    type: Rename
+                edges:
+                  - source: __start__
+                    target: rename
+                """);
+
+        RenameNode rename = new RenameNode("rename");
+        EngineOptions options = new EngineOptions();
+        options.setAutoInline(true);
+        options.setAutoInlineThresholdMicros(100_000);
+        SynapseEngine engine = new SynapseEngine(graph, type -> rename, options);
+
+        engine.execute(Map.of());
+        assertNotSame(Thread.currentThread(), rename.threads.get("rename"), "预热前不内联");
+
+        for (int i = 0; i < 10; i++) {
+            engine.execute(Map.of());
+        }
+        assertSame(Thread.currentThread(), rename.threads.get("rename"), "实测廉价的节点应自动内联");
+    }
+}
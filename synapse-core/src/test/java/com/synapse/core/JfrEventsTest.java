@@ -0,0 +1,116 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.RunOptions;
+import com.synapse.core.runtime.SynapseEngine;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JFR 自定义事件测试。
+ */
+class JfrEventsTest {
+
+    private static final String YAML = """
+            name: jfr_flow
+            nodes:
+              - id: classify
+                type: Classify
+                outputs:
+                  - sourceKey: intent
+                    targetScope: flow
+                    targetKey: intent
+              - id: reply
+                type: Reply
+                inputs:
+                  intent: flow.intent
+                outputs:
+                  - sourceKey: text
+                    targetScope: flow
+                    targetKey: text
+            edges:
+              - source: __start__
+                target: classify
+              - source: classify
+                condition: flow.intent
+                mappings:
+                  chat: reply
+            """;
+
+    @Test
+    void testRunNodeAndConditionEventsAreRecorded(@TempDir Path dir) throws Exception {
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Classify", inputs -> Map.of("intent", "chat"));
+        nodeRegistry.put("Reply", inputs -> Map.of("text", "你好"));
+        Graph graph = new YamlGraphBuilder().build(YAML);
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get);
+
+        // 未录制时照常运行
+        engine.executeAsync(Map.of(), Map.of()).get(5, TimeUnit.SECONDS);
+
+        Path file = dir.resolve("synapse.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("synapse.Run", "synapse.NodeExecute", "synapse.InputMap",
+                    "synapse.OutputDispatch", "synapse.ConditionEvaluate")) {
+                recording.enable(name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            RunOptions options = new RunOptions();
+            options.setRunId("jfr-run");
+            engine.executeAsync(Map.of(), Map.of(), options).get(5, TimeUnit.SECONDS);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Map<String, List<RecordedEvent>> byName = events.stream()
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+
+        RecordedEvent run = byName.get("synapse.Run").get(0);
+        assertEquals("jfr_flow", run.getString("graphName"));
+        assertEquals("jfr-run", run.getString("runId"));
+        assertEquals("COMPLETED", run.getString("status"));
+
+        List<RecordedEvent> nodes = byName.get("synapse.NodeExecute");
+        assertEquals(List.of("classify", "reply"), nodes.stream().map(event -> event.getString("nodeId")).sorted()
+                .collect(Collectors.toList()));
+        RecordedEvent reply = nodes.stream().filter(event -> "reply".equals(event.getString("nodeId")))
+                .findFirst().orElseThrow();
+        assertEquals("Reply", reply.getString("nodeType"));
+        assertEquals("jfr-run", reply.getString("runId"));
+        assertTrue(reply.getBoolean("succeeded"));
+        assertFalse(reply.getDuration().isNegative());
+
+        assertFalse(reply.getBoolean("speculative"));
+
+        // 映射与条件事件同样带有运行标识，可与所属运行关联
+        assertEquals(2, byName.get("synapse.InputMap").size());
+        assertEquals(2, byName.get("synapse.OutputDispatch").size());
+        for (String name : List.of("synapse.InputMap", "synapse.OutputDispatch", "synapse.ConditionEvaluate")) {
+            for (RecordedEvent event : byName.get(name)) {
+                assertEquals("jfr_flow", event.getString("graphName"), name);
+                assertEquals("jfr-run", event.getString("runId"), name);
+            }
+        }
+        assertEquals(List.of("Classify", "Reply"), byName.get("synapse.OutputDispatch").stream()
+                .map(event -> event.getString("nodeType")).sorted().collect(Collectors.toList()));
+        RecordedEvent condition = byName.get("synapse.ConditionEvaluate").get(0);
+        assertEquals("classify", condition.getString("sourceNodeId"));
+        assertEquals("reply", condition.getString("targetNodeId"));
+    }
+}
@@ -0,0 +1,137 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.graph.GraphLiveness;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.RunOptions;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.OffHeapBlobStore;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 节点输出活跃性分析与结果投影测试。
+ */
+class LivenessReleaseTest {
+
+    private static final String YAML = """
+            name: liveness_test
+            nodes:
+              - id: retriever
+                type: Retriever
+                inputs:
+                  query: flow.question
+              - id: summarizer
+                type: Summarizer
+                inputs:
+                  docs: nodes.retriever.docs
+              - id: answerer
+                type: Answerer
+                inputs:
+                  summary: nodes.summarizer.summary
+                outputs:
+                  - sourceKey: answer
+                    targetScope: flow
+                    targetKey: answer
+            edges:
+              - source: __start__
+                target: retriever
+              - source: retriever
+                target: summarizer
+              - source: summarizer
+                target: answerer
+              - source: answerer
+                target: __end__
+            """;
+
+    @Test
+    void testLivenessAnalysis() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+        GraphLiveness liveness = GraphLiveness.analyze(graph);
+
+        assertEquals(Set.of("summarizer"), liveness.readersOf("retriever"));
+
+        // summarizer 尚未完成时，retriever 的输出仍然存活
+        assertTrue(liveness.isLive("retriever", List.of("summarizer")));
+        // 只剩 answerer 时，retriever 的输出已不会再被读取
+        assertFalse(liveness.isLive("retriever", List.of("answerer")));
+        assertTrue(liveness.isLive("summarizer", List.of("answerer")));
+
+        // summarizer 完成时只需复查它自身与它能到达其读取者的输出所属节点
+        assertEquals(Set.of("retriever", "summarizer"), Set.copyOf(liveness.releaseCandidates("summarizer")));
+        assertEquals(Set.of("summarizer", "answerer"), Set.copyOf(liveness.releaseCandidates("answerer")));
+    }
+
+    @Test
+    void testResultProjection() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Retriever", inputs -> Map.of("docs", "doc for " + inputs.get("query")));
+        nodeRegistry.put("Summarizer", inputs -> Map.of("summary", "summary of " + inputs.get("docs")));
+        nodeRegistry.put("Answerer", inputs -> Map.of("answer", "answer: " + inputs.get("summary")));
+
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get);
+        ScopeContext result = engine.executeAsync(Map.of(), Map.of("question", "q"),
+                RunOptions.retaining("flow.answer", "nodes.summarizer.summary")).join();
+
+        assertEquals("answer: summary of doc for q", result.getFlow("answer").orElse(null));
+        assertEquals("summary of doc for q", result.getNodeOutput("summarizer", "summary").orElse(null));
+
+        // 未声明保留的输出与流程变量均已被释放
+        assertTrue(result.getNodeOutput("retriever", "docs").isEmpty());
+        assertTrue(result.getFlow("question").isEmpty());
+    }
+
+    @Test
+    void testOutputsAreReleasedWhileRunIsInProgress() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+        OffHeapBlobStore blobs = new OffHeapBlobStore(64, 1 << 16, 1 << 20, null);
+        List<Long> bytesSeenByAnswerer = new ArrayList<>();
+        List<Long> bytesSeenBySummarizer = new ArrayList<>();
+
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Retriever", inputs -> Map.of("docs", "文档".repeat(512)));
+        nodeRegistry.put("Summarizer", inputs -> {
+            bytesSeenBySummarizer.add(blobs.getBytesInUse());
+            return Map.of("summary", "s");
+        });
+        nodeRegistry.put("Answerer", inputs -> {
+            bytesSeenByAnswerer.add(blobs.getBytesInUse());
+            return Map.of("answer", "a");
+        });
+        EngineOptions options = new EngineOptions();
+        options.setBlobStore(blobs);
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get, options);
+
+        engine.executeAsync(Map.of(), Map.of("question", "q"), RunOptions.retaining("flow.answer"))
+                .get(5, TimeUnit.SECONDS);
+
+        // summarizer 读取时 retriever 的大输出仍在堆外；summarizer 完成后、answerer 执行时已被释放
+        assertTrue(bytesSeenBySummarizer.get(0) > 0);
+        assertEquals(List.of(0L), bytesSeenByAnswerer);
+    }
+
+    @Test
+    void testWithoutRetainedKeysKeepsEverything() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+
+        Node echo = inputs -> Map.of("docs", "d", "summary", "s", "answer", "a");
+        SynapseEngine engine = new SynapseEngine(graph, type -> echo);
+        ScopeContext result = engine.execute(Map.of("question", "q"));
+
+        assertEquals("d", result.getNodeOutput("retriever", "docs").orElse(null));
+        assertEquals("q", result.getFlow("question").orElse(null));
+    }
+}
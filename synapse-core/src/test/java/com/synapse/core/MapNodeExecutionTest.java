@@ -0,0 +1,215 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内置 Map 节点（集合扇出）测试。
+ */
+class MapNodeExecutionTest {
+
+    /**
+     * 记录最大并发数的慢速摘要节点。
+     */
+    static class SummarizeNode implements AsyncNode {
+        private final AtomicInteger active;
+        private final AtomicInteger maxActive;
+
+        SummarizeNode(AtomicInteger active, AtomicInteger maxActive) {
+            this.active = active;
+            this.maxActive = maxActive;
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> executeAsync(Map<String, Object> inputs) {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                active.decrementAndGet();
+                return Map.<String, Object>of("summary", inputs.get("question") + ":" + inputs.get("doc"));
+            }, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    void testMapOverNodeWithBoundedConcurrency() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: map_test
+                nodes:
+                  - id: summarize_docs
+                    map:
+                      items: docs
+                      itemKey: doc
+                      node: SummarizeNode
+                      outputKey: summary
+                      resultKey: summaries
+                      maxConcurrency: 2
+                    inputs:
+                      docs: flow.documents
+                      question: flow.question
+                    outputs:
+                      - sourceKey: summaries
+                        targetScope: flow
+                        targetKey: summaries
+                edges:
+                  - source: __start__
+                    target: summarize_docs
+                  - source: summarize_docs
+                    target: __end__
+                """);
+
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("SummarizeNode", new SummarizeNode(active, maxActive));
+
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get);
+        ScopeContext result = engine.execute(Map.of(
+                "documents", List.of("d1", "d2", "d3", "d4", "d5"),
+                "question", "q"));
+
+        assertEquals(List.of("q:d1", "q:d2", "q:d3", "q:d4", "q:d5"), result.getFlow("summaries").orElse(null));
+        assertEquals(2, maxActive.get(), "并发数应受 maxConcurrency 限制");
+
+        // 每个元素的输出不写入共享上下文
+        assertTrue(result.getAllNodeModels().isEmpty());
+    }
+
+    @Test
+    void testMapOverSubgraph() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: map_subgraph_test
+                nodes:
+                  - id: answer_each
+                    map:
+                      items: questions
+                      itemKey: question
+                      outputKey: answer
+                      graph:
+                        nodes:
+                          - id: retrieve
+                            type: Retrieve
+                            inputs:
+                              q: flow.question
+                              tenant: global.tenant
+                            outputs:
+                              - sourceKey: docs
+                                targetScope: flow
+                                targetKey: docs
+                          - id: answer
+                            type: Answer
+                            inputs:
+                              docs: flow.docs
+                            outputs:
+                              - sourceKey: answer
+                                targetScope: flow
+                                targetKey: answer
+                        edges:
+                          - source: __start__
+                            target: retrieve
+                          - source: retrieve
+                            target: answer
+                          - source: answer
+                            target: __end__
+                    inputs:
+                      questions: flow.sub_questions
+                edges:
+                  - source: __start__
+                    target: answer_each
+                  - source: answer_each
+                    target: __end__
+                """);
+
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Retrieve", inputs -> Map.of("docs", inputs.get("tenant") + "/docs(" + inputs.get("q") + ")"));
+        nodeRegistry.put("Answer", inputs -> Map.of("answer", "answer[" + inputs.get("docs") + "]"));
+
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get);
+        // 子图运行继承父运行的 global 数据
+        ScopeContext result = engine.executeAsync(Map.of("tenant", "t1"), Map.of("sub_questions", new String[] { "a", "b" }))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("answer[t1/docs(a)]", "answer[t1/docs(b)]"),
+                result.getNodeOutput("answer_each", "results").orElse(null));
+        // 子图的中间变量不会泄漏到父上下文
+        assertTrue(result.getFlow("docs").isEmpty());
+    }
+
+    @Test
+    void testMapFailsOnItemError() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: map_failure_test
+                nodes:
+                  - id: each
+                    map:
+                      node: Fragile
+                    inputs:
+                      items: flow.items
+                edges:
+                  - source: __start__
+                    target: each
+                """);
+
+        Node fragile = inputs -> {
+            if ("bad".equals(inputs.get("item"))) {
+                throw new IllegalArgumentException("bad item");
+            }
+            return Map.of("ok", true);
+        };
+        SynapseEngine engine = new SynapseEngine(graph, type -> fragile);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.execute(Map.of("items", List.of("good", "bad", "good"))));
+    }
+
+    @Test
+    void testFailedItemCancelsOutstandingItems() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: map_cancel_test
+                nodes:
+                  - id: each
+                    map:
+                      node: Slow
+                      maxConcurrency: 3
+                    inputs:
+                      items: flow.items
+                edges:
+                  - source: __start__
+                    target: each
+                """);
+
+        List<CompletableFuture<Map<String, Object>>> pending = new CopyOnWriteArrayList<>();
+        AsyncNode slow = inputs -> {
+            if ("bad".equals(inputs.get("item"))) {
+                return CompletableFuture.supplyAsync(() -> {
+                    throw new IllegalArgumentException("bad item");
+                }, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+            }
+            CompletableFuture<Map<String, Object>> never = new CompletableFuture<>();
+            pending.add(never);
+            return never;
+        };
+        SynapseEngine engine = new SynapseEngine(graph, type -> slow);
+
+        CompletableFuture<ScopeContext> run = engine.executeAsync(Map.of(), Map.of("items", List.of("a", "b", "bad", "c")));
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> run.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, failed.getCause());
+        assertEquals(2, pending.size(), "失败后不再启动新元素");
+        assertTrue(pending.stream().allMatch(CompletableFuture::isCancelled), "在途元素应被取消");
+    }
+}
@@ -0,0 +1,262 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.BinaryValueCodec;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.JournalEvent;
+import com.synapse.core.runtime.OpaqueValue;
+import com.synapse.core.runtime.RunJournal;
+import com.synapse.core.runtime.RunOptions;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 运行日志与确定性回放测试。
+ */
+class RunJournalTest {
+
+    private static final String YAML = """
+            name: journal_flow
+            nodes:
+              - id: score
+                type: Score
+                inputs:
+                  text: flow.text
+                outputs:
+                  - sourceKey: score
+                    targetScope: flow
+                    targetKey: score
+                  - sourceKey: verdict
+                    targetScope: flow
+                    targetKey: verdict
+              - id: accept
+                type: Label
+                inputs:
+                  score: flow.score
+                outputs:
+                  - sourceKey: label
+                    targetScope: flow
+                    targetKey: label
+              - id: reject
+                type: Label
+                outputs:
+                  - sourceKey: label
+                    targetScope: flow
+                    targetKey: label
+            edges:
+              - source: __start__
+                target: score
+              - source: score
+                condition: flow.verdict
+                mappings:
+                  accept: accept
+                  reject: reject
+            """;
+
+    private final AtomicInteger liveCalls = new AtomicInteger();
+
+    /**
+     * 每次调用返回不同结果的节点（模拟外部服务），回放不应调用它们。
+     */
+    private Map<String, Node> registry() {
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Score", inputs -> {
+            if ("boom".equals(inputs.get("text"))) {
+                throw new IllegalArgumentException("无法评分");
+            }
+            String text = (String) inputs.get("text");
+            return Map.of("score", text.length() + liveCalls.incrementAndGet() * 100,
+                    "verdict", text.length() >= 5 ? "accept" : "reject");
+        });
+        nodeRegistry.put("Label", inputs -> Map.of("label", "label-" + liveCalls.incrementAndGet()));
+        return nodeRegistry;
+    }
+
+    private static Graph graph(String yaml) throws Exception {
+        return new YamlGraphBuilder().build(yaml);
+    }
+
+    @Test
+    void testCodecRoundTripsNestedValues() throws Exception {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("text", "你好");
+        value.put("count", 3);
+        value.put("big", 1L << 40);
+        value.put("ratio", 0.5);
+        value.put("flag", true);
+        value.put("missing", null);
+        value.put("items", List.of(1, "二", List.of(3.0f)));
+        value.put("nested", Map.of("k", Map.of("v", false)));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryValueCodec.write(new DataOutputStream(bytes), value);
+        BinaryValueCodec.write(new DataOutputStream(bytes), new byte[] {1, 2, 3});
+        BinaryValueCodec.write(new DataOutputStream(bytes), new float[] {0.25f, -2f});
+        BinaryValueCodec.write(new DataOutputStream(bytes), new LinkedHashSet<>(List.of("b", "a")));
+        // 运行日志：不支持的类型记录类名与文本，解码为占位而不是字符串
+        BinaryValueCodec.write(new DataOutputStream(bytes), Thread.State.NEW, true);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(value, BinaryValueCodec.read(in));
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) BinaryValueCodec.read(in));
+        assertArrayEquals(new float[] {0.25f, -2f}, (float[]) BinaryValueCodec.read(in));
+        assertEquals(new LinkedHashSet<>(List.of("b", "a")), BinaryValueCodec.read(in));
+        assertEquals(new OpaqueValue(Thread.State.class.getName(), "NEW"), BinaryValueCodec.read(in));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryValueCodec.write(new DataOutputStream(new ByteArrayOutputStream()), Thread.State.NEW));
+
+        // 伪造的长度在分配之前被拒绝：double[Integer.MAX_VALUE]、负长度的列表
+        for (byte[] forged : List.of(new byte[] {15, 0x7f, -1, -1, -1}, new byte[] {9, -1, -1, -1, -1})) {
+            assertThrows(IOException.class,
+                    () -> BinaryValueCodec.read(new DataInputStream(new ByteArrayInputStream(forged))));
+        }
+    }
+
+    @Test
+    void testUnencodableEventIsDroppedWithoutStoppingJournal(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("runs.journal");
+        RunJournal journal = new RunJournal(file);
+        EngineOptions options = new EngineOptions();
+        options.setJournal(journal);
+        Map<String, Node> nodeRegistry = registry();
+        Object unprintable = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("无法转换为字符串");
+            }
+        };
+        nodeRegistry.put("Label", inputs -> Map.of("label", unprintable));
+        SynapseEngine engine = new SynapseEngine(graph(YAML), nodeRegistry::get, options);
+
+        engine.executeAsync(Map.of(), Map.of("text", "hello")).get(5, TimeUnit.SECONDS);
+        engine.executeAsync(Map.of(), Map.of("text", "hi")).get(5, TimeUnit.SECONDS);
+        journal.close();
+
+        // 两次运行各有一个 Label 节点事件无法编码：只丢弃该事件，其后的事件照常写出且日志可完整读取
+        assertEquals(2, journal.getDroppedEvents());
+        List<JournalEvent> events = RunJournal.read(file);
+        assertEquals(2, events.stream().filter(event -> event.getType() == JournalEvent.Type.RUN_FINISHED).count());
+        assertEquals(2, events.stream().filter(event -> event.getType() == JournalEvent.Type.NODE_COMPLETED).count());
+        assertEquals(events.size(), journal.getWrittenEvents());
+    }
+
+    @Test
+    void testReplayReproducesRunWithoutCallingNodes(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("runs.journal");
+        RunJournal journal = new RunJournal(file);
+        EngineOptions options = new EngineOptions();
+        options.setJournal(journal);
+        SynapseEngine engine = new SynapseEngine(graph(YAML), registry()::get, options);
+
+        RunOptions runOptions = new RunOptions();
+        runOptions.setRunId("run-1");
+        ScopeContext original = engine.executeAsync(Map.of(), Map.of("text", "hello"), runOptions)
+                .get(5, TimeUnit.SECONDS);
+        journal.close();
+        assertEquals(0, journal.getDroppedEvents());
+
+        List<JournalEvent> events = RunJournal.read(file);
+        List<JournalEvent.Type> types = new ArrayList<>();
+        events.forEach(event -> types.add(event.getType()));
+        assertEquals(JournalEvent.Type.RUN_STARTED, types.get(0));
+        assertEquals(JournalEvent.Type.RUN_FINISHED, types.get(types.size() - 1));
+        assertEquals(2, types.stream().filter(type -> type == JournalEvent.Type.NODE_COMPLETED).count());
+        JournalEvent routed = events.stream().filter(event -> event.getType() == JournalEvent.Type.ROUTED)
+                .findFirst().orElseThrow();
+        assertEquals(List.of("accept"), routed.getTargets());
+
+        int callsBeforeReplay = liveCalls.get();
+        SynapseEngine replayEngine = new SynapseEngine(graph(YAML), registry()::get);
+        ScopeContext replayed = replayEngine.replay(events, "run-1", false).get(5, TimeUnit.SECONDS);
+
+        assertEquals(callsBeforeReplay, liveCalls.get(), "回放不应调用节点");
+        assertEquals(original.getFlowData(), replayed.getFlowData());
+
+        ScopeContext timed = replayEngine.replay(events, "run-1", true).get(5, TimeUnit.SECONDS);
+        assertEquals(original.getFlowData(), timed.getFlowData());
+    }
+
+    @Test
+    void testReplayDetectsDivergenceAndReproducesFailure(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("runs.journal");
+        RunJournal journal = new RunJournal(file);
+        EngineOptions options = new EngineOptions();
+        options.setJournal(journal);
+        SynapseEngine engine = new SynapseEngine(graph(YAML), registry()::get, options);
+
+        RunOptions ok = new RunOptions();
+        ok.setRunId("ok");
+        engine.executeAsync(Map.of(), Map.of("text", "hello"), ok).get(5, TimeUnit.SECONDS);
+        RunOptions failing = new RunOptions();
+        failing.setRunId("failing");
+        assertThrows(ExecutionException.class,
+                () -> engine.executeAsync(Map.of(), Map.of("text", "boom"), failing).get(5, TimeUnit.SECONDS));
+        journal.close();
+        List<JournalEvent> events = RunJournal.read(file);
+
+        // 修改后的映射把同样的判定路由到另一分支：回放报告偏离
+        String swapped = YAML.replace("accept: accept", "accept: reject");
+        SynapseEngine changed = new SynapseEngine(graph(swapped), registry()::get);
+        ExecutionException diverged = assertThrows(ExecutionException.class,
+                () -> changed.replay(events, "ok", false).get(5, TimeUnit.SECONDS));
+        assertTrue(diverged.getCause().getMessage().contains("回放偏离日志"), diverged.getCause().getMessage());
+
+        SynapseEngine same = new SynapseEngine(graph(YAML), registry()::get);
+        ExecutionException failed = assertThrows(ExecutionException.class,
+                () -> same.replay(events, "failing", false).get(5, TimeUnit.SECONDS));
+        assertTrue(failed.getCause().getMessage().contains("无法评分"), failed.getCause().getMessage());
+        assertThrows(IllegalArgumentException.class, () -> same.replay(events, "unknown", false));
+    }
+
+    @Test
+    void testReplayRejectsOutputsNotJournaledFaithfully(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("runs.journal");
+        RunJournal journal = new RunJournal(file);
+        EngineOptions options = new EngineOptions();
+        options.setJournal(journal);
+        Map<String, Node> nodeRegistry = registry();
+        nodeRegistry.put("Label", inputs -> Map.of("label", new BigDecimal("1.50")));
+        SynapseEngine engine = new SynapseEngine(graph(YAML), nodeRegistry::get, options);
+
+        RunOptions runOptions = new RunOptions();
+        runOptions.setRunId("decimal");
+        engine.executeAsync(Map.of(), Map.of("text", "hello", "tags", Set.of("x")), runOptions)
+                .get(5, TimeUnit.SECONDS);
+        journal.close();
+        List<JournalEvent> events = RunJournal.read(file);
+        JournalEvent started = events.stream().filter(event -> event.getType() == JournalEvent.Type.RUN_STARTED)
+                .findFirst().orElseThrow();
+        assertEquals(Set.of("x"), ((Map<?, ?>) started.getData().get("flow")).get("tags"), "Set 应按 Set 还原");
+
+        // 记录为占位的 BigDecimal 不能当作字符串分发给下游
+        SynapseEngine replayEngine = new SynapseEngine(graph(YAML), registry()::get);
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> replayEngine.replay(events, "decimal", false).get(5, TimeUnit.SECONDS));
+        String message = e.getCause().getMessage();
+        assertTrue(message.contains("不可回放") && message.contains("accept") && message.contains("label"), message);
+    }
+}
@@ -0,0 +1,237 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.CompiledCondition;
+import com.synapse.core.runtime.ConditionEvaluator;
+import com.synapse.core.runtime.ConditionStrategy;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.ExecutionMode;
+import com.synapse.core.runtime.ProfileAggregator;
+import com.synapse.core.runtime.RunOptions;
+import com.synapse.core.runtime.RunProfile;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 运行剖析（关键路径、松弛时间、排队/执行/条件耗时）与跨运行汇总测试。
+ */
+class RunProfileTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    // plan 之后并行两个分支：slow 决定运行时长，fast 有充足的松弛
+    private static final String FORK_YAML = """
+            name: fork_flow
+            nodes:
+              - id: plan
+                type: Plan
+              - id: slow
+                type: Slow
+              - id: fast
+                type: Fast
+            edges:
+              - source: __start__
+                target: plan
+              - source: plan
+                target: slow
+              - source: plan
+                target: fast
+            """;
+
+    private static Node delayed(long millis, String key) {
+        return (AsyncNode) inputs -> CompletableFuture.supplyAsync(() -> Map.of(key, "done"),
+                CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS));
+    }
+
+    private static Map<String, Node> registry() {
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Plan", delayed(10, "plan"));
+        nodeRegistry.put("Slow", delayed(150, "slow"));
+        nodeRegistry.put("Fast", delayed(10, "fast"));
+        return nodeRegistry;
+    }
+
+    private static RunProfile.Span span(RunProfile profile, String nodeId) {
+        return profile.getSpans().stream().filter(span -> span.getNodeId().equals(nodeId)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void testCriticalPathAndSlackFollowSlowBranch() throws Exception {
+        SynapseEngine engine = new SynapseEngine(new YamlGraphBuilder().build(FORK_YAML), registry()::get);
+        RunProfile profile = new RunProfile();
+        RunOptions runOptions = new RunOptions();
+        runOptions.setProfile(profile);
+        engine.executeAsync(Map.of(), Map.of(), runOptions).get(5, TimeUnit.SECONDS);
+
+        assertTrue(profile.isFinished());
+        assertEquals(List.of("plan", "slow"),
+                profile.getCriticalPath().stream().map(RunProfile.Span::getNodeId).toList());
+
+        RunProfile.Span plan = span(profile, "plan");
+        RunProfile.Span slow = span(profile, "slow");
+        RunProfile.Span fast = span(profile, "fast");
+        assertNull(plan.getPredecessor());
+        assertSame(plan, slow.getPredecessor());
+        assertSame(plan, fast.getPredecessor());
+        assertTrue(slow.isCritical() && !fast.isCritical());
+
+        assertEquals(0, slow.getSlackNanos());
+        assertEquals(0, plan.getSlackNanos(), "关键路径上的激活没有松弛");
+        assertTrue(fast.getSlackNanos() > 100 * MILLIS, "fast 分支的松弛应接近两分支的耗时差: " + fast.getSlackNanos());
+        assertTrue(slow.getExecutingNanos() >= 140 * MILLIS, String.valueOf(slow.getExecutingNanos()));
+        assertTrue(profile.getTotalNanos() >= 160 * MILLIS);
+        assertTrue(profile.toString().contains("关键路径: [plan#0, slow#0]"), profile.toString());
+
+        IllegalStateException reused = assertThrows(IllegalStateException.class,
+                () -> engine.executeAsync(Map.of(), Map.of(), runOptions));
+        assertTrue(reused.getMessage().contains("RunProfile"), reused.getMessage());
+    }
+
+    /**
+     * 模拟较慢的路由：异步评估耗时约 50ms。
+     */
+    static class SlowRouter implements ConditionStrategy {
+        @Override
+        public Object evaluate(String expression, ScopeContext context) {
+            return prepare(expression).evaluate(context);
+        }
+
+        @Override
+        public CompiledCondition prepare(String expression) {
+            return CompiledCondition.async(context -> CompletableFuture.supplyAsync(() -> expression,
+                    CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)));
+        }
+    }
+
+    @Test
+    void testQueuedExecutingAndConditionTimeAreSeparated() throws Exception {
+        // slow 类型限流为 1：两个 slow 分支之一须排队等待另一个完成；fast 之后经较慢的路由到达 done
+        String yaml = """
+                name: queued_flow
+                limits:
+                  Slow:
+                    maxConcurrency: 1
+                nodes:
+                  - id: plan
+                    type: Plan
+                  - id: left
+                    type: Slow
+                  - id: right
+                    type: Slow
+                  - id: fast
+                    type: Fast
+                  - id: done
+                    type: Fast
+                edges:
+                  - source: __start__
+                    target: plan
+                  - source: plan
+                    target: left
+                  - source: plan
+                    target: right
+                  - source: plan
+                    target: fast
+                  - source: fast
+                    conditionType: slow_router
+                    condition: done
+                    mappings:
+                      done: done
+                """;
+        ConditionEvaluator evaluator = new ConditionEvaluator();
+        evaluator.registerStrategy("slow_router", new SlowRouter());
+        EngineOptions options = new EngineOptions();
+        options.setConditionEvaluator(evaluator);
+        SynapseEngine engine = new SynapseEngine(new YamlGraphBuilder().build(yaml), registry()::get, options);
+        RunProfile profile = new RunProfile();
+        RunOptions runOptions = new RunOptions();
+        runOptions.setProfile(profile);
+        engine.executeAsync(Map.of(), Map.of(), runOptions).get(5, TimeUnit.SECONDS);
+
+        RunProfile.Span left = span(profile, "left");
+        RunProfile.Span right = span(profile, "right");
+        long queued = Math.max(left.getQueuedNanos(), right.getQueuedNanos());
+        assertTrue(queued >= 130 * MILLIS, "限流排队应计入排队时间: " + queued);
+        assertTrue(left.getExecutingNanos() < 300 * MILLIS && right.getExecutingNanos() < 300 * MILLIS,
+                "排队时间不应计入执行时间");
+
+        RunProfile.Span fast = span(profile, "fast");
+        RunProfile.Span done = span(profile, "done");
+        assertTrue(fast.getConditionNanos() >= 40 * MILLIS, String.valueOf(fast.getConditionNanos()));
+        assertSame(fast, done.getPredecessor());
+        assertTrue(done.getConditionNanos() < 20 * MILLIS, "无条件出边的节点几乎没有条件耗时");
+        assertTrue(done.getSlackNanos() > 0);
+
+        // 排在后面的 slow 分支决定运行时长
+        RunProfile.Span last = profile.getCriticalPath().get(profile.getCriticalPath().size() - 1);
+        assertSame(left.getQueuedNanos() > right.getQueuedNanos() ? left : right, last);
+    }
+
+    @Test
+    void testAggregatorCollectsEveryRunIncludingDataflow() throws Exception {
+        ProfileAggregator aggregator = new ProfileAggregator();
+        EngineOptions options = new EngineOptions();
+        options.setProfileAggregator(aggregator);
+        SynapseEngine engine = new SynapseEngine(new YamlGraphBuilder().build(FORK_YAML), registry()::get, options);
+        for (int i = 0; i < 3; i++) {
+            engine.executeAsync(Map.of(), Map.of()).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(3, aggregator.getRuns());
+        assertEquals(3, aggregator.getNodeStats("slow").getActivations());
+        assertEquals(1.0, aggregator.getNodeStats("slow").getCriticalRatio(), 0.0);
+        assertEquals(1.0, aggregator.getNodeStats("plan").getCriticalRatio(), 0.0);
+        assertEquals(0.0, aggregator.getNodeStats("fast").getCriticalRatio(), 0.0);
+        assertTrue(aggregator.getNodeStats("fast").getMeanSlackNanos() > 100 * MILLIS);
+        assertTrue(aggregator.getNodeStats("slow").getMeanExecutingNanos() >= 140 * MILLIS);
+        assertTrue(aggregator.getMeanRunNanos() >= 160 * MILLIS);
+        assertTrue(aggregator.toString().startsWith("3 次运行"), aggregator.toString());
+
+        // 数据流模式：以最后完成的依赖作为前驱
+        String dataflow = """
+                name: dataflow_flow
+                nodes:
+                  - id: slow
+                    type: Slow
+                  - id: fast
+                    type: Fast
+                  - id: merge
+                    type: Plan
+                    inputs:
+                      a: nodes.slow.slow
+                      b: nodes.fast.fast
+                edges:
+                  - source: __start__
+                    target: slow
+                  - source: slow
+                    target: fast
+                  - source: fast
+                    target: merge
+                """;
+        aggregator.reset();
+        options.setExecutionMode(ExecutionMode.DATAFLOW);
+        Graph graph = new YamlGraphBuilder().build(dataflow);
+        RunProfile profile = new RunProfile();
+        RunOptions runOptions = new RunOptions();
+        runOptions.setProfile(profile);
+        new SynapseEngine(graph, registry()::get, options).executeAsync(Map.of(), Map.of(), runOptions)
+                .get(5, TimeUnit.SECONDS);
+
+        assertSame(span(profile, "slow"), span(profile, "merge").getPredecessor());
+        assertEquals(List.of("slow", "merge"),
+                profile.getCriticalPath().stream().map(RunProfile.Span::getNodeId).toList());
+        assertTrue(span(profile, "fast").getSlackNanos() > 100 * MILLIS);
+        assertEquals(1, aggregator.getRuns(), "指定了 RunProfile 的运行同样汇入");
+    }
+}
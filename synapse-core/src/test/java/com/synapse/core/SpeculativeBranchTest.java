@@ -0,0 +1,162 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.BranchSpeculator;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.FairScheduler;
+import com.synapse.core.runtime.RunOptions;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 条件边推测执行测试。
+ */
+class SpeculativeBranchTest {
+
+    private static final String YAML = """
+            name: speculative_flow
+            nodes:
+              - id: classify
+                type: Classify
+                inputs:
+                  intent: flow.intent
+                outputs:
+                  - sourceKey: intent
+                    targetScope: flow
+                    targetKey: routed
+              - id: chat_reply
+                type: ChatReply
+                pure: true
+                inputs:
+                  message: flow.message
+                outputs:
+                  - sourceKey: reply
+                    targetScope: flow
+                    targetKey: reply
+              - id: refund
+                type: Refund
+                outputs:
+                  - sourceKey: reply
+                    targetScope: flow
+                    targetKey: reply
+            edges:
+              - source: __start__
+                target: classify
+              - source: classify
+                condition: flow.routed
+                speculative: true
+                mappings:
+                  chat: chat_reply
+                  refund: refund
+            """;
+
+    private final AtomicBoolean classified = new AtomicBoolean();
+    private final AtomicBoolean startedBeforeRouting = new AtomicBoolean();
+    private final AtomicInteger chatCalls = new AtomicInteger();
+
+    private SynapseEngine engine(String yaml, EngineOptions options) throws Exception {
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Classify", (AsyncNode) inputs -> CompletableFuture.supplyAsync(() -> {
+            classified.set(true);
+            return Map.<String, Object>of("intent", inputs.get("intent"));
+        }, CompletableFuture.delayedExecutor(30, TimeUnit.MILLISECONDS)));
+        nodeRegistry.put("ChatReply", inputs -> {
+            chatCalls.incrementAndGet();
+            startedBeforeRouting.set(!classified.get());
+            return Map.of("reply", "你好，" + inputs.get("message"));
+        });
+        nodeRegistry.put("Refund", inputs -> Map.of("reply", "退款处理中"));
+        Graph graph = new YamlGraphBuilder().build(yaml);
+        return new SynapseEngine(graph, nodeRegistry::get, options);
+    }
+
+    private ScopeContext run(SynapseEngine engine, String intent) throws Exception {
+        classified.set(false);
+        startedBeforeRouting.set(false);
+        return engine.executeAsync(Map.of(), Map.of("intent", intent, "message", "小明")).get(5, TimeUnit.SECONDS);
+    }
+
+    private void warmUp(SynapseEngine engine) throws Exception {
+        for (int i = 0; i < 10; i++) {
+            run(engine, "chat");
+        }
+    }
+
+    @Test
+    void testLikelyBranchStartsBeforeRoutingAndIsCommitted() throws Exception {
+        SynapseEngine engine = engine(YAML, new EngineOptions());
+        warmUp(engine);
+        assertEquals(0, engine.getSpeculator().getSpeculated(), "样本不足时不应推测");
+
+        chatCalls.set(0);
+        ScopeContext result = run(engine, "chat");
+
+        assertEquals("你好，小明", result.getFlow("reply").orElse(null));
+        assertTrue(startedBeforeRouting.get(), "预测的分支应在源节点完成前启动");
+        assertEquals(1, chatCalls.get(), "采用推测结果时节点只执行一次");
+        BranchSpeculator speculator = engine.getSpeculator();
+        assertEquals(1, speculator.getSpeculated());
+        assertEquals(1, speculator.getCommitted());
+        assertEquals(0, speculator.getWasted());
+    }
+
+    @Test
+    void testMispredictionIsDiscardedAndBudgetStopsSpeculation() throws Exception {
+        EngineOptions options = new EngineOptions();
+        options.setSpeculationWasteBudget(0.01);
+        SynapseEngine engine = engine(YAML, options);
+        warmUp(engine);
+
+        ScopeContext refund = run(engine, "refund");
+        assertEquals("退款处理中", refund.getFlow("reply").orElse(null));
+        assertEquals(1, engine.getSpeculator().getWasted());
+
+        // 浪费已超出预算（1 > 0.01 × 已启动节点数），不再推测
+        run(engine, "chat");
+        assertEquals(1, engine.getSpeculator().getSpeculated());
+        assertFalse(startedBeforeRouting.get());
+    }
+
+    @Test
+    void testTargetReadingSourceOutputIsNotSpeculated() throws Exception {
+        SynapseEngine engine = engine(YAML.replace("message: flow.message", "message: flow.routed"),
+                new EngineOptions());
+        warmUp(engine);
+
+        ScopeContext result = run(engine, "chat");
+
+        assertEquals("你好，chat", result.getFlow("reply").orElse(null));
+        assertEquals(0, engine.getSpeculator().getSpeculated());
+    }
+
+    @Test
+    void testSpeculationIsScheduledLikeNormalActivations() throws Exception {
+        EngineOptions options = new EngineOptions();
+        FairScheduler scheduler = new FairScheduler(4);
+        options.setScheduler(scheduler);
+        SynapseEngine engine = engine(YAML, options);
+        warmUp(engine);
+        long dispatched = scheduler.getLaneMetrics().get(RunOptions.Priority.NORMAL).getDispatched();
+
+        ScopeContext result = run(engine, "chat");
+
+        assertEquals("你好，小明", result.getFlow("reply").orElse(null));
+        assertEquals(1, engine.getSpeculator().getSpeculated());
+        // 源节点与推测启动的目标节点各经过一次调度，采用推测结果时不再调度
+        assertEquals(dispatched + 2, scheduler.getLaneMetrics().get(RunOptions.Priority.NORMAL).getDispatched());
+        assertEquals(0, scheduler.getActive());
+    }
+}
@@ -0,0 +1,164 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.DataStreamer;
+import com.synapse.core.node.StreamingNode;
+import com.synapse.core.runtime.RunOptions;
+import com.synapse.core.runtime.StreamFrame;
+import com.synapse.core.runtime.StreamHub;
+import com.synapse.core.runtime.StreamSubscriber;
+import com.synapse.core.runtime.SynapseEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StreamHub 数据块合并、多订阅者广播与重放测试。
+ */
+class StreamHubTest {
+
+    /**
+     * 记录收到的帧，并在关闭时计数。
+     */
+    static class RecordingSubscriber implements StreamSubscriber {
+        final List<StreamFrame> frames = new CopyOnWriteArrayList<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile boolean lagged;
+
+        @Override
+        public void onFrame(StreamFrame frame) {
+            frames.add(frame);
+        }
+
+        @Override
+        public void onClose(boolean lagged) {
+            this.lagged = lagged;
+            closed.countDown();
+        }
+
+        String text() {
+            StringBuilder sb = new StringBuilder();
+            frames.forEach(frame -> sb.append(frame.getText()));
+            return sb.toString();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(closed.await(5, TimeUnit.SECONDS), "订阅应被关闭");
+        }
+    }
+
+    @Test
+    void testTokensCoalescedAndBroadcastToAllSubscribers() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: chat
+                nodes:
+                  - id: llm
+                    type: Llm
+                edges:
+                  - source: __start__
+                    target: llm
+                """);
+        StreamingNode llm = (inputs, streamer) -> CompletableFuture.supplyAsync(() -> {
+            for (int i = 0; i < 100; i++) {
+                streamer.stream("t" + (i % 10));
+            }
+            return Map.of();
+        });
+        StreamHub hub = new StreamHub(20, 50, 1024, 1024, ForkJoinPool.commonPool());
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        hub.subscribe(first);
+        hub.subscribe(second);
+
+        RunOptions options = new RunOptions();
+        options.setStreamHub(hub);
+        new SynapseEngine(graph, type -> llm).executeAsync(Map.of(), Map.of(), options).join();
+        first.await();
+        second.await();
+
+        String expected = "t0t1t2t3t4t5t6t7t8t9".repeat(10);
+        assertEquals(expected, first.text());
+        assertEquals(expected, second.text());
+        assertTrue(first.frames.size() <= 10, "100 个数据块应被合并为至多 10 帧，实际 " + first.frames.size());
+        assertEquals(first.frames.size(), second.frames.size());
+        assertEquals("llm", first.frames.get(0).getNodeId());
+        assertFalse(first.lagged);
+    }
+
+    @Test
+    void testLateSubscriberReceivesReplayAndCanResume() throws Exception {
+        StreamHub hub = new StreamHub(1, 0, 1024, 1024, ForkJoinPool.commonPool());
+        DataStreamer streamer = chunk -> hub.publish("node", chunk);
+        streamer.stream("a");
+        streamer.stream("b");
+        streamer.stream("c");
+
+        RecordingSubscriber late = new RecordingSubscriber();
+        hub.subscribe(late);
+        RecordingSubscriber resumed = new RecordingSubscriber();
+        hub.subscribe(resumed, 2);
+        streamer.stream("d");
+        hub.close();
+        late.await();
+        resumed.await();
+
+        assertEquals("abcd", late.text(), "迟到的订阅者应先收到重放帧");
+        assertEquals("cd", resumed.text(), "重连时只重放序号之后的帧");
+        assertEquals(4, hub.getLastSequence());
+
+        RecordingSubscriber afterClose = new RecordingSubscriber();
+        hub.subscribe(afterClose, 3);
+        afterClose.await();
+        assertEquals("d", afterClose.text(), "运行结束后仍可获取重放");
+    }
+
+    @Test
+    void testSlowSubscriberDoesNotBlockPublisher() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        StreamHub hub = new StreamHub(1, 0, 16, 8, executor);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSubscriber slow = new RecordingSubscriber() {
+            @Override
+            public void onFrame(StreamFrame frame) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onFrame(frame);
+            }
+        };
+        RecordingSubscriber fast = new RecordingSubscriber();
+        hub.subscribe(slow);
+        hub.subscribe(fast);
+
+        for (int i = 1; i <= 50; i++) {
+            hub.publish("node", "x");
+            // 快订阅者跟上进度，慢订阅者持续积压
+            long deadline = System.currentTimeMillis() + 1000;
+            while (fast.frames.size() < i && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+        release.countDown();
+        hub.close();
+
+        slow.await();
+        fast.await();
+        executor.shutdown();
+        assertTrue(slow.lagged, "积压超过上限的订阅者应被标记为 lagged");
+        assertFalse(fast.lagged);
+        assertEquals(50, fast.frames.size());
+    }
+}
@@ -0,0 +1,171 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.DataStreamer;
+import com.synapse.core.node.Node;
+import com.synapse.core.node.StreamInput;
+import com.synapse.core.node.StreamingInputNode;
+import com.synapse.core.node.StreamingNode;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式边（上下游节点流水线执行）测试。
+ */
+class StreamingEdgeTest {
+
+    private static final String YAML = """
+            name: voice_flow
+            nodes:
+              - id: llm
+                type: Llm
+                outputs:
+                  - sourceKey: text
+                    targetScope: flow
+                    targetKey: text
+              - id: tts
+                type: Tts
+                outputs:
+                  - sourceKey: audio
+                    targetScope: flow
+                    targetKey: audio
+              - id: publish
+                type: Publish
+                inputs:
+                  audio: flow.audio
+            edges:
+              - source: __start__
+                target: llm
+              - source: llm
+                target: tts
+                streaming: true
+                bufferSize: 2
+              - source: tts
+                target: publish
+            """;
+
+    /**
+     * 逐句生成的 LLM：每句间隔 50ms，failAt >= 0 时在该句之前失败。
+     */
+    static class SentenceLlm implements StreamingNode {
+        private final int failAt;
+
+        SentenceLlm(int failAt) {
+            this.failAt = failAt;
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Object>> executeStream(Map<String, Object> inputs, DataStreamer streamer) {
+            return CompletableFuture.supplyAsync(() -> {
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i < 5; i++) {
+                    if (i == failAt) {
+                        throw new IllegalStateException("生成中断");
+                    }
+                    String sentence = "s" + i + ".";
+                    streamer.stream(sentence);
+                    text.append(sentence);
+                    sleep(50);
+                }
+                return Map.of("text", text.toString());
+            });
+        }
+    }
+
+    /**
+     * 逐句合成的 TTS：记录收到第一句的时间。
+     */
+    static class SentenceTts implements StreamingInputNode {
+        final AtomicLong firstChunkAt = new AtomicLong();
+
+        @Override
+        public CompletableFuture<Map<String, Object>> executeStreaming(Map<String, Object> inputs, StreamInput stream) {
+            return CompletableFuture.supplyAsync(() -> {
+                List<Object> audio = new ArrayList<>();
+                try {
+                    Object sentence;
+                    while ((sentence = stream.next()) != null) {
+                        firstChunkAt.compareAndSet(0, System.currentTimeMillis());
+                        audio.add("audio(" + sentence + ")");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                }
+                return Map.of("audio", audio);
+            });
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void testDownstreamConsumesChunksWhileUpstreamRuns() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+        SentenceTts tts = new SentenceTts();
+        List<Object> published = new ArrayList<>();
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Llm", new SentenceLlm(-1));
+        nodeRegistry.put("Tts", tts);
+        nodeRegistry.put("Publish", inputs -> {
+            published.add(inputs.get("audio"));
+            return Map.of();
+        });
+
+        long start = System.currentTimeMillis();
+        ScopeContext result = new SynapseEngine(graph, nodeRegistry::get).execute(Map.of());
+
+        assertEquals("s0.s1.s2.s3.s4.", result.getFlow("text").orElse(null));
+        List<String> expected = List.of("audio(s0.)", "audio(s1.)", "audio(s2.)", "audio(s3.)", "audio(s4.)");
+        assertEquals(expected, result.getFlow("audio").orElse(null));
+        assertEquals(List.of(expected), published, "下游节点完成后按普通边继续执行");
+
+        long timeToFirstAudio = tts.firstChunkAt.get() - start;
+        assertTrue(timeToFirstAudio < 200, "下游应在上游完成前收到第一句，实际 " + timeToFirstAudio + "ms");
+    }
+
+    @Test
+    void testUpstreamFailureAbortsStream() throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Llm", new SentenceLlm(2));
+        nodeRegistry.put("Tts", new SentenceTts());
+        nodeRegistry.put("Publish", inputs -> Map.of());
+
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> engine.execute(Map.of()));
+        assertEquals("生成中断", e.getMessage());
+    }
+
+    @Test
+    void testStreamingConditionalEdgeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new YamlGraphBuilder().build("""
+                name: invalid
+                edges:
+                  - source: a
+                    condition: flow.route
+                    streaming: true
+                    mappings:
+                      x: b
+                """));
+    }
+}
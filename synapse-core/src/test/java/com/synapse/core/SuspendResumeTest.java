@@ -0,0 +1,205 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.AdmissionController;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.RunOptions;
+import com.synapse.core.runtime.RunSuspendedException;
+import com.synapse.core.runtime.SuspendedRunStore;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 中断节点挂起与恢复测试。
+ */
+class SuspendResumeTest {
+
+    private static final String YAML = """
+            name: approval_flow
+            nodes:
+              - id: draft
+                type: Draft
+                outputs:
+                  - sourceKey: text
+                    targetScope: flow
+                    targetKey: draft
+              - id: review
+                type: Review
+                interrupt: true
+                inputs:
+                  draft: flow.draft
+                  approved: flow.approved
+                outputs:
+                  - sourceKey: result
+                    targetScope: flow
+                    targetKey: result
+            edges:
+              - source: __start__
+                target: draft
+              - source: draft
+                target: review
+            """;
+
+    private final AtomicInteger drafts = new AtomicInteger();
+
+    private Map<String, Node> registry() {
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Draft", inputs -> {
+            drafts.incrementAndGet();
+            return Map.of("text", "草稿");
+        });
+        nodeRegistry.put("Review", inputs -> Map.of("result",
+                Boolean.TRUE.equals(inputs.get("approved")) ? "已发布: " + inputs.get("draft") : "已驳回"));
+        return nodeRegistry;
+    }
+
+    private SynapseEngine engine(SuspendedRunStore store) throws Exception {
+        EngineOptions options = new EngineOptions();
+        options.setSuspendedRunStore(store);
+        return engine(YAML, options);
+    }
+
+    private SynapseEngine engine(String yaml, EngineOptions options) throws Exception {
+        Graph graph = new YamlGraphBuilder().build(yaml);
+        Map<String, Node> nodeRegistry = registry();
+        return new SynapseEngine(graph, nodeRegistry::get, options);
+    }
+
+    private static RunSuspendedException awaitSuspension(CompletableFuture<ScopeContext> run) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> run.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RunSuspendedException.class, e.getCause());
+        return (RunSuspendedException) e.getCause();
+    }
+
+    @Test
+    void testSuspendAtInterruptAndResumeWithInput() throws Exception {
+        SuspendedRunStore store = new SuspendedRunStore();
+        SynapseEngine engine = engine(store);
+
+        RunOptions options = new RunOptions();
+        options.setRunId("order-1");
+        RunSuspendedException suspended = awaitSuspension(engine.executeAsync(Map.of(), Map.of(), options));
+        assertEquals("order-1", suspended.getRunId());
+        assertEquals(List.of("review"), suspended.getWaitingNodes());
+        assertTrue(store.contains("order-1"));
+
+        ScopeContext result = engine.resume("order-1", Map.of("approved", true)).get(5, TimeUnit.SECONDS);
+
+        assertEquals("已发布: 草稿", result.getFlow("result").orElse(null));
+        assertEquals(1, drafts.get(), "恢复时不应重新执行中断之前的节点");
+        assertFalse(store.contains("order-1"));
+    }
+
+    @Test
+    void testSpillsOldestRunsToDisk(@TempDir Path dir) throws Exception {
+        SuspendedRunStore store = new SuspendedRunStore(Duration.ofMinutes(5), 1, dir);
+        SynapseEngine engine = engine(store);
+
+        // 超长的 runId 不影响溢出文件名
+        RunOptions longId = new RunOptions();
+        longId.setRunId("会话".repeat(200));
+        String first = awaitSuspension(engine.executeAsync(Map.of(), Map.of(), longId)).getRunId();
+        String second = awaitSuspension(engine.executeAsync(Map.of(), Map.of())).getRunId();
+        assertEquals(2, store.size());
+        assertEquals(1, store.getSpilledCount());
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+
+        ScopeContext rejected = engine.resume(first, Map.of("approved", false)).get(5, TimeUnit.SECONDS);
+        ScopeContext approved = engine.resume(second, Map.of("approved", true)).get(5, TimeUnit.SECONDS);
+
+        assertEquals("已驳回", rejected.getFlow("result").orElse(null));
+        assertEquals("已发布: 草稿", approved.getFlow("result").orElse(null));
+        assertEquals(0, store.size());
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testExpiredOrUnknownRunCannotResume() throws Exception {
+        SuspendedRunStore store = new SuspendedRunStore(Duration.ofMillis(50), Integer.MAX_VALUE, null);
+        SynapseEngine engine = engine(store);
+
+        String runId = awaitSuspension(engine.executeAsync(Map.of(), Map.of())).getRunId();
+        Thread.sleep(100);
+
+        ExecutionException expired = assertThrows(ExecutionException.class,
+                () -> engine.resume(runId, Map.of("approved", true)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, expired.getCause());
+        assertEquals(0, store.size());
+        assertThrows(ExecutionException.class, () -> engine.resume("missing", Map.of()).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRejectedResumeKeepsSnapshot() throws Exception {
+        SuspendedRunStore store = new SuspendedRunStore();
+        AdmissionController admission = new AdmissionController(1, 0);
+        EngineOptions options = new EngineOptions();
+        options.setSuspendedRunStore(store);
+        options.setAdmissionController(admission);
+        SynapseEngine engine = engine(YAML, options);
+        String runId = awaitSuspension(engine.executeAsync(Map.of(), Map.of())).getRunId();
+
+        // 并发上限已被占满：恢复被拒绝，运行仍处于挂起状态
+        AdmissionController.Permit held = admission.acquire().get(5, TimeUnit.SECONDS);
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> engine.resume(runId, Map.of("approved", true)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+        assertTrue(store.contains(runId));
+
+        // 在其他图上恢复失败，同样不丢失快照
+        held.release(null);
+        SynapseEngine other = engine(YAML.replace("name: approval_flow", "name: other_flow"), options);
+        assertThrows(ExecutionException.class, () -> other.resume(runId, Map.of()).get(5, TimeUnit.SECONDS));
+        assertTrue(store.contains(runId));
+
+        ScopeContext result = engine.resume(runId, Map.of("approved", true)).get(5, TimeUnit.SECONDS);
+        assertEquals("已发布: 草稿", result.getFlow("result").orElse(null));
+        assertFalse(store.contains(runId));
+    }
+
+    @Test
+    void testSpilledSnapshotIsReadThroughFilter(@TempDir Path dir) throws Exception {
+        SuspendedRunStore store = new SuspendedRunStore(Duration.ofMinutes(5), 0, dir);
+        SynapseEngine engine = engine(store);
+
+        // java.net.URI 可序列化，但不在默认允许的类型中
+        String runId = awaitSuspension(engine.executeAsync(Map.of(), Map.of("link", URI.create("https://example.com"))))
+                .getRunId();
+        assertEquals(1, store.getSpilledCount());
+        ExecutionException blocked = assertThrows(ExecutionException.class,
+                () -> engine.resume(runId, Map.of("approved", true)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, blocked.getCause());
+        assertInstanceOf(InvalidClassException.class, blocked.getCause().getCause());
+
+        store.setDeserializationFilter(
+                ObjectInputFilter.Config.createFilter("java.net.URI;java.lang.*;java.util.*;com.synapse.**;!*"));
+        String allowed = awaitSuspension(engine.executeAsync(Map.of(), Map.of("link", URI.create("https://example.com"))))
+                .getRunId();
+        ScopeContext result = engine.resume(allowed, Map.of("approved", true)).get(5, TimeUnit.SECONDS);
+        assertEquals(URI.create("https://example.com"), result.getFlow("link").orElse(null));
+    }
+}
@@ -0,0 +1,219 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.InProcessTaskTransport;
+import com.synapse.core.runtime.SocketTaskTransport;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.runtime.TaskWorker;
+import com.synapse.core.runtime.WorkerPool;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 工作池派发（TaskTransport）测试。
+ */
+class TaskTransportTest {
+
+    private static final String YAML = """
+            name: worker_flow
+            nodes:
+              - id: prepare
+                type: Prepare
+                inputs:
+                  text: flow.text
+                outputs:
+                  - sourceKey: text
+                    targetScope: flow
+                    targetKey: prepared
+              - id: embed
+                type: Embed
+                inputs:
+                  text: flow.prepared
+                outputs:
+                  - sourceKey: vector
+                    targetScope: flow
+                    targetKey: vector
+                  - sourceKey: thread
+                    targetScope: flow
+                    targetKey: thread
+            edges:
+              - source: __start__
+                target: prepare
+              - source: prepare
+                target: embed
+            workers:
+              Embed: gpu
+            """;
+
+    /**
+     * 编排进程只能实例化 Prepare：Embed 只存在于工作进程中。
+     */
+    private static Node orchestratorFactory(String type) {
+        if ("Prepare".equals(type)) {
+            return inputs -> Map.of("text", ((String) inputs.get("text")).trim());
+        }
+        throw new IllegalStateException("编排进程不应实例化 " + type);
+    }
+
+    private static Node workerFactory(String type) {
+        if ("Echo".equals(type)) {
+            return inputs -> inputs;
+        }
+        if (!"Embed".equals(type)) {
+            return null;
+        }
+        return inputs -> {
+            String text = (String) inputs.get("text");
+            if (text.isEmpty()) {
+                throw new IllegalArgumentException("文本为空");
+            }
+            return Map.of("vector", List.of(text.length(), (int) text.charAt(0)),
+                    "thread", Thread.currentThread().getName());
+        };
+    }
+
+    private static SynapseEngine engine(String yaml, EngineOptions options) throws Exception {
+        Graph graph = new YamlGraphBuilder().build(yaml);
+        return new SynapseEngine(graph, TaskTransportTest::orchestratorFactory, options);
+    }
+
+    @Test
+    void testInProcessTransportRunsRoutedNodesOnWorkerPool() throws Exception {
+        try (InProcessTaskTransport transport = new InProcessTaskTransport()
+                .addPool(new WorkerPool("gpu", TaskTransportTest::workerFactory, 2))) {
+            EngineOptions options = new EngineOptions();
+            options.setTaskTransport(transport);
+            ScopeContext result = engine(YAML, options).executeAsync(Map.of(), Map.of("text", "  abc "))
+                    .get(5, TimeUnit.SECONDS);
+
+            assertEquals(List.of(3, (int) 'a'), result.getFlow("vector").orElse(null));
+            assertTrue(((String) result.getFlow("thread").orElseThrow()).startsWith("synapse-worker-gpu"));
+        }
+    }
+
+    @Test
+    void testSocketTransportDispatchesToLoopbackWorkers() throws Exception {
+        WorkerPool pool = new WorkerPool("gpu", TaskTransportTest::workerFactory, 4);
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (TaskWorker first = new TaskWorker(pool);
+                TaskWorker second = new TaskWorker(pool);
+                SocketTaskTransport transport = new SocketTaskTransport()) {
+            transport.addWorker("gpu", first.start(loopback)).addWorker("gpu", second.start(loopback));
+            EngineOptions options = new EngineOptions();
+            options.setTaskTransport(transport);
+            SynapseEngine engine = engine(YAML, options);
+
+            List<CompletableFuture<ScopeContext>> runs = new ArrayList<>();
+            for (int i = 1; i <= 20; i++) {
+                runs.add(engine.executeAsync(Map.of(), Map.of("text", "x".repeat(i))));
+            }
+            for (int i = 1; i <= 20; i++) {
+                ScopeContext result = runs.get(i - 1).get(5, TimeUnit.SECONDS);
+                assertEquals(List.of(i, (int) 'x'), result.getFlow("vector").orElse(null));
+            }
+
+            // 工作进程中的失败传回编排进程
+            ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> engine.executeAsync(Map.of(), Map.of("text", "   ")).get(5, TimeUnit.SECONDS));
+            assertTrue(String.valueOf(failed.getCause().getMessage()).contains("文本为空"),
+                    String.valueOf(failed.getCause()));
+
+            // 数组按原类型到达工作进程并返回
+            Map<String, Object> echoed = transport.dispatch("gpu", "Echo", Map.of("embedding", new float[] {0.5f, -1f}))
+                    .get(5, TimeUnit.SECONDS);
+            assertArrayEquals(new float[] {0.5f, -1f}, (float[]) echoed.get("embedding"));
+
+            // 工作进程下线后，在途与后续请求失败而不是悬挂
+            first.close();
+            second.close();
+            assertThrows(ExecutionException.class,
+                    () -> engine.executeAsync(Map.of(), Map.of("text", "abc")).get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testUnreachableWorkerIsBackedOff() throws Exception {
+        WorkerPool pool = new WorkerPool("gpu", TaskTransportTest::workerFactory, 2);
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        InetSocketAddress dead;
+        try (ServerSocketChannel probe = ServerSocketChannel.open().bind(loopback)) {
+            dead = (InetSocketAddress) probe.getLocalAddress();
+        }
+        try (TaskWorker live = new TaskWorker(pool);
+                SocketTaskTransport transport = new SocketTaskTransport().setRetryBackoffMillis(60_000)) {
+            transport.addWorker("gpu", dead).addWorker("gpu", live.start(loopback));
+
+            // 派发本身不阻塞在建立连接上；连接失败的地址进入退避，后续请求只发往可用的工作进程
+            int failures = 0;
+            for (int i = 0; i < 10; i++) {
+                try {
+                    Map<String, Object> echoed = transport.dispatch("gpu", "Echo", Map.of("i", i))
+                            .get(5, TimeUnit.SECONDS);
+                    assertEquals(i, echoed.get("i"));
+                } catch (ExecutionException e) {
+                    failures++;
+                }
+            }
+            assertEquals(1, failures);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testWireFormatKeepsArraysAndRejectsUnsupportedValues() throws Exception {
+        try (InProcessTaskTransport transport = new InProcessTaskTransport()
+                .addPool(new WorkerPool("gpu", TaskTransportTest::workerFactory, 1))) {
+            Map<String, Object> inputs = Map.of("floats", new float[] {1.5f}, "doubles", new double[] {2.5},
+                    "ints", new int[] {3}, "longs", new long[] {4L});
+            Map<String, Object> echoed = transport.dispatch("gpu", "Echo", inputs).get(5, TimeUnit.SECONDS);
+            assertArrayEquals(new float[] {1.5f}, (float[]) echoed.get("floats"));
+            assertArrayEquals(new double[] {2.5}, (double[]) echoed.get("doubles"));
+            assertArrayEquals(new int[] {3}, (int[]) echoed.get("ints"));
+            assertArrayEquals(new long[] {4L}, (long[]) echoed.get("longs"));
+
+            // 不支持的类型使派发失败，而不是以 toString() 的结果执行
+            ExecutionException unsupported = assertThrows(ExecutionException.class,
+                    () -> transport.dispatch("gpu", "Echo", Map.of("amount", new BigDecimal("1.10")))
+                            .get(5, TimeUnit.SECONDS));
+            assertTrue(unsupported.getCause().getMessage().contains("BigDecimal"), unsupported.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void testWorkerDeclarationsAreValidated() throws Exception {
+        IllegalStateException missingTransport = assertThrows(IllegalStateException.class,
+                () -> engine(YAML, new EngineOptions()));
+        assertTrue(missingTransport.getMessage().contains("TaskTransport"));
+
+        // 单个节点的 worker 声明覆盖按类型的配置：Prepare 也派发到工作池，而该池中没有 Prepare
+        try (InProcessTaskTransport transport = new InProcessTaskTransport()
+                .addPool(new WorkerPool("gpu", TaskTransportTest::workerFactory, 1))) {
+            EngineOptions options = new EngineOptions();
+            options.setTaskTransport(transport);
+            String perNode = YAML.replace("    type: Prepare\n", "    type: Prepare\n    worker: gpu\n");
+            ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> engine(perNode, options).executeAsync(Map.of(), Map.of("text", "abc"))
+                            .get(5, TimeUnit.SECONDS));
+            assertTrue(failed.getCause().getMessage().contains("Prepare"), failed.getCause().getMessage());
+        }
+    }
+}
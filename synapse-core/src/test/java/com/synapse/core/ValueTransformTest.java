@@ -0,0 +1,142 @@
+package com.synapse.core;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.graph.ValuePath;
+import com.synapse.core.graph.ValueTransform;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 输出映射内联变换（transform）测试。
+ */
+class ValueTransformTest {
+
+    private static final Map<String, Object> ORDER = Map.of(
+            "user", Map.of("name", "小明", "tags", List.of("vip", "new")),
+            "items", List.of(Map.of("title", "键盘", "price", 199), Map.of("title", "鼠标", "price", 99)),
+            "status", " Paid ");
+
+    @Test
+    void testStepsAndPipelines() {
+        assertEquals("小明", ValueTransform.compile(".user.name").apply(ORDER));
+        assertEquals("new", ValueTransform.compile(".user.tags[1]").apply(ORDER));
+        assertEquals("小明", ValueTransform.compile(".['user'].name").apply(ORDER));
+        assertSame(ORDER, ValueTransform.compile(".").apply(ORDER));
+        assertEquals("键盘; 鼠标", ValueTransform.compile(".items | pluck(title) | join('; ')").apply(ORDER));
+        assertEquals("PAID", ValueTransform.compile(".status | trim | upper").apply(ORDER));
+        assertEquals(2, ValueTransform.compile(".items | size").apply(ORDER));
+        assertEquals(99, ValueTransform.compile(".items | last | .price").apply(ORDER));
+        assertEquals("小明 买了 键盘", ValueTransform.compile("template('{user.name} 买了 {items[0].title}')").apply(ORDER));
+        assertEquals("x=", ValueTransform.compile("template('x={missing}')").apply(ORDER));
+        assertEquals(Map.of("customer", Map.of("name", "小明", "tags", List.of("vip", "new"))),
+                ValueTransform.compile("pick(user) | rename(user: customer)").apply(ORDER));
+        assertEquals(List.of("a", "b", ""), ValueTransform.compile("split(',')").apply("a,b,"));
+        assertEquals(42L, ValueTransform.compile("number").apply("42"));
+        assertNull(ValueTransform.compile(".missing | upper").apply(ORDER));
+        assertEquals("n/a", ValueTransform.compile(".missing | default('n/a')").apply(ORDER));
+        assertEquals("n/a", ValueTransform.compile("default('n/a')").apply(null));
+
+        // 下标与 EXPR 条件同一套取值规则：任意整数值的 Number 均可作下标
+        List<String> tags = List.of("vip", "new");
+        assertEquals("new", ValuePath.member(tags, 1));
+        assertEquals("new", ValuePath.member(tags, 1L));
+        assertEquals("new", ValuePath.member(tags, 1.0));
+        assertNull(ValuePath.member(tags, 1.5));
+        assertNull(ValuePath.member(tags, 2L));
+        assertEquals("vip", ValuePath.resolve(ORDER, List.of("user", "tags", 0L)));
+    }
+
+    @Test
+    void testInvalidTransformsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ValueTransform.compile("shout"));
+        assertThrows(IllegalArgumentException.class, () -> ValueTransform.compile(".a |"));
+        assertThrows(IllegalArgumentException.class, () -> ValueTransform.compile("join(',', ';')"));
+        assertThrows(IllegalArgumentException.class, () -> ValueTransform.compile("template('{a')"));
+        assertThrows(IllegalArgumentException.class, () -> ValueTransform.compile("upper(1)"));
+        assertThrows(IllegalStateException.class, () -> ValueTransform.compile("join").apply("not a list"));
+    }
+
+    @Test
+    void testTransformsReplaceGlueNodes() throws Exception {
+        String yaml = """
+                name: transform_flow
+                nodes:
+                  - id: fetch
+                    type: Fetch
+                    outputs:
+                      - sourceKey: order
+                        targetScope: flow
+                        targetKey: customer
+                        transform: ".user.name"
+                      - sourceKey: order
+                        targetScope: flow
+                        targetKey: titles
+                        transform: ".items | pluck(title)"
+                      - sourceKey: "*"
+                        targetScope: flow
+                        targetKey: summary
+                        transform: "template('{order.user.name}（{source}）')"
+                      - sourceKey: order
+                        targetKey: missing
+                        transform: ".nothing"
+                      - sourceKey: coupon
+                        targetScope: flow
+                        targetKey: coupon
+                        transform: "default('none')"
+                  - id: notify
+                    type: Notify
+                    inputs:
+                      name: flow.customer
+                      titles: flow.titles
+                    outputs:
+                      - sourceKey: text
+                        targetScope: flow
+                        targetKey: text
+                edges:
+                  - source: __start__
+                    target: fetch
+                  - source: fetch
+                    target: notify
+                """;
+        AtomicInteger fetchCalls = new AtomicInteger();
+        Map<String, Node> nodeRegistry = new HashMap<>();
+        nodeRegistry.put("Fetch", inputs -> {
+            fetchCalls.incrementAndGet();
+            return Map.of("order", ORDER, "source", "web");
+        });
+        nodeRegistry.put("Notify", inputs -> Map.of("text", inputs.get("name") + ":" + inputs.get("titles")));
+        Graph graph = new YamlGraphBuilder().build(yaml);
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get);
+
+        ScopeContext result = engine.executeAsync(Map.of(), Map.of()).get(5, TimeUnit.SECONDS);
+
+        assertEquals("小明", result.getFlow("customer").orElse(null));
+        assertEquals("小明（web）", result.getFlow("summary").orElse(null));
+        assertEquals("小明:[键盘, 鼠标]", result.getFlow("text").orElse(null));
+        assertTrue(result.getNodeOutput("fetch", "missing").isEmpty(), "变换结果为 null 时跳过");
+        assertEquals("none", result.getFlow("coupon").orElse(null), "源输出缺失时 default 仍然生效");
+        assertEquals(1, fetchCalls.get());
+
+        // 变换语法错误在加载时暴露；运行时类型不适用使节点失败
+        assertThrows(IllegalArgumentException.class,
+                () -> new YamlGraphBuilder().build(yaml.replace("\".user.name\"", "\".user.name | shout\"")));
+        Graph failing = new YamlGraphBuilder().build(yaml.replace("\".user.name\"", "\".user.name | first\""));
+        ExecutionException failed = assertThrows(ExecutionException.class,
+                () -> new SynapseEngine(failing, nodeRegistry::get).executeAsync(Map.of(), Map.of())
+                        .get(5, TimeUnit.SECONDS));
+        assertTrue(String.valueOf(failed.getCause().getMessage()).contains("transform"),
+                String.valueOf(failed.getCause()));
+    }
+}
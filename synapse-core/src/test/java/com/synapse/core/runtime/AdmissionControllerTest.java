@@ -0,0 +1,142 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 运行级准入控制与过载保护测试。
+ */
+class AdmissionControllerTest {
+
+    @Test
+    void testRejectsWhenInFlightAndQueueAreFull() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: admission_test
+                nodes:
+                  - id: llm
+                    type: Llm
+                edges:
+                  - source: __start__
+                    target: llm
+                """);
+
+        CompletableFuture<Map<String, Object>> gate = new CompletableFuture<>();
+        AsyncNode llm = inputs -> gate.thenApply(v -> Map.of("answer", "ok"));
+
+        AdmissionController admission = new AdmissionController(2, 1);
+        EngineOptions options = new EngineOptions();
+        options.setAdmissionController(admission);
+        SynapseEngine engine = new SynapseEngine(graph, type -> llm, options);
+
+        CompletableFuture<ScopeContext> first = engine.executeAsync(Map.of(), Map.of());
+        CompletableFuture<ScopeContext> second = engine.executeAsync(Map.of(), Map.of());
+        CompletableFuture<ScopeContext> queued = engine.executeAsync(Map.of(), Map.of());
+        CompletableFuture<ScopeContext> shed = engine.executeAsync(Map.of(), Map.of());
+
+        assertEquals(2, admission.getInFlight());
+        assertEquals(1, admission.getQueued());
+        CompletionException e = assertThrows(CompletionException.class, shed::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(1, admission.getRejectedCount());
+
+        gate.complete(Map.of());
+        CompletableFuture.allOf(first, second, queued).get(5, TimeUnit.SECONDS);
+        assertEquals("ok", queued.join().getNodeOutput("llm", "answer").orElse(null));
+        assertEquals(0, admission.getInFlight());
+        assertEquals(0, admission.getQueued());
+    }
+
+    @Test
+    void testCancellingAdmittedFutureDequeuesOrCancelsRun() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: admission_cancel
+                nodes:
+                  - id: llm
+                    type: Llm
+                edges:
+                  - source: __start__
+                    target: llm
+                """);
+
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Map<String, Object>> gate = new CompletableFuture<>();
+        AsyncNode llm = inputs -> {
+            calls.incrementAndGet();
+            return gate.thenApply(v -> Map.of("answer", "ok"));
+        };
+
+        AdmissionController admission = new AdmissionController(1, 4);
+        EngineOptions options = new EngineOptions();
+        options.setAdmissionController(admission);
+        SynapseEngine engine = new SynapseEngine(graph, type -> llm, options);
+
+        CompletableFuture<ScopeContext> running = engine.executeAsync(Map.of(), Map.of());
+        CompletableFuture<ScopeContext> queued = engine.executeAsync(Map.of(), Map.of());
+        assertEquals(1, admission.getQueued());
+
+        // 排队中的运行被取消：移出队列，之后有名额时也不会启动
+        assertTrue(queued.cancel(false));
+        assertEquals(0, admission.getQueued());
+
+        // 已启动的运行被取消：运行本身被取消并归还许可
+        assertTrue(running.cancel(false));
+        assertEquals(0, admission.getInFlight());
+        CompletableFuture<ScopeContext> next = engine.executeAsync(Map.of(), Map.of());
+        gate.complete(Map.of());
+        assertEquals("ok", next.get(5, TimeUnit.SECONDS).getNodeOutput("llm", "answer").orElse(null));
+        assertEquals(2, calls.get(), "被取消的排队运行不应启动");
+    }
+
+    @Test
+    void testQueuedRunTimesOut() {
+        AdmissionController admission = new AdmissionController(1, 4);
+        admission.setQueueTimeoutMillis(50);
+
+        AdmissionController.Permit held = admission.acquire().join();
+        CompletableFuture<AdmissionController.Permit> waiting = admission.acquire();
+
+        CompletionException e = assertThrows(CompletionException.class, waiting::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(0, admission.getQueued());
+
+        held.release(null);
+        assertEquals(0, admission.getInFlight());
+    }
+
+    @Test
+    void testAdaptiveLimitFollowsLatency() {
+        AdmissionController admission = AdmissionController.adaptive(4, 1, 8, 0);
+        long fast = TimeUnit.MILLISECONDS.toNanos(10);
+        long slow = TimeUnit.MILLISECONDS.toNanos(100);
+
+        // 稳定的低延迟：加性增长到上界
+        for (int i = 0; i < 100; i++) {
+            admission.acquire().join().release(fast, false);
+        }
+        assertEquals(8, admission.getLimit());
+
+        // 延迟升高：乘性下调
+        for (int i = 0; i < 5; i++) {
+            admission.acquire().join().release(slow, false);
+        }
+        assertTrue(admission.getLimit() < 8, "延迟升高后应下调并发上限，实际 " + admission.getLimit());
+
+        // 超时同样视为拥塞信号，且不低于下界
+        for (int i = 0; i < 50; i++) {
+            admission.acquire().join().release(fast, true);
+        }
+        assertEquals(1, admission.getLimit());
+    }
+}
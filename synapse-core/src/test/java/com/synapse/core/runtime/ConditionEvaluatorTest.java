@@ -1,7 +1,9 @@
 package com.synapse.core.runtime;
 
 import com.synapse.core.graph.EdgeDefinition;
+import com.synapse.core.state.BlobHandle;
 import com.synapse.core.state.DefaultScopeContext;
+import com.synapse.core.state.OffHeapBlobStore;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
@@ -110,4 +112,26 @@ class ConditionEvaluatorTest {
         String result = evaluator.evaluate(EdgeDefinition.ConditionType.KV, "flow.retry_count", mappings, context);
         assertEquals("give_up", result);
     }
+
+    @Test
+    void testBlobBackedValuesAreMaterialized() {
+        OffHeapBlobStore store = new OffHeapBlobStore(4, 1024, 4096, null);
+        BlobHandle status = store.put("approved");
+        BlobHandle level = store.put("critical");
+        DefaultScopeContext context = new DefaultScopeContext();
+        context.putFlow("status", status);
+        context.putNodeOutput("risk_check", "risk_level", level);
+
+        assertEquals("pass_node", evaluator.evaluate(EdgeDefinition.ConditionType.KV, "flow.status",
+                Map.of("approved", "pass_node"), context));
+        assertEquals("escalate", evaluator.evaluate(EdgeDefinition.ConditionType.KV, "nodes.risk_check.risk_level",
+                Map.of("critical", "escalate"), context));
+        assertEquals("pass_node", evaluator.evaluate(EdgeDefinition.ConditionType.EXPR,
+                "flow.status == 'approved'", Map.of("true", "pass_node"), context));
+
+        // 条件评估不改变上下文中的句柄
+        assertSame(status, context.getFlow("status").orElse(null));
+        status.release();
+        level.release();
+    }
 }
@@ -0,0 +1,60 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.graph.EdgeDefinition;
+import com.synapse.core.state.DefaultScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内置 EXPR 表达式条件的单元测试。
+ */
+class ExpressionConditionTest {
+
+    private final ConditionEvaluator evaluator = new ConditionEvaluator();
+
+    private Object eval(String expression, DefaultScopeContext context) {
+        return evaluator.prepare("expr", expression).evaluate(context);
+    }
+
+    @Test
+    void testTernaryComparisonRoutes() {
+        DefaultScopeContext context = new DefaultScopeContext();
+        Map<String, String> mappings = Map.of("pass", "pass_node", "reject", "reject_node");
+
+        context.putFlow("score", 85);
+        assertEquals("pass_node", evaluator.evaluate(EdgeDefinition.ConditionType.EXPR,
+                "flow.score > 60 ? 'pass' : 'reject'", mappings, context));
+
+        context.putFlow("score", 42.5);
+        assertEquals("reject_node", evaluator.evaluate(EdgeDefinition.ConditionType.EXPR,
+                "flow.score > 60 ? 'pass' : 'reject'", mappings, context));
+    }
+
+    @Test
+    void testBooleanLogicAndNullSafePaths() {
+        DefaultScopeContext context = new DefaultScopeContext(Map.of("env", "prod"), Map.of());
+        context.putFlow("user", Map.of("tags", List.of("vip", "new"), "age", 30));
+        context.putNodeOutput("risk", "level", "high");
+
+        assertEquals(true, eval("global.env == 'prod' && flow.user.age >= 18", context));
+        assertEquals("vip", eval("flow.user.tags[0]", context));
+        assertEquals(true, eval("nodes.risk.level == \"high\" || flow.missing.deep > 1", context));
+        assertNull(eval("flow.missing?.deep[3]", context), "缺失路径应得到 null");
+        assertEquals(false, eval("flow.missing > 1", context), "与 null 的大小比较为 false");
+        assertEquals(true, eval("!flow.missing && (1 + 2) * 3 == 9", context));
+        assertEquals("level-high", eval("'level-' + nodes.risk.level", context));
+    }
+
+    @Test
+    void testSyntaxErrorsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> evaluator.prepare("expr", "flow.score >"));
+        assertThrows(IllegalArgumentException.class, () -> evaluator.prepare("expr", "flow.a ? 'x'"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> evaluator.prepare("expr", "session.id == 1"));
+        assertTrue(e.getMessage().contains("session"));
+    }
+}
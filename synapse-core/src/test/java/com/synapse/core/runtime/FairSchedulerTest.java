@@ -0,0 +1,153 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 优先级通道与多租户加权公平调度测试。
+ */
+class FairSchedulerTest {
+
+    private static final String YAML = """
+            name: scheduler_test
+            nodes:
+              - id: work
+                type: Work
+                inputs:
+                  tag: flow.tag
+            edges:
+              - source: __start__
+                target: work
+            """;
+
+    /**
+     * 记录节点的启动顺序；tag 为 "gate" 的调用一直占用名额直到 gate 完成。
+     */
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<Void> gate = new CompletableFuture<>();
+    private final AsyncNode work = inputs -> {
+        String tag = (String) inputs.get("tag");
+        started.add(tag);
+        return "gate".equals(tag)
+                ? gate.thenApply(v -> Map.<String, Object>of())
+                : CompletableFuture.completedFuture(Map.of());
+    };
+
+    private SynapseEngine engine(FairScheduler scheduler) throws Exception {
+        Graph graph = new YamlGraphBuilder().build(YAML);
+        EngineOptions options = new EngineOptions();
+        options.setScheduler(scheduler);
+        return new SynapseEngine(graph, type -> work, options);
+    }
+
+    private static CompletableFuture<ScopeContext> submit(SynapseEngine engine, String tag,
+            RunOptions.Priority priority, String tenant) {
+        RunOptions options = new RunOptions();
+        options.setPriority(priority);
+        options.setTenantId(tenant);
+        return engine.executeAsync(Map.of(), Map.of("tag", tag), options);
+    }
+
+    private static void awaitAll(List<CompletableFuture<ScopeContext>> runs) throws Exception {
+        CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testInteractiveLaneStartsBeforeQueuedBatch() throws Exception {
+        FairScheduler scheduler = new FairScheduler(1);
+        SynapseEngine engine = engine(scheduler);
+
+        List<CompletableFuture<ScopeContext>> runs = new ArrayList<>();
+        runs.add(submit(engine, "gate", RunOptions.Priority.BATCH, "batch"));
+        for (int i = 0; i < 5; i++) {
+            runs.add(submit(engine, "batch" + i, RunOptions.Priority.BATCH, "batch"));
+        }
+        runs.add(submit(engine, "chat", RunOptions.Priority.INTERACTIVE, "chat"));
+
+        assertEquals(5, scheduler.getQueueDepth(RunOptions.Priority.BATCH));
+        assertEquals(1, scheduler.getQueueDepth(RunOptions.Priority.INTERACTIVE));
+
+        gate.complete(null);
+        awaitAll(runs);
+
+        assertEquals(List.of("gate", "chat", "batch0", "batch1", "batch2", "batch3", "batch4"), started);
+        Map<RunOptions.Priority, FairScheduler.LaneMetrics> metrics = scheduler.getLaneMetrics();
+        assertEquals(6, metrics.get(RunOptions.Priority.BATCH).getDispatched());
+        assertEquals(1, metrics.get(RunOptions.Priority.INTERACTIVE).getDispatched());
+        assertEquals(0, metrics.get(RunOptions.Priority.BATCH).getQueueDepth());
+        assertEquals(0, scheduler.getActive());
+    }
+
+    @Test
+    void testTenantsShareLaneFairly() throws Exception {
+        FairScheduler scheduler = new FairScheduler(1);
+        SynapseEngine engine = engine(scheduler);
+
+        List<CompletableFuture<ScopeContext>> runs = new ArrayList<>();
+        runs.add(submit(engine, "gate", RunOptions.Priority.NORMAL, "gate"));
+        for (int i = 0; i < 6; i++) {
+            runs.add(submit(engine, "a" + i, RunOptions.Priority.NORMAL, "bulk"));
+        }
+        runs.add(submit(engine, "b0", RunOptions.Priority.NORMAL, "small"));
+        runs.add(submit(engine, "b1", RunOptions.Priority.NORMAL, "small"));
+
+        gate.complete(null);
+        awaitAll(runs);
+
+        // 后提交的小租户不必等待大租户的全部积压
+        assertEquals(List.of("gate", "a0", "b0", "a1", "b1", "a2", "a3", "a4", "a5"), started);
+    }
+
+    @Test
+    void testTenantWeightsShiftShare() throws Exception {
+        FairScheduler scheduler = new FairScheduler(1);
+        scheduler.setTenantWeight("gold", 3);
+        SynapseEngine engine = engine(scheduler);
+
+        List<CompletableFuture<ScopeContext>> runs = new ArrayList<>();
+        runs.add(submit(engine, "gate", RunOptions.Priority.NORMAL, "gate"));
+        for (int i = 0; i < 4; i++) {
+            runs.add(submit(engine, "s" + i, RunOptions.Priority.NORMAL, "silver"));
+        }
+        for (int i = 0; i < 4; i++) {
+            runs.add(submit(engine, "g" + i, RunOptions.Priority.NORMAL, "gold"));
+        }
+
+        gate.complete(null);
+        awaitAll(runs);
+
+        List<String> firstFive = started.subList(1, 6);
+        assertEquals(4, firstFive.stream().filter(tag -> tag.startsWith("g")).count(),
+                "权重为 3 的租户应在前几次调度中占多数: " + started);
+        assertThrows(IllegalArgumentException.class, () -> scheduler.setTenantWeight("x", 0));
+    }
+
+    @Test
+    void testSynchronousCompletionsDoNotRecurse() throws Exception {
+        FairScheduler scheduler = new FairScheduler(1);
+        CompletableFuture<Object> gate = new CompletableFuture<>();
+        List<CompletableFuture<Object>> queued = new ArrayList<>();
+        queued.add(scheduler.submit(RunOptions.Priority.NORMAL, "t", () -> gate));
+        // 大量同步完成的激活排在名额之后：逐个唤醒时不应递归导致栈溢出
+        for (int i = 0; i < 50_000; i++) {
+            Object value = i;
+            queued.add(scheduler.submit(RunOptions.Priority.NORMAL, "t", () -> CompletableFuture.completedFuture(value)));
+        }
+        gate.complete("gate");
+        CompletableFuture.allOf(queued.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(49_999, queued.get(50_000).join());
+        assertEquals(0, scheduler.getActive());
+    }
+}
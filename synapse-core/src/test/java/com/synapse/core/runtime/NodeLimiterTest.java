@@ -0,0 +1,103 @@
+package com.synapse.core.runtime;
+
+import com.synapse.core.config.YamlGraphBuilder;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.graph.NodeLimit;
+import com.synapse.core.node.AsyncNode;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按节点类型的限流与舱壁测试。
+ */
+class NodeLimiterTest {
+
+    @Test
+    void testBulkheadQueuesAcrossRuns() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: bulkhead_test
+                limits:
+                  Llm:
+                    maxConcurrency: 2
+                nodes:
+                  - id: llm
+                    type: Llm
+                edges:
+                  - source: __start__
+                    target: llm
+                """);
+        assertEquals(2, graph.getLimits().get("Llm").getMaxConcurrency());
+
+        CompletableFuture<Map<String, Object>> gate = new CompletableFuture<>();
+        AsyncNode llm = inputs -> gate.thenApply(v -> Map.of("answer", "ok"));
+        SynapseEngine engine = new SynapseEngine(graph, type -> llm);
+
+        List<CompletableFuture<ScopeContext>> runs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            runs.add(engine.executeAsync(Map.of(), Map.of()));
+        }
+
+        NodeLimiter limiter = engine.getNodeLimiter("Llm");
+        assertEquals(2, limiter.getActive());
+        assertEquals(4, limiter.getQueueDepth());
+
+        gate.complete(Map.of());
+        CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(0, limiter.getActive());
+        assertEquals(0, limiter.getQueueDepth());
+    }
+
+    @Test
+    void testTokenBucketSpacesCalls() throws Exception {
+        NodeLimit limit = new NodeLimit();
+        limit.setRatePerSecond(20);
+        limit.setBurst(1);
+        NodeLimiter limiter = new NodeLimiter("Search", limit);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> calls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            calls.add(limiter.submit(() -> CompletableFuture.completedFuture(System.nanoTime())));
+        }
+        assertEquals(4, limiter.getQueueDepth(), "令牌不足的调用应排队而不是阻塞");
+
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(calls.get(4).join() - start);
+        assertTrue(elapsedMs >= 150, "20/s 的速率下 5 次调用应至少间隔约 200ms，实际 " + elapsedMs + "ms");
+    }
+
+    @Test
+    void testRejectsWhenQueueFullAndCancelsQueuedCall() {
+        NodeLimit limit = new NodeLimit();
+        limit.setMaxConcurrency(1);
+        limit.setMaxQueued(1);
+        NodeLimiter limiter = new NodeLimiter("Llm", limit);
+
+        CompletableFuture<String> gate = new CompletableFuture<>();
+        CompletableFuture<String> running = limiter.submit(() -> gate);
+        CompletableFuture<String> queued = limiter.submit(() -> CompletableFuture.completedFuture("queued"));
+        CompletableFuture<String> shed = limiter.submit(() -> CompletableFuture.completedFuture("shed"));
+
+        CompletionException e = assertThrows(CompletionException.class, shed::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(1, limiter.getRejectedCount());
+
+        // 取消排队中的调用会将其移出队列
+        queued.cancel(true);
+        assertEquals(0, limiter.getQueueDepth());
+
+        gate.complete("done");
+        assertEquals("done", running.join());
+        assertEquals(0, limiter.getActive());
+    }
+}
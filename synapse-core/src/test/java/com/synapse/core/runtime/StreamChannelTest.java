@@ -0,0 +1,76 @@
+package com.synapse.core.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式边缓冲区的非阻塞读取、线程池补偿与上游中断测试。
+ */
+class StreamChannelTest {
+
+    @Test
+    void testNextAsyncWaitsWithoutThread() throws Exception {
+        StreamChannel channel = new StreamChannel(2);
+        channel.stream("a");
+        assertEquals("a", channel.nextAsync().get(1, TimeUnit.SECONDS));
+
+        CompletableFuture<Object> pending = channel.nextAsync();
+        assertFalse(pending.isDone());
+        channel.stream("b");
+        assertEquals("b", pending.get(1, TimeUnit.SECONDS));
+
+        CompletableFuture<Object> end = channel.nextAsync();
+        channel.close(null);
+        assertNull(end.get(1, TimeUnit.SECONDS));
+        assertNull(channel.nextAsync().get(1, TimeUnit.SECONDS));
+
+        StreamChannel failing = new StreamChannel(2);
+        CompletableFuture<Object> aborted = failing.nextAsync();
+        failing.close(new IllegalStateException("上游失败"));
+        CompletionException e = assertThrows(CompletionException.class, aborted::join);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void testBlockedReaderDoesNotStarvePool() throws Exception {
+        // 单线程池：读取方阻塞时线程池补偿线程，写入方仍能运行
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            StreamChannel channel = new StreamChannel(1);
+            ForkJoinTask<Object> reader = pool.submit(() -> channel.next());
+            Thread.sleep(50);
+            pool.submit(() -> channel.stream("chunk"));
+            assertEquals("chunk", reader.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInterruptedProducerFailsChannel() throws Exception {
+        StreamChannel channel = new StreamChannel(1);
+        channel.stream("first");
+        AtomicBoolean stillInterrupted = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            channel.stream("second"); // 缓冲区已满，等待
+            stillInterrupted.set(Thread.currentThread().isInterrupted());
+        });
+        producer.start();
+        Thread.sleep(50);
+        producer.interrupt();
+        producer.join(5000);
+
+        assertTrue(stillInterrupted.get(), "应恢复中断标记");
+        assertEquals("first", channel.next());
+        CompletionException e = assertThrows(CompletionException.class, channel::next);
+        assertInstanceOf(InterruptedException.class, e.getCause(), "未送达的数据块使通道失败");
+    }
+}
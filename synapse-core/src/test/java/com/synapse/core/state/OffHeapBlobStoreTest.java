@@ -0,0 +1,202 @@
+package com.synapse.core.state;
+
+import com.synapse.core.graph.Graph;
+import com.synapse.core.graph.NodeDefinition;
+import com.synapse.core.node.BlobHandleAware;
+import com.synapse.core.node.Node;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.RunOptions;
+import com.synapse.core.runtime.SynapseEngine;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OffHeapBlobStore 及其在引擎中透明使用的单元测试。
+ */
+class OffHeapBlobStoreTest {
+
+    @Test
+    void testRoundTripAndPooling() {
+        OffHeapBlobStore store = new OffHeapBlobStore(16, 1024, 4096, null);
+
+        String text = "Synapse 大文本 ".repeat(10);
+        assertTrue(store.shouldOffload(text));
+        assertFalse(store.shouldOffload("short"));
+        assertFalse(store.shouldOffload(42));
+
+        BlobHandle handle = store.put(text);
+        assertEquals(BlobHandle.Kind.STRING, handle.getKind());
+        assertEquals(text, handle.materialize());
+        assertTrue(store.getBytesInUse() > 0);
+
+        handle.release();
+        handle.release(); // 重复释放是安全的
+        assertTrue(handle.isReleased());
+        assertEquals(0, store.getBytesInUse());
+        assertTrue(store.getPooledBytes() > 0, "释放后的缓冲区应归还池中");
+
+        float[] embedding = new float[64];
+        Arrays.fill(embedding, 0.5f);
+        BlobHandle floats = store.put(embedding);
+        assertEquals(0.5f, floats.asFloatBuffer().get(63));
+        assertArrayEquals(embedding, (float[]) floats.materialize());
+        floats.release();
+    }
+
+    @Test
+    void testExposedBufferIsNotRecycled() {
+        OffHeapBlobStore store = new OffHeapBlobStore(16, 1024, 4096, null);
+        byte[] first = new byte[100];
+        Arrays.fill(first, (byte) 1);
+        byte[] second = new byte[100];
+        Arrays.fill(second, (byte) 2);
+
+        BlobHandle viewed = store.put(first);
+        ByteBuffer view = viewed.asByteBuffer();
+        viewed.release();
+        assertEquals(0, store.getBytesInUse());
+        assertEquals(0, store.getPooledBytes(), "交出过视图的缓冲区不应归还池中");
+        assertThrows(IllegalStateException.class, viewed::asByteBuffer);
+
+        BlobHandle reused = store.put(second);
+        assertEquals(1, view.get(99), "释放后仍存活的视图应读到原来的数据");
+        reused.materialize();
+        reused.release();
+        assertTrue(store.getPooledBytes() > 0, "只物化过的缓冲区应归还池中");
+    }
+
+    @Test
+    void testMemoryMappedLargeBlob() {
+        OffHeapBlobStore store = new OffHeapBlobStore(16, 64, 0, null);
+
+        byte[] payload = new byte[4096];
+        Arrays.fill(payload, (byte) 7);
+        BlobHandle handle = store.put(payload);
+
+        assertEquals(4096, handle.asByteBuffer().remaining());
+        assertArrayEquals(payload, (byte[]) handle.materialize());
+        handle.release();
+        assertEquals(0, store.getBytesInUse());
+    }
+
+    /**
+     * 理解句柄的节点。
+     */
+    static class HandleAwareNode implements Node, BlobHandleAware {
+        private final AtomicReference<Object> received;
+
+        HandleAwareNode(AtomicReference<Object> received) {
+            this.received = received;
+        }
+
+        @Override
+        public Map<String, Object> execute(Map<String, Object> inputs) {
+            received.set(inputs.get("doc"));
+            return Map.of("size", ((BlobHandle) inputs.get("doc")).getLength());
+        }
+    }
+
+    @Test
+    void testEngineOffloadsLargeOutputsTransparently() throws Exception {
+        Graph graph = new Graph("blob_test");
+        graph.addNode(new NodeDefinition("loader", "Loader", null,
+                List.of(new NodeDefinition.OutputMapping("doc", "flow", "doc"))));
+        graph.addNode(new NodeDefinition("plain", "Plain", Map.of("doc", "flow.doc"), null));
+        graph.addNode(new NodeDefinition("aware", "Aware", Map.of("doc", "flow.doc"), null));
+        graph.addEdge(Graph.START, "loader");
+        graph.addEdge("loader", "plain");
+        graph.addEdge("plain", "aware");
+        graph.addEdge("aware", Graph.END);
+
+        String document = "x".repeat(1000);
+        AtomicReference<Object> plainReceived = new AtomicReference<>();
+        AtomicReference<Object> awareReceived = new AtomicReference<>();
+
+        Map<String, Node> nodeRegistry = Map.of(
+                "Loader", inputs -> Map.of("doc", document),
+                "Plain", inputs -> {
+                    plainReceived.set(inputs.get("doc"));
+                    return Map.of();
+                },
+                "Aware", new HandleAwareNode(awareReceived));
+
+        OffHeapBlobStore store = new OffHeapBlobStore(128, 4096, 1 << 20, null);
+        EngineOptions options = new EngineOptions();
+        options.setBlobStore(store);
+
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get, options);
+        ScopeContext result = engine.execute(Map.of());
+
+        assertEquals(document, plainReceived.get(), "普通节点应收到物化后的字符串");
+        assertInstanceOf(BlobHandle.class, awareReceived.get(), "理解句柄的节点应直接收到句柄");
+        assertEquals(1000, result.getNodeOutput("aware", "size").orElse(null));
+
+        // 运行结束后上下文中只有普通值，堆外缓冲区全部归还
+        assertEquals(document, result.getFlow("doc").orElse(null));
+        assertEquals(0, store.getBytesInUse());
+    }
+
+    @Test
+    void testPassedThroughHandleOutlivesItsProducer() throws Exception {
+        Graph graph = new Graph("blob_pass_through");
+        graph.addNode(new NodeDefinition("a", "Loader", null, null));
+        graph.addNode(new NodeDefinition("b", "PassThrough", Map.of("doc", "nodes.a.doc"), null));
+        graph.addNode(new NodeDefinition("c", "Length", Map.of("doc", "nodes.b.doc"),
+                List.of(new NodeDefinition.OutputMapping("len", "flow", "len"))));
+        graph.addEdge(Graph.START, "a");
+        graph.addEdge("a", "b");
+        graph.addEdge("b", "c");
+        graph.addEdge("c", Graph.END);
+
+        String document = "y".repeat(1000);
+        Map<String, Node> nodeRegistry = Map.of(
+                "Loader", inputs -> Map.of("doc", document),
+                "PassThrough", new PassThroughNode(),
+                "Length", inputs -> Map.of("len", ((String) inputs.get("doc")).length()));
+
+        OffHeapBlobStore store = new OffHeapBlobStore(128, 4096, 1 << 20, null);
+        EngineOptions options = new EngineOptions();
+        options.setBlobStore(store);
+        SynapseEngine engine = new SynapseEngine(graph, nodeRegistry::get, options);
+
+        // a 的输出在 b 完成后不再存活并被释放，b 原样输出的同一句柄仍须有效
+        ScopeContext result = engine.executeAsync(Map.of(), Map.of(), RunOptions.retaining("flow.len")).join();
+        assertEquals(1000, result.getFlow("len").orElse(null));
+        assertEquals(0, store.getBytesInUse());
+    }
+
+    @Test
+    void testOverwrittenHandleIsReleased() {
+        OffHeapBlobStore store = new OffHeapBlobStore(16, 1024, 4096, null);
+        DefaultScopeContext context = new DefaultScopeContext();
+        BlobHandle first = store.put("a".repeat(100));
+        context.putFlow("doc", first);
+        context.putFlow("doc", store.put("b".repeat(100)));
+        assertTrue(first.isReleased(), "被覆盖的句柄应被释放");
+
+        BlobHandle shared = store.put("c".repeat(100));
+        context.putNodeOutput("n", "x", shared);
+        context.putNodeOutput("m", "x", shared.retain());
+        context.putNodeOutput("n", "x", "plain");
+        assertFalse(shared.isReleased(), "仍被另一处引用的句柄不应被释放");
+        context.putNodeOutput("m", "x", "plain");
+        assertTrue(shared.isReleased());
+    }
+
+    /**
+     * 原样输出输入句柄的节点。
+     */
+    static class PassThroughNode implements Node, BlobHandleAware {
+        @Override
+        public Map<String, Object> execute(Map<String, Object> inputs) {
+            return Map.of("doc", inputs.get("doc"));
+        }
+    }
+}
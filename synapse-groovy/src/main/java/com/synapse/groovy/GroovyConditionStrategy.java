@@ -0,0 +1,50 @@
+package com.synapse.groovy;
+
+import com.synapse.core.runtime.CompiledCondition;
+import com.synapse.core.runtime.ConditionEvaluator.EvaluationRoot;
+import com.synapse.core.runtime.ConditionStrategy;
+import com.synapse.core.state.ScopeContext;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Groovy Script 条件策略。
+ * <p>
+ * global / flow / nodes 作为顶层变量注入，例如 {@code flow.retry_count < 3 ? 'retry' : 'stop'}。
+ */
+public class GroovyConditionStrategy implements ConditionStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(GroovyConditionStrategy.class);
+
+    private final GroovyClassLoader classLoader = new GroovyClassLoader(GroovyConditionStrategy.class.getClassLoader());
+
+    @Override
+    public Object evaluate(String expression, ScopeContext context) {
+        return prepare(expression).evaluate(context);
+    }
+
+    @Override
+    public CompiledCondition prepare(String expression) {
+        // 编译一次脚本类；Script 实例持有 Binding，非线程安全，每次评估创建新实例
+        Class<?> scriptClass = classLoader.parseClass(expression);
+        return context -> {
+            EvaluationRoot root = new EvaluationRoot(context);
+
+            Binding binding = new Binding();
+            // 直接将 global, flow, nodes 作为顶层变量注入
+            binding.setVariable("global", root.getGlobal());
+            binding.setVariable("flow", root.getFlow());
+            binding.setVariable("nodes", root.getNodes());
+
+            try {
+                return InvokerHelper.createScript(scriptClass, binding).run();
+            } catch (Exception e) {
+                log.error("Groovy 执行错误: {}", expression, e);
+                throw e;
+            }
+        };
+    }
+}
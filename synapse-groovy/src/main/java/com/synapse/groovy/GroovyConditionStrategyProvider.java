@@ -0,0 +1,20 @@
+package com.synapse.groovy;
+
+import com.synapse.core.runtime.ConditionStrategy;
+import com.synapse.core.runtime.ConditionStrategyProvider;
+
+/**
+ * 通过 ServiceLoader 提供 GROOVY 条件类型。
+ */
+public class GroovyConditionStrategyProvider implements ConditionStrategyProvider {
+
+    @Override
+    public String name() {
+        return "groovy";
+    }
+
+    @Override
+    public ConditionStrategy create() {
+        return new GroovyConditionStrategy();
+    }
+}
@@ -0,0 +1,59 @@
+package com.synapse.groovy;
+
+import com.synapse.core.graph.EdgeDefinition;
+import com.synapse.core.runtime.ConditionEvaluator;
+import com.synapse.core.state.DefaultScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Groovy 条件策略测试（原 AdvancedConditionTest 中的 Groovy 部分）。
+ */
+class GroovyConditionStrategyTest {
+
+    // 策略经 ServiceLoader 从本模块加载
+    private final ConditionEvaluator evaluator = new ConditionEvaluator();
+
+    @Test
+    void testGroovyCondition_Math() {
+        DefaultScopeContext context = new DefaultScopeContext();
+        context.putFlow("retry_count", 2);
+
+        Map<String, String> mappings = Map.of(
+                "retry", "retry_node",
+                "stop", "end_node");
+
+        // Groovy: retry_count < 3 ? 'retry' : 'stop'
+        // 注意：EvaluationRoot 将 flow 暴露为顶层变量绑定
+        String result = evaluator.evaluate(
+                EdgeDefinition.ConditionType.GROOVY,
+                "flow.retry_count < 3 ? 'retry' : 'stop'",
+                mappings,
+                context);
+
+        assertEquals("retry_node", result);
+    }
+
+    @Test
+    void testGroovyCondition_ComplexLogic() {
+        DefaultScopeContext context = new DefaultScopeContext();
+        context.putFlow("user_level", "VIP");
+        context.putFlow("amount", 1000);
+
+        Map<String, String> mappings = Map.of(
+                "approve", "approve_node",
+                "reject", "reject_node");
+
+        // Groovy: (user_level == 'VIP' || amount < 500) ? 'approve' : 'reject'
+        String result = evaluator.evaluate(
+                EdgeDefinition.ConditionType.GROOVY,
+                "(flow.user_level == 'VIP' || flow.amount < 500) ? 'approve' : 'reject'",
+                mappings,
+                context);
+
+        assertEquals("approve_node", result);
+    }
+}
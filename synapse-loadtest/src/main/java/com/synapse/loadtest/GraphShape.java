@@ -0,0 +1,100 @@
+package com.synapse.loadtest;
+
+/**
+ * GraphShape 描述合成图的形状。
+ * <p>
+ * 合成图是一棵深度为 depth 的树：入口节点位于第 0 层，每个非叶节点有 fanOut 个子节点。
+ * 非叶节点的出边按 conditionalRatio 的比例为条件边（每次运行只路由到一个子节点），
+ * 其余为并行分叉（所有子节点同时运行）。
+ */
+public class GraphShape {
+
+    /**
+     * 树的层数（含入口层），默认 3。
+     */
+    private int depth = 3;
+
+    /**
+     * 每个非叶节点的子节点数，默认 2。
+     */
+    private int fanOut = 2;
+
+    /**
+     * 条件出边所占比例（0 ~ 1），默认 0.5。
+     */
+    private double conditionalRatio = 0.5;
+
+    /**
+     * 决定哪些节点使用条件出边的随机种子，相同种子生成相同的图。
+     */
+    private long seed = 42;
+
+    public GraphShape() {
+    }
+
+    public GraphShape(int depth, int fanOut, double conditionalRatio) {
+        setDepth(depth);
+        setFanOut(fanOut);
+        setConditionalRatio(conditionalRatio);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth 必须 >= 1: " + depth);
+        }
+        this.depth = depth;
+    }
+
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    public void setFanOut(int fanOut) {
+        if (fanOut < 1) {
+            throw new IllegalArgumentException("fanOut 必须 >= 1: " + fanOut);
+        }
+        this.fanOut = fanOut;
+    }
+
+    public double getConditionalRatio() {
+        return conditionalRatio;
+    }
+
+    public void setConditionalRatio(double conditionalRatio) {
+        if (conditionalRatio < 0 || conditionalRatio > 1) {
+            throw new IllegalArgumentException("conditionalRatio 必须位于 [0, 1]: " + conditionalRatio);
+        }
+        this.conditionalRatio = conditionalRatio;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * 图中的节点总数。
+     */
+    public long getNodeCount() {
+        long count = 0;
+        long level = 1;
+        for (int i = 0; i < depth; i++) {
+            count += level;
+            level *= fanOut;
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "GraphShape{depth=" + depth + ", fanOut=" + fanOut + ", conditionalRatio=" + conditionalRatio
+                + ", seed=" + seed + "}";
+    }
+}
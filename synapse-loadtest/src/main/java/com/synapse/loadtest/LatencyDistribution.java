@@ -0,0 +1,89 @@
+package com.synapse.loadtest;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 桩节点的延迟分布，模拟 I/O 密集型节点（模型调用、HTTP、数据库）的响应时间。
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * 抽取一次延迟（纳秒）。
+     */
+    long sampleNanos(Random random);
+
+    /**
+     * 固定延迟。
+     */
+    static LatencyDistribution fixed(long millis) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        return random -> nanos;
+    }
+
+    /**
+     * [minMillis, maxMillis] 上的均匀分布。
+     */
+    static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        if (minMillis > maxMillis) {
+            throw new IllegalArgumentException("均匀分布的下界大于上界: " + minMillis + " > " + maxMillis);
+        }
+        long min = TimeUnit.MILLISECONDS.toNanos(minMillis);
+        long span = TimeUnit.MILLISECONDS.toNanos(maxMillis) - min;
+        return random -> min + (span == 0 ? 0 : (long) (random.nextDouble() * span));
+    }
+
+    /**
+     * 均值为 meanMillis 的指数分布（无记忆的服务时间）。
+     */
+    static LatencyDistribution exponential(double meanMillis) {
+        double mean = meanMillis * 1_000_000.0;
+        return random -> (long) (-mean * Math.log(1 - random.nextDouble()));
+    }
+
+    /**
+     * 中位数为 medianMillis、对数标准差为 sigma 的对数正态分布（长尾的远程调用）。
+     */
+    static LatencyDistribution logNormal(double medianMillis, double sigma) {
+        double median = medianMillis * 1_000_000.0;
+        return random -> (long) (median * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    /**
+     * 解析命令行形式的延迟分布（单位毫秒）：
+     * <ul>
+     * <li>"fixed:20" / "20"</li>
+     * <li>"uniform:5-50"</li>
+     * <li>"exp:20"</li>
+     * <li>"lognormal:20,0.8"</li>
+     * </ul>
+     */
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().split(":", 2);
+        try {
+            if (parts.length == 1) {
+                return fixed(Long.parseLong(parts[0]));
+            }
+            String args = parts[1];
+            switch (parts[0].toLowerCase()) {
+                case "fixed":
+                    return fixed(Long.parseLong(args));
+                case "uniform": {
+                    String[] bounds = args.split("-", 2);
+                    return uniform(Long.parseLong(bounds[0]), Long.parseLong(bounds[1]));
+                }
+                case "exp":
+                    return exponential(Double.parseDouble(args));
+                case "lognormal": {
+                    String[] params = args.split(",", 2);
+                    return logNormal(Double.parseDouble(params[0]), Double.parseDouble(params[1]));
+                }
+                default:
+                    throw new IllegalArgumentException("未知的延迟分布: " + spec);
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("无效的延迟分布: " + spec, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.synapse.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * LatencyRecorder 记录运行延迟样本（纳秒）并计算百分位。
+ * <p>
+ * 保存全部样本而不做分桶近似：压测的样本量（每秒数百到数千次运行、持续数分钟）在内存中可以承受，
+ * 百分位因此是精确值。
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+
+    public synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    public synchronized int getCount() {
+        return size;
+    }
+
+    /**
+     * 按升序排列的样本副本。
+     */
+    public synchronized long[] sorted() {
+        long[] copy = Arrays.copyOf(samples, size);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    /**
+     * 有序样本的百分位（最近秩法），无样本时为 0。
+     *
+     * @param percentile 0 ~ 100
+     */
+    public static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+    }
+}
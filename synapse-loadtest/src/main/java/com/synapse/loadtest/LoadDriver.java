@@ -0,0 +1,230 @@
+package com.synapse.loadtest;
+
+import com.synapse.core.runtime.SynapseEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * LoadDriver 以开环方式向 SynapseEngine 施加负载：按目标速率在固定的计划时刻发起运行，
+ * 不等待前一次运行结束，因此引擎变慢时在途运行数上升，而不是发送速率下降。
+ * <p>
+ * 每次运行的延迟从计划发送时刻算起；压测期间定时采样堆占用与线程数。
+ * 在途运行数达到 maxOutstanding 时，新的运行不再发送并计为丢弃，防止压测本身耗尽内存。
+ */
+public class LoadDriver {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDriver.class);
+
+    /**
+     * 目标速率（每秒发起的运行数）。
+     */
+    private double targetRate = 100;
+
+    /**
+     * 发送阶段的时长（毫秒）。
+     */
+    private long durationMillis = 10_000;
+
+    /**
+     * 发送阶段结束后等待在途运行完成的最长时间（毫秒）。
+     */
+    private long drainTimeoutMillis = 30_000;
+
+    /**
+     * 在途运行数上限。
+     */
+    private int maxOutstanding = 10_000;
+
+    /**
+     * 堆与线程数的采样间隔（毫秒）。
+     */
+    private long sampleIntervalMillis = 100;
+
+    /**
+     * 每次运行的初始 flow 数据。
+     */
+    private Supplier<Map<String, Object>> flowData = Map::of;
+
+    public LoadDriver() {
+    }
+
+    public LoadDriver(double targetRate, long durationMillis) {
+        setTargetRate(targetRate);
+        setDurationMillis(durationMillis);
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public void setTargetRate(double targetRate) {
+        if (!(targetRate > 0)) {
+            throw new IllegalArgumentException("targetRate 必须 > 0: " + targetRate);
+        }
+        this.targetRate = targetRate;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        if (durationMillis <= 0) {
+            throw new IllegalArgumentException("durationMillis 必须 > 0: " + durationMillis);
+        }
+        this.durationMillis = durationMillis;
+    }
+
+    public long getDrainTimeoutMillis() {
+        return drainTimeoutMillis;
+    }
+
+    public void setDrainTimeoutMillis(long drainTimeoutMillis) {
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    public int getMaxOutstanding() {
+        return maxOutstanding;
+    }
+
+    public void setMaxOutstanding(int maxOutstanding) {
+        if (maxOutstanding < 1) {
+            throw new IllegalArgumentException("maxOutstanding 必须 >= 1: " + maxOutstanding);
+        }
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    public long getSampleIntervalMillis() {
+        return sampleIntervalMillis;
+    }
+
+    public void setSampleIntervalMillis(long sampleIntervalMillis) {
+        this.sampleIntervalMillis = sampleIntervalMillis;
+    }
+
+    public Supplier<Map<String, Object>> getFlowData() {
+        return flowData;
+    }
+
+    public void setFlowData(Supplier<Map<String, Object>> flowData) {
+        this.flowData = flowData;
+    }
+
+    /**
+     * 对引擎施加负载，直到发送阶段结束且在途运行完成（或等待超时）。
+     */
+    public LoadReport run(SynapseEngine engine) throws InterruptedException {
+        long intervalNanos = (long) (1e9 / targetRate);
+        long total = Math.max(1, (long) (targetRate * durationMillis / 1000.0));
+        LatencyRecorder latencies = new LatencyRecorder();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicInteger outstanding = new AtomicInteger();
+        Object drained = new Object();
+        long dropped = 0;
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        AtomicLong peakHeap = new AtomicLong();
+        AtomicInteger peakThreads = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "synapse-loadtest-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> {
+            peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+            peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+        }, 0, sampleIntervalMillis, TimeUnit.MILLISECONDS);
+
+        log.info("开始压测: 目标速率 {}/s，时长 {} ms，共 {} 次运行", targetRate, durationMillis, total);
+        long start = System.nanoTime();
+        try {
+            for (long i = 0; i < total; i++) {
+                long intended = start + i * intervalNanos;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (outstanding.get() >= maxOutstanding) {
+                    dropped++;
+                    continue;
+                }
+                outstanding.incrementAndGet();
+                CompletableFuture<?> run;
+                try {
+                    run = engine.executeAsync(Map.of(), flowData.get());
+                } catch (RuntimeException e) {
+                    run = CompletableFuture.failedFuture(e);
+                }
+                run.whenComplete((context, e) -> {
+                    long latency = System.nanoTime() - intended;
+                    if (e == null) {
+                        latencies.record(latency);
+                        completed.incrementAndGet();
+                    } else if (unwrap(e) instanceof RejectedExecutionException) {
+                        rejected.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                    if (outstanding.decrementAndGet() == 0) {
+                        synchronized (drained) {
+                            drained.notifyAll();
+                        }
+                    }
+                });
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+            synchronized (drained) {
+                long remaining;
+                while (outstanding.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(drained, remaining);
+                }
+            }
+            if (outstanding.get() > 0) {
+                log.warn("等待超时，仍有 {} 次运行未完成", outstanding.get());
+            }
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        LoadReport report = new LoadReport();
+        report.setTargetRate(targetRate);
+        report.setDurationNanos(System.nanoTime() - start);
+        report.setSent(total - dropped);
+        report.setCompleted(completed.get());
+        report.setFailed(failed.get());
+        report.setRejected(rejected.get());
+        report.setDropped(dropped);
+        report.setSortedLatencies(latencies.sorted());
+        long heap = memory.getHeapMemoryUsage().getUsed();
+        int threadCount = threads.getThreadCount();
+        report.setPeakHeapBytes(Math.max(peakHeap.get(), heap));
+        report.setFinalHeapBytes(heap);
+        report.setPeakThreads(Math.max(peakThreads.get(), threadCount));
+        report.setFinalThreads(threadCount);
+        log.info("压测结束:\n{}", report);
+        return report;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,180 @@
+package com.synapse.loadtest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoadReport 是一次压测的结果：吞吐、延迟百分位、失败与拒绝计数，以及压测期间的堆与线程峰值。
+ * <p>
+ * 延迟从每次运行的计划发送时刻算起（而非实际发送时刻），发送端落后时的排队时间同样计入，
+ * 避免协调遗漏（coordinated omission）使百分位偏乐观。
+ */
+public class LoadReport {
+
+    private double targetRate;
+    private long durationNanos;
+    private long sent;
+    private long completed;
+    private long failed;
+    private long rejected;
+    private long dropped;
+    private long[] sortedLatencies = new long[0];
+    private long peakHeapBytes;
+    private long finalHeapBytes;
+    private int peakThreads;
+    private int finalThreads;
+
+    public LoadReport() {
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public void setTargetRate(double targetRate) {
+        this.targetRate = targetRate;
+    }
+
+    /**
+     * 从第一次发送到最后一次运行结束的时长。
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public void setDurationNanos(long durationNanos) {
+        this.durationNanos = durationNanos;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public void setSent(long sent) {
+        this.sent = sent;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    /**
+     * 运行失败（节点故障等）的次数，不含准入拒绝。
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * 被引擎准入控制拒绝的次数。
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * 在途运行达到驱动上限而未发送的次数。
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    /**
+     * 等待超时时仍未完成的运行数。
+     */
+    public long getUnfinished() {
+        return sent - completed - failed - rejected;
+    }
+
+    /**
+     * 成功运行的延迟（纳秒，升序）。
+     */
+    public long[] getSortedLatencies() {
+        return sortedLatencies;
+    }
+
+    public void setSortedLatencies(long[] sortedLatencies) {
+        this.sortedLatencies = sortedLatencies;
+    }
+
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public void setPeakHeapBytes(long peakHeapBytes) {
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    public long getFinalHeapBytes() {
+        return finalHeapBytes;
+    }
+
+    public void setFinalHeapBytes(long finalHeapBytes) {
+        this.finalHeapBytes = finalHeapBytes;
+    }
+
+    public int getPeakThreads() {
+        return peakThreads;
+    }
+
+    public void setPeakThreads(int peakThreads) {
+        this.peakThreads = peakThreads;
+    }
+
+    public int getFinalThreads() {
+        return finalThreads;
+    }
+
+    public void setFinalThreads(int finalThreads) {
+        this.finalThreads = finalThreads;
+    }
+
+    /**
+     * 实际吞吐（每秒成功完成的运行数）。
+     */
+    public double getThroughput() {
+        return durationNanos == 0 ? 0 : completed * 1e9 / durationNanos;
+    }
+
+    /**
+     * 成功运行延迟的百分位（纳秒）。
+     *
+     * @param percentile 0 ~ 100
+     */
+    public long getLatencyNanos(double percentile) {
+        return LatencyRecorder.percentile(sortedLatencies, percentile);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("目标速率 %.1f/s，耗时 %.2f s，发送 %d，成功 %d，失败 %d，拒绝 %d，丢弃 %d，未完成 %d%n",
+                targetRate, durationNanos / 1e9, sent, completed, failed, rejected, dropped, getUnfinished()));
+        sb.append(String.format("吞吐 %.1f/s%n", getThroughput()));
+        sb.append(String.format("延迟(ms) p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                millis(getLatencyNanos(50)), millis(getLatencyNanos(90)), millis(getLatencyNanos(99)),
+                millis(getLatencyNanos(99.9)), millis(getLatencyNanos(100))));
+        sb.append(String.format("堆 峰值 %d MB / 结束 %d MB，线程 峰值 %d / 结束 %d",
+                peakHeapBytes >> 20, finalHeapBytes >> 20, peakThreads, finalThreads));
+        return sb.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,74 @@
+package com.synapse.loadtest;
+
+import com.synapse.core.graph.Graph;
+import com.synapse.core.runtime.AdmissionController;
+import com.synapse.core.runtime.EngineOptions;
+import com.synapse.core.runtime.SynapseEngine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 命令行压测入口。参数均为 --key=value 形式，均可省略：
+ * <pre>
+ * --depth=3            合成图层数
+ * --fanOut=2           每个非叶节点的子节点数
+ * --conditional=0.5    条件出边比例
+ * --seed=42            图形状的随机种子
+ * --latency=exp:20     桩节点延迟分布（毫秒），见 {@link LatencyDistribution#parse(String)}
+ * --failure=0.0        桩节点故障率
+ * --rate=100           目标速率（运行/秒）
+ * --duration=10000     发送时长（毫秒）
+ * --maxOutstanding=10000 驱动的在途运行上限
+ * --maxInFlight=0      引擎准入控制的并发运行上限，0 表示不限制
+ * --warmup=0           正式压测前以相同速率预热的时长（毫秒）
+ * </pre>
+ * 例如：java -cp ... com.synapse.loadtest.LoadTestMain --depth=4 --fanOut=3 --rate=500 --latency=lognormal:20,0.8
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> params = parse(args);
+        GraphShape shape = new GraphShape(
+                Integer.parseInt(params.getOrDefault("depth", "3")),
+                Integer.parseInt(params.getOrDefault("fanOut", "2")),
+                Double.parseDouble(params.getOrDefault("conditional", "0.5")));
+        shape.setSeed(Long.parseLong(params.getOrDefault("seed", "42")));
+        LatencyDistribution latency = LatencyDistribution.parse(params.getOrDefault("latency", "exp:20"));
+        double failureRate = Double.parseDouble(params.getOrDefault("failure", "0"));
+
+        EngineOptions options = new EngineOptions();
+        int maxInFlight = Integer.parseInt(params.getOrDefault("maxInFlight", "0"));
+        if (maxInFlight > 0) {
+            options.setAdmissionController(new AdmissionController(maxInFlight, maxInFlight));
+        }
+        Graph graph = SyntheticGraphGenerator.generate(shape);
+        SynapseEngine engine = new SynapseEngine(graph, new StubNodeFactory(shape, latency, failureRate), options);
+
+        double rate = Double.parseDouble(params.getOrDefault("rate", "100"));
+        long warmup = Long.parseLong(params.getOrDefault("warmup", "0"));
+        if (warmup > 0) {
+            new LoadDriver(rate, warmup).run(engine);
+        }
+        LoadDriver driver = new LoadDriver(rate, Long.parseLong(params.getOrDefault("duration", "10000")));
+        driver.setMaxOutstanding(Integer.parseInt(params.getOrDefault("maxOutstanding", "10000")));
+
+        System.out.println(shape + "，节点数 " + shape.getNodeCount());
+        System.out.println(driver.run(engine));
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> params = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --key=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            params.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return params;
+    }
+}
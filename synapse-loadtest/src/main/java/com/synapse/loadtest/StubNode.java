@@ -0,0 +1,55 @@
+package com.synapse.loadtest;
+
+import com.synapse.core.node.AsyncNode;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StubNode 是注入延迟与故障的桩节点：按延迟分布异步等待后完成，不占用线程，行为接近 I/O 密集型节点。
+ * <p>
+ * 输出 value（输入 in 加 1，入口节点从 1 开始）与 route（随机选择的子节点路由值 "b0" ~ "b{fanOut-1}"）。
+ * 按 failureRate 的概率以 IllegalStateException 失败。
+ */
+public class StubNode implements AsyncNode {
+
+    private final LatencyDistribution latency;
+    private final double failureRate;
+    private final int fanOut;
+
+    public StubNode(LatencyDistribution latency, double failureRate, int fanOut) {
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("failureRate 必须位于 [0, 1]: " + failureRate);
+        }
+        this.latency = latency;
+        this.failureRate = failureRate;
+        this.fanOut = fanOut;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> executeAsync(Map<String, Object> inputs) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = Math.max(0, latency.sampleNanos(random));
+        boolean fail = failureRate > 0 && random.nextDouble() < failureRate;
+        Object in = inputs.get(SyntheticGraphGenerator.INPUT_KEY);
+        long value = (in instanceof Number number ? number.longValue() : 0) + 1;
+        String route = SyntheticGraphGenerator.routeKey(random.nextInt(fanOut));
+
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        Runnable complete = () -> {
+            if (fail) {
+                result.completeExceptionally(new IllegalStateException("注入的节点故障"));
+            } else {
+                result.complete(Map.of(SyntheticGraphGenerator.VALUE_KEY, value, SyntheticGraphGenerator.ROUTE_KEY, route));
+            }
+        };
+        if (delay == 0) {
+            complete.run();
+        } else {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(complete);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+package com.synapse.loadtest;
+
+import com.synapse.core.node.Node;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * StubNodeFactory 为合成图的各节点类型创建 {@link StubNode}，可作为 SynapseEngine 的节点工厂。
+ * <p>
+ * 所有类型默认使用同一延迟分布与故障率，可按类型（即按层，见 {@link SyntheticGraphGenerator#nodeType(int)}）覆盖。
+ */
+public class StubNodeFactory implements Function<String, Node> {
+
+    private final int fanOut;
+    private final LatencyDistribution defaultLatency;
+    private final double defaultFailureRate;
+    private final Map<String, LatencyDistribution> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Double> failureRates = new ConcurrentHashMap<>();
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+
+    public StubNodeFactory(GraphShape shape, LatencyDistribution defaultLatency, double defaultFailureRate) {
+        this.fanOut = shape.getFanOut();
+        this.defaultLatency = defaultLatency;
+        this.defaultFailureRate = defaultFailureRate;
+    }
+
+    /**
+     * 覆盖某一节点类型的延迟分布。
+     */
+    public StubNodeFactory setLatency(String nodeType, LatencyDistribution latency) {
+        latencies.put(nodeType, latency);
+        nodes.remove(nodeType);
+        return this;
+    }
+
+    /**
+     * 覆盖某一节点类型的故障率。
+     */
+    public StubNodeFactory setFailureRate(String nodeType, double failureRate) {
+        failureRates.put(nodeType, failureRate);
+        nodes.remove(nodeType);
+        return this;
+    }
+
+    @Override
+    public Node apply(String nodeType) {
+        // 桩节点无状态，每种类型复用同一实例
+        return nodes.computeIfAbsent(nodeType, type -> new StubNode(
+                latencies.getOrDefault(type, defaultLatency),
+                failureRates.getOrDefault(type, defaultFailureRate),
+                fanOut));
+    }
+}
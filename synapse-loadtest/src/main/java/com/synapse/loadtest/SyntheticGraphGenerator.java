@@ -0,0 +1,92 @@
+package com.synapse.loadtest;
+
+import com.synapse.core.graph.EdgeDefinition;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.graph.NodeDefinition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * SyntheticGraphGenerator 按 {@link GraphShape} 生成合成图。
+ * <p>
+ * 节点 ID 为 "n{层}_{序号}"，节点类型为 "Level{层}"（可按层配置不同的延迟分布，见 {@link StubNodeFactory}）。
+ * 除入口节点外，每个节点以父节点的输出 value 作为输入 in，使压测同时覆盖输入映射与输出分发。
+ * 条件出边为 KV 条件 "nodes.{节点}.route"，映射 "b0" ~ "b{fanOut-1}" 到各个子节点。
+ */
+public final class SyntheticGraphGenerator {
+
+    /**
+     * 桩节点写出的路由键，条件出边据此选择子节点。
+     */
+    public static final String ROUTE_KEY = "route";
+
+    /**
+     * 桩节点写出的值键，子节点以其作为输入。
+     */
+    public static final String VALUE_KEY = "value";
+
+    /**
+     * 子节点读取父节点输出的输入键。
+     */
+    public static final String INPUT_KEY = "in";
+
+    private SyntheticGraphGenerator() {
+    }
+
+    public static Graph generate(GraphShape shape) {
+        Graph graph = new Graph("synthetic_d" + shape.getDepth() + "_f" + shape.getFanOut());
+        Random random = new Random(shape.getSeed());
+
+        List<String> level = List.of(addNode(graph, 0, 0, null));
+        graph.addEdge(Graph.START, level.get(0));
+        for (int depth = 1; depth < shape.getDepth(); depth++) {
+            List<String> next = new ArrayList<>();
+            for (String parent : level) {
+                List<String> children = new ArrayList<>();
+                for (int i = 0; i < shape.getFanOut(); i++) {
+                    children.add(addNode(graph, depth, next.size(), parent));
+                    next.add(children.get(children.size() - 1));
+                }
+                if (random.nextDouble() < shape.getConditionalRatio()) {
+                    Map<String, String> mappings = new LinkedHashMap<>();
+                    for (int i = 0; i < children.size(); i++) {
+                        mappings.put(routeKey(i), children.get(i));
+                    }
+                    graph.addEdge(new EdgeDefinition(parent, "nodes." + parent + "." + ROUTE_KEY, mappings));
+                } else {
+                    children.forEach(child -> graph.addEdge(parent, child));
+                }
+            }
+            level = next;
+        }
+        return graph;
+    }
+
+    /**
+     * 条件出边上第 index 个子节点对应的路由值。
+     */
+    public static String routeKey(int index) {
+        return "b" + index;
+    }
+
+    /**
+     * 第 level 层节点的类型。
+     */
+    public static String nodeType(int level) {
+        return "Level" + level;
+    }
+
+    private static String addNode(Graph graph, int level, int index, String parent) {
+        String id = "n" + level + "_" + index;
+        Map<String, String> inputs = new LinkedHashMap<>();
+        if (parent != null) {
+            inputs.put(INPUT_KEY, "nodes." + parent + "." + VALUE_KEY);
+        }
+        graph.addNode(new NodeDefinition(id, nodeType(level), inputs, new ArrayList<>()));
+        return id;
+    }
+}
@@ -0,0 +1,92 @@
+package com.synapse.loadtest;
+
+import com.synapse.core.graph.EdgeDefinition;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.runtime.SynapseEngine;
+import com.synapse.core.state.ScopeContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 合成图生成、延迟分布与开环负载驱动测试。
+ */
+class LoadDriverTest {
+
+    @Test
+    void testGeneratedGraphFollowsShape() throws Exception {
+        GraphShape forkOnly = new GraphShape(3, 2, 0);
+        Graph forks = SyntheticGraphGenerator.generate(forkOnly);
+        assertEquals(7, forks.getNodes().size());
+        assertEquals(7, forkOnly.getNodeCount());
+        assertEquals(7, forks.getEdges().size(), "入口边 + 6 条分叉边");
+        assertTrue(forks.getEdges().stream().noneMatch(EdgeDefinition::isConditional));
+
+        GraphShape routedOnly = new GraphShape(3, 2, 1);
+        Graph routed = SyntheticGraphGenerator.generate(routedOnly);
+        assertEquals(1 + 3, routed.getEdges().size(), "入口边 + 每个非叶节点一条条件边");
+
+        // 全分叉时每个节点都运行一次，值沿路径逐层加 1；全条件时只运行一条路径
+        StubNodeFactory nodes = new StubNodeFactory(forkOnly, LatencyDistribution.fixed(1), 0);
+        ScopeContext all = new SynapseEngine(forks, nodes).executeAsync(Map.of(), Map.of()).get(5, TimeUnit.SECONDS);
+        assertEquals(3L, all.getNodeOutput("n2_3", SyntheticGraphGenerator.VALUE_KEY).orElse(null));
+        ScopeContext one = new SynapseEngine(routed, new StubNodeFactory(routedOnly, LatencyDistribution.fixed(1), 0))
+                .executeAsync(Map.of(), Map.of()).get(5, TimeUnit.SECONDS);
+        long leaves = routed.getNodes().stream()
+                .filter(node -> node.getId().startsWith("n2_"))
+                .filter(node -> one.getNodeOutput(node.getId(), SyntheticGraphGenerator.VALUE_KEY).isPresent())
+                .count();
+        assertEquals(1, leaves);
+    }
+
+    @Test
+    void testLatencyDistributions() {
+        Random random = new Random(7);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), LatencyDistribution.parse("20").sampleNanos(random));
+        LatencyDistribution uniform = LatencyDistribution.parse("uniform:5-10");
+        double expSum = 0;
+        LatencyDistribution exp = LatencyDistribution.parse("exp:10");
+        for (int i = 0; i < 10_000; i++) {
+            long sample = uniform.sampleNanos(random);
+            assertTrue(sample >= 5_000_000 && sample <= 10_000_000, String.valueOf(sample));
+            expSum += exp.sampleNanos(random);
+        }
+        assertEquals(10.0, expSum / 10_000 / 1e6, 1.0, "指数分布的均值");
+        assertTrue(LatencyDistribution.parse("lognormal:20,0.5").sampleNanos(random) > 0);
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("gamma:3"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("uniform:9"));
+    }
+
+    @Test
+    void testOpenLoopDriverReportsLatencyAndFailures() throws Exception {
+        GraphShape shape = new GraphShape(3, 2, 1);
+        StubNodeFactory nodes = new StubNodeFactory(shape, LatencyDistribution.fixed(5), 0);
+        SynapseEngine engine = new SynapseEngine(SyntheticGraphGenerator.generate(shape), nodes);
+
+        LoadReport report = new LoadDriver(200, 500).run(engine);
+        assertEquals(100, report.getSent());
+        assertEquals(100, report.getCompleted());
+        assertEquals(0, report.getFailed() + report.getRejected() + report.getDropped() + report.getUnfinished());
+        // 一条路径上 3 个节点，每个 5ms
+        assertTrue(report.getLatencyNanos(50) >= TimeUnit.MILLISECONDS.toNanos(15), report.toString());
+        assertTrue(report.getLatencyNanos(50) <= report.getLatencyNanos(99));
+        assertTrue(report.getThroughput() > 0);
+        assertTrue(report.getPeakHeapBytes() > 0 && report.getPeakThreads() > 0);
+        assertTrue(report.toString().contains("p99"), report.toString());
+
+        // 叶节点全部失败：每次运行都失败；在途上限为 1 时多数运行被丢弃
+        nodes.setFailureRate(SyntheticGraphGenerator.nodeType(2), 1.0);
+        LoadDriver bounded = new LoadDriver(200, 250);
+        LoadReport failing = new LoadDriver(200, 250).run(engine);
+        assertEquals(50, failing.getFailed());
+        assertEquals(0, failing.getCompleted());
+        bounded.setMaxOutstanding(1);
+        LoadReport dropping = bounded.run(engine);
+        assertTrue(dropping.getDropped() > 0, dropping.toString());
+        assertEquals(50, dropping.getSent() + dropping.getDropped());
+    }
+}
@@ -0,0 +1,50 @@
+package com.synapse.spel;
+
+import com.synapse.core.runtime.CompiledCondition;
+import com.synapse.core.runtime.ConditionEvaluator.EvaluationRoot;
+import com.synapse.core.runtime.ConditionStrategy;
+import com.synapse.core.state.ScopeContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * Spring Expression Language (SpEL) 条件策略。
+ * <p>
+ * 根对象为 {@link EvaluationRoot}，可直接访问 global / flow / nodes，例如 {@code flow['score'] > 60}。
+ */
+public class SpelConditionStrategy implements ConditionStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(SpelConditionStrategy.class);
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+
+    @Override
+    public Object evaluate(String expression, ScopeContext context) {
+        return prepare(expression).evaluate(context);
+    }
+
+    @Override
+    public CompiledCondition prepare(String expression) {
+        // 解析一次，Expression 可在多线程间共享
+        Expression exp = parser.parseExpression(expression);
+        return context -> {
+            // EvaluationRoot 提供类似 {flow: {...}, global: {...}} 的结构
+            EvaluationRoot root = new EvaluationRoot(context);
+
+            StandardEvaluationContext evalContext = new StandardEvaluationContext(root);
+            // 也可以把 context 暴露为 #context
+            evalContext.setVariable("context", context);
+
+            try {
+                return exp.getValue(evalContext);
+            } catch (Exception e) {
+                log.error("SpEL 解析错误: {}", expression, e);
+                throw e;
+            }
+        };
+    }
+}
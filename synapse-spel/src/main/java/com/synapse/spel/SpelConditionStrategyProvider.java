@@ -0,0 +1,20 @@
+package com.synapse.spel;
+
+import com.synapse.core.runtime.ConditionStrategy;
+import com.synapse.core.runtime.ConditionStrategyProvider;
+
+/**
+ * 通过 ServiceLoader 提供 SPEL 条件类型。
+ */
+public class SpelConditionStrategyProvider implements ConditionStrategyProvider {
+
+    @Override
+    public String name() {
+        return "spel";
+    }
+
+    @Override
+    public ConditionStrategy create() {
+        return new SpelConditionStrategy();
+    }
+}
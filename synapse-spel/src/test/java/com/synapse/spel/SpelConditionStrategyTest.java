@@ -1,6 +1,10 @@
-package com.synapse.core.runtime;
+package com.synapse.spel;
 
+import com.synapse.core.config.YamlGraphBuilder;
 import com.synapse.core.graph.EdgeDefinition;
+import com.synapse.core.graph.Graph;
+import com.synapse.core.runtime.ConditionEvaluator;
+import com.synapse.core.runtime.SynapseEngine;
 import com.synapse.core.state.DefaultScopeContext;
 import org.junit.jupiter.api.Test;
 
@@ -9,10 +13,11 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
- * 高级条件评估测试 (SpEL & Groovy)。
+ * SpEL 条件策略测试（原 AdvancedConditionTest 中的 SpEL 部分）。
  */
-class AdvancedConditionTest {
+class SpelConditionStrategyTest {
 
+    // 策略经 ServiceLoader 从本模块加载
     private final ConditionEvaluator evaluator = new ConditionEvaluator();
 
     @Test
@@ -54,46 +59,6 @@ class AdvancedConditionTest {
         assertEquals("error_handler", result);
     }
 
-    @Test
-    void testGroovyCondition_Math() {
-        DefaultScopeContext context = new DefaultScopeContext();
-        context.putFlow("retry_count", 2);
-
-        Map<String, String> mappings = Map.of(
-                "retry", "retry_node",
-                "stop", "end_node");
-
-        // Groovy: retry_count < 3 ? 'retry' : 'stop'
-        // 注意：EvaluationRoot 将 flow 暴露为顶层变量绑定
-        String result = evaluator.evaluate(
-                EdgeDefinition.ConditionType.GROOVY,
-                "flow.retry_count < 3 ? 'retry' : 'stop'",
-                mappings,
-                context);
-
-        assertEquals("retry_node", result);
-    }
-
-    @Test
-    void testGroovyCondition_ComplexLogic() {
-        DefaultScopeContext context = new DefaultScopeContext();
-        context.putFlow("user_level", "VIP");
-        context.putFlow("amount", 1000);
-
-        Map<String, String> mappings = Map.of(
-                "approve", "approve_node",
-                "reject", "reject_node");
-
-        // Groovy: (user_level == 'VIP' || amount < 500) ? 'approve' : 'reject'
-        String result = evaluator.evaluate(
-                EdgeDefinition.ConditionType.GROOVY,
-                "(flow.user_level == 'VIP' || flow.amount < 500) ? 'approve' : 'reject'",
-                mappings,
-                context);
-
-        assertEquals("approve_node", result);
-    }
-
     @Test
     void testNodeOutputAccess() {
         DefaultScopeContext context = new DefaultScopeContext();
@@ -117,4 +82,23 @@ class AdvancedConditionTest {
 
         assertEquals("step2", result);
     }
+
+    @Test
+    void testInvalidExpressionFailsAtEngineConstruction() throws Exception {
+        Graph graph = new YamlGraphBuilder().build("""
+                name: invalid_spel
+                nodes:
+                  - id: a
+                    type: A
+                edges:
+                  - source: __start__
+                    target: a
+                  - source: a
+                    conditionType: spel
+                    condition: "flow['score'] >"
+                    mappings:
+                      true: __end__
+                """);
+        assertThrows(IllegalStateException.class, () -> new SynapseEngine(graph, type -> inputs -> Map.of()));
+    }
 }